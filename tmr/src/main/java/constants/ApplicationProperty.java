@@ -0,0 +1,83 @@
+package constants;
+
+public class ApplicationProperty {
+
+    // private constructor
+    private ApplicationProperty() {
+    }
+
+    // name of the system property selecting the repository implementation, and
+    // the supported values
+    public static final String REPOSITORY_TYPE = "tmr.repository.type";
+    public static final String REPOSITORY_TYPE_MEMORY = "memory";
+    public static final String REPOSITORY_TYPE_WRITE_AHEAD_LOG = "wal";
+    public static final String REPOSITORY_TYPE_MEMORY_MAPPED = "mapped";
+    public static final String REPOSITORY_TYPE_LOG_STRUCTURED = "lsm";
+    public static final String REPOSITORY_TYPE_COLUMNAR = "columnar";
+    public static final String REPOSITORY_TYPE_SHARDED = "sharded";
+
+    // name of the system property selecting the generator of the ids of new tasks,
+    // and the supported values
+    public static final String TASK_ID_GENERATOR = "tmr.task.id.generator";
+    public static final String TASK_ID_GENERATOR_TIME_ORDERED = "time-ordered";
+    public static final String TASK_ID_GENERATOR_RANDOM = "random";
+
+    // name of the system property with the directory in which persistent
+    // repositories store their files, and it's default value
+    public static final String DATA_DIRECTORY = "tmr.data.directory";
+    public static final String DEFAULT_DATA_DIRECTORY = System.getProperty("user.home") + "/tmr-data";
+
+    // names of the system properties with the interval in seconds between the
+    // checkpoints of persistent repositories (0 to disable them) and the number of
+    // checkpoints after which a full snapshot is written instead of a delta, and
+    // their default values
+    public static final String CHECKPOINT_INTERVAL_SECONDS = "tmr.checkpoint.interval.seconds";
+    public static final long DEFAULT_CHECKPOINT_INTERVAL_SECONDS = 60;
+    public static final String CHECKPOINTS_PER_SNAPSHOT = "tmr.checkpoint.snapshot.interval";
+    public static final int DEFAULT_CHECKPOINTS_PER_SNAPSHOT = 10;
+
+    // name of the system property with the number of tasks after which the
+    // log-structured repository flushes it's memtable into a table file, and it's
+    // default value
+    public static final String MEMTABLE_LIMIT = "tmr.memtable.limit";
+    public static final int DEFAULT_MEMTABLE_LIMIT = 16 * 1024;
+
+    // name of the system property selecting if the columnar repository stores the
+    // titles and descriptions off the heap, and it's default value
+    public static final String COLUMNAR_TEXT_OFF_HEAP = "tmr.columnar.text.off.heap";
+    public static final String DEFAULT_COLUMNAR_TEXT_OFF_HEAP = "true";
+
+    // name of the system property with the number of shards of the sharded
+    // repository, and it's default value
+    public static final String SHARD_COUNT = "tmr.shard.count";
+    public static final int DEFAULT_SHARD_COUNT = Runtime.getRuntime().availableProcessors();
+
+    // name of the system property with the number of tasks for which the Bloom
+    // filter of the ids of the stored tasks is sized (0 to disable the filter), and
+    // it's default value
+    public static final String BLOOM_FILTER_EXPECTED_TASKS = "tmr.bloom.filter.expected.tasks";
+    public static final long DEFAULT_BLOOM_FILTER_EXPECTED_TASKS = 0;
+
+    // name of the system property with the number of tasks cached in front of the
+    // selected repository (0 to disable the cache), and it's default value
+    public static final String CACHE_SIZE = "tmr.cache.size";
+    public static final int DEFAULT_CACHE_SIZE = 0;
+
+    // name of the system property with the number of mutations waiting at most
+    // for the single writer thread which applies all mutations of the repository
+    // (0 to let the request threads apply them), and it's default value
+    public static final String SINGLE_WRITER_BUFFER_SIZE = "tmr.single.writer.buffer.size";
+    public static final int DEFAULT_SINGLE_WRITER_BUFFER_SIZE = 0;
+
+    // names of the system properties with the time in seconds after which the
+    // in-memory repository removes deleted tasks, the number of deleted tasks
+    // examined at most by a single run of the removal (0 to keep deleted tasks
+    // forever) and the interval in seconds between the runs, and their default
+    // values
+    public static final String TOMBSTONE_RETENTION_SECONDS = "tmr.tombstone.retention.seconds";
+    public static final long DEFAULT_TOMBSTONE_RETENTION_SECONDS = 3600;
+    public static final String TOMBSTONE_REAPER_BUDGET = "tmr.tombstone.reaper.budget";
+    public static final int DEFAULT_TOMBSTONE_REAPER_BUDGET = 10_000;
+    public static final String TOMBSTONE_REAPER_INTERVAL_SECONDS = "tmr.tombstone.reaper.interval.seconds";
+    public static final long DEFAULT_TOMBSTONE_REAPER_INTERVAL_SECONDS = 60;
+}
@@ -14,4 +14,12 @@ public class ErrorMessage {
     public static final String EMPTY_REQUEST_BODY_NOT_VALID = "AN EMPTY REQUEST BODY IS NOT VALID";
     public static final String TASK_TITLE_CAN_NOT_BE_EMPTY = "TASK TITLE CAN'T BE NULL OR EMPTY";
     public static final String TASK_DESCRIPTION_CAN_NOT_BE_EMPTY = "TASK DESCRIPTION CAN'T BE NULL OR EMPTY";
+    public static final String INVALID_PAGE_LIMIT = "PAGE LIMIT MUST BE A NUMBER BETWEEN 1 AND 1000: ";
+    public static final String INVALID_PAGE_CURSOR = "INVALID PAGE CURSOR: ";
+    public static final String INVALID_INTEGER_REQUEST_PARAMETER = "REQUEST PARAMETER MUST BE A NUMBER: ";
+    public static final String TASK_DATA_COULD_NOT_BE_PERSISTED = "TASK DATA COULD NOT BE PERSISTED";
+    public static final String TASK_DATA_COULD_NOT_BE_LOADED = "TASK DATA COULD NOT BE LOADED: ";
+    public static final String UNKNOWN_REPOSITORY_TYPE = "UNKNOWN REPOSITORY TYPE: ";
+    public static final String UNKNOWN_TASK_ID_GENERATOR = "UNKNOWN TASK ID GENERATOR: ";
+    public static final String REPOSITORY_CLOSED = "THE REPOSITORY HAS BEEN CLOSED";
 }
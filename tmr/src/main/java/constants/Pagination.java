@@ -0,0 +1,17 @@
+package constants;
+
+public class Pagination {
+
+    // private constructor
+    private Pagination() {
+    }
+
+    // names of the request parameters used for cursor based pagination
+    public static final String LIMIT_REQUEST_PARAMETER = "limit";
+    public static final String AFTER_REQUEST_PARAMETER = "after";
+
+    // number of tasks to be returned in a page if no limit is provided, and the
+    // maximum number of tasks which can be requested in a single page
+    public static final int DEFAULT_PAGE_LIMIT = 100;
+    public static final int MAX_PAGE_LIMIT = 1000;
+}
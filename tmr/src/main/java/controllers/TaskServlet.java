@@ -5,10 +5,12 @@ import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 
 import constants.ErrorMessage;
+import constants.Pagination;
 import dtos.request.TaskPatchRequestDTO;
 import dtos.request.TaskPostRequestDTO;
 import dtos.response.TaskDataResponseDTO;
 import exceptions.BadRequestException;
+import exceptions.DataPersistenceException;
 import exceptions.ResourceNotFoundException;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -36,10 +38,18 @@ public class TaskServlet extends HttpServlet {
 
         try {
             // check if no path information is provided along with the request
-            if (CommonServletUtility.isRequestPathInformationBlank(req)) {
+            if (CommonServletUtility.isRequestPathInformationBlank(req)
+                    && CommonServletUtility.isPaginatedRequest(req)) {
                 // build success response with the result from calling the service function to
-                // get list of all available tasks
-                CommonServletUtility.buildSuccessResponse(resp, 200, taskService.getAllTasks());
+                // get the requested page of tasks
+                CommonServletUtility.buildSuccessResponse(resp, 200,
+                        taskService.getTasksPage(req.getParameter(Pagination.AFTER_REQUEST_PARAMETER),
+                                CommonServletUtility.getIntegerRequestParameter(req,
+                                        Pagination.LIMIT_REQUEST_PARAMETER, Pagination.DEFAULT_PAGE_LIMIT)));
+            } else if (CommonServletUtility.isRequestPathInformationBlank(req)) {
+                // build streaming success response with the result from calling the service
+                // function to get a stream of all available tasks
+                CommonServletUtility.buildStreamingSuccessResponse(resp, 200, taskService.streamAllTasks());
             } else {
                 // find task object with given id and build success response with the existing
                 // task data
@@ -47,7 +57,7 @@ public class TaskServlet extends HttpServlet {
                         taskService
                                 .getTaskById(CommonServletUtility.getResourceIdFromRequestPathInformation(req)));
             }
-        } catch (ResourceNotFoundException | BadRequestException e) {
+        } catch (ResourceNotFoundException | BadRequestException | DataPersistenceException e) {
             // call exception handler method
             CommonServletUtility.buildApplicationExceptionResponse(e, resp);
         }
@@ -76,7 +86,7 @@ public class TaskServlet extends HttpServlet {
                 throw new ResourceNotFoundException(ErrorMessage.INVALID_REQUEST_URL);
             }
         } catch (JsonSyntaxException | JsonIOException | IOException
-                | BadRequestException | ResourceNotFoundException e) {
+                | BadRequestException | ResourceNotFoundException | DataPersistenceException e) {
             // call exception handler method
             CommonServletUtility.buildApplicationExceptionResponse(e, resp);
         }
@@ -99,7 +109,7 @@ public class TaskServlet extends HttpServlet {
             CommonServletUtility.buildSuccessResponse(resp, 200,
                     ServiceFactory.getTaskServiceInstance()
                             .deleteTaskById(CommonServletUtility.getResourceIdFromRequestPathInformation(req)));
-        } catch (BadRequestException | ResourceNotFoundException e) {
+        } catch (BadRequestException | ResourceNotFoundException | DataPersistenceException e) {
             // call exception handler method
             CommonServletUtility.buildApplicationExceptionResponse(e, resp);
         }
@@ -130,7 +140,7 @@ public class TaskServlet extends HttpServlet {
                             CommonServletUtility.getResourceIdFromRequestPathInformation(req),
                             patchRequestDTO));
         } catch (BadRequestException | JsonSyntaxException | JsonIOException | IOException
-                | ResourceNotFoundException e) {
+                | ResourceNotFoundException | DataPersistenceException e) {
             // call exception handler method
             CommonServletUtility.buildApplicationExceptionResponse(e, resp);
         }
@@ -0,0 +1,89 @@
+package dtos.codecs;
+
+import java.io.IOException;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import dtos.generic.GenericErrorResponseDTO;
+import dtos.generic.GenericResponseDTO;
+import dtos.request.TaskPatchRequestDTO;
+import dtos.request.TaskPostRequestDTO;
+import dtos.response.TaskDataResponseDTO;
+import dtos.response.TaskPageResponseDTO;
+
+/**
+ * factory of the codecs which read and write the dtos without reflection,
+ * registered with the Gson instance shared by all requests. Every codec reads
+ * and writes the attributes of it's dto by their serialized names in the order
+ * of their declaration, so that it produces the same JSON as the reflective
+ * adapters of Gson, and leaves all other types to Gson.
+ */
+public class DTOCodecFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        // return the codec of the given type if it is a dto
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == TaskPostRequestDTO.class) {
+            return (TypeAdapter<T>) new TaskPostRequestDTOCodec();
+        } else if (rawType == TaskPatchRequestDTO.class) {
+            return (TypeAdapter<T>) new TaskPatchRequestDTOCodec();
+        } else if (rawType == TaskDataResponseDTO.class) {
+            return (TypeAdapter<T>) new TaskDataResponseDTOCodec();
+        } else if (rawType == TaskPageResponseDTO.class) {
+            return (TypeAdapter<T>) new TaskPageResponseDTOCodec(gson.getAdapter(TaskDataResponseDTO.class));
+        } else if (rawType == GenericErrorResponseDTO.class) {
+            return (TypeAdapter<T>) new GenericErrorResponseDTOCodec();
+        } else if (rawType == GenericResponseDTO.class) {
+            return (TypeAdapter<T>) new GenericResponseDTOCodec(gson,
+                    (TypeAdapter<GenericResponseDTO<?>>) (TypeAdapter<?>) gson.getDelegateAdapter(this, type));
+        }
+
+        // leave all other types to Gson
+        return null;
+    }
+
+    /**
+     * method to read a string attribute the way Gson does, which also accepts
+     * numbers and booleans
+     *
+     * @param jsonReader - reader positioned at the value of the attribute
+     * @return value of the attribute, null if it is null
+     * @throws IOException - if the value could not be read
+     */
+    static String readString(JsonReader jsonReader) throws IOException {
+        JsonToken token = jsonReader.peek();
+        if (token == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        } else if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(jsonReader.nextBoolean());
+        }
+        return jsonReader.nextString();
+    }
+
+    /**
+     * method to read a boolean attribute the way Gson does, which also accepts
+     * strings
+     *
+     * @param jsonReader - reader positioned at the value of the attribute
+     * @return value of the attribute, null if it is null
+     * @throws IOException - if the value could not be read
+     */
+    static Boolean readBoolean(JsonReader jsonReader) throws IOException {
+        JsonToken token = jsonReader.peek();
+        if (token == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        } else if (token == JsonToken.STRING) {
+            return Boolean.parseBoolean(jsonReader.nextString());
+        }
+        return jsonReader.nextBoolean();
+    }
+}
@@ -0,0 +1,55 @@
+package dtos.codecs;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dtos.generic.GenericErrorResponseDTO;
+
+/**
+ * codec reading and writing instances of GenericErrorResponseDTO without
+ * reflection
+ */
+class GenericErrorResponseDTOCodec extends TypeAdapter<GenericErrorResponseDTO> {
+
+    @Override
+    public void write(JsonWriter jsonWriter, GenericErrorResponseDTO responseDTO) throws IOException {
+        if (responseDTO == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.beginObject();
+        jsonWriter.name(GenericErrorResponseDTO.RESPONSE_TIME_KEY).value(responseDTO.getResponseTime());
+        jsonWriter.name(GenericErrorResponseDTO.ERROR_MESSAGE_KEY).value(responseDTO.getErrorMessage());
+        jsonWriter.endObject();
+    }
+
+    @Override
+    public GenericErrorResponseDTO read(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+
+        // read the known attributes, skipping all others
+        String responseTime = null;
+        String errorMessage = null;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case GenericErrorResponseDTO.RESPONSE_TIME_KEY -> responseTime = DTOCodecFactory.readString(jsonReader);
+                case GenericErrorResponseDTO.ERROR_MESSAGE_KEY -> errorMessage = DTOCodecFactory.readString(jsonReader);
+                default -> jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        // replace the time of creation of the dto by the read response time
+        GenericErrorResponseDTO responseDTO = new GenericErrorResponseDTO(errorMessage);
+        responseDTO.setResponseTime(responseTime);
+        return responseDTO;
+    }
+}
@@ -0,0 +1,61 @@
+package dtos.codecs;
+
+import java.io.IOException;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import dtos.generic.GenericResponseDTO;
+
+/**
+ * codec writing instances of GenericResponseDTO without reflection, the
+ * response data being written by the adapter of it's runtime class. Reading
+ * needs the declared type of the response data, so it is left to the
+ * reflective adapter of Gson.
+ */
+class GenericResponseDTOCodec extends TypeAdapter<GenericResponseDTO<?>> {
+
+    // Gson instance providing the adapters of the response data
+    private final Gson gson;
+
+    // reflective adapter reading the dto
+    private final TypeAdapter<GenericResponseDTO<?>> reflectiveAdapter;
+
+    /**
+     * constructor
+     *
+     * @param gson              - Gson instance providing the adapters of the
+     *                          response data
+     * @param reflectiveAdapter - reflective adapter reading the dto
+     */
+    GenericResponseDTOCodec(Gson gson, TypeAdapter<GenericResponseDTO<?>> reflectiveAdapter) {
+        this.gson = gson;
+        this.reflectiveAdapter = reflectiveAdapter;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(JsonWriter jsonWriter, GenericResponseDTO<?> responseDTO) throws IOException {
+        if (responseDTO == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.beginObject();
+        jsonWriter.name(GenericResponseDTO.RESPONSE_TIME_KEY).value(responseDTO.getResponseTime());
+
+        // write the response data unless it is null, which Gson omits
+        Object responseData = responseDTO.getResponseData();
+        if (responseData != null) {
+            jsonWriter.name(GenericResponseDTO.RESPONSE_DATA_KEY);
+            ((TypeAdapter<Object>) gson.getAdapter(responseData.getClass())).write(jsonWriter, responseData);
+        }
+        jsonWriter.endObject();
+    }
+
+    @Override
+    public GenericResponseDTO<?> read(JsonReader jsonReader) throws IOException {
+        return reflectiveAdapter.read(jsonReader);
+    }
+}
@@ -0,0 +1,62 @@
+package dtos.codecs;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dtos.response.TaskDataResponseDTO;
+
+/**
+ * codec reading and writing instances of TaskDataResponseDTO without reflection
+ */
+class TaskDataResponseDTOCodec extends TypeAdapter<TaskDataResponseDTO> {
+
+    @Override
+    public void write(JsonWriter jsonWriter, TaskDataResponseDTO responseDTO) throws IOException {
+        if (responseDTO == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.beginObject();
+        jsonWriter.name(TaskDataResponseDTO.TASK_ID_KEY).value(responseDTO.getTaskId());
+        jsonWriter.name(TaskDataResponseDTO.TASK_TITLE_KEY).value(responseDTO.getTaskTitle());
+        jsonWriter.name(TaskDataResponseDTO.TASK_DESCRIPTION_KEY).value(responseDTO.getTaskDescription());
+        jsonWriter.name(TaskDataResponseDTO.TASK_COMPLETED_KEY).value(responseDTO.isTaskCompleted());
+        jsonWriter.name(TaskDataResponseDTO.TASK_CREATED_ON_KEY).value(responseDTO.getTaskCreatedOn());
+        jsonWriter.endObject();
+    }
+
+    @Override
+    public TaskDataResponseDTO read(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+
+        // read the known attributes, skipping all others
+        String taskId = null;
+        String taskTitle = null;
+        String taskDescription = null;
+        Boolean isTaskCompleted = null;
+        String taskCreatedOn = null;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case TaskDataResponseDTO.TASK_ID_KEY -> taskId = DTOCodecFactory.readString(jsonReader);
+                case TaskDataResponseDTO.TASK_TITLE_KEY -> taskTitle = DTOCodecFactory.readString(jsonReader);
+                case TaskDataResponseDTO.TASK_DESCRIPTION_KEY ->
+                    taskDescription = DTOCodecFactory.readString(jsonReader);
+                case TaskDataResponseDTO.TASK_COMPLETED_KEY ->
+                    isTaskCompleted = DTOCodecFactory.readBoolean(jsonReader);
+                case TaskDataResponseDTO.TASK_CREATED_ON_KEY ->
+                    taskCreatedOn = DTOCodecFactory.readString(jsonReader);
+                default -> jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return new TaskDataResponseDTO(taskId, taskTitle, taskDescription, isTaskCompleted, taskCreatedOn);
+    }
+}
@@ -0,0 +1,95 @@
+package dtos.codecs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dtos.response.TaskDataResponseDTO;
+import dtos.response.TaskPageResponseDTO;
+
+/**
+ * codec reading and writing instances of TaskPageResponseDTO without
+ * reflection, using the codec of TaskDataResponseDTO for the tasks of the page
+ */
+class TaskPageResponseDTOCodec extends TypeAdapter<TaskPageResponseDTO> {
+
+    // codec of the tasks of the page
+    private final TypeAdapter<TaskDataResponseDTO> taskCodec;
+
+    /**
+     * constructor
+     *
+     * @param taskCodec - codec of the tasks of the page
+     */
+    TaskPageResponseDTOCodec(TypeAdapter<TaskDataResponseDTO> taskCodec) {
+        this.taskCodec = taskCodec;
+    }
+
+    @Override
+    public void write(JsonWriter jsonWriter, TaskPageResponseDTO responseDTO) throws IOException {
+        if (responseDTO == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.beginObject();
+
+        // write the tasks unless they are null, which Gson omits
+        if (responseDTO.getTasks() != null) {
+            jsonWriter.name(TaskPageResponseDTO.TASKS_KEY).beginArray();
+            for (TaskDataResponseDTO task : responseDTO.getTasks()) {
+                taskCodec.write(jsonWriter, task);
+            }
+            jsonWriter.endArray();
+        }
+        jsonWriter.name(TaskPageResponseDTO.NEXT_CURSOR_KEY).value(responseDTO.getNextCursor());
+        jsonWriter.endObject();
+    }
+
+    @Override
+    public TaskPageResponseDTO read(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+
+        // read the known attributes, skipping all others
+        List<TaskDataResponseDTO> tasks = null;
+        String nextCursor = null;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case TaskPageResponseDTO.TASKS_KEY -> tasks = this.readTasks(jsonReader);
+                case TaskPageResponseDTO.NEXT_CURSOR_KEY -> nextCursor = DTOCodecFactory.readString(jsonReader);
+                default -> jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return new TaskPageResponseDTO(tasks, nextCursor);
+    }
+
+    /**
+     * method to read the tasks of the page
+     *
+     * @param jsonReader - reader positioned at the array of tasks
+     * @return tasks of the page, null if the array is null
+     * @throws IOException - if the tasks could not be read
+     */
+    private List<TaskDataResponseDTO> readTasks(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        List<TaskDataResponseDTO> tasks = new ArrayList<>();
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            tasks.add(taskCodec.read(jsonReader));
+        }
+        jsonReader.endArray();
+        return tasks;
+    }
+}
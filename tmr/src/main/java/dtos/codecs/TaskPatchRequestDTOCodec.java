@@ -0,0 +1,55 @@
+package dtos.codecs;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dtos.request.TaskPatchRequestDTO;
+
+/**
+ * codec reading and writing instances of TaskPatchRequestDTO without reflection
+ */
+class TaskPatchRequestDTOCodec extends TypeAdapter<TaskPatchRequestDTO> {
+
+    @Override
+    public void write(JsonWriter jsonWriter, TaskPatchRequestDTO requestDTO) throws IOException {
+        if (requestDTO == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.beginObject();
+        jsonWriter.name(TaskPatchRequestDTO.TASK_TITLE_KEY).value(requestDTO.getTaskTitle());
+        jsonWriter.name(TaskPatchRequestDTO.TASK_DESCRIPTION_KEY).value(requestDTO.getTaskDescription());
+        jsonWriter.name(TaskPatchRequestDTO.TASK_COMPLETED_KEY).value(requestDTO.getIsTaskCompleted());
+        jsonWriter.endObject();
+    }
+
+    @Override
+    public TaskPatchRequestDTO read(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+
+        // read the known attributes, skipping all others
+        String taskTitle = null;
+        String taskDescription = null;
+        Boolean isTaskCompleted = null;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case TaskPatchRequestDTO.TASK_TITLE_KEY -> taskTitle = DTOCodecFactory.readString(jsonReader);
+                case TaskPatchRequestDTO.TASK_DESCRIPTION_KEY ->
+                    taskDescription = DTOCodecFactory.readString(jsonReader);
+                case TaskPatchRequestDTO.TASK_COMPLETED_KEY ->
+                    isTaskCompleted = DTOCodecFactory.readBoolean(jsonReader);
+                default -> jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return new TaskPatchRequestDTO(taskTitle, taskDescription, isTaskCompleted);
+    }
+}
@@ -0,0 +1,51 @@
+package dtos.codecs;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dtos.request.TaskPostRequestDTO;
+
+/**
+ * codec reading and writing instances of TaskPostRequestDTO without reflection
+ */
+class TaskPostRequestDTOCodec extends TypeAdapter<TaskPostRequestDTO> {
+
+    @Override
+    public void write(JsonWriter jsonWriter, TaskPostRequestDTO requestDTO) throws IOException {
+        if (requestDTO == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.beginObject();
+        jsonWriter.name(TaskPostRequestDTO.TASK_TITLE_KEY).value(requestDTO.getTaskTitle());
+        jsonWriter.name(TaskPostRequestDTO.TASK_DESCRIPTION_KEY).value(requestDTO.getTaskDescription());
+        jsonWriter.endObject();
+    }
+
+    @Override
+    public TaskPostRequestDTO read(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+
+        // read the known attributes, skipping all others
+        String taskTitle = null;
+        String taskDescription = null;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case TaskPostRequestDTO.TASK_TITLE_KEY -> taskTitle = DTOCodecFactory.readString(jsonReader);
+                case TaskPostRequestDTO.TASK_DESCRIPTION_KEY ->
+                    taskDescription = DTOCodecFactory.readString(jsonReader);
+                default -> jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return new TaskPostRequestDTO(taskTitle, taskDescription);
+    }
+}
@@ -5,11 +5,16 @@ import com.google.gson.annotations.SerializedName;
 import utilities.CommonUtility;
 
 public class GenericErrorResponseDTO {
+    // serialized names of the attributes, also used by the codec which reads and
+    // writes the dto without reflection
+    public static final String RESPONSE_TIME_KEY = "response-time";
+    public static final String ERROR_MESSAGE_KEY = "response-error-message";
+
     // attributes of the dto object
-    @SerializedName("response-time")
+    @SerializedName(RESPONSE_TIME_KEY)
     private String responseTime;
 
-    @SerializedName("response-error-message")
+    @SerializedName(ERROR_MESSAGE_KEY)
     private String errorMessage;
 
     /**
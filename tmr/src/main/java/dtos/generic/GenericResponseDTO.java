@@ -5,11 +5,17 @@ import com.google.gson.annotations.SerializedName;
 import utilities.CommonUtility;
 
 public class GenericResponseDTO<T> {
+    // serialized names of the attributes, also used by the codec which writes the
+    // dto without reflection and by writers which stream the response without
+    // creating an instance of this dto
+    public static final String RESPONSE_TIME_KEY = "response-time";
+    public static final String RESPONSE_DATA_KEY = "response-data";
+
     // attributes of the dto object
-    @SerializedName("response-time")
+    @SerializedName(RESPONSE_TIME_KEY)
     private String responseTime;
 
-    @SerializedName("response-data")
+    @SerializedName(RESPONSE_DATA_KEY)
     private T responseData;
 
     /**
@@ -3,11 +3,16 @@ package dtos.request;
 import com.google.gson.annotations.SerializedName;
 
 public class TaskPostRequestDTO {
+    // serialized names of the attributes, also used by the codec which reads and
+    // writes the dto without reflection
+    public static final String TASK_TITLE_KEY = "task-title";
+    public static final String TASK_DESCRIPTION_KEY = "task-description";
+
     // attributes of the dto object
-    @SerializedName("task-title")
+    @SerializedName(TASK_TITLE_KEY)
     private String taskTitle;
 
-    @SerializedName("task-description")
+    @SerializedName(TASK_DESCRIPTION_KEY)
     private String taskDescription;
 
     /**
@@ -1,24 +1,42 @@
 package dtos.response;
 
+import java.util.function.Supplier;
+
 import com.google.gson.annotations.SerializedName;
 
 public class TaskDataResponseDTO {
+    // serialized names of the attributes, also used by the codec which reads and
+    // writes the dto without reflection
+    public static final String TASK_ID_KEY = "task-id";
+    public static final String TASK_TITLE_KEY = "task-title";
+    public static final String TASK_DESCRIPTION_KEY = "task-description";
+    public static final String TASK_COMPLETED_KEY = "task-completed";
+    public static final String TASK_CREATED_ON_KEY = "task-created-on";
+
     // attributes of the dto object
-    @SerializedName("task-id")
+    @SerializedName(TASK_ID_KEY)
     private String taskId;
 
-    @SerializedName("task-title")
+    @SerializedName(TASK_TITLE_KEY)
     private String taskTitle;
 
-    @SerializedName("task-description")
+    @SerializedName(TASK_DESCRIPTION_KEY)
     private String taskDescription;
 
-    @SerializedName("task-completed")
+    @SerializedName(TASK_COMPLETED_KEY)
     private Boolean isTaskCompleted;
 
-    @SerializedName("task-created-on")
+    @SerializedName(TASK_CREATED_ON_KEY)
     private String taskCreatedOn;
 
+    // encoded JSON of the dto, which is spliced into responses instead of
+    // serializing the dto, null if it is not known or the dto has been changed
+    private transient byte[] jsonFragment;
+
+    // source of the attributes of a dto created from it's encoded JSON, which are
+    // converted when they are first read or changed, null once they are converted
+    private transient Supplier<TaskDataResponseDTO> attributeSource;
+
     /**
      * constructor
      * 
@@ -40,44 +58,94 @@ public class TaskDataResponseDTO {
         this.taskCreatedOn = taskCreatedOn;
     }
 
+    /**
+     * constructor of a dto which is written as the given encoded JSON, so that
+     * it's attributes are only converted if they are read or changed
+     * 
+     * @param jsonFragment    - encoded JSON of the dto
+     * @param attributeSource - source of a dto having the attributes
+     */
+    public TaskDataResponseDTO(byte[] jsonFragment, Supplier<TaskDataResponseDTO> attributeSource) {
+        this.jsonFragment = jsonFragment;
+        this.attributeSource = attributeSource;
+    }
+
+    /**
+     * method to convert the attributes of a dto created from it's encoded JSON
+     */
+    private void convertAttributes() {
+        if (attributeSource != null) {
+            TaskDataResponseDTO attributes = attributeSource.get();
+            attributeSource = null;
+            this.taskId = attributes.taskId;
+            this.taskTitle = attributes.taskTitle;
+            this.taskDescription = attributes.taskDescription;
+            this.isTaskCompleted = attributes.isTaskCompleted;
+            this.taskCreatedOn = attributes.taskCreatedOn;
+        }
+    }
+
     public String getTaskId() {
+        this.convertAttributes();
         return taskId;
     }
 
     public void setTaskId(String taskId) {
+        this.convertAttributes();
         this.taskId = taskId;
+        this.jsonFragment = null;
     }
 
     public String getTaskTitle() {
+        this.convertAttributes();
         return taskTitle;
     }
 
     public void setTaskTitle(String taskTitle) {
+        this.convertAttributes();
         this.taskTitle = taskTitle;
+        this.jsonFragment = null;
     }
 
     public String getTaskDescription() {
+        this.convertAttributes();
         return taskDescription;
     }
 
     public void setTaskDescription(String taskDescription) {
+        this.convertAttributes();
         this.taskDescription = taskDescription;
+        this.jsonFragment = null;
     }
 
     public Boolean isTaskCompleted() {
+        this.convertAttributes();
         return isTaskCompleted;
     }
 
     public void setTaskCompleted(Boolean isTaskCompleted) {
+        this.convertAttributes();
         this.isTaskCompleted = isTaskCompleted;
+        this.jsonFragment = null;
     }
 
     public String getTaskCreatedOn() {
+        this.convertAttributes();
         return taskCreatedOn;
     }
 
     public void setTaskCreatedOn(String taskCreatedOn) {
+        this.convertAttributes();
         this.taskCreatedOn = taskCreatedOn;
+        this.jsonFragment = null;
+    }
+
+    public byte[] getJsonFragment() {
+        return jsonFragment;
+    }
+
+    public void setJsonFragment(byte[] jsonFragment) {
+        this.jsonFragment = jsonFragment;
     }
 
 }
@@ -0,0 +1,49 @@
+package dtos.response;
+
+import java.util.List;
+
+import com.google.gson.annotations.SerializedName;
+
+public class TaskPageResponseDTO {
+    // serialized names of the attributes, also used by the codec which reads and
+    // writes the dto without reflection
+    public static final String TASKS_KEY = "tasks";
+    public static final String NEXT_CURSOR_KEY = "next-cursor";
+
+    // attributes of the dto object
+    @SerializedName(TASKS_KEY)
+    private List<TaskDataResponseDTO> tasks;
+
+    @SerializedName(NEXT_CURSOR_KEY)
+    private String nextCursor;
+
+    /**
+     * constructor
+     * 
+     * @param tasks      - tasks of the page ordered by their task id
+     * @param nextCursor - cursor to be passed as 'after' request parameter to get
+     *                   the next page, null if this is the last page
+     */
+    public TaskPageResponseDTO(List<TaskDataResponseDTO> tasks, String nextCursor) {
+        // initialize the attributes of the dto object
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TaskDataResponseDTO> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<TaskDataResponseDTO> tasks) {
+        this.tasks = tasks;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+}
@@ -0,0 +1,18 @@
+package exceptions;
+
+/**
+ * exception to be thrown if task data could not be read from or written to a
+ * persistent storage
+ */
+public class DataPersistenceException extends RuntimeException {
+    /**
+     * constructor
+     * 
+     * @param errorMessage - error message to be displayed
+     * @param cause        - underlying cause of the failure
+     */
+    public DataPersistenceException(String errorMessage, Throwable cause) {
+        // call super by passing the error message and the cause
+        super(errorMessage, cause);
+    }
+}
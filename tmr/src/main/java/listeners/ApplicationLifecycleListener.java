@@ -0,0 +1,39 @@
+package listeners;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import repositories.RepositoryFactory;
+import utilities.MetricsUtility;
+import utilities.TaskJsonFragmentCache;
+
+/**
+ * listener for the lifecycle of the web application, used to export the
+ * metrics of the application when it is started and to release the resources
+ * of the repository when the application is shut down
+ */
+@WebListener
+public class ApplicationLifecycleListener implements ServletContextListener {
+
+    @Override
+    /**
+     * method to export the metrics which exist as long as the application runs,
+     * the metrics of the repository being exported along with it's creation
+     */
+    public void contextInitialized(ServletContextEvent sce) {
+        MetricsUtility.registerMetrics(TaskJsonFragmentCache.METRICS_NAME, TaskJsonFragmentCache.getInstance());
+    }
+
+    @Override
+    /**
+     * method to close the repository when the application is shut down, so that
+     * persistent repositories can sync and close their files
+     */
+    public void contextDestroyed(ServletContextEvent sce) {
+        // close the static instance of the repository
+        RepositoryFactory.closeTaskRepositoryInstance();
+
+        // stop exporting the metrics of the application
+        MetricsUtility.unregisterMetrics(TaskJsonFragmentCache.METRICS_NAME);
+    }
+}
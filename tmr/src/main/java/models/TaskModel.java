@@ -1,96 +1,197 @@
 package models;
 
+import java.util.UUID;
+
 /**
- * model class for a task
+ * immutable model class for a task. An instance never changes after it has
+ * been created, so a stored task can be read and serialized by any number of
+ * threads without locking. Updates create a new instance through the 'with'
+ * methods, which the repository then publishes in place of the old one.
+ * <p>
+ * As millions of tasks are kept in memory, a task is stored in a compact
+ * layout: the id as the two halves of it's UUID, the timestamps as
+ * milliseconds since the epoch and the flags packed into a single byte. They
+ * are only converted into strings when a task is written as JSON.
+ * <p>
+ * The encoded JSON of a task is cached in the instance once it has been
+ * written, which stays valid as the task never changes. An update publishes a
+ * new instance without cached JSON, so the cached JSON of a stored task is
+ * replaced atomically with the task itself.
  */
-public class TaskModel {
+public final class TaskModel {
+    // bits of the packed flags of a task
+    public static final byte TASK_COMPLETED_FLAG = 1;
+    public static final byte TASK_DELETED_FLAG = 2;
+
     // attributes of a task
-    private String taskId;
-    private String taskTitle;
-    private String taskDescription;
-    private String taskCreatedOn;
-    private String taskLastUpdatedOn;
-    private boolean taskCompleted;
-    private boolean taskDeleted;
+    private final long taskIdMostSignificantBits;
+    private final long taskIdLeastSignificantBits;
+    private final String taskTitle;
+    private final String taskDescription;
+    private final long taskCreatedOn;
+    private final long taskLastUpdatedOn;
+    private final byte taskFlags;
+
+    // encoded JSON of the task, null until the task has been written as JSON
+    private volatile byte[] jsonFragment;
 
     /**
      * constructor to initialize a task after creating
-     * 
+     *
      * @param taskId            - id of the task
      * @param taskTitle         - title of the task
      * @param taskDescription   - description of the task
-     * @param taskCreatedOn     - date on which the task was created
-     * @param taskLastUpdatedOn - date on which the task was last modified
+     * @param taskCreatedOn     - time at which the task was created, in
+     *                          milliseconds since the epoch
+     * @param taskLastUpdatedOn - time at which the task was last modified, in
+     *                          milliseconds since the epoch
      * @param taskCompleted     - boolean flag indicating if the task has been
      *                          completed or not
      * @param taskDeleted       - boolean flag indicating if the task has been
      *                          deleted or not
      */
-    public TaskModel(String taskId, String taskTitle, String taskDescription, String taskCreatedOn,
-            String taskLastUpdatedOn,
-            boolean taskCompleted, boolean taskDeleted) {
-        this.taskId = taskId;
+    public TaskModel(UUID taskId, String taskTitle, String taskDescription, long taskCreatedOn,
+            long taskLastUpdatedOn, boolean taskCompleted, boolean taskDeleted) {
+        this(taskId.getMostSignificantBits(), taskId.getLeastSignificantBits(), taskTitle, taskDescription,
+                taskCreatedOn, taskLastUpdatedOn,
+                (byte) ((taskCompleted ? TASK_COMPLETED_FLAG : 0) | (taskDeleted ? TASK_DELETED_FLAG : 0)));
+    }
+
+    /**
+     * constructor to initialize a task from it's compact layout
+     *
+     * @param taskIdMostSignificantBits  - most significant bits of the id of the
+     *                                   task
+     * @param taskIdLeastSignificantBits - least significant bits of the id of the
+     *                                   task
+     * @param taskTitle                  - title of the task
+     * @param taskDescription            - description of the task
+     * @param taskCreatedOn              - time at which the task was created, in
+     *                                   milliseconds since the epoch
+     * @param taskLastUpdatedOn          - time at which the task was last
+     *                                   modified, in milliseconds since the epoch
+     * @param taskFlags                  - packed flags of the task
+     */
+    public TaskModel(long taskIdMostSignificantBits, long taskIdLeastSignificantBits, String taskTitle,
+            String taskDescription, long taskCreatedOn, long taskLastUpdatedOn, byte taskFlags) {
+        this.taskIdMostSignificantBits = taskIdMostSignificantBits;
+        this.taskIdLeastSignificantBits = taskIdLeastSignificantBits;
         this.taskTitle = taskTitle;
         this.taskDescription = taskDescription;
         this.taskCreatedOn = taskCreatedOn;
         this.taskLastUpdatedOn = taskLastUpdatedOn;
-        this.taskCompleted = taskCompleted;
-        this.taskDeleted = taskDeleted;
+        this.taskFlags = taskFlags;
     }
 
-    public String getTaskId() {
-        return taskId;
+    public UUID getTaskId() {
+        return new UUID(taskIdMostSignificantBits, taskIdLeastSignificantBits);
     }
 
-    public void setTaskId(String taskId) {
-        this.taskId = taskId;
+    public long getTaskIdMostSignificantBits() {
+        return taskIdMostSignificantBits;
     }
 
-    public String getTaskTitle() {
-        return taskTitle;
+    public long getTaskIdLeastSignificantBits() {
+        return taskIdLeastSignificantBits;
     }
 
-    public void setTaskTitle(String taskTitle) {
-        this.taskTitle = taskTitle;
+    public String getTaskTitle() {
+        return taskTitle;
     }
 
     public String getTaskDescription() {
         return taskDescription;
     }
 
-    public void setTaskDescription(String taskDescription) {
-        this.taskDescription = taskDescription;
+    public long getTaskCreatedOn() {
+        return taskCreatedOn;
     }
 
-    public String getTaskCreatedOn() {
-        return taskCreatedOn;
+    public long getTaskLastUpdatedOn() {
+        return taskLastUpdatedOn;
     }
 
-    public void setTaskCreatedOn(String taskCreatedOn) {
-        this.taskCreatedOn = taskCreatedOn;
+    public byte getTaskFlags() {
+        return taskFlags;
     }
 
-    public String getTaskLastUpdatedOn() {
-        return taskLastUpdatedOn;
+    public boolean isTaskCompleted() {
+        return (taskFlags & TASK_COMPLETED_FLAG) != 0;
     }
 
-    public void setTaskLastUpdatedOn(String taskLastUpdatedOn) {
-        this.taskLastUpdatedOn = taskLastUpdatedOn;
+    public boolean isTaskDeleted() {
+        return (taskFlags & TASK_DELETED_FLAG) != 0;
     }
 
-    public boolean isTaskCompleted() {
-        return taskCompleted;
+    public byte[] getJsonFragment() {
+        return jsonFragment;
     }
 
-    public void setTaskCompleted(boolean taskCompleted) {
-        this.taskCompleted = taskCompleted;
+    /**
+     * method to cache the encoded JSON of this task, which must not be changed
+     * afterwards
+     *
+     * @param jsonFragment - encoded JSON of the task
+     */
+    public void setJsonFragment(byte[] jsonFragment) {
+        this.jsonFragment = jsonFragment;
     }
 
-    public boolean isTaskDeleted() {
-        return taskDeleted;
+    /**
+     * method to create a copy of this task with a different title
+     *
+     * @param taskTitle - title of the copied task
+     * @return a new instance of TaskModel
+     */
+    public TaskModel withTaskTitle(String taskTitle) {
+        return new TaskModel(taskIdMostSignificantBits, taskIdLeastSignificantBits, taskTitle, taskDescription,
+                taskCreatedOn, taskLastUpdatedOn, taskFlags);
+    }
+
+    /**
+     * method to create a copy of this task with a different description
+     *
+     * @param taskDescription - description of the copied task
+     * @return a new instance of TaskModel
+     */
+    public TaskModel withTaskDescription(String taskDescription) {
+        return new TaskModel(taskIdMostSignificantBits, taskIdLeastSignificantBits, taskTitle, taskDescription,
+                taskCreatedOn, taskLastUpdatedOn, taskFlags);
     }
 
-    public void setTaskDeleted(boolean taskDeleted) {
-        this.taskDeleted = taskDeleted;
+    /**
+     * method to create a copy of this task with a different completion flag
+     *
+     * @param taskCompleted - boolean flag indicating if the copied task has been
+     *                      completed or not
+     * @return a new instance of TaskModel
+     */
+    public TaskModel withTaskCompleted(boolean taskCompleted) {
+        return new TaskModel(taskIdMostSignificantBits, taskIdLeastSignificantBits, taskTitle, taskDescription,
+                taskCreatedOn, taskLastUpdatedOn, withFlag(taskFlags, TASK_COMPLETED_FLAG, taskCompleted));
+    }
+
+    /**
+     * method to create a copy of this task with a different deletion flag
+     *
+     * @param taskDeleted - boolean flag indicating if the copied task has been
+     *                    deleted or not
+     * @return a new instance of TaskModel
+     */
+    public TaskModel withTaskDeleted(boolean taskDeleted) {
+        return new TaskModel(taskIdMostSignificantBits, taskIdLeastSignificantBits, taskTitle, taskDescription,
+                taskCreatedOn, taskLastUpdatedOn, withFlag(taskFlags, TASK_DELETED_FLAG, taskDeleted));
+    }
+
+    /**
+     * method to set or clear a flag in packed flags
+     *
+     * @param taskFlags - packed flags
+     * @param flag      - bit of the flag
+     * @param isSet     - boolean flag indicating if the flag is set or cleared
+     * @return updated packed flags
+     */
+    private static byte withFlag(byte taskFlags, byte flag, boolean isSet) {
+        return (byte) (isSet ? taskFlags | flag : taskFlags & ~flag);
     }
 }
@@ -2,15 +2,101 @@ package repositories;
 
 import models.TaskModel;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+public interface ITaskRepository extends AutoCloseable {
+    // order of the task ids in which tasks are listed, comparing both halves of a
+    // task id unsigned, so that it matches the order of their string form
+    public static final Comparator<UUID> TASK_ID_ORDER = (firstTaskId, secondTaskId) -> {
+        int mostSignificantOrder = Long.compareUnsigned(firstTaskId.getMostSignificantBits(),
+                secondTaskId.getMostSignificantBits());
+        return mostSignificantOrder != 0 ? mostSignificantOrder
+                : Long.compareUnsigned(firstTaskId.getLeastSignificantBits(),
+                        secondTaskId.getLeastSignificantBits());
+    };
+
+    // order of tasks by their task id, comparing the halves stored in the tasks
+    // without creating UUID objects
+    public static final Comparator<TaskModel> TASK_ORDER = (firstTask, secondTask) -> {
+        int mostSignificantOrder = Long.compareUnsigned(firstTask.getTaskIdMostSignificantBits(),
+                secondTask.getTaskIdMostSignificantBits());
+        return mostSignificantOrder != 0 ? mostSignificantOrder
+                : Long.compareUnsigned(firstTask.getTaskIdLeastSignificantBits(),
+                        secondTask.getTaskIdLeastSignificantBits());
+    };
+
+    /**
+     * method to lazily stream the tasks from database ordered by their task id,
+     * starting after the given task id. Tasks are read from the database while the
+     * stream is consumed, so the memory required by the stream does not depend on
+     * the number of tasks stored in the database. The stream has to be closed
+     * after it has been consumed.
+     *
+     * @param afterTaskId - id after which the stream starts, null to start with
+     *                    the first task
+     * @return - stream of the tasks from database having a task id greater than
+     *         the given one
+     */
+    public Stream<TaskModel> streamTasksAfter(UUID afterTaskId);
+
+    /**
+     * method to lazily stream all tasks from database ordered by their task id.
+     * The stream has to be closed after it has been consumed.
+     *
+     * @return - stream of all tasks from database
+     */
+    public default Stream<TaskModel> streamAllTasks() {
+        return this.streamTasksAfter(null);
+    }
 
-public interface ITaskRepository {
     /**
      * method to get all tasks from database
      *
-     * @return - all tasks from database
+     * @return - all tasks from database ordered by their task id
+     */
+    public default List<TaskModel> findAllTasks() {
+        // collect the stream of all tasks into a list
+        try (Stream<TaskModel> allTasks = this.streamAllTasks()) {
+            return allTasks.toList();
+        }
+    }
+
+    /**
+     * method to get a page of tasks from database, ordered by their task id. The
+     * cost of a call depends on the requested number of tasks only and not on the
+     * number of tasks stored in the database.
+     *
+     * @param afterTaskId - id after which the page starts, null to start with the
+     *                    first task
+     * @param limit       - maximum number of tasks to be returned
+     * @return - tasks from database having a task id greater than the given one
      */
-    public List<TaskModel> findAllTasks();
+    public default List<TaskModel> findTasksAfter(UUID afterTaskId, int limit) {
+        // collect the requested number of tasks from the stream into a list
+        try (Stream<TaskModel> pageTasks = this.streamTasksAfter(afterTaskId)) {
+            return pageTasks.limit(limit).toList();
+        }
+    }
+
+    /**
+     * method to get all tasks from database which are completed or not completed
+     *
+     * @param taskCompleted - boolean flag indicating if completed or not completed
+     *                      tasks are returned
+     * @return - tasks from database having the given completion status ordered by
+     *         their task id
+     */
+    public default List<TaskModel> findTasksByCompletionStatus(boolean taskCompleted) {
+        // collect the tasks having the given completion status from the stream of all
+        // tasks into a list
+        try (Stream<TaskModel> allTasks = this.streamAllTasks()) {
+            return allTasks.filter(task -> task.isTaskCompleted() == taskCompleted).toList();
+        }
+    }
 
     /**
      * method to find a task by it's corresponding id from database
@@ -18,7 +104,7 @@ public interface ITaskRepository {
      * @param taskId - id to be used in searching the task from the database
      * @return - task object having the given task id, null otherwise
      */
-    public TaskModel findTaskById(String taskId);
+    public TaskModel findTaskById(UUID taskId);
 
     /**
      * method to add a new task to the database
@@ -32,7 +118,7 @@ public interface ITaskRepository {
      * 
      * @param taskId - id of the existing task object to delete
      */
-    public void deleteTaskById(String taskId);
+    public void deleteTaskById(UUID taskId);
 
     /**
      * method to update an existing task record by it's corresponding id
@@ -40,5 +126,53 @@ public interface ITaskRepository {
      * @param taskId          - id of the existing task record to be updated
      * @param updatedTaskData - updated task record
      */
-    public void updateTaskById(String taskId, TaskModel updatedTaskData);
+    public void updateTaskById(UUID taskId, TaskModel updatedTaskData);
+
+    /**
+     * method to atomically update an existing task record by it's corresponding id
+     * using a single lookup. The update function is applied while no other update
+     * of the same task record can run, so concurrent updates of one task record
+     * are applied one after the other and never overwrite each other.
+     * 
+     * @param taskId         - id of the existing task record to be updated
+     * @param updateFunction - function which receives the existing task record and
+     *                       returns the updated task record, must not return null
+     * @return - updated task record, null if no task record exists with the given
+     *         id or the existing task record is deleted already
+     */
+    public TaskModel computeTaskById(UUID taskId, UnaryOperator<TaskModel> updateFunction);
+
+    /**
+     * method to check if the task objects returned by the database are the stored
+     * instances, which are returned again by later reads until the task is
+     * written, so that data derived from a returned task object, like it's
+     * encoded JSON, can be cached in it. The default is false, for databases
+     * creating a new task object for every read.
+     *
+     * @return true if the stored task objects are returned, false otherwise
+     */
+    public default boolean isReturningStoredTasks() {
+        return false;
+    }
+
+    /**
+     * method to apply a batch of writes made by the current thread, returning
+     * once all of them are durable. Repositories which wait for every write to
+     * become durable on it's own wait only once for the whole batch, so that the
+     * writes of the batch are already visible before this method returns. The
+     * default applies the writes one after the other.
+     *
+     * @param writeBatch - writes to be applied to the database
+     */
+    public default void applyWriteBatch(Runnable writeBatch) {
+        writeBatch.run();
+    }
+
+    /**
+     * method to release the resources held by the database, like open files, when
+     * the application shuts down. Repositories without such resources do nothing.
+     */
+    @Override
+    public default void close() {
+    }
 }
@@ -0,0 +1,35 @@
+package repositories;
+
+import javax.management.MXBean;
+
+/**
+ * metrics of the Bloom filter of the ids of the live tasks, exported by the
+ * MetricsUtility
+ */
+@MXBean
+public interface ITaskRepositoryBloomFilterMetrics {
+
+    /**
+     * method to get the number of lookups answered by the filter without the
+     * backend
+     *
+     * @return number of filtered lookups
+     */
+    public long getFilteredLookupCount();
+
+    /**
+     * method to get the number of lookups of ids which do not exist, but which the
+     * filter reported as possibly existing
+     *
+     * @return number of false positives
+     */
+    public long getFalsePositiveCount();
+
+    /**
+     * method to get the share of the lookups of ids which do not exist that went
+     * to the backend nevertheless
+     *
+     * @return false positive rate between 0 and 1, 0 if no such lookup happened
+     */
+    public double getFalsePositiveRate();
+}
@@ -0,0 +1,39 @@
+package repositories;
+
+import javax.management.MXBean;
+
+/**
+ * metrics of the cache of the tasks found by their id, exported by the
+ * MetricsUtility
+ */
+@MXBean
+public interface ITaskRepositoryCacheMetrics {
+
+    /**
+     * method to get the number of lookups answered from the cache
+     *
+     * @return number of cache hits
+     */
+    public long getHitCount();
+
+    /**
+     * method to get the number of lookups which went to the backend
+     *
+     * @return number of cache misses
+     */
+    public long getMissCount();
+
+    /**
+     * method to get the share of the lookups answered from the cache
+     *
+     * @return hit ratio between 0 and 1, 0 if no lookup happened
+     */
+    public double getHitRatio();
+
+    /**
+     * method to get the number of tasks evicted from the full cache
+     *
+     * @return number of evictions
+     */
+    public long getEvictionCount();
+}
@@ -1,12 +1,20 @@
 package repositories;
 
+import constants.ApplicationProperty;
+import constants.ErrorMessage;
+import utilities.MetricsUtility;
+
+import java.nio.file.Path;
+
 /**
  * factory class to provide repository instance at runtime on-demand
  */
 public class RepositoryFactory {
 
-    // static instance of repository visible to this class only
-    private static ITaskRepository taskRepository;
+    // static instance of repository visible to this class only, declared volatile
+    // so that an instance created by one request thread is safely published to
+    // all other request threads
+    private static volatile ITaskRepository taskRepository;
 
     /**
      * method to get the static instance of the repository
@@ -16,8 +24,41 @@ public class RepositoryFactory {
     public static ITaskRepository getTaskRepositoryInstance() {
         // check if the static instance of the repository has not been instantiated
         if (RepositoryFactory.taskRepository == null) {
-            // instantiate the static instance of the repository
-            RepositoryFactory.taskRepository = new TaskRepositoryLocalMemoryImpl();
+            // synchronize on the factory class so that concurrent first requests can
+            // not create separate repository instances and lose each other's writes
+            synchronized (RepositoryFactory.class) {
+                // check again as another thread might have instantiated the repository
+                // while this thread was waiting for the lock
+                if (RepositoryFactory.taskRepository == null) {
+                    // instantiate the static instance of the repository, filtering the
+                    // lookups of missing tasks if a filter size is configured, caching it's
+                    // tasks if a cache size is configured and letting a single writer thread
+                    // apply it's mutations if a buffer size is configured
+                    ITaskRepository createdRepository = createTaskRepository();
+                    long bloomFilterExpectedTasks = Long.getLong(ApplicationProperty.BLOOM_FILTER_EXPECTED_TASKS,
+                            ApplicationProperty.DEFAULT_BLOOM_FILTER_EXPECTED_TASKS);
+                    if (bloomFilterExpectedTasks > 0) {
+                        TaskRepositoryBloomFilterImpl bloomFilterRepository = new TaskRepositoryBloomFilterImpl(
+                                createdRepository, bloomFilterExpectedTasks);
+                        MetricsUtility.registerMetrics(TaskRepositoryBloomFilterImpl.METRICS_NAME,
+                                bloomFilterRepository);
+                        createdRepository = bloomFilterRepository;
+                    }
+                    int cacheSize = Integer.getInteger(ApplicationProperty.CACHE_SIZE,
+                            ApplicationProperty.DEFAULT_CACHE_SIZE);
+                    if (cacheSize > 0) {
+                        TaskRepositoryCachingImpl cachingRepository = new TaskRepositoryCachingImpl(
+                                createdRepository, cacheSize);
+                        MetricsUtility.registerMetrics(TaskRepositoryCachingImpl.METRICS_NAME, cachingRepository);
+                        createdRepository = cachingRepository;
+                    }
+                    int singleWriterBufferSize = Integer.getInteger(ApplicationProperty.SINGLE_WRITER_BUFFER_SIZE,
+                            ApplicationProperty.DEFAULT_SINGLE_WRITER_BUFFER_SIZE);
+                    RepositoryFactory.taskRepository = singleWriterBufferSize > 0
+                            ? new TaskRepositorySingleWriterImpl(createdRepository, singleWriterBufferSize)
+                            : createdRepository;
+                }
+            }
         }
 
         // return the static instance of the repository
@@ -34,4 +75,86 @@ public class RepositoryFactory {
         // update the static instance of the repository with the provided instance value
         RepositoryFactory.taskRepository = taskRepository;
     }
+
+    /**
+     * method to close the static instance of the repository if it has been
+     * instantiated, so that a later request instantiates a new one, and to stop
+     * exporting it's metrics
+     */
+    public static void closeTaskRepositoryInstance() {
+        synchronized (RepositoryFactory.class) {
+            // close and forget the static instance of the repository
+            if (RepositoryFactory.taskRepository != null) {
+                RepositoryFactory.taskRepository.close();
+                RepositoryFactory.taskRepository = null;
+            }
+            MetricsUtility.unregisterMetrics(TaskRepositoryBloomFilterImpl.METRICS_NAME);
+            MetricsUtility.unregisterMetrics(TaskRepositoryCachingImpl.METRICS_NAME);
+        }
+    }
+
+    /**
+     * method to create the repository implementation selected by the
+     * 'tmr.repository.type' system property, the local in-memory repository by
+     * default
+     * 
+     * @return new instance of the selected repository
+     * @throws IllegalStateException - if the system property names an unknown
+     *                               repository type
+     */
+    private static ITaskRepository createTaskRepository() {
+        // read the selected repository type
+        String repositoryType = System.getProperty(ApplicationProperty.REPOSITORY_TYPE,
+                ApplicationProperty.REPOSITORY_TYPE_MEMORY);
+
+        // create the selected repository
+        switch (repositoryType) {
+            case ApplicationProperty.REPOSITORY_TYPE_MEMORY:
+                return new TaskRepositoryLocalMemoryImpl(
+                        Long.getLong(ApplicationProperty.TOMBSTONE_RETENTION_SECONDS,
+                                ApplicationProperty.DEFAULT_TOMBSTONE_RETENTION_SECONDS),
+                        Integer.getInteger(ApplicationProperty.TOMBSTONE_REAPER_BUDGET,
+                                ApplicationProperty.DEFAULT_TOMBSTONE_REAPER_BUDGET),
+                        Long.getLong(ApplicationProperty.TOMBSTONE_REAPER_INTERVAL_SECONDS,
+                                ApplicationProperty.DEFAULT_TOMBSTONE_REAPER_INTERVAL_SECONDS));
+            case ApplicationProperty.REPOSITORY_TYPE_WRITE_AHEAD_LOG:
+                return new TaskRepositoryWriteAheadLogImpl(getDataDirectory(),
+                        Long.getLong(ApplicationProperty.CHECKPOINT_INTERVAL_SECONDS,
+                                ApplicationProperty.DEFAULT_CHECKPOINT_INTERVAL_SECONDS),
+                        Integer.getInteger(ApplicationProperty.CHECKPOINTS_PER_SNAPSHOT,
+                                ApplicationProperty.DEFAULT_CHECKPOINTS_PER_SNAPSHOT));
+            case ApplicationProperty.REPOSITORY_TYPE_MEMORY_MAPPED:
+                return new TaskRepositoryMemoryMappedImpl(getDataDirectory(),
+                        TaskRepositoryMemoryMappedImpl.DEFAULT_REGION_SIZE);
+            case ApplicationProperty.REPOSITORY_TYPE_LOG_STRUCTURED:
+                return new TaskRepositoryLogStructuredImpl(getDataDirectory(),
+                        Integer.getInteger(ApplicationProperty.MEMTABLE_LIMIT,
+                                ApplicationProperty.DEFAULT_MEMTABLE_LIMIT));
+            case ApplicationProperty.REPOSITORY_TYPE_COLUMNAR:
+                return new TaskRepositoryColumnarImpl(TaskTextArena.DEFAULT_CHUNK_SIZE,
+                        Boolean.parseBoolean(System.getProperty(ApplicationProperty.COLUMNAR_TEXT_OFF_HEAP,
+                                ApplicationProperty.DEFAULT_COLUMNAR_TEXT_OFF_HEAP)));
+            case ApplicationProperty.REPOSITORY_TYPE_SHARDED:
+                // every shard is a columnar repository of it's own
+                boolean textOffHeap = Boolean.parseBoolean(System.getProperty(
+                        ApplicationProperty.COLUMNAR_TEXT_OFF_HEAP, ApplicationProperty.DEFAULT_COLUMNAR_TEXT_OFF_HEAP));
+                return new TaskRepositoryShardedImpl(
+                        Math.max(1, Integer.getInteger(ApplicationProperty.SHARD_COUNT,
+                                ApplicationProperty.DEFAULT_SHARD_COUNT)),
+                        () -> new TaskRepositoryColumnarImpl(TaskTextArena.DEFAULT_CHUNK_SIZE, textOffHeap));
+            default:
+                throw new IllegalStateException(ErrorMessage.UNKNOWN_REPOSITORY_TYPE + repositoryType);
+        }
+    }
+
+    /**
+     * method to get the directory in which persistent repositories store their
+     * files, selected by the 'tmr.data.directory' system property
+     * 
+     * @return path of the data directory
+     */
+    private static Path getDataDirectory() {
+        return Path.of(System.getProperty(ApplicationProperty.DATA_DIRECTORY,
+                ApplicationProperty.DEFAULT_DATA_DIRECTORY));
+    }
 }
@@ -0,0 +1,254 @@
+package repositories;
+
+import constants.ErrorMessage;
+import exceptions.DataPersistenceException;
+import models.TaskModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * store of the checkpoints of the persistent repositories. A checkpoint is
+ * either a full snapshot of all tasks or a delta containing only the tasks
+ * written since the previous checkpoint, so the size of most checkpoints
+ * depends on the number of recent writes and not on the number of stored
+ * tasks. The state is loaded from the newest snapshot followed by all newer
+ * deltas.
+ * <p>
+ * A checkpoint file consists of the sequence number of the last log record it
+ * covers, the length prefixed binary task records, an end marker and a CRC32
+ * of everything before it. Files are written under a temporary name and then
+ * renamed atomically, so a crash never leaves a partially written checkpoint.
+ */
+final class TaskCheckpointStore {
+
+    // prefixes and suffix of the names of the checkpoint files, and the suffix of
+    // files which are still being written
+    private static final String SNAPSHOT_FILE_PREFIX = "snapshot-";
+    private static final String DELTA_FILE_PREFIX = "delta-";
+    private static final String CHECKPOINT_FILE_SUFFIX = ".dat";
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    // length written after the last task record of a checkpoint file
+    private static final int END_OF_TASK_RECORDS = -1;
+
+    // directory containing the checkpoint files
+    private final Path dataDirectory;
+
+    /**
+     * constructor
+     *
+     * @param dataDirectory - directory containing the checkpoint files
+     */
+    TaskCheckpointStore(Path dataDirectory) {
+        this.dataDirectory = dataDirectory;
+    }
+
+    /**
+     * method to load the newest snapshot and all newer deltas
+     *
+     * @param taskConsumer - consumer to be called for every task of the loaded
+     *                     checkpoints, in the order the checkpoints were written
+     * @return sequence number of the last log record covered by the loaded
+     *         checkpoints, 0 if there is no checkpoint
+     * @throws DataPersistenceException - if a checkpoint can not be read
+     */
+    long load(Consumer<TaskModel> taskConsumer) {
+        try {
+            // remove checkpoint files left behind by a crash while they were written
+            Files.createDirectories(dataDirectory);
+            try (Stream<Path> files = Files.list(dataDirectory)) {
+                for (Path file : files.filter(file -> file.toString().endsWith(TEMPORARY_FILE_SUFFIX)).toList()) {
+                    Files.delete(file);
+                }
+            }
+
+            // load the newest snapshot
+            long checkpointSequenceNumber = 0;
+            List<Long> snapshotSequenceNumbers = this.findCheckpoints(SNAPSHOT_FILE_PREFIX);
+            if (!snapshotSequenceNumbers.isEmpty()) {
+                checkpointSequenceNumber = snapshotSequenceNumbers.get(snapshotSequenceNumbers.size() - 1);
+                this.readCheckpoint(this.getCheckpointFile(SNAPSHOT_FILE_PREFIX, checkpointSequenceNumber),
+                        taskConsumer);
+            }
+
+            // load the deltas written after the snapshot
+            for (long deltaSequenceNumber : this.findCheckpoints(DELTA_FILE_PREFIX)) {
+                if (deltaSequenceNumber > checkpointSequenceNumber) {
+                    this.readCheckpoint(this.getCheckpointFile(DELTA_FILE_PREFIX, deltaSequenceNumber),
+                            taskConsumer);
+                    checkpointSequenceNumber = deltaSequenceNumber;
+                }
+            }
+
+            // return the sequence number of the last log record covered by the checkpoints
+            return checkpointSequenceNumber;
+        } catch (IOException e) {
+            throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_LOADED + dataDirectory, e);
+        }
+    }
+
+    /**
+     * method to write a delta containing the tasks written since the previous
+     * checkpoint
+     *
+     * @param sequenceNumber - sequence number of the last log record covered by
+     *                       the delta
+     * @param tasks          - current versions of the written tasks, including
+     *                       deleted ones
+     * @throws DataPersistenceException - if the delta can not be written
+     */
+    void writeDelta(long sequenceNumber, Stream<TaskModel> tasks) {
+        try {
+            this.writeCheckpoint(this.getCheckpointFile(DELTA_FILE_PREFIX, sequenceNumber), sequenceNumber, tasks);
+        } catch (IOException e) {
+            throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_PERSISTED, e);
+        }
+    }
+
+    /**
+     * method to write a snapshot of all tasks, replacing all older checkpoints
+     *
+     * @param sequenceNumber - sequence number of the last log record covered by
+     *                       the snapshot
+     * @param tasks          - current versions of all tasks which are not deleted
+     * @throws DataPersistenceException - if the snapshot can not be written
+     */
+    void writeSnapshot(long sequenceNumber, Stream<TaskModel> tasks) {
+        try {
+            // write the snapshot
+            this.writeCheckpoint(this.getCheckpointFile(SNAPSHOT_FILE_PREFIX, sequenceNumber), sequenceNumber,
+                    tasks);
+
+            // delete the checkpoints covered by the snapshot
+            for (long snapshotSequenceNumber : this.findCheckpoints(SNAPSHOT_FILE_PREFIX)) {
+                if (snapshotSequenceNumber < sequenceNumber) {
+                    Files.delete(this.getCheckpointFile(SNAPSHOT_FILE_PREFIX, snapshotSequenceNumber));
+                }
+            }
+            for (long deltaSequenceNumber : this.findCheckpoints(DELTA_FILE_PREFIX)) {
+                if (deltaSequenceNumber <= sequenceNumber) {
+                    Files.delete(this.getCheckpointFile(DELTA_FILE_PREFIX, deltaSequenceNumber));
+                }
+            }
+        } catch (IOException e) {
+            throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_PERSISTED, e);
+        }
+    }
+
+    /**
+     * method to write a checkpoint file under a temporary name, sync it and then
+     * rename it atomically
+     *
+     * @param checkpointFile - path of the checkpoint file
+     * @param sequenceNumber - sequence number of the last log record covered by
+     *                       the checkpoint
+     * @param tasks          - tasks to write
+     * @throws IOException - if the checkpoint file can not be written
+     */
+    private void writeCheckpoint(Path checkpointFile, long sequenceNumber, Stream<TaskModel> tasks)
+            throws IOException {
+        Path temporaryFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + TEMPORARY_FILE_SUFFIX);
+
+        try (FileChannel fileChannel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // write the sequence number and the task records, calculating the checksum
+            CheckedOutputStream checkedStream = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(fileChannel)), new CRC32());
+            DataOutputStream checkpointStream = new DataOutputStream(checkedStream);
+            checkpointStream.writeLong(sequenceNumber);
+            Iterator<TaskModel> taskIterator = tasks.iterator();
+            while (taskIterator.hasNext()) {
+                byte[] taskRecord = TaskRecordCodec.encodeTask(taskIterator.next());
+                checkpointStream.writeInt(taskRecord.length);
+                checkpointStream.write(taskRecord);
+            }
+
+            // write the end marker followed by the checksum, and sync the file
+            checkpointStream.writeInt(END_OF_TASK_RECORDS);
+            checkpointStream.writeLong(checkedStream.getChecksum().getValue());
+            checkpointStream.flush();
+            fileChannel.force(true);
+        }
+
+        // publish the checkpoint file under it's final name
+        Files.move(temporaryFile, checkpointFile, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        TaskDataFiles.syncDirectory(dataDirectory);
+    }
+
+    /**
+     * method to read the tasks of a checkpoint file
+     *
+     * @param checkpointFile - path of the checkpoint file
+     * @param taskConsumer   - consumer to be called for every task
+     * @throws IOException - if the checkpoint file can not be read or is corrupt
+     */
+    private void readCheckpoint(Path checkpointFile, Consumer<TaskModel> taskConsumer) throws IOException {
+        long fileLength = Files.size(checkpointFile);
+
+        try (CheckedInputStream checkedStream = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(checkpointFile)), new CRC32());
+                DataInputStream checkpointStream = new DataInputStream(checkedStream)) {
+            // read the task records up to the end marker
+            checkpointStream.readLong();
+            int recordLength;
+            while ((recordLength = checkpointStream.readInt()) != END_OF_TASK_RECORDS) {
+                if (recordLength < 0 || recordLength > fileLength) {
+                    throw new IOException("corrupt checkpoint " + checkpointFile);
+                }
+                byte[] taskRecord = new byte[recordLength];
+                checkpointStream.readFully(taskRecord);
+                taskConsumer.accept(TaskRecordCodec.decodeTask(ByteBuffer.wrap(taskRecord)));
+            }
+
+            // verify the checksum
+            long calculatedChecksum = checkedStream.getChecksum().getValue();
+            if (checkpointStream.readLong() != calculatedChecksum) {
+                throw new IOException("corrupt checkpoint " + checkpointFile);
+            }
+        }
+    }
+
+    /**
+     * method to find the sequence numbers of the existing checkpoints of a kind
+     *
+     * @param prefix - prefix of the names of the checkpoint files
+     * @return sequence numbers of the checkpoints in ascending order
+     * @throws IOException - if the directory can not be listed
+     */
+    private List<Long> findCheckpoints(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dataDirectory)) {
+            return TaskDataFiles.findSequenceNumbers(files, prefix, CHECKPOINT_FILE_SUFFIX);
+        }
+    }
+
+    /**
+     * method to get the path of a checkpoint file
+     *
+     * @param prefix         - prefix of the name of the checkpoint file
+     * @param sequenceNumber - sequence number of the last log record covered by
+     *                       the checkpoint
+     * @return path of the checkpoint file
+     */
+    private Path getCheckpointFile(String prefix, long sequenceNumber) {
+        return dataDirectory.resolve(TaskDataFiles.getFileName(prefix, sequenceNumber, CHECKPOINT_FILE_SUFFIX));
+    }
+}
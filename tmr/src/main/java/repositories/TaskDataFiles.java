@@ -0,0 +1,69 @@
+package repositories;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * helper methods for the files of the persistent repositories, which are named
+ * after the sequence number of the last log record they cover
+ */
+final class TaskDataFiles {
+
+    // private constructor to forbid instantiation
+    private TaskDataFiles() {
+    }
+
+    /**
+     * method to build the name of a file from it's sequence number. The sequence
+     * number is padded with zeros, so the names sort in the order of the sequence
+     * numbers.
+     *
+     * @param prefix         - prefix of the file name
+     * @param sequenceNumber - sequence number of the file
+     * @param suffix         - suffix of the file name
+     * @return name of the file
+     */
+    static String getFileName(String prefix, long sequenceNumber, String suffix) {
+        return prefix + String.format("%020d", sequenceNumber) + suffix;
+    }
+
+    /**
+     * method to find the sequence numbers of the files with the given prefix and
+     * suffix
+     *
+     * @param files  - stream of the files of a directory
+     * @param prefix - prefix of the file names
+     * @param suffix - suffix of the file names
+     * @return sequence numbers of the matching files in ascending order
+     */
+    static List<Long> findSequenceNumbers(Stream<Path> files, String prefix, String suffix) {
+        return files.map(file -> file.getFileName().toString())
+                .filter(fileName -> fileName.startsWith(prefix) && fileName.endsWith(suffix))
+                .map(fileName -> fileName.substring(prefix.length(), fileName.length() - suffix.length()))
+                .filter(sequenceNumber -> !sequenceNumber.isEmpty()
+                        && sequenceNumber.chars().allMatch(Character::isDigit))
+                .map(Long::valueOf)
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * method to sync a directory, so that files created, renamed or deleted in it
+     * survive a crash. Platforms which can not open directories, like Windows,
+     * persist such changes without it, so a failure to open the directory is
+     * ignored.
+     *
+     * @param directory - directory to sync
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            // the directory can not be synced on this platform
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package repositories;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * counting Bloom filter of task ids, telling for sure that a task id has not
+ * been added, while an added id is reported as possibly contained. Every id
+ * maps to a fixed number of 4-bit counters derived from two hashes of it's
+ * halves, which are incremented when the id is added and decremented when it
+ * is removed, so that removing an id does not hide other ids sharing a counter.
+ * A counter reaching it's maximum stays there, as it's true count is unknown
+ * afterwards.
+ * <p>
+ * The counters are packed into longs which are updated by compare-and-set, so
+ * the filter is thread-safe without locks. An id must only be removed once for
+ * every time it has been added.
+ */
+final class TaskIdBloomFilter {
+
+    // number of bits of a counter and the counters in a long
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+
+    // value of a counter which has reached it's maximum
+    private static final long SATURATED_COUNTER = (1L << COUNTER_BITS) - 1;
+
+    // number of counters per expected id and the number of counters of an id,
+    // giving a false positive rate of about 1% when the expected number of ids
+    // has been added
+    private static final double COUNTERS_PER_ID = 9.6;
+    private static final int COUNTERS_OF_ID = 7;
+
+    // counters of the filter
+    private final AtomicLongArray counterWords;
+    private final long counterCount;
+
+    /**
+     * constructor
+     *
+     * @param expectedIdCount - number of ids the filter is sized for
+     */
+    TaskIdBloomFilter(long expectedIdCount) {
+        long wordCount = Math.max(1, (long) Math.ceil(expectedIdCount * COUNTERS_PER_ID / COUNTERS_PER_WORD));
+        this.counterWords = new AtomicLongArray(Math.toIntExact(wordCount));
+        this.counterCount = wordCount * COUNTERS_PER_WORD;
+    }
+
+    /**
+     * method to add an id
+     *
+     * @param taskId - id to be added
+     */
+    void add(UUID taskId) {
+        long firstHash = firstHash(taskId);
+        long secondHash = secondHash(taskId, firstHash);
+        for (int counter = 0; counter < COUNTERS_OF_ID; counter++) {
+            this.updateCounter(Math.floorMod(firstHash + counter * secondHash, counterCount), 1);
+        }
+    }
+
+    /**
+     * method to remove an id which has been added
+     *
+     * @param taskId - id to be removed
+     */
+    void remove(UUID taskId) {
+        long firstHash = firstHash(taskId);
+        long secondHash = secondHash(taskId, firstHash);
+        for (int counter = 0; counter < COUNTERS_OF_ID; counter++) {
+            this.updateCounter(Math.floorMod(firstHash + counter * secondHash, counterCount), -1);
+        }
+    }
+
+    /**
+     * method to check if an id might have been added
+     *
+     * @param taskId - id to be checked
+     * @return false if the id has not been added, true if it might have been
+     */
+    boolean mightContain(UUID taskId) {
+        long firstHash = firstHash(taskId);
+        long secondHash = secondHash(taskId, firstHash);
+        for (int counter = 0; counter < COUNTERS_OF_ID; counter++) {
+            if (this.getCounter(Math.floorMod(firstHash + counter * secondHash, counterCount)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * method to get the value of a counter
+     *
+     * @param counterIndex - index of the counter
+     * @return value of the counter
+     */
+    private long getCounter(long counterIndex) {
+        long word = counterWords.get((int) (counterIndex / COUNTERS_PER_WORD));
+        return (word >>> (counterIndex % COUNTERS_PER_WORD * COUNTER_BITS)) & SATURATED_COUNTER;
+    }
+
+    /**
+     * method to increment or decrement a counter, leaving saturated counters and
+     * counters at zero unchanged
+     *
+     * @param counterIndex - index of the counter
+     * @param delta        - 1 to increment the counter, -1 to decrement it
+     */
+    private void updateCounter(long counterIndex, int delta) {
+        int wordIndex = (int) (counterIndex / COUNTERS_PER_WORD);
+        int shift = (int) (counterIndex % COUNTERS_PER_WORD * COUNTER_BITS);
+        while (true) {
+            long word = counterWords.get(wordIndex);
+            long counter = (word >>> shift) & SATURATED_COUNTER;
+            if (counter == SATURATED_COUNTER || (counter == 0 && delta < 0)) {
+                return;
+            }
+            if (counterWords.compareAndSet(wordIndex, word, word + ((long) delta << shift))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * method to get the first hash of an id, the counters of the id being the
+     * first hash plus multiples of the second hash
+     *
+     * @param taskId - id to be hashed
+     * @return first hash of the id
+     */
+    private static long firstHash(UUID taskId) {
+        return mix(taskId.getMostSignificantBits() ^ Long.rotateLeft(taskId.getLeastSignificantBits(), 32));
+    }
+
+    /**
+     * method to get the second hash of an id, which is odd
+     *
+     * @param taskId    - id to be hashed
+     * @param firstHash - first hash of the id
+     * @return second hash of the id
+     */
+    private static long secondHash(UUID taskId, long firstHash) {
+        return mix(taskId.getLeastSignificantBits() + firstHash) | 1;
+    }
+
+    /**
+     * method to spread the bits of a value over all bits of the hash, using the
+     * finalizer of MurmurHash3
+     *
+     * @param value - value to be hashed
+     * @return hash of the value
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,339 @@
+package repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * concurrent hash map keyed by the two halves of a task id. Keys are stored as
+ * pairs of primitive longs in open-addressing tables with linear probing, and
+ * the values in a parallel array, so an entry costs two longs and a reference
+ * instead of a map node, a UUID object and a table slot. Lookups hash the two
+ * longs directly and never allocate.
+ * <p>
+ * The map is split into segments selected by the hash of the key, every
+ * segment having it's own table and StampedLock. Writes of a segment hold it's
+ * write lock, which makes a compute of an entry atomic and lets writes of
+ * different segments run in parallel. Reads first try an optimistic read of
+ * the table without locking and only take the read lock if a write of the same
+ * segment interfered.
+ *
+ * @param <V> - type of the values
+ */
+final class TaskIdHashMap<V> {
+
+    // number of segments, a power of two
+    private static final int SEGMENT_COUNT = 64;
+
+    // shift selecting the segment of a key from the upper bits of it's hash
+    private static final int SEGMENT_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+
+    // initial capacity of the table of a segment, a power of two
+    private static final int INITIAL_TABLE_CAPACITY = 16;
+
+    /**
+     * open-addressing table of a segment. The arrays are replaced together when
+     * the table grows, so a reader always sees arrays of matching lengths.
+     */
+    private static final class Table {
+        // both halves of the key of a slot next to each other, so that comparing a key
+        // touches a single cache line, and the values, a null value marking an empty
+        // slot
+        private final long[] keys;
+        private final Object[] values;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity * 2];
+            this.values = new Object[capacity];
+        }
+    }
+
+    /**
+     * segment of the map with it's own table, being it's own lock to save an
+     * indirection on every lookup
+     */
+    @SuppressWarnings("serial")
+    private static final class Segment extends StampedLock {
+        private Table table = new Table(INITIAL_TABLE_CAPACITY);
+        private int size;
+    }
+
+    // segments of the map
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    /**
+     * constructor
+     */
+    TaskIdHashMap() {
+        for (int segment = 0; segment < SEGMENT_COUNT; segment++) {
+            segments[segment] = new Segment();
+        }
+    }
+
+    /**
+     * method to get the value of a key
+     *
+     * @param mostSignificantBits  - most significant bits of the key
+     * @param leastSignificantBits - least significant bits of the key
+     * @return value of the key, null if the map does not contain the key
+     */
+    V get(long mostSignificantBits, long leastSignificantBits) {
+        int hash = hash(mostSignificantBits, leastSignificantBits);
+        Segment segment = segments[hash >>> SEGMENT_SHIFT];
+
+        // read the table optimistically, which is only valid if no write of the
+        // segment has started in the meantime
+        long stamp = segment.tryOptimisticRead();
+        if (stamp != 0) {
+            V value = findValue(segment.table, hash, mostSignificantBits, leastSignificantBits);
+            if (segment.validate(stamp)) {
+                return value;
+            }
+        }
+
+        // read the table again while holding the read lock
+        stamp = segment.readLock();
+        try {
+            return findValue(segment.table, hash, mostSignificantBits, leastSignificantBits);
+        } finally {
+            segment.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * method to get the value of a key
+     *
+     * @param key - key
+     * @return value of the key, null if the map does not contain the key
+     */
+    V get(UUID key) {
+        return this.get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    /**
+     * method to atomically compute the new value of a key from it's current value
+     * while holding the write lock of it's segment
+     *
+     * @param key             - key
+     * @param mappingFunction - function computing the new value from the current
+     *                        value, which is null if the map does not contain the
+     *                        key, returns null to remove the key
+     * @return new value of the key
+     */
+    V compute(UUID key, UnaryOperator<V> mappingFunction) {
+        return this.update(key.getMostSignificantBits(), key.getLeastSignificantBits(), mappingFunction, false);
+    }
+
+    /**
+     * method to atomically compute the new value of a key from it's current value
+     * while holding the write lock of it's segment, if the map contains the key
+     *
+     * @param key             - key
+     * @param mappingFunction - function computing the new value from the current
+     *                        value, returns null to remove the key
+     * @return new value of the key, null if the map does not contain the key
+     */
+    V computeIfPresent(UUID key, UnaryOperator<V> mappingFunction) {
+        return this.update(key.getMostSignificantBits(), key.getLeastSignificantBits(), mappingFunction, true);
+    }
+
+    /**
+     * method to get the number of keys in the map
+     *
+     * @return number of keys
+     */
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.readLock();
+            try {
+                size += segment.size;
+            } finally {
+                segment.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * method to lazily stream the keys of the map. Every segment is copied while
+     * holding it's read lock when the stream reaches it, so the stream reflects
+     * the writes of a segment either completely or not at all.
+     *
+     * @return stream of the keys
+     */
+    Stream<UUID> streamKeys() {
+        return Stream.of(segments).flatMap(segment -> {
+            List<UUID> keys = new ArrayList<>();
+            long stamp = segment.readLock();
+            try {
+                Table table = segment.table;
+                for (int slot = 0; slot < table.values.length; slot++) {
+                    if (table.values[slot] != null) {
+                        keys.add(new UUID(table.keys[slot * 2], table.keys[slot * 2 + 1]));
+                    }
+                }
+            } finally {
+                segment.unlockRead(stamp);
+            }
+            return keys.stream();
+        });
+    }
+
+    /**
+     * method to update the value of a key while holding the write lock of it's
+     * segment
+     *
+     * @param mostSignificantBits  - most significant bits of the key
+     * @param leastSignificantBits - least significant bits of the key
+     * @param mappingFunction      - function computing the new value from the
+     *                             current one, returns null to remove the key
+     * @param onlyIfPresent        - true to leave a missing key missing
+     * @return new value of the key
+     */
+    private V update(long mostSignificantBits, long leastSignificantBits, UnaryOperator<V> mappingFunction,
+            boolean onlyIfPresent) {
+        int hash = hash(mostSignificantBits, leastSignificantBits);
+        Segment segment = segments[hash >>> SEGMENT_SHIFT];
+
+        long stamp = segment.writeLock();
+        try {
+            // find the slot of the key, or the empty slot ending it's probe sequence
+            Table table = segment.table;
+            int mask = table.values.length - 1;
+            int slot = hash & mask;
+            while (table.values[slot] != null && (table.keys[slot * 2] != mostSignificantBits
+                    || table.keys[slot * 2 + 1] != leastSignificantBits)) {
+                slot = (slot + 1) & mask;
+            }
+            @SuppressWarnings("unchecked")
+            V currentValue = (V) table.values[slot];
+            if (currentValue == null && onlyIfPresent) {
+                return null;
+            }
+
+            // compute the new value and store it, remove the key or leave it missing
+            V newValue = mappingFunction.apply(currentValue);
+            if (newValue != null) {
+                if (currentValue == null) {
+                    table.keys[slot * 2] = mostSignificantBits;
+                    table.keys[slot * 2 + 1] = leastSignificantBits;
+                    segment.size++;
+                }
+                table.values[slot] = newValue;
+
+                // grow the table once it is half full, which keeps the probe sequences
+                // short enough for lookups to beat the ConcurrentHashMap
+                if (segment.size * 2 > table.values.length) {
+                    segment.table = grow(table);
+                }
+            } else if (currentValue != null) {
+                removeSlot(table, slot);
+                segment.size--;
+            }
+            return newValue;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * method to find the value of a key in a table. The table might be modified
+     * while an optimistic read is in progress, so the probe sequence is bounded by
+     * the capacity of the table and the result is only used after validation.
+     *
+     * @param table                - table to search
+     * @param hash                 - hash of the key
+     * @param mostSignificantBits  - most significant bits of the key
+     * @param leastSignificantBits - least significant bits of the key
+     * @return value of the key, null if the table does not contain the key
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> V findValue(Table table, int hash, long mostSignificantBits, long leastSignificantBits) {
+        int mask = table.values.length - 1;
+        int slot = hash & mask;
+        for (int probe = 0; probe <= mask; probe++) {
+            Object value = table.values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (table.keys[slot * 2] == mostSignificantBits && table.keys[slot * 2 + 1] == leastSignificantBits) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * method to empty a slot, shifting the following entries of the probe sequence
+     * back so that no entry becomes unreachable (backward shift deletion)
+     *
+     * @param table - table containing the slot
+     * @param slot  - slot to empty
+     */
+    private static void removeSlot(Table table, int slot) {
+        int mask = table.values.length - 1;
+        int emptySlot = slot;
+        int nextSlot = (slot + 1) & mask;
+        while (table.values[nextSlot] != null) {
+            // move the entry into the empty slot unless it's home slot lies cyclically
+            // between the empty slot and it's current slot
+            int homeSlot = hash(table.keys[nextSlot * 2], table.keys[nextSlot * 2 + 1]) & mask;
+            if (((nextSlot - homeSlot) & mask) >= ((nextSlot - emptySlot) & mask)) {
+                table.keys[emptySlot * 2] = table.keys[nextSlot * 2];
+                table.keys[emptySlot * 2 + 1] = table.keys[nextSlot * 2 + 1];
+                table.values[emptySlot] = table.values[nextSlot];
+                emptySlot = nextSlot;
+            }
+            nextSlot = (nextSlot + 1) & mask;
+        }
+        table.values[emptySlot] = null;
+    }
+
+    /**
+     * method to copy the entries of a table into a new table of twice it's
+     * capacity
+     *
+     * @param table - full table
+     * @return grown table
+     */
+    private static Table grow(Table table) {
+        Table grownTable = new Table(table.values.length * 2);
+        int mask = grownTable.values.length - 1;
+        for (int slot = 0; slot < table.values.length; slot++) {
+            if (table.values[slot] != null) {
+                int newSlot = hash(table.keys[slot * 2], table.keys[slot * 2 + 1]) & mask;
+                while (grownTable.values[newSlot] != null) {
+                    newSlot = (newSlot + 1) & mask;
+                }
+                grownTable.keys[newSlot * 2] = table.keys[slot * 2];
+                grownTable.keys[newSlot * 2 + 1] = table.keys[slot * 2 + 1];
+                grownTable.values[newSlot] = table.values[slot];
+            }
+        }
+        return grownTable;
+    }
+
+    /**
+     * method to hash the two halves of a key, mixing all their bits into the upper
+     * bits selecting the segment and the lower bits selecting the slot
+     *
+     * @param mostSignificantBits  - most significant bits of the key
+     * @param leastSignificantBits - least significant bits of the key
+     * @return hash of the key
+     */
+    private static int hash(long mostSignificantBits, long leastSignificantBits) {
+        // finalizer of MurmurHash3 applied to the combined halves
+        long hash = mostSignificantBits * 0x9E3779B97F4A7C15L ^ leastSignificantBits;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+}
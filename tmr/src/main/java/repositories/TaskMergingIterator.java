@@ -0,0 +1,68 @@
+package repositories;
+
+import models.TaskModel;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * iterator merging sources of tasks ordered by their task id into a single
+ * ordered sequence (k-way merge). If several sources contain the same task id,
+ * the version of the source given first wins, so sources holding versions of
+ * the same tasks have to be given from the newest to the oldest.
+ */
+final class TaskMergingIterator implements Iterator<TaskModel> {
+
+    /**
+     * current task of a source along with the rank of the source
+     */
+    private record SourceHead(TaskModel task, int rank, Iterator<TaskModel> source) {
+    }
+
+    // heads of the sources which are not exhausted, ordered by task id and rank
+    private final PriorityQueue<SourceHead> sourceHeads = new PriorityQueue<>(
+            Comparator.comparing(SourceHead::task, ITaskRepository.TASK_ORDER).thenComparingInt(SourceHead::rank));
+
+    /**
+     * constructor
+     *
+     * @param sources - sources from the newest to the oldest
+     */
+    TaskMergingIterator(List<Iterator<TaskModel>> sources) {
+        for (int rank = 0; rank < sources.size(); rank++) {
+            this.advance(sources.get(rank), rank);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !sourceHeads.isEmpty();
+    }
+
+    @Override
+    public TaskModel next() {
+        // take the newest version of the smallest task id
+        SourceHead newestHead = sourceHeads.poll();
+        if (newestHead == null) {
+            throw new NoSuchElementException();
+        }
+        this.advance(newestHead.source(), newestHead.rank());
+
+        // skip the older versions of the same task id in the other sources
+        while (!sourceHeads.isEmpty()
+                && ITaskRepository.TASK_ORDER.compare(sourceHeads.peek().task(), newestHead.task()) == 0) {
+            SourceHead olderHead = sourceHeads.poll();
+            this.advance(olderHead.source(), olderHead.rank());
+        }
+        return newestHead.task();
+    }
+
+    private void advance(Iterator<TaskModel> source, int rank) {
+        if (source.hasNext()) {
+            sourceHeads.add(new SourceHead(source.next(), rank, source));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package repositories;
+
+import models.TaskModel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * bounded ring buffer passing the mutations of many request threads to a single
+ * writer thread. Every slot carries a sequence number telling whether it is
+ * free for the producer claiming the sequence, or filled for the consumer
+ * reading it: producers claim sequences by a compare-and-set on a shared
+ * counter and publish the mutation by advancing the sequence of the slot, so
+ * that no lock is taken and the order of the claims is the order in which the
+ * consumer applies the mutations. Producers finding the buffer full wait for
+ * the consumer to free a slot, and the consumer finding it empty parks until a
+ * producer wakes it.
+ * <p>
+ * Any number of threads may put mutations, while only a single thread may poll
+ * them.
+ */
+final class TaskMutationRingBuffer {
+
+    /**
+     * mutation of the repository along with the future completed by the writer
+     * once it has been applied
+     */
+    static final class Mutation {
+
+        // operation applied to the store, returning the resulting task
+        final Function<ITaskRepository, TaskModel> operation;
+
+        // future completed with the result of the operation
+        final CompletableFuture<TaskModel> completion = new CompletableFuture<>();
+
+        /**
+         * constructor
+         *
+         * @param operation - operation applied to the store
+         */
+        Mutation(Function<ITaskRepository, TaskModel> operation) {
+            this.operation = operation;
+        }
+    }
+
+    // number of times the consumer checks for a mutation before it parks
+    private static final int CONSUMER_SPINS = 100;
+
+    // number of times a producer waiting for a free slot spins before it yields,
+    // and yields before it parks
+    private static final int PRODUCER_SPINS = 100;
+    private static final int PRODUCER_YIELDS = 200;
+
+    // time a producer waiting for a free slot parks at a time
+    private static final long PRODUCER_PARK_NANOS = 50_000;
+
+    // slots of the buffer, their sequence numbers and the mask turning a sequence
+    // into the index of it's slot
+    private final Mutation[] slots;
+    private final AtomicLongArray slotSequences;
+    private final int indexMask;
+
+    // next sequence to be claimed by a producer
+    private final AtomicLong claimSequence = new AtomicLong();
+
+    // next sequence to be polled, accessed by the consumer only
+    private long pollSequence;
+
+    // consumer while it is parked waiting for a mutation, null otherwise
+    private volatile Thread parkedConsumer;
+
+    /**
+     * constructor
+     *
+     * @param capacity - number of mutations the buffer holds at most, rounded up
+     *                 to a power of two
+     */
+    TaskMutationRingBuffer(int capacity) {
+        int slotCount = Math.max(1, Integer.highestOneBit(capacity - 1) << 1);
+        this.slots = new Mutation[slotCount];
+        this.slotSequences = new AtomicLongArray(slotCount);
+        this.indexMask = slotCount - 1;
+
+        // every slot is free for the first sequence mapped to it
+        for (int index = 0; index < slotCount; index++) {
+            this.slotSequences.set(index, index);
+        }
+    }
+
+    /**
+     * method to put a mutation into the buffer, waiting for a free slot if the
+     * buffer is full
+     *
+     * @param mutation - mutation to be applied by the consumer
+     */
+    void put(Mutation mutation) {
+        // claim the next sequence once it's slot has been freed
+        long sequence;
+        int waits = 0;
+        while (true) {
+            sequence = claimSequence.get();
+            long slotSequence = slotSequences.get((int) sequence & indexMask);
+            if (slotSequence == sequence) {
+                if (claimSequence.compareAndSet(sequence, sequence + 1)) {
+                    break;
+                }
+            } else if (slotSequence < sequence) {
+                // the slot still holds the mutation of the previous round
+                waitForFreeSlot(waits++);
+            }
+        }
+
+        // publish the mutation by advancing the sequence of it's slot
+        int index = (int) sequence & indexMask;
+        slots[index] = mutation;
+        slotSequences.set(index, sequence + 1);
+
+        // wake the consumer if it is waiting for mutations
+        this.wakeConsumer();
+    }
+
+    /**
+     * method to take the next mutation from the buffer without waiting, to be
+     * called by the consumer only
+     *
+     * @return next mutation, null if the buffer is empty
+     */
+    Mutation poll() {
+        int index = (int) pollSequence & indexMask;
+        if (slotSequences.get(index) != pollSequence + 1) {
+            return null;
+        }
+
+        // take the mutation and free the slot for the sequence of the next round
+        Mutation mutation = slots[index];
+        slots[index] = null;
+        slotSequences.set(index, pollSequence + slots.length);
+        pollSequence++;
+        return mutation;
+    }
+
+    /**
+     * method to wait until the buffer might hold a mutation, to be called by the
+     * consumer only. The method returns early when the consumer is unparked.
+     */
+    void awaitMutation() {
+        // spin briefly, as mutations usually arrive in bursts
+        for (int spin = 0; spin < CONSUMER_SPINS; spin++) {
+            if (!this.isEmpty()) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+
+        // announce the parking before checking a last time, so that a producer
+        // publishing in between sees the announcement and wakes the consumer
+        parkedConsumer = Thread.currentThread();
+        if (this.isEmpty()) {
+            LockSupport.park(this);
+        }
+        parkedConsumer = null;
+    }
+
+    /**
+     * method to wake the consumer if it is parked
+     */
+    private void wakeConsumer() {
+        Thread consumer = parkedConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * method to check if the buffer holds no mutation to be polled, to be called
+     * by the consumer only
+     *
+     * @return true if the buffer is empty
+     */
+    boolean isEmpty() {
+        return slotSequences.get((int) pollSequence & indexMask) != pollSequence + 1;
+    }
+
+    /**
+     * method to get the number of slots of the buffer
+     *
+     * @return capacity of the buffer
+     */
+    int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * method to let a producer wait for the consumer to free a slot, spinning
+     * first, then yielding and finally parking for short times
+     *
+     * @param waits - number of times the producer waited already
+     */
+    private static void waitForFreeSlot(int waits) {
+        if (waits < PRODUCER_SPINS) {
+            Thread.onSpinWait();
+        } else if (waits < PRODUCER_SPINS + PRODUCER_YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+        }
+    }
+}
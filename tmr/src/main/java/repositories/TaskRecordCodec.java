@@ -0,0 +1,127 @@
+package repositories;
+
+import models.TaskModel;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * codec to convert task objects to and from the compact binary records used by
+ * the persistent repositories. A task record starts with the fixed size
+ * attributes of the task, i.e. the two halves of the task id, the timestamps
+ * and the packed flags, followed by the length prefixed UTF-8 encoded title and
+ * description.
+ */
+final class TaskRecordCodec {
+
+    // length of the fixed size attributes at the start of a task record
+    static final int FIXED_LENGTH = 4 * Long.BYTES + Byte.BYTES;
+
+    // length prefix written for a null string
+    private static final int NULL_STRING_LENGTH = -1;
+
+    // private constructor to forbid instantiation
+    private TaskRecordCodec() {
+    }
+
+    /**
+     * method to encode a task object into a binary task record
+     *
+     * @param taskObject - task object to encode
+     * @return binary task record
+     */
+    static byte[] encodeTask(TaskModel taskObject) {
+        // encode the string attributes of the task
+        byte[] taskTitle = encodeString(taskObject.getTaskTitle());
+        byte[] taskDescription = encodeString(taskObject.getTaskDescription());
+
+        // write the fixed size and the encoded attributes into a buffer of the exact
+        // size
+        ByteBuffer buffer = ByteBuffer
+                .allocate(FIXED_LENGTH + encodedLength(taskTitle) + encodedLength(taskDescription));
+        buffer.putLong(taskObject.getTaskIdMostSignificantBits());
+        buffer.putLong(taskObject.getTaskIdLeastSignificantBits());
+        buffer.putLong(taskObject.getTaskCreatedOn());
+        buffer.putLong(taskObject.getTaskLastUpdatedOn());
+        buffer.put(taskObject.getTaskFlags());
+        putString(buffer, taskTitle);
+        putString(buffer, taskDescription);
+
+        // return the binary task record
+        return buffer.array();
+    }
+
+    /**
+     * method to decode a task object from a binary task record
+     *
+     * @param buffer - buffer positioned at the start of the binary task record,
+     *               it is positioned after the record when this method returns
+     * @return decoded task object
+     */
+    static TaskModel decodeTask(ByteBuffer buffer) {
+        // read the attributes in the order they were written
+        long taskIdMostSignificantBits = buffer.getLong();
+        long taskIdLeastSignificantBits = buffer.getLong();
+        long taskCreatedOn = buffer.getLong();
+        long taskLastUpdatedOn = buffer.getLong();
+        byte taskFlags = buffer.get();
+        String taskTitle = getString(buffer);
+        String taskDescription = getString(buffer);
+
+        // create and return the task object
+        return new TaskModel(taskIdMostSignificantBits, taskIdLeastSignificantBits, taskTitle, taskDescription,
+                taskCreatedOn, taskLastUpdatedOn, taskFlags);
+    }
+
+    /**
+     * method to encode a task id into a binary record
+     *
+     * @param taskId - task id to encode
+     * @return binary task id record
+     */
+    static byte[] encodeTaskId(UUID taskId) {
+        return ByteBuffer.allocate(2 * Long.BYTES)
+                .putLong(taskId.getMostSignificantBits())
+                .putLong(taskId.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * method to decode a task id from a binary record
+     *
+     * @param buffer - buffer positioned at the start of the binary task id record
+     *               or of a binary task record
+     * @return decoded task id
+     */
+    static UUID decodeTaskId(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static byte[] encodeString(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int encodedLength(byte[] encodedValue) {
+        return Integer.BYTES + (encodedValue == null ? 0 : encodedValue.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] encodedValue) {
+        if (encodedValue == null) {
+            buffer.putInt(NULL_STRING_LENGTH);
+        } else {
+            buffer.putInt(encodedValue.length);
+            buffer.put(encodedValue);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_STRING_LENGTH) {
+            return null;
+        }
+        byte[] encodedValue = new byte[length];
+        buffer.get(encodedValue);
+        return new String(encodedValue, StandardCharsets.UTF_8);
+    }
+}
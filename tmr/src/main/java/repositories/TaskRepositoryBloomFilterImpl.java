@@ -0,0 +1,172 @@
+package repositories;
+
+import models.TaskModel;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * implementation class of the ITaskRepository interface which keeps a counting
+ * Bloom filter of the ids of the live tasks of another repository, so that
+ * lookups of ids which do not exist, like stale or deleted ids polled by
+ * clients or random ids, are answered without asking a slow backend. The filter
+ * is filled with the live tasks of the backend when the repository is created.
+ * <p>
+ * The id of a task is added to the filter before the task is written to the
+ * backend, so that a lookup never misses a stored task. An id is removed once
+ * an update has turned it's live task into a deleted one, which the backend
+ * only reports for a single update per deletion. Deletions by deleteTaskById do
+ * not tell whether a live task was deleted, so their ids stay in the filter
+ * and are looked up in the backend. An update by updateTaskById only adds the
+ * id if no live task existed before, so that the id of a task is counted once
+ * no matter how often it is updated, and it's deletion removes it again.
+ * <p>
+ * The numbers of filtered lookups and of false positives are exported as
+ * metrics named 'TaskRepositoryBloomFilter'.
+ */
+public class TaskRepositoryBloomFilterImpl implements ITaskRepository, ITaskRepositoryBloomFilterMetrics {
+
+    // name of the exported metrics
+    public static final String METRICS_NAME = "TaskRepositoryBloomFilter";
+
+    // repository holding the tasks
+    private final ITaskRepository backend;
+
+    // filter of the ids of the live tasks
+    private final TaskIdBloomFilter liveTaskIdFilter;
+
+    // numbers of lookups of ids which do not exist, answered by the filter or by
+    // the backend after the filter reported a false positive
+    private final LongAdder filteredLookupCount = new LongAdder();
+    private final LongAdder falsePositiveCount = new LongAdder();
+
+    /**
+     * constructor to fill the filter with the ids of the live tasks of the
+     * backend, visible to the current package only
+     *
+     * @param backend           - repository holding the tasks
+     * @param expectedTaskCount - number of tasks the filter is sized for
+     */
+    TaskRepositoryBloomFilterImpl(ITaskRepository backend, long expectedTaskCount) {
+        this.backend = backend;
+        this.liveTaskIdFilter = new TaskIdBloomFilter(expectedTaskCount);
+
+        // add the ids of the stored tasks
+        try (Stream<TaskModel> liveTasks = backend.streamAllTasks()) {
+            liveTasks.forEach(liveTask -> liveTaskIdFilter.add(liveTask.getTaskId()));
+        }
+    }
+
+    @Override
+    public Stream<TaskModel> streamTasksAfter(UUID afterTaskId) {
+        return backend.streamTasksAfter(afterTaskId);
+    }
+
+    @Override
+    public List<TaskModel> findAllTasks() {
+        return backend.findAllTasks();
+    }
+
+    @Override
+    public List<TaskModel> findTasksAfter(UUID afterTaskId, int limit) {
+        return backend.findTasksAfter(afterTaskId, limit);
+    }
+
+    @Override
+    public List<TaskModel> findTasksByCompletionStatus(boolean taskCompleted) {
+        return backend.findTasksByCompletionStatus(taskCompleted);
+    }
+
+    @Override
+    public TaskModel findTaskById(UUID taskId) {
+        // answer the lookup without the backend if the id is not in the filter
+        if (!liveTaskIdFilter.mightContain(taskId)) {
+            filteredLookupCount.increment();
+            return null;
+        }
+
+        // count the lookups the filter could not spare the backend
+        TaskModel existingTask = backend.findTaskById(taskId);
+        if (existingTask == null) {
+            falsePositiveCount.increment();
+        }
+        return existingTask;
+    }
+
+    @Override
+    public void addNewTask(TaskModel newTask) {
+        liveTaskIdFilter.add(newTask.getTaskId());
+        backend.addNewTask(newTask);
+    }
+
+    @Override
+    public void deleteTaskById(UUID taskId) {
+        backend.deleteTaskById(taskId);
+    }
+
+    @Override
+    public void updateTaskById(UUID taskId, TaskModel updatedTaskData) {
+        // replace a live task atomically, whose id is in the filter already, removing
+        // the id if the update deletes the task
+        if (backend.computeTaskById(taskId, existingTask -> updatedTaskData) != null) {
+            if (updatedTaskData.isTaskDeleted()) {
+                liveTaskIdFilter.remove(taskId);
+            }
+            return;
+        }
+
+        // otherwise the update creates the task, whose id is added before it is
+        // written. Racing creations of the same task might add it's id twice, which
+        // only keeps the id in the filter for longer.
+        if (!updatedTaskData.isTaskDeleted()) {
+            liveTaskIdFilter.add(taskId);
+        }
+        backend.updateTaskById(taskId, updatedTaskData);
+    }
+
+    @Override
+    public TaskModel computeTaskById(UUID taskId, UnaryOperator<TaskModel> updateFunction) {
+        // remove the id if the update deleted the live task, which is reported for the
+        // first deletion only, as deleted tasks are not updated
+        TaskModel updatedTask = backend.computeTaskById(taskId, updateFunction);
+        if (updatedTask != null && updatedTask.isTaskDeleted()) {
+            liveTaskIdFilter.remove(taskId);
+        }
+        return updatedTask;
+    }
+
+    @Override
+    public boolean isReturningStoredTasks() {
+        return backend.isReturningStoredTasks();
+    }
+
+    @Override
+    public void applyWriteBatch(Runnable writeBatch) {
+        backend.applyWriteBatch(writeBatch);
+    }
+
+    @Override
+    public void close() {
+        backend.close();
+    }
+
+    @Override
+    public long getFilteredLookupCount() {
+        return filteredLookupCount.sum();
+    }
+
+    @Override
+    public long getFalsePositiveCount() {
+        return falsePositiveCount.sum();
+    }
+
+    @Override
+    public double getFalsePositiveRate() {
+        long falsePositives = falsePositiveCount.sum();
+        long missingLookups = falsePositives + filteredLookupCount.sum();
+        return missingLookups == 0 ? 0 : (double) falsePositives / missingLookups;
+    }
+}
@@ -0,0 +1,228 @@
+package repositories;
+
+import models.TaskModel;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * implementation class of the ITaskRepository interface which caches the tasks
+ * found by their id in front of another repository, so that repeated lookups of
+ * the same tasks do not go to a slow backend. The cache holds a bounded number
+ * of tasks and evicts the least recently used one when it is full. It is split
+ * into segments by the hash of the task ids, each having it's own lock, so that
+ * lookups of different tasks do not wait for each other.
+ * <p>
+ * Writes go to the backend first and then invalidate the cached task. Every
+ * invalidation is counted per segment, and a task loaded from the backend is
+ * only cached if no invalidation of it's segment happened during the load, so
+ * that a lookup racing with a write can not cache the replaced version. Tasks
+ * which are not found are not cached, and listings always go to the backend.
+ * <p>
+ * The numbers of hits, misses and evictions are exported as metrics named
+ * 'TaskRepositoryCache'.
+ */
+public class TaskRepositoryCachingImpl implements ITaskRepository, ITaskRepositoryCacheMetrics {
+
+    // name of the exported metrics
+    public static final String METRICS_NAME = "TaskRepositoryCache";
+
+    // maximum number of segments of the cache
+    private static final int MAX_SEGMENT_COUNT = 16;
+
+    /**
+     * segment of the cache, holding the tasks in the order of their last access
+     */
+    private static final class Segment {
+        // cached tasks by their id, iterated from the least recently used one
+        final LinkedHashMap<UUID, TaskModel> cachedTasks = new LinkedHashMap<>(16, 0.75f, true);
+
+        // number of invalidations of the segment
+        long invalidationCount;
+    }
+
+    // repository holding the tasks
+    private final ITaskRepository backend;
+
+    // segments of the cache and the number of tasks each of them holds at most
+    private final Segment[] segments;
+    private final int segmentCapacity;
+
+    // numbers of lookups answered from the cache and from the backend, and of
+    // evicted tasks
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * constructor, visible to the current package only
+     *
+     * @param backend  - repository holding the tasks
+     * @param capacity - number of tasks the cache holds at most
+     */
+    TaskRepositoryCachingImpl(ITaskRepository backend, int capacity) {
+        this.backend = backend;
+
+        // use a single segment for small caches, so that the capacity is not split
+        // into segments of a few tasks
+        int segmentCount = Math.max(1, Math.min(MAX_SEGMENT_COUNT, Integer.highestOneBit(capacity / 64)));
+        this.segments = new Segment[segmentCount];
+        for (int segment = 0; segment < segmentCount; segment++) {
+            this.segments[segment] = new Segment();
+        }
+        this.segmentCapacity = Math.max(1, (capacity + segmentCount - 1) / segmentCount);
+    }
+
+    @Override
+    public Stream<TaskModel> streamTasksAfter(UUID afterTaskId) {
+        return backend.streamTasksAfter(afterTaskId);
+    }
+
+    @Override
+    public List<TaskModel> findAllTasks() {
+        return backend.findAllTasks();
+    }
+
+    @Override
+    public List<TaskModel> findTasksAfter(UUID afterTaskId, int limit) {
+        return backend.findTasksAfter(afterTaskId, limit);
+    }
+
+    @Override
+    public List<TaskModel> findTasksByCompletionStatus(boolean taskCompleted) {
+        return backend.findTasksByCompletionStatus(taskCompleted);
+    }
+
+    @Override
+    public TaskModel findTaskById(UUID taskId) {
+        // look up the task in the cache
+        Segment segment = this.getSegment(taskId);
+        long invalidationCount;
+        synchronized (segment) {
+            TaskModel cachedTask = segment.cachedTasks.get(taskId);
+            if (cachedTask != null) {
+                hitCount.increment();
+                return cachedTask;
+            }
+            invalidationCount = segment.invalidationCount;
+        }
+        missCount.increment();
+
+        // load the task from the backend without holding the lock of the segment
+        TaskModel loadedTask = backend.findTaskById(taskId);
+        if (loadedTask == null) {
+            return null;
+        }
+
+        // cache the loaded task unless it might have been written during the load,
+        // evicting the least recently used task if the segment is full
+        synchronized (segment) {
+            if (segment.invalidationCount == invalidationCount) {
+                segment.cachedTasks.put(taskId, loadedTask);
+                if (segment.cachedTasks.size() > segmentCapacity) {
+                    Iterator<UUID> leastRecentlyUsed = segment.cachedTasks.keySet().iterator();
+                    leastRecentlyUsed.next();
+                    leastRecentlyUsed.remove();
+                    evictionCount.increment();
+                }
+            }
+        }
+        return loadedTask;
+    }
+
+    @Override
+    public void addNewTask(TaskModel newTask) {
+        backend.addNewTask(newTask);
+        this.invalidate(newTask.getTaskId());
+    }
+
+    @Override
+    public void deleteTaskById(UUID taskId) {
+        backend.deleteTaskById(taskId);
+        this.invalidate(taskId);
+    }
+
+    @Override
+    public void updateTaskById(UUID taskId, TaskModel updatedTaskData) {
+        backend.updateTaskById(taskId, updatedTaskData);
+        this.invalidate(taskId);
+    }
+
+    @Override
+    public TaskModel computeTaskById(UUID taskId, UnaryOperator<TaskModel> updateFunction) {
+        // invalidate the task even if the update failed, as the backend might have
+        // stored it nevertheless
+        try {
+            return backend.computeTaskById(taskId, updateFunction);
+        } finally {
+            this.invalidate(taskId);
+        }
+    }
+
+    @Override
+    public boolean isReturningStoredTasks() {
+        // lookups return the cached task objects
+        return true;
+    }
+
+    @Override
+    public void applyWriteBatch(Runnable writeBatch) {
+        backend.applyWriteBatch(writeBatch);
+    }
+
+    @Override
+    public void close() {
+        backend.close();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hits = hitCount.sum();
+        long lookups = hits + missCount.sum();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * method to remove a written task from the cache, making lookups which are
+     * loading it from the backend at the same time not cache their result
+     *
+     * @param taskId - id of the written task
+     */
+    private void invalidate(UUID taskId) {
+        Segment segment = this.getSegment(taskId);
+        synchronized (segment) {
+            segment.cachedTasks.remove(taskId);
+            segment.invalidationCount++;
+        }
+    }
+
+    /**
+     * method to get the segment of the cache holding a task
+     *
+     * @param taskId - id of the task
+     * @return segment of the task
+     */
+    private Segment getSegment(UUID taskId) {
+        return segments[(taskId.hashCode() & Integer.MAX_VALUE) % segments.length];
+    }
+}
@@ -0,0 +1,347 @@
+package repositories;
+
+import models.TaskModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * implementation class of the ITaskRepository interface which stores the tasks
+ * in local memory column by column instead of as task objects. Every task
+ * occupies a row, and every attribute a column: the halves of the task ids and
+ * the timestamps are stored in long arrays, the completed and deleted flags in
+ * bitsets of one bit per row, and the titles and descriptions in a
+ * TaskTextArena, of which a column holds the handles.
+ * <p>
+ * Filtering tasks by their flags therefore combines the bitsets 64 rows at a
+ * time without touching any other column, and only the matching rows are
+ * decoded into task objects. The columns are guarded by a read-write lock,
+ * so scans and lookups run in parallel while writes are serialized, which also
+ * makes the read-modify-write of computeTaskById atomic. An ordered index maps
+ * the task ids to their rows for lookups and listings.
+ * <p>
+ * The text arena allocates it's memory off the heap by default, which keeps
+ * the unbounded descriptions out of the heap, so that the pauses of the
+ * garbage collector do not grow with the size of the texts. Texts are only
+ * ever appended to the arena, and it is compacted once half of it belongs to
+ * replaced texts.
+ */
+public class TaskRepositoryColumnarImpl implements ITaskRepository {
+
+    // initial number of rows of the columns
+    private static final int INITIAL_ROW_CAPACITY = 1024;
+
+    // largest size of an array supported by all virtual machines
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    // ordered index mapping the id of every task, including deleted ones, to it's
+    // row
+    private final NavigableMap<UUID, Integer> rowNumbers = new ConcurrentSkipListMap<>(TASK_ID_ORDER);
+
+    // lock guarding the columns
+    private final ReentrantReadWriteLock columnLock = new ReentrantReadWriteLock();
+
+    // number of rows in use, all rows below it holding a task
+    private int rowCount;
+
+    // columns of the task ids and the timestamps
+    private long[] taskIdMostSignificantBits = new long[INITIAL_ROW_CAPACITY];
+    private long[] taskIdLeastSignificantBits = new long[INITIAL_ROW_CAPACITY];
+    private long[] taskCreatedOn = new long[INITIAL_ROW_CAPACITY];
+    private long[] taskLastUpdatedOn = new long[INITIAL_ROW_CAPACITY];
+
+    // bitsets of the completed and deleted flags, bit 'row % 64' of word 'row /
+    // 64' belonging to a row
+    private long[] completedBits = new long[INITIAL_ROW_CAPACITY / Long.SIZE];
+    private long[] deletedBits = new long[INITIAL_ROW_CAPACITY / Long.SIZE];
+
+    // column of the handles of the titles and descriptions in the text arena, and
+    // the arena
+    private long[] textHandles = new long[INITIAL_ROW_CAPACITY];
+    private final TaskTextArena textArena;
+
+    // create default constructor to limit instantiation capabilities to the current
+    // package only, storing the texts off the heap
+    TaskRepositoryColumnarImpl() {
+        this(TaskTextArena.DEFAULT_CHUNK_SIZE, true);
+    }
+
+    /**
+     * constructor to select where the texts are stored, visible to the current
+     * package only
+     *
+     * @param textChunkSize - size of the chunks of the text arena
+     * @param offHeapText   - boolean flag indicating if the texts are stored off
+     *                      the heap
+     */
+    TaskRepositoryColumnarImpl(int textChunkSize, boolean offHeapText) {
+        this.textArena = new TaskTextArena(textChunkSize, offHeapText);
+    }
+
+    @Override
+    public Stream<TaskModel> streamTasksAfter(UUID afterTaskId) {
+        // seek to the first task id after the given one in the ordered index and
+        // lazily decode the rows from there, skipping deleted tasks
+        return (afterTaskId == null ? rowNumbers : rowNumbers.tailMap(afterTaskId, false)).values().stream()
+                .map(this::readLiveTask)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public TaskModel findTaskById(UUID taskId) {
+        // find the row of the task
+        Integer rowNumber = rowNumbers.get(taskId);
+        if (rowNumber == null) {
+            // return null as no task found with the given id
+            return null;
+        }
+
+        // decode the row unless the task is deleted
+        return this.readLiveTask(rowNumber);
+    }
+
+    @Override
+    public List<TaskModel> findTasksByCompletionStatus(boolean taskCompleted) {
+        List<TaskModel> matchingTasks = new ArrayList<>();
+        columnLock.readLock().lock();
+        try {
+            // combine the bitsets a word of 64 rows at a time, selecting the rows which
+            // are not deleted and have the requested completion flag
+            int wordCount = (rowCount + Long.SIZE - 1) / Long.SIZE;
+            for (int word = 0; word < wordCount; word++) {
+                long matchingBits = ~deletedBits[word] & (taskCompleted ? completedBits[word] : ~completedBits[word]);
+
+                // ignore the bits of the unused rows of the last word
+                if (word == wordCount - 1 && rowCount % Long.SIZE != 0) {
+                    matchingBits &= (1L << (rowCount % Long.SIZE)) - 1;
+                }
+
+                // decode the matching rows only
+                while (matchingBits != 0) {
+                    matchingTasks.add(this.readRow(word * Long.SIZE + Long.numberOfTrailingZeros(matchingBits)));
+                    matchingBits &= matchingBits - 1;
+                }
+            }
+        } finally {
+            columnLock.readLock().unlock();
+        }
+
+        // return the matching tasks ordered by their id
+        matchingTasks.sort(TASK_ORDER);
+        return matchingTasks;
+    }
+
+    @Override
+    public void addNewTask(TaskModel newTask) {
+        // add new task record (i.e. instance of TaskModel) to the database
+        this.storeTask(newTask.getTaskId(), newTask);
+    }
+
+    @Override
+    public void deleteTaskById(UUID taskId) {
+        columnLock.writeLock().lock();
+        try {
+            // set the deleted flag of the row, the texts of which are not needed anymore
+            Integer rowNumber = rowNumbers.get(taskId);
+            if (rowNumber != null && !isBitSet(deletedBits, rowNumber)) {
+                setBit(deletedBits, rowNumber, true);
+                this.storeTexts(rowNumber, TaskTextArena.NULL_HANDLE);
+            }
+        } finally {
+            columnLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateTaskById(UUID taskId, TaskModel updatedTaskData) {
+        // update the existing task object mapped by it's corresponding id
+        this.storeTask(taskId, updatedTaskData);
+    }
+
+    @Override
+    public TaskModel computeTaskById(UUID taskId, UnaryOperator<TaskModel> updateFunction) {
+        columnLock.writeLock().lock();
+        try {
+            // find the row of the task, nothing to update if it is missing or deleted
+            Integer rowNumber = rowNumbers.get(taskId);
+            if (rowNumber == null || isBitSet(deletedBits, rowNumber)) {
+                return null;
+            }
+
+            // apply the update function to the decoded row and store the result in
+            // the same row
+            TaskModel existingTaskObject = this.readRow(rowNumber);
+            TaskModel updatedTaskObject = updateFunction.apply(existingTaskObject);
+            this.writeRow(rowNumber, updatedTaskObject, existingTaskObject);
+            return updatedTaskObject;
+        } finally {
+            columnLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * method to store a task object in the row of it's id, appending a new row if
+     * the id is not known yet
+     *
+     * @param taskId     - id of the task object
+     * @param taskObject - task object to store
+     */
+    private void storeTask(UUID taskId, TaskModel taskObject) {
+        columnLock.writeLock().lock();
+        try {
+            Integer rowNumber = rowNumbers.get(taskId);
+            if (rowNumber == null) {
+                rowNumber = this.appendRow();
+                this.writeRow(rowNumber, taskObject, null);
+                rowNumbers.put(taskId, rowNumber);
+            } else {
+                this.writeRow(rowNumber, taskObject, null);
+            }
+        } finally {
+            columnLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * method to decode a row into a task object, unless the task is deleted
+     *
+     * @param rowNumber - row of the task
+     * @return task object, null if the task is deleted
+     */
+    private TaskModel readLiveTask(int rowNumber) {
+        columnLock.readLock().lock();
+        try {
+            return isBitSet(deletedBits, rowNumber) ? null : this.readRow(rowNumber);
+        } finally {
+            columnLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * method to decode a row into a task object while holding the lock of the
+     * columns
+     *
+     * @param rowNumber - row of the task
+     * @return task object
+     */
+    private TaskModel readRow(int rowNumber) {
+        byte taskFlags = (byte) ((isBitSet(completedBits, rowNumber) ? TaskModel.TASK_COMPLETED_FLAG : 0)
+                | (isBitSet(deletedBits, rowNumber) ? TaskModel.TASK_DELETED_FLAG : 0));
+        return new TaskModel(taskIdMostSignificantBits[rowNumber], taskIdLeastSignificantBits[rowNumber],
+                textArena.readTitle(textHandles[rowNumber]), textArena.readDescription(textHandles[rowNumber]),
+                taskCreatedOn[rowNumber], taskLastUpdatedOn[rowNumber], taskFlags);
+    }
+
+    /**
+     * method to write a task object into a row while holding the write lock of the
+     * columns. Texts which are the same instances as the ones of the replaced task
+     * object are kept in place instead of being appended to the arena again.
+     *
+     * @param rowNumber          - row of the task
+     * @param taskObject         - task object to write
+     * @param existingTaskObject - task object decoded from the row before, null if
+     *                           unknown
+     */
+    private void writeRow(int rowNumber, TaskModel taskObject, TaskModel existingTaskObject) {
+        taskIdMostSignificantBits[rowNumber] = taskObject.getTaskIdMostSignificantBits();
+        taskIdLeastSignificantBits[rowNumber] = taskObject.getTaskIdLeastSignificantBits();
+        taskCreatedOn[rowNumber] = taskObject.getTaskCreatedOn();
+        taskLastUpdatedOn[rowNumber] = taskObject.getTaskLastUpdatedOn();
+        setBit(completedBits, rowNumber, taskObject.isTaskCompleted());
+        setBit(deletedBits, rowNumber, taskObject.isTaskDeleted());
+        if (existingTaskObject == null || taskObject.getTaskTitle() != existingTaskObject.getTaskTitle()
+                || taskObject.getTaskDescription() != existingTaskObject.getTaskDescription()) {
+            this.storeTexts(rowNumber,
+                    textArena.append(taskObject.getTaskTitle(), taskObject.getTaskDescription()));
+        }
+    }
+
+    /**
+     * method to point a row to new texts, releasing the replaced ones and
+     * compacting the text arena once half of it belongs to replaced texts
+     *
+     * @param rowNumber  - row of the task
+     * @param textHandle - handle of the new texts, NULL_HANDLE for none
+     */
+    private void storeTexts(int rowNumber, long textHandle) {
+        textArena.release(textHandles[rowNumber]);
+        textHandles[rowNumber] = textHandle;
+        if (textArena.needsCompaction()) {
+            textArena.compact(textHandles, rowCount);
+        }
+    }
+
+    /**
+     * method to append an empty row, growing the columns if they are full
+     *
+     * @return number of the appended row
+     */
+    private int appendRow() {
+        if (rowCount == taskIdMostSignificantBits.length) {
+            if (rowCount == MAX_ARRAY_SIZE) {
+                throw new OutOfMemoryError("Required number of rows too large");
+            }
+            int rowCapacity = (int) Math.min(MAX_ARRAY_SIZE, 2L * rowCount);
+            taskIdMostSignificantBits = Arrays.copyOf(taskIdMostSignificantBits, rowCapacity);
+            taskIdLeastSignificantBits = Arrays.copyOf(taskIdLeastSignificantBits, rowCapacity);
+            taskCreatedOn = Arrays.copyOf(taskCreatedOn, rowCapacity);
+            taskLastUpdatedOn = Arrays.copyOf(taskLastUpdatedOn, rowCapacity);
+            completedBits = Arrays.copyOf(completedBits, (rowCapacity + Long.SIZE - 1) / Long.SIZE);
+            deletedBits = Arrays.copyOf(deletedBits, (rowCapacity + Long.SIZE - 1) / Long.SIZE);
+            textHandles = Arrays.copyOf(textHandles, rowCapacity);
+        }
+
+        // a new row has no texts yet
+        textHandles[rowCount] = TaskTextArena.NULL_HANDLE;
+        return rowCount++;
+    }
+
+    /**
+     * method to get the number of bytes used by the text arena, including replaced
+     * texts
+     *
+     * @return number of used bytes
+     */
+    long getTextArenaSize() {
+        columnLock.readLock().lock();
+        try {
+            return textArena.getUsedSize();
+        } finally {
+            columnLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * method to check if the bit of a row is set in a bitset
+     *
+     * @param bits      - bitset
+     * @param rowNumber - row
+     * @return true if the bit is set
+     */
+    private static boolean isBitSet(long[] bits, int rowNumber) {
+        return (bits[rowNumber / Long.SIZE] & (1L << rowNumber)) != 0;
+    }
+
+    /**
+     * method to set or clear the bit of a row in a bitset
+     *
+     * @param bits      - bitset
+     * @param rowNumber - row
+     * @param isSet     - boolean flag indicating if the bit is set or cleared
+     */
+    private static void setBit(long[] bits, int rowNumber, boolean isSet) {
+        if (isSet) {
+            bits[rowNumber / Long.SIZE] |= 1L << rowNumber;
+        } else {
+            bits[rowNumber / Long.SIZE] &= ~(1L << rowNumber);
+        }
+    }
+}
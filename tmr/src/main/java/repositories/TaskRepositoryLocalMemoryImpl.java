@@ -2,33 +2,175 @@ package repositories;
 
 import models.TaskModel;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 /**
  * implementation class of the ITaskRepository interface with database as a
- * local in-memory HashMap
+ * local in-memory TaskIdHashMap. The map is keyed by the two halves of the
+ * task ids, locks a segment of it's entries on writes and reads optimistically
+ * without locking, so the request threads of the servlet container can read
+ * and write different tasks in parallel without a global lock. The stored task
+ * objects are immutable and every write replaces the reference in the map, so
+ * readers always see a complete version of a task.
+ * <p>
+ * Deleted tasks stay in the map as tombstones, so that they are still known as
+ * deleted. If enabled, a background reaper removes tombstones once they are
+ * older than a retention period, examining at most a fixed number of them per
+ * run so that a burst of deletions does not hold up the reaper thread. Listings
+ * only walk the index of live tasks, and the numbers of live and deleted tasks
+ * are counted separately.
+ * <p>
+ * Streams read a snapshot of the tasks, i.e. the version of every task which
+ * was current when the stream was created, while writes go on without waiting
+ * for them. While snapshots are open, every write numbers the new version of a
+ * task and links it to the version it replaced instead of dropping it, and the
+ * ids of deleted tasks stay in the index. Once a snapshot is closed, the
+ * versions which no open snapshot reads anymore are dropped again, so that
+ * without open snapshots a task is stored as a plain task object.
  */
 public class TaskRepositoryLocalMemoryImpl implements ITaskRepository {
-    // create local in-memory HashMap to store task data
-    Map<String, TaskModel> tasks = new HashMap<>();
+    // listener used by the public write methods, which does nothing
+    private static final TaskWriteListener NO_WRITE_LISTENER = (taskId, storedTask) -> {
+    };
+
+    // create local in-memory TaskIdHashMap to store task data, mapping the id of a
+    // task to it's task object, or to the latest TaskVersion of it while versions
+    // are kept for open snapshots
+    TaskIdHashMap<Object> tasks = new TaskIdHashMap<>();
+
+    // ordered index of the ids of all tasks which are not deleted, used to list
+    // tasks in a stable order and to seek to the start of a page. Tasks deleted
+    // while snapshots are open stay in it until no snapshot lists them anymore.
+    NavigableSet<UUID> liveTaskIds = new ConcurrentSkipListSet<>(TASK_ID_ORDER);
+
+    // numbers of live and deleted tasks in the map
+    private final LongAdder liveTaskCount = new LongAdder();
+    private final LongAdder deletedTaskCount = new LongAdder();
+
+    /**
+     * deleted task object along with the time of it's deletion
+     *
+     * @param deletedTaskObject - stored version of the deleted task
+     * @param deletedOnMillis   - time of the deletion in milliseconds since the
+     *                          epoch
+     */
+    private record Tombstone(TaskModel deletedTaskObject, long deletedOnMillis) {
+    }
+
+    /**
+     * version of a task object kept for open snapshots, linked to the version it
+     * replaced
+     */
+    private static final class TaskVersion {
+        // task object of the version and the number of the version
+        final TaskModel taskObject;
+        final long versionNumber;
+
+        // replaced version, either a TaskVersion or a plain task object visible to
+        // all snapshots, null if the task did not exist before. It is only cut off
+        // while holding the lock of the map entry, once no snapshot reads it.
+        Object previousVersion;
+
+        TaskVersion(TaskModel taskObject, long versionNumber, Object previousVersion) {
+            this.taskObject = taskObject;
+            this.versionNumber = versionNumber;
+            this.previousVersion = previousVersion;
+        }
+    }
+
+    // number of the latest version written while snapshots are open
+    private final AtomicLong latestVersionNumber = new AtomicLong();
+
+    // version numbers of the open snapshots along with the number of snapshots
+    // having each of them, guarded by itself
+    private final TreeMap<Long, Integer> snapshotVersionNumbers = new TreeMap<>();
+
+    // number of open snapshots, read by the writers to decide if they keep the
+    // versions they replace
+    private volatile int openSnapshotCount;
+
+    // ids of the tasks having kept versions, to be examined once a snapshot is
+    // closed
+    private final Queue<UUID> versionedTaskIds = new ConcurrentLinkedQueue<>();
+
+    // tombstones in the order of the deletions, null if tombstones are never reaped
+    private final Queue<Tombstone> tombstones;
+
+    // time after which a tombstone is reaped, and the number of tombstones examined
+    // at most by a single run of the reaper
+    private final long tombstoneRetentionMillis;
+    private final int reaperBudget;
+
+    // executor running the reaper periodically, null if it is disabled
+    private final ScheduledExecutorService reaperExecutor;
 
     // create default constructor to limit instantiation capabilities to the current
-    // package only
+    // package only, keeping tombstones forever
     TaskRepositoryLocalMemoryImpl() {
+        this(0, 0, 0);
+    }
+
+    /**
+     * constructor to start the periodic reaping of tombstones, visible to the
+     * current package only
+     *
+     * @param tombstoneRetentionSeconds - time in seconds after which a tombstone
+     *                                  is reaped
+     * @param reaperBudget              - number of tombstones examined at most by
+     *                                  a single run of the reaper, 0 to keep
+     *                                  tombstones forever
+     * @param reaperIntervalSeconds     - interval between the runs of the reaper
+     *                                  in seconds, 0 to disable periodic runs
+     */
+    TaskRepositoryLocalMemoryImpl(long tombstoneRetentionSeconds, int reaperBudget, long reaperIntervalSeconds) {
+        this.tombstoneRetentionMillis = TimeUnit.SECONDS.toMillis(tombstoneRetentionSeconds);
+        this.reaperBudget = reaperBudget;
+        this.tombstones = reaperBudget > 0 ? new ConcurrentLinkedQueue<>() : null;
+
+        // start the periodic runs of the reaper
+        if (tombstones != null && reaperIntervalSeconds > 0) {
+            this.reaperExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread reaperThread = new Thread(runnable, "tmr-tombstone-reaper");
+                reaperThread.setDaemon(true);
+                return reaperThread;
+            });
+            this.reaperExecutor.scheduleWithFixedDelay(this::reapTombstones, reaperIntervalSeconds,
+                    reaperIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            this.reaperExecutor = null;
+        }
     }
 
     @Override
-    public List<TaskModel> findAllTasks() {
-        // return all tasks from database which are not deleted as a list
-        return tasks.values().stream().filter(task -> !task.isTaskDeleted()).toList();
+    public Stream<TaskModel> streamTasksAfter(UUID afterTaskId) {
+        // open a snapshot which is closed along with the stream
+        long snapshotVersionNumber = this.openSnapshot();
+
+        // seek to the first task id after the given one in the ordered index and
+        // lazily look up the versions of the snapshot from there, skipping tasks
+        // which did not exist or were deleted when the snapshot was opened
+        return (afterTaskId == null ? liveTaskIds : liveTaskIds.tailSet(afterTaskId, false)).stream()
+                .map(taskId -> getTaskVersion(tasks.get(taskId), snapshotVersionNumber))
+                .filter(taskObject -> taskObject != null && !taskObject.isTaskDeleted())
+                .onClose(() -> this.closeSnapshot(snapshotVersionNumber));
     }
 
     @Override
-    public TaskModel findTaskById(String taskId) {
+    public TaskModel findTaskById(UUID taskId) {
         // find the required task from the database using the given task id
-        TaskModel existingTaskObject = tasks.getOrDefault(taskId, null);
+        TaskModel existingTaskObject = getLatestVersion(tasks.get(taskId));
 
         // check if no existing task object found or the existing task object is deleted
         // already
@@ -43,20 +185,407 @@ public class TaskRepositoryLocalMemoryImpl implements ITaskRepository {
 
     @Override
     public void addNewTask(TaskModel newTask) {
+        this.addNewTask(newTask, NO_WRITE_LISTENER);
+    }
+
+    /**
+     * method to add a new task, notifying the given listener while holding the
+     * lock of the map entry
+     *
+     * @param newTask       - task object to add
+     * @param writeListener - listener to notify about the stored task object
+     */
+    void addNewTask(TaskModel newTask, TaskWriteListener writeListener) {
         // add new task record (i.e. instance of TaskModel) to the database
-        tasks.put(newTask.getTaskId(), newTask);
+        this.storeTask(newTask.getTaskId(), newTask, writeListener);
     }
 
     @Override
-    public void deleteTaskById(String taskId) {
-        // update 'isDeleted' flag attribute value of the existing task object
-        tasks.get(taskId).setTaskDeleted(true);
+    public void deleteTaskById(UUID taskId) {
+        this.deleteTaskById(taskId, NO_WRITE_LISTENER);
+    }
+
+    /**
+     * method to delete a task, notifying the given listener while holding the lock
+     * of the map entry
+     *
+     * @param taskId        - id of the task object to delete
+     * @param writeListener - listener to notify about the deleted task object
+     */
+    void deleteTaskById(UUID taskId, TaskWriteListener writeListener) {
+        // replace the existing task object by a copy with the 'isDeleted' flag set
+        // while holding the lock of the map entry, so that a concurrent update of the
+        // same task can not overwrite the deletion
+        tasks.computeIfPresent(taskId, storedTask -> {
+            // update the index of tasks which are not deleted and the tombstones
+            TaskModel deletedTaskObject = getLatestVersion(storedTask).withTaskDeleted(true);
+            writeListener.onTaskStored(taskId, deletedTaskObject);
+            return this.replaceStoredTask(taskId, storedTask, deletedTaskObject);
+        });
     }
 
     @Override
-    public void updateTaskById(String taskId, TaskModel updatedTaskData) {
+    public void updateTaskById(UUID taskId, TaskModel updatedTaskData) {
+        this.updateTaskById(taskId, updatedTaskData, NO_WRITE_LISTENER);
+    }
+
+    /**
+     * method to update a task, notifying the given listener while holding the lock
+     * of the map entry
+     *
+     * @param taskId          - id of the task object to update
+     * @param updatedTaskData - updated task object
+     * @param writeListener   - listener to notify about the stored task object
+     */
+    void updateTaskById(UUID taskId, TaskModel updatedTaskData, TaskWriteListener writeListener) {
         // update the existing task object mapped by it's corresponding id
-        this.tasks.put(taskId, updatedTaskData);
+        this.storeTask(taskId, updatedTaskData, writeListener);
+    }
+
+    @Override
+    public TaskModel computeTaskById(UUID taskId, UnaryOperator<TaskModel> updateFunction) {
+        return this.computeTaskById(taskId, updateFunction, NO_WRITE_LISTENER);
+    }
+
+    /**
+     * method to atomically update a task, notifying the given listener while
+     * holding the lock of the map entry
+     *
+     * @param taskId         - id of the task object to update
+     * @param updateFunction - function computing the updated task object
+     * @param writeListener  - listener to notify about the stored task object
+     * @return updated task object, null if no task object was updated
+     */
+    TaskModel computeTaskById(UUID taskId, UnaryOperator<TaskModel> updateFunction,
+            TaskWriteListener writeListener) {
+        // holder for the updated task object, which stays empty if no task object
+        // exists with the given id or the existing task object is deleted already
+        TaskModel[] updatedTaskObject = new TaskModel[1];
+
+        // apply the update function while holding the lock of the map entry
+        tasks.computeIfPresent(taskId, storedTask -> {
+            // keep the existing task object unchanged if it is deleted already
+            TaskModel existingTaskObject = getLatestVersion(storedTask);
+            if (existingTaskObject.isTaskDeleted()) {
+                return storedTask;
+            }
+
+            // store and return the updated task object
+            updatedTaskObject[0] = updateFunction.apply(existingTaskObject);
+            writeListener.onTaskStored(taskId, updatedTaskObject[0]);
+            return this.replaceStoredTask(taskId, storedTask, updatedTaskObject[0]);
+        });
+
+        // return the updated task object
+        return updatedTaskObject[0];
+    }
+
+    /**
+     * method to find the stored version of a task, including a deleted one. The
+     * entry is read while holding it's lock, so a write of the task which is in
+     * progress completes before it is read.
+     *
+     * @param taskId - id of the task object
+     * @return stored task object, null if no task object exists with the given id
+     */
+    TaskModel findStoredTaskById(UUID taskId) {
+        TaskModel[] storedTaskObject = new TaskModel[1];
+        tasks.computeIfPresent(taskId, storedTask -> {
+            storedTaskObject[0] = getLatestVersion(storedTask);
+            return storedTask;
+        });
+        return storedTaskObject[0];
+    }
+
+    /**
+     * method to lazily stream the ids of all stored tasks, including deleted ones
+     *
+     * @return stream of the ids of all stored tasks
+     */
+    Stream<UUID> streamStoredTaskIds() {
+        return tasks.streamKeys();
+    }
+
+    /**
+     * method to store a task object by it's id and update the index of tasks which
+     * are not deleted while holding the lock of the map entry, so that the index
+     * always follows the order of the writes of a task
+     *
+     * @param taskId        - id of the task object
+     * @param taskObject    - task object to store
+     * @param writeListener - listener to notify about the stored task object
+     */
+    private void storeTask(UUID taskId, TaskModel taskObject, TaskWriteListener writeListener) {
+        tasks.compute(taskId, storedTask -> {
+            writeListener.onTaskStored(taskId, taskObject);
+            return this.replaceStoredTask(taskId, storedTask, taskObject);
+        });
+    }
+
+    /**
+     * method to replace the stored version of a task by a new task object and
+     * update the indexes, to be called while holding the lock of the map entry.
+     * The replaced version is kept if snapshots are open. As the number of open
+     * snapshots is read after they have been announced, and the version number of
+     * the snapshot is read afterwards, a snapshot either reads the new version or
+     * finds the replaced one kept.
+     *
+     * @param taskId     - id of the task object
+     * @param storedTask - stored version of the task, null if the task did not
+     *                   exist
+     * @param taskObject - new task object
+     * @return new stored version of the task
+     */
+    private Object replaceStoredTask(UUID taskId, Object storedTask, TaskModel taskObject) {
+        boolean keepVersions = openSnapshotCount > 0;
+        this.updateTaskIndexes(taskId, getLatestVersion(storedTask), taskObject, keepVersions);
+
+        // store the plain task object if no snapshot is open
+        if (!keepVersions) {
+            return taskObject;
+        }
+
+        // link a numbered version to the replaced one, to be examined when a snapshot
+        // is closed
+        versionedTaskIds.add(taskId);
+        return new TaskVersion(taskObject, latestVersionNumber.incrementAndGet(), storedTask);
+    }
+
+    /**
+     * method to open a snapshot of the tasks
+     *
+     * @return version number of the snapshot, the snapshot reading the latest
+     *         version of a task having a number not greater than it
+     */
+    private long openSnapshot() {
+        synchronized (snapshotVersionNumbers) {
+            // announce the snapshot to the writers before the version number is read
+            openSnapshotCount++;
+            long snapshotVersionNumber = latestVersionNumber.get();
+            snapshotVersionNumbers.merge(snapshotVersionNumber, 1, Integer::sum);
+            return snapshotVersionNumber;
+        }
+    }
+
+    /**
+     * method to close a snapshot of the tasks and drop the versions which no open
+     * snapshot reads anymore
+     *
+     * @param snapshotVersionNumber - version number of the snapshot
+     */
+    private void closeSnapshot(long snapshotVersionNumber) {
+        // get the version number of the oldest open snapshot, snapshots opened later
+        // getting at least the latest version number
+        long oldestVersionNumber;
+        synchronized (snapshotVersionNumbers) {
+            snapshotVersionNumbers.computeIfPresent(snapshotVersionNumber,
+                    (versionNumber, snapshotCount) -> snapshotCount == 1 ? null : snapshotCount - 1);
+            openSnapshotCount--;
+            oldestVersionNumber = snapshotVersionNumbers.isEmpty() ? latestVersionNumber.get()
+                    : snapshotVersionNumbers.firstKey();
+        }
+
+        // examine the tasks queued so far, tasks queued again by the examination or
+        // by writes in the meantime being examined when the next snapshot is closed
+        for (int queuedCount = versionedTaskIds.size(); queuedCount > 0; queuedCount--) {
+            UUID taskId = versionedTaskIds.poll();
+            if (taskId == null) {
+                break;
+            }
+            tasks.computeIfPresent(taskId, storedTask -> this.dropVersions(taskId, storedTask, oldestVersionNumber));
+        }
+    }
+
+    /**
+     * method to drop the versions of a task which no open snapshot reads anymore,
+     * to be called while holding the lock of the map entry
+     *
+     * @param taskId              - id of the task
+     * @param storedTask          - stored version of the task
+     * @param oldestVersionNumber - version number of the oldest open snapshot
+     * @return stored version of the task without the dropped versions
+     */
+    private Object dropVersions(UUID taskId, Object storedTask, long oldestVersionNumber) {
+        // nothing to do if the versions have been dropped already
+        if (!(storedTask instanceof TaskVersion latestVersion)) {
+            return storedTask;
+        }
+
+        // all versions but the latest can be dropped if no snapshot is open anymore,
+        // as snapshots opened later read versions not older than the stored ones
+        long droppedBeforeNumber = openSnapshotCount == 0 ? Long.MAX_VALUE : oldestVersionNumber;
+
+        // store the plain task object if all snapshots read the latest version,
+        // removing a deleted task from the index now that no snapshot lists it
+        if (latestVersion.versionNumber <= droppedBeforeNumber) {
+            if (latestVersion.taskObject.isTaskDeleted()) {
+                liveTaskIds.remove(taskId);
+            }
+            return latestVersion.taskObject;
+        }
+
+        // otherwise find the newest version read by the oldest snapshot, store it as
+        // plain task object and examine the task again later
+        TaskVersion version = latestVersion;
+        while (version.previousVersion instanceof TaskVersion previousVersion
+                && previousVersion.versionNumber > droppedBeforeNumber) {
+            version = previousVersion;
+        }
+        if (version.previousVersion instanceof TaskVersion previousVersion) {
+            version.previousVersion = previousVersion.taskObject;
+        }
+        versionedTaskIds.add(taskId);
+        return latestVersion;
+    }
+
+    /**
+     * method to get the latest task object of a stored version
+     *
+     * @param storedTask - stored version of a task, null for none
+     * @return latest task object, null if the task does not exist
+     */
+    private static TaskModel getLatestVersion(Object storedTask) {
+        return storedTask instanceof TaskVersion version ? version.taskObject : (TaskModel) storedTask;
+    }
+
+    /**
+     * method to get the task object a snapshot reads from a stored version
+     *
+     * @param storedTask            - stored version of a task, null for none
+     * @param snapshotVersionNumber - version number of the snapshot
+     * @return task object read by the snapshot, null if the task did not exist
+     */
+    private static TaskModel getTaskVersion(Object storedTask, long snapshotVersionNumber) {
+        // skip the versions written after the snapshot was opened
+        while (storedTask instanceof TaskVersion version && version.versionNumber > snapshotVersionNumber) {
+            storedTask = version.previousVersion;
+        }
+        return getLatestVersion(storedTask);
+    }
+
+    /**
+     * method to check if versions of tasks are kept for snapshots
+     *
+     * @return true if versions are kept
+     */
+    boolean hasKeptVersions() {
+        return !versionedTaskIds.isEmpty();
+    }
+
+    /**
+     * method to remove the tombstones which are older than the retention period,
+     * examining at most the budget of tombstones. A tombstone is only removed if
+     * the deleted task object is still stored, i.e. the task has not been written
+     * again since it's deletion.
+     *
+     * @return number of removed tombstones
+     */
+    synchronized int reapTombstones() {
+        // nothing to do if tombstones are kept forever
+        if (tombstones == null) {
+            return 0;
+        }
+
+        // walk the tombstones from the oldest deletion on
+        long reapBeforeMillis = System.currentTimeMillis() - tombstoneRetentionMillis;
+        int reapedCount = 0;
+        for (int examinedCount = 0; examinedCount < reaperBudget; examinedCount++) {
+            // stop at the first tombstone within the retention period
+            Tombstone tombstone = tombstones.peek();
+            if (tombstone == null || tombstone.deletedOnMillis() > reapBeforeMillis) {
+                break;
+            }
+            tombstones.poll();
+
+            // remove the deleted task object while holding the lock of the map entry,
+            // unless versions of the task are still kept for open snapshots
+            boolean[] isReaped = new boolean[1];
+            boolean[] isVersioned = new boolean[1];
+            tasks.computeIfPresent(tombstone.deletedTaskObject().getTaskId(), storedTask -> {
+                if (getLatestVersion(storedTask) != tombstone.deletedTaskObject()) {
+                    return storedTask;
+                }
+                if (storedTask instanceof TaskVersion) {
+                    isVersioned[0] = true;
+                    return storedTask;
+                }
+                deletedTaskCount.decrement();
+                isReaped[0] = true;
+                return null;
+            });
+            if (isReaped[0]) {
+                reapedCount++;
+            } else if (isVersioned[0]) {
+                // examine the tombstone again by a later run
+                tombstones.add(tombstone);
+            }
+        }
+        return reapedCount;
+    }
+
+    /**
+     * method to get the number of tasks which are not deleted
+     *
+     * @return number of live tasks
+     */
+    long countLiveTasks() {
+        return liveTaskCount.sum();
+    }
+
+    /**
+     * method to get the number of deleted tasks which have not been reaped yet
+     *
+     * @return number of tombstones
+     */
+    long countDeletedTasks() {
+        return deletedTaskCount.sum();
+    }
+
+    @Override
+    public boolean isReturningStoredTasks() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        // stop the periodic runs of the reaper
+        if (reaperExecutor != null) {
+            reaperExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * method to update the index of tasks which are not deleted, the counts of live
+     * and deleted tasks and the tombstones after a task object has been replaced
+     *
+     * @param taskId             - id of the task object
+     * @param existingTaskObject - replaced version of the task object, null if the
+     *                           task did not exist
+     * @param taskObject         - current version of the task object
+     * @param keepVersions       - boolean flag indicating if snapshots are open,
+     *                           which still list a deleted task
+     */
+    private void updateTaskIndexes(UUID taskId, TaskModel existingTaskObject, TaskModel taskObject,
+            boolean keepVersions) {
+        // remove the counts of the replaced version
+        if (existingTaskObject != null) {
+            (existingTaskObject.isTaskDeleted() ? deletedTaskCount : liveTaskCount).decrement();
+        }
+
+        // add the current version to the index or the tombstones
+        if (taskObject.isTaskDeleted()) {
+            // keep a deleted task in the index until it is not listed by a snapshot
+            if (!keepVersions) {
+                liveTaskIds.remove(taskId);
+            }
+            deletedTaskCount.increment();
+            if (tombstones != null) {
+                tombstones.add(new Tombstone(taskObject, System.currentTimeMillis()));
+            }
+        } else {
+            liveTaskIds.add(taskId);
+            liveTaskCount.increment();
+        }
     }
 
 }
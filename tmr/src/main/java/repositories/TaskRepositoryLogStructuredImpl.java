@@ -0,0 +1,568 @@
+package repositories;
+
+import constants.ErrorMessage;
+import exceptions.DataPersistenceException;
+import models.TaskModel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * implementation class of the ITaskRepository interface for write-heavy
+ * workloads, built as a small log-structured merge tree. Writes are appended
+ * to a write-ahead log and put into an in-memory sorted memtable, so a write
+ * never reads or rewrites data on disk. A full memtable is frozen and flushed
+ * by a background thread into an immutable sorted table file with a sparse
+ * index, and the log segments it covers are deleted. The background thread
+ * also merges runs of similarly sized tables (size-tiered compaction), which
+ * keeps the number of tables a read has to look into small. Only the memtables
+ * and the sparse indexes are kept on the heap, so the write throughput does not
+ * depend on the size of the data set.
+ * <p>
+ * A read looks into the memtables and then into the tables from the newest to
+ * the oldest, and a listing merges all of them by task id. The read-modify-
+ * write of a task runs under one of a fixed set of locks selected by the task
+ * id, so writes of different tasks rarely wait for each other.
+ */
+public class TaskRepositoryLogStructuredImpl implements ITaskRepository {
+
+    // logger of the failures of the background thread
+    private static final Logger LOGGER = Logger.getLogger(TaskRepositoryLogStructuredImpl.class.getName());
+
+    // number of similarly sized tables which are merged by a compaction, and the
+    // size ratio up to which tables count as similarly sized
+    static final int COMPACTION_THRESHOLD = 4;
+    private static final int COMPACTION_SIZE_RATIO = 4;
+
+    // number of locks guarding the read-modify-write of tasks
+    private static final int WRITE_LOCK_COUNT = 64;
+
+    // type of the log records, which always hold the complete new version of a task
+    private static final byte TASK_STORED_RECORD = 1;
+
+    // prefix and suffix of the names of the table files
+    private static final String TABLE_FILE_PREFIX = "sstable-";
+    private static final String TABLE_FILE_SUFFIX = ".dat";
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    /**
+     * in-memory sorted table of the most recent writes
+     */
+    private static final class Memtable {
+        // tasks ordered by their task id and the number of tasks
+        private final ConcurrentSkipListMap<UUID, TaskModel> tasks = new ConcurrentSkipListMap<>(TASK_ID_ORDER);
+        private final LongAdder taskCount = new LongAdder();
+
+        // sequence number of the last log record covered by the memtable, set when it
+        // is frozen
+        private long coveredSequenceNumber;
+    }
+
+    /**
+     * immutable set of the memtables and tables, replaced as a whole whenever a
+     * memtable is frozen or flushed or tables are compacted
+     *
+     * @param activeMemtable  - memtable receiving the writes
+     * @param frozenMemtables - frozen memtables waiting to be flushed, newest first
+     * @param sortedTables    - tables, newest first
+     */
+    private record TableSet(Memtable activeMemtable, List<Memtable> frozenMemtables,
+            List<TaskSortedTable> sortedTables) {
+
+        /**
+         * method to acquire references to all tables before reading them
+         *
+         * @return true if all references have been acquired, false if a table has
+         *         been retired in the meantime and the current table set has to be
+         *         read again
+         */
+        boolean tryAcquire() {
+            for (int table = 0; table < sortedTables.size(); table++) {
+                if (!sortedTables.get(table).tryAcquire()) {
+                    sortedTables.subList(0, table).forEach(TaskSortedTable::release);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * method to release the references to all tables after reading them
+         */
+        void release() {
+            sortedTables.forEach(TaskSortedTable::release);
+        }
+    }
+
+    // directory containing the log and the table files
+    private final Path dataDirectory;
+
+    // number of tasks after which a memtable is flushed
+    private final int memtableLimit;
+
+    // current set of memtables and tables
+    private volatile TableSet tableSet;
+
+    // write-ahead log making the writes in the memtables durable
+    private final TaskWriteAheadLog writeAheadLog;
+
+    // lock held shared by writers while they append to the log and put into the
+    // active memtable, and exclusively while a memtable is frozen, so that a frozen
+    // memtable contains exactly the log records up to it's covered sequence number
+    private final ReadWriteLock freezeLock = new ReentrantReadWriteLock();
+
+    // locks guarding the read-modify-write of tasks, selected by the task id
+    private final ReentrantLock[] writeLocks = new ReentrantLock[WRITE_LOCK_COUNT];
+
+    // background thread flushing memtables and compacting tables, and a flag
+    // indicating if a flush has been requested already
+    private final ExecutorService maintenanceExecutor;
+    private final AtomicBoolean isFlushRequested = new AtomicBoolean();
+
+    // number used for the name of the next table file
+    private long nextTableNumber;
+
+    /**
+     * constructor to open the tables and the log in the given directory, visible
+     * to the current package only
+     *
+     * @param dataDirectory - directory in which the log and the tables are stored
+     * @param memtableLimit - number of tasks after which a memtable is flushed
+     * @throws DataPersistenceException - if the tables or the log can not be read
+     */
+    TaskRepositoryLogStructuredImpl(Path dataDirectory, int memtableLimit) {
+        this.dataDirectory = dataDirectory;
+        this.memtableLimit = memtableLimit;
+        for (int lock = 0; lock < WRITE_LOCK_COUNT; lock++) {
+            writeLocks[lock] = new ReentrantLock();
+        }
+
+        // open the existing tables, ordered from the newest to the oldest
+        List<TaskSortedTable> sortedTables = new ArrayList<>();
+        try {
+            Files.createDirectories(dataDirectory);
+            List<Long> tableNumbers;
+            try (Stream<Path> files = Files.list(dataDirectory)) {
+                tableNumbers = TaskDataFiles.findSequenceNumbers(files, TABLE_FILE_PREFIX, TABLE_FILE_SUFFIX);
+            }
+
+            // delete the table files left half-written by a crash
+            try (Stream<Path> files = Files.list(dataDirectory)) {
+                for (Path file : files.filter(file -> file.getFileName().toString().startsWith(TABLE_FILE_PREFIX)
+                        && file.toString().endsWith(TEMPORARY_FILE_SUFFIX)).toList()) {
+                    Files.delete(file);
+                }
+            }
+            for (long tableNumber : tableNumbers) {
+                sortedTables.add(TaskSortedTable.open(this.getTableFile(tableNumber)));
+                nextTableNumber = tableNumber + 1;
+            }
+        } catch (IOException e) {
+            throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_LOADED + dataDirectory, e);
+        }
+        // a table merged by a compaction covers the same log records as the newest
+        // table it has been merged from, which stays around if the compaction has
+        // been interrupted by a crash, so the later table number wins
+        sortedTables.sort(Comparator.comparingLong(TaskSortedTable::getCoveredSequenceNumber)
+                .thenComparing(TaskSortedTable::getTableFile).reversed());
+        long coveredSequenceNumber = sortedTables.isEmpty() ? 0 : sortedTables.get(0).getCoveredSequenceNumber();
+
+        // replay the log records after the newest table into the active memtable
+        Memtable activeMemtable = new Memtable();
+        this.writeAheadLog = TaskWriteAheadLog.open(dataDirectory, coveredSequenceNumber, logRecord -> {
+            TaskModel storedTask = TaskRecordCodec.decodeTask(logRecord.payload());
+            if (activeMemtable.tasks.put(storedTask.getTaskId(), storedTask) == null) {
+                activeMemtable.taskCount.increment();
+            }
+        });
+        this.tableSet = new TableSet(activeMemtable, List.of(), List.copyOf(sortedTables));
+
+        // start the background thread and flush the replayed memtable if it is full
+        this.maintenanceExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread maintenanceThread = new Thread(runnable, "tmr-lsm-maintenance");
+            maintenanceThread.setDaemon(true);
+            return maintenanceThread;
+        });
+        this.requestFlushIfFull(activeMemtable);
+    }
+
+    @Override
+    public Stream<TaskModel> streamTasksAfter(UUID afterTaskId) {
+        // acquire a consistent set of memtables and tables
+        TableSet tables = this.acquireTableSet();
+
+        // merge the tasks of all memtables and tables, released when the stream is
+        // closed
+        List<Iterator<TaskModel>> sources = new ArrayList<>();
+        sources.add(tailValues(tables.activeMemtable().tasks, afterTaskId));
+        for (Memtable frozenMemtable : tables.frozenMemtables()) {
+            sources.add(tailValues(frozenMemtable.tasks, afterTaskId));
+        }
+        for (TaskSortedTable sortedTable : tables.sortedTables()) {
+            sources.add(sortedTable.iterateTasksAfter(afterTaskId));
+        }
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(new TaskMergingIterator(sources),
+                        Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL),
+                        false)
+                .filter(task -> !task.isTaskDeleted())
+                .onClose(tables::release);
+    }
+
+    @Override
+    public TaskModel findTaskById(UUID taskId) {
+        // return the newest version of the task unless it is deleted
+        TaskModel storedTask = this.findStoredTask(taskId);
+        return storedTask == null || storedTask.isTaskDeleted() ? null : storedTask;
+    }
+
+    @Override
+    public void addNewTask(TaskModel newTask) {
+        // a blind write, which does not need to read the stored task
+        this.writeTask(newTask.getTaskId(), existingTask -> newTask, false);
+    }
+
+    @Override
+    public void deleteTaskById(UUID taskId) {
+        this.writeTask(taskId, existingTask -> existingTask == null || existingTask.isTaskDeleted() ? null
+                : existingTask.withTaskDeleted(true), true);
+    }
+
+    @Override
+    public void updateTaskById(UUID taskId, TaskModel updatedTaskData) {
+        // a blind write, which does not need to read the stored task
+        this.writeTask(taskId, existingTask -> updatedTaskData, false);
+    }
+
+    @Override
+    public TaskModel computeTaskById(UUID taskId, UnaryOperator<TaskModel> updateFunction) {
+        return this.writeTask(taskId, existingTask -> existingTask == null || existingTask.isTaskDeleted() ? null
+                : updateFunction.apply(existingTask), true);
+    }
+
+    /**
+     * method to freeze the active memtable and flush all frozen memtables into
+     * tables, followed by a compaction if needed. Runs on the background thread,
+     * or directly when called by tests.
+     *
+     * @throws DataPersistenceException - if a table can not be written
+     */
+    synchronized void flushMemtables() {
+        // freeze the active memtable, starting a new log segment at the same point
+        freezeLock.writeLock().lock();
+        try {
+            TableSet tables = tableSet;
+            if (tables.activeMemtable().taskCount.sum() > 0) {
+                Memtable frozenMemtable = tables.activeMemtable();
+                frozenMemtable.coveredSequenceNumber = writeAheadLog.requestSegmentRoll();
+                List<Memtable> frozenMemtables = new ArrayList<>(tables.frozenMemtables());
+                frozenMemtables.add(0, frozenMemtable);
+                tableSet = new TableSet(new Memtable(), List.copyOf(frozenMemtables), tables.sortedTables());
+            }
+            isFlushRequested.set(false);
+        } finally {
+            freezeLock.writeLock().unlock();
+        }
+        writeAheadLog.awaitSegmentRoll();
+
+        // flush the frozen memtables from the oldest to the newest
+        while (!tableSet.frozenMemtables().isEmpty()) {
+            List<Memtable> frozenMemtables = tableSet.frozenMemtables();
+            Memtable frozenMemtable = frozenMemtables.get(frozenMemtables.size() - 1);
+            TaskSortedTable sortedTable;
+            try {
+                sortedTable = TaskSortedTable.write(this.getTableFile(nextTableNumber++),
+                        frozenMemtable.coveredSequenceNumber, frozenMemtable.tasks.values().iterator());
+            } catch (IOException e) {
+                throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_PERSISTED, e);
+            }
+
+            // replace the memtable by the table, and delete the log segments covered by it
+            freezeLock.writeLock().lock();
+            try {
+                TableSet tables = tableSet;
+                List<TaskSortedTable> sortedTables = new ArrayList<>(tables.sortedTables());
+                sortedTables.add(0, sortedTable);
+                tableSet = new TableSet(tables.activeMemtable(),
+                        List.copyOf(tables.frozenMemtables().subList(0, tables.frozenMemtables().size() - 1)),
+                        List.copyOf(sortedTables));
+            } finally {
+                freezeLock.writeLock().unlock();
+            }
+            writeAheadLog.deleteSegmentsBefore(frozenMemtable.coveredSequenceNumber);
+        }
+
+        // merge the tables if a run of similarly sized tables has built up
+        this.compactTables();
+    }
+
+    /**
+     * method to merge the newest run of at least COMPACTION_THRESHOLD adjacent
+     * tables of similar size into a single table. Only adjacent tables can be
+     * merged, as the merged table takes their place in the order of the tables.
+     * Deleted tasks are dropped when the run includes the oldest table, as no older
+     * version of them can exist anymore.
+     *
+     * @throws DataPersistenceException - if the merged table can not be written
+     */
+    synchronized void compactTables() {
+        // find the newest run of similarly sized tables
+        List<TaskSortedTable> sortedTables = tableSet.sortedTables();
+        int runStart = 0;
+        int runEnd = 1;
+        while (runEnd < sortedTables.size() && runEnd - runStart < COMPACTION_THRESHOLD) {
+            if (sortedTables.get(runEnd).getRecordCount() > COMPACTION_SIZE_RATIO
+                    * Math.max(1, sortedTables.get(runStart).getRecordCount())) {
+                runStart = runEnd;
+            }
+            runEnd++;
+        }
+        if (sortedTables.size() < COMPACTION_THRESHOLD || runEnd - runStart < COMPACTION_THRESHOLD) {
+            return;
+        }
+        List<TaskSortedTable> run = sortedTables.subList(runStart, runEnd);
+        boolean isOldestIncluded = runEnd == sortedTables.size();
+
+        // merge the tables of the run, which are only replaced by this thread
+        TaskSortedTable mergedTable;
+        List<Iterator<TaskModel>> sources = new ArrayList<>();
+        run.forEach(table -> sources.add(table.iterateTasksAfter(null)));
+        Iterator<TaskModel> mergedTasks = new TaskMergingIterator(sources);
+        if (isOldestIncluded) {
+            mergedTasks = StreamSupport
+                    .stream(Spliterators.spliteratorUnknownSize(mergedTasks, Spliterator.ORDERED), false)
+                    .filter(task -> !task.isTaskDeleted())
+                    .iterator();
+        }
+        try {
+            mergedTable = TaskSortedTable.write(this.getTableFile(nextTableNumber++),
+                    run.get(0).getCoveredSequenceNumber(), mergedTasks);
+        } catch (IOException e) {
+            throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_PERSISTED, e);
+        }
+
+        // replace the run by the merged table and retire the merged tables, which are
+        // deleted from the oldest to the newest once their last reader has released
+        // them
+        freezeLock.writeLock().lock();
+        try {
+            TableSet tables = tableSet;
+            List<TaskSortedTable> compactedTables = new ArrayList<>(tables.sortedTables());
+            compactedTables.removeAll(run);
+            compactedTables.add(runStart, mergedTable);
+            tableSet = new TableSet(tables.activeMemtable(), tables.frozenMemtables(), List.copyOf(compactedTables));
+        } finally {
+            freezeLock.writeLock().unlock();
+        }
+        TaskSortedTable.retire(List.copyOf(run));
+    }
+
+    @Override
+    public void applyWriteBatch(Runnable writeBatch) {
+        // apply the writes and wait for the log records of all of them at once
+        writeAheadLog.applyBatch(writeBatch);
+    }
+
+    @Override
+    public void close() {
+        // stop the background thread, waiting for a running flush or compaction
+        maintenanceExecutor.shutdown();
+        try {
+            maintenanceExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // close the log, which still covers the memtables, and the tables
+        writeAheadLog.close();
+        for (TaskSortedTable sortedTable : tableSet.sortedTables()) {
+            try {
+                sortedTable.close();
+            } catch (IOException e) {
+                throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_PERSISTED, e);
+            }
+        }
+    }
+
+    /**
+     * method to get the number of tables, used by tests
+     *
+     * @return number of tables
+     */
+    int getSortedTableCount() {
+        return tableSet.sortedTables().size();
+    }
+
+    /**
+     * method to write a new version of a task computed from the existing one,
+     * holding the lock selected by the task id so that the read-modify-write of
+     * the task is atomic, and to wait until the write is durable. Blind writes do
+     * not read the existing task, which may take a read of every table.
+     *
+     * @param taskId          - id of the task
+     * @param updateFunction  - function computing the new version of the task
+     *                        from the existing one, which is null if the task
+     *                        does not exist or is not read, returns null to
+     *                        leave the task unchanged
+     * @param readsStoredTask - boolean flag indicating if the existing task is
+     *                        read and passed to the update function
+     * @return written version of the task, null if the task has been left
+     *         unchanged
+     */
+    private TaskModel writeTask(UUID taskId, UnaryOperator<TaskModel> updateFunction, boolean readsStoredTask) {
+        ReentrantLock writeLock = writeLocks[(taskId.hashCode() & 0x7fffffff) % WRITE_LOCK_COUNT];
+        TaskModel writtenTask;
+        long sequenceNumber;
+        Memtable activeMemtable;
+
+        writeLock.lock();
+        try {
+            // compute the new version of the task
+            writtenTask = updateFunction.apply(readsStoredTask ? this.findStoredTask(taskId) : null);
+            if (writtenTask == null) {
+                return null;
+            }
+
+            // append the new version to the log and put it into the active memtable
+            freezeLock.readLock().lock();
+            try {
+                sequenceNumber = writeAheadLog.append(TASK_STORED_RECORD, TaskRecordCodec.encodeTask(writtenTask));
+                activeMemtable = tableSet.activeMemtable();
+                if (activeMemtable.tasks.put(taskId, writtenTask) == null) {
+                    activeMemtable.taskCount.increment();
+                }
+            } finally {
+                freezeLock.readLock().unlock();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        // wait until the write is durable and flush the memtable if it is full
+        writeAheadLog.awaitDurable(sequenceNumber);
+        this.requestFlushIfFull(activeMemtable);
+        return writtenTask;
+    }
+
+    /**
+     * method to find the newest version of a task, including a deleted one
+     *
+     * @param taskId - id of the task
+     * @return newest version of the task, null if the task does not exist
+     */
+    private TaskModel findStoredTask(UUID taskId) {
+        while (true) {
+            // look into the memtables from the newest to the oldest
+            TableSet tables = tableSet;
+            TaskModel storedTask = tables.activeMemtable().tasks.get(taskId);
+            for (int memtable = 0; storedTask == null && memtable < tables.frozenMemtables().size(); memtable++) {
+                storedTask = tables.frozenMemtables().get(memtable).tasks.get(taskId);
+            }
+            if (storedTask != null || tables.sortedTables().isEmpty()) {
+                return storedTask;
+            }
+
+            // look into the tables from the newest to the oldest, starting over if a
+            // table has been retired in the meantime
+            if (!tables.tryAcquire()) {
+                continue;
+            }
+            try {
+                for (TaskSortedTable sortedTable : tables.sortedTables()) {
+                    storedTask = sortedTable.findTask(taskId);
+                    if (storedTask != null) {
+                        return storedTask;
+                    }
+                }
+                return null;
+            } finally {
+                tables.release();
+            }
+        }
+    }
+
+    /**
+     * method to get the current table set with references to all of it's tables
+     *
+     * @return current table set, which has to be released after reading it
+     */
+    private TableSet acquireTableSet() {
+        while (true) {
+            TableSet tables = tableSet;
+            if (tables.tryAcquire()) {
+                return tables;
+            }
+        }
+    }
+
+    /**
+     * method to request a flush on the background thread once the given memtable
+     * is full
+     *
+     * @param memtable - memtable which has been written to
+     */
+    private void requestFlushIfFull(Memtable memtable) {
+        if (memtable.taskCount.sum() >= memtableLimit && isFlushRequested.compareAndSet(false, true)) {
+            try {
+                maintenanceExecutor.execute(() -> {
+                    try {
+                        this.flushMemtables();
+                    } catch (RuntimeException e) {
+                        // the memtable stays frozen and is flushed again by the next flush, while
+                        // the log still covers it
+                        LOGGER.log(Level.SEVERE, "Memtable could not be flushed or tables could not be compacted", e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the repository is being closed, the log still covers the memtable
+            }
+        }
+    }
+
+    /**
+     * method to get the path of a table file
+     *
+     * @param tableNumber - number of the table file
+     * @return path of the table file
+     */
+    private Path getTableFile(long tableNumber) {
+        return dataDirectory.resolve(TaskDataFiles.getFileName(TABLE_FILE_PREFIX, tableNumber, TABLE_FILE_SUFFIX));
+    }
+
+    /**
+     * method to get an iterator over the tasks of a memtable after the given task
+     * id
+     *
+     * @param tasks       - tasks of the memtable
+     * @param afterTaskId - id after which the iteration starts, null to start with
+     *                    the first task
+     * @return iterator over the tasks
+     */
+    private static Iterator<TaskModel> tailValues(NavigableMap<UUID, TaskModel> tasks, UUID afterTaskId) {
+        return (afterTaskId == null ? tasks : tasks.tailMap(afterTaskId, false)).values().iterator();
+    }
+}
@@ -0,0 +1,748 @@
+package repositories;
+
+import constants.ErrorMessage;
+import exceptions.DataPersistenceException;
+import models.TaskModel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * implementation class of the ITaskRepository interface for read-heavy nodes,
+ * which stores the tasks in memory-mapped region files. Every write appends a
+ * new version of the task record to the current region, and the on-heap index
+ * only maps the id of every task to the address of it's newest record, so the
+ * task data itself lives in the page cache of the operating system instead of
+ * the heap. After a restart the index is rebuilt by scanning the records, while
+ * the page cache of the regions is still warm.
+ * <p>
+ * A record starts with a fixed-layout header holding the record length, a
+ * CRC32 of the rest of the record, the flags, the task id, the timestamps and
+ * the lengths of the string fields, followed by the UTF-8 encoded strings. The header allows to read the
+ * flags of a record without decoding it, so listings skip deleted tasks by a
+ * single byte read and only decode the records they return. Reads never lock,
+ * while writes are serialized by a single lock, which also makes the read-
+ * modify-write of computeTaskById atomic.
+ * <p>
+ * Writers wait for their records to be written back to the region files after
+ * releasing the lock, and the first waiting writer writes back the records of
+ * all waiting writers at once (group force). A batch of writes waits only once
+ * for all of it's records. Once most of the records of a region other than the
+ * last one have been superseded by newer versions, the newest records of the
+ * region are appended to the last region again, the index is pointed to them,
+ * and the region file is deleted. Deletions are only dropped by the compaction
+ * of the oldest region, as an older version of their task could exist in an
+ * older region otherwise.
+ */
+public class TaskRepositoryMemoryMappedImpl implements ITaskRepository {
+
+    // logger of the failures to delete compacted region files
+    private static final Logger LOGGER = Logger.getLogger(TaskRepositoryMemoryMappedImpl.class.getName());
+
+    // default size of a region file
+    static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+
+    // prefix and suffix of the names of the region files
+    private static final String REGION_FILE_PREFIX = "mapped-";
+    private static final String REGION_FILE_SUFFIX = ".dat";
+
+    // offsets of the fields of the record header
+    private static final int RECORD_LENGTH_OFFSET = 0;
+    private static final int RECORD_CHECKSUM_OFFSET = 4;
+    private static final int RECORD_FLAGS_OFFSET = 8;
+    private static final int RECORD_TASK_ID_OFFSET = 9;
+    private static final int RECORD_CREATED_ON_OFFSET = 25;
+    private static final int RECORD_LAST_UPDATED_ON_OFFSET = 33;
+    private static final int RECORD_FIELD_LENGTHS_OFFSET = 41;
+
+    // number of string fields of a record, their indexes in the order they are
+    // stored, and the length of the header
+    private static final int RECORD_FIELD_COUNT = 2;
+    private static final int TASK_TITLE_FIELD = 0;
+    private static final int TASK_DESCRIPTION_FIELD = 1;
+    private static final int RECORD_HEADER_LENGTH = RECORD_FIELD_LENGTHS_OFFSET + RECORD_FIELD_COUNT * Integer.BYTES;
+
+    // length stored for a null string field
+    private static final int NULL_FIELD_LENGTH = -1;
+
+    // directory containing the region files and the size of new regions
+    private final Path dataDirectory;
+    private final int regionSize;
+
+    // index mapping the id of every task to the address of it's newest record, an
+    // address consisting of the region number in the upper and the position within
+    // the region in the lower half
+    private final NavigableMap<UUID, Long> recordAddresses = new ConcurrentSkipListMap<>(TASK_ID_ORDER);
+
+    // mapped regions indexed by their number, replaced by a new array when a
+    // region is added or a compacted region is removed, which leaves null behind
+    private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+
+    // lock serializing the writes, the position in the last region at which the
+    // next record is appended, and the numbers of records and of superseded
+    // records of every region
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private int appendPosition;
+    private int[] recordCounts = new int[0];
+    private int[] supersededRecordCounts = new int[0];
+
+    // lock and condition guarding the state of the group force
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private final Condition forcedCondition = forceLock.newCondition();
+
+    // address after the last appended record and after the last record written
+    // back to the region files
+    private volatile long appendedAddress;
+    private long forcedAddress;
+
+    // flag indicating if a writer is currently writing back records, and the
+    // number of times records have been written back
+    private boolean isForceInProgress;
+    private int forceCount;
+
+    // address after the last record appended by the writes of the batch applied by
+    // the current thread, not set outside of a batch
+    private final ThreadLocal<long[]> batchEndAddress = new ThreadLocal<>();
+
+    /**
+     * constructor to map the region files in the given directory and rebuild the
+     * index from them, visible to the current package only
+     *
+     * @param dataDirectory - directory in which the region files are stored
+     * @param regionSize    - size of new region files
+     * @throws DataPersistenceException - if the region files can not be mapped
+     */
+    TaskRepositoryMemoryMappedImpl(Path dataDirectory, int regionSize) {
+        this.dataDirectory = dataDirectory;
+        this.regionSize = regionSize;
+
+        try {
+            // map the existing regions in the order they were created
+            Files.createDirectories(dataDirectory);
+            List<Long> regionNumbers;
+            try (Stream<Path> files = Files.list(dataDirectory)) {
+                regionNumbers = TaskDataFiles.findSequenceNumbers(files, REGION_FILE_PREFIX, REGION_FILE_SUFFIX);
+            }
+            for (long regionNumber : regionNumbers) {
+                this.mapRegion(regionNumber, 0);
+            }
+
+            // index the records of all regions, later versions of a task replacing earlier
+            // ones
+            for (int regionNumber = 0; regionNumber < regions.length; regionNumber++) {
+                if (regions[regionNumber] != null) {
+                    appendPosition = this.indexRegion(regionNumber);
+                }
+            }
+
+            // clear whatever a crash left behind after the last valid record, so that it
+            // can not be mistaken for a record once new records are appended before it
+            if (regions.length > 0) {
+                this.clearRegionTail(regions[regions.length - 1], appendPosition);
+                appendedAddress = ((long) (regions.length - 1) << 32) | appendPosition;
+                forcedAddress = appendedAddress;
+            }
+        } catch (IOException e) {
+            throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_LOADED + dataDirectory, e);
+        }
+
+        // finish the compactions a crash has interrupted
+        this.compactRegions();
+    }
+
+    @Override
+    public Stream<TaskModel> streamTasksAfter(UUID afterTaskId) {
+        // seek to the first task id after the given one in the ordered index, skipping
+        // deleted tasks by their flags and decoding the other records lazily
+        return (afterTaskId == null ? recordAddresses : recordAddresses.tailMap(afterTaskId, false)).entrySet()
+                .stream()
+                .map(recordEntry -> this.readLiveTask(recordEntry.getKey(), recordEntry.getValue()))
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public TaskModel findTaskById(UUID taskId) {
+        // find the address of the newest record of the task
+        Long recordAddress = recordAddresses.get(taskId);
+
+        // return null if no task exists with the given id, otherwise decode the record
+        // unless the task is deleted
+        return recordAddress == null ? null : this.readLiveTask(taskId, recordAddress);
+    }
+
+    @Override
+    public void addNewTask(TaskModel newTask) {
+        long recordEndAddress;
+        writeLock.lock();
+        try {
+            recordEndAddress = this.appendTask(newTask);
+        } finally {
+            writeLock.unlock();
+        }
+        this.awaitForced(recordEndAddress);
+    }
+
+    @Override
+    public void deleteTaskById(UUID taskId) {
+        long recordEndAddress = 0;
+        writeLock.lock();
+        try {
+            // append a deleted version of the task if it exists
+            TaskModel existingTaskObject = this.findTaskById(taskId);
+            if (existingTaskObject != null) {
+                recordEndAddress = this.appendTask(existingTaskObject.withTaskDeleted(true));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        this.awaitForced(recordEndAddress);
+    }
+
+    @Override
+    public void updateTaskById(UUID taskId, TaskModel updatedTaskData) {
+        long recordEndAddress;
+        writeLock.lock();
+        try {
+            recordEndAddress = this.appendTask(updatedTaskData);
+        } finally {
+            writeLock.unlock();
+        }
+        this.awaitForced(recordEndAddress);
+    }
+
+    @Override
+    public TaskModel computeTaskById(UUID taskId, UnaryOperator<TaskModel> updateFunction) {
+        TaskModel updatedTaskObject;
+        long recordEndAddress;
+        writeLock.lock();
+        try {
+            // return null if no task exists with the given id or it is deleted
+            TaskModel existingTaskObject = this.findTaskById(taskId);
+            if (existingTaskObject == null) {
+                return null;
+            }
+
+            // append the updated version of the task
+            updatedTaskObject = updateFunction.apply(existingTaskObject);
+            recordEndAddress = this.appendTask(updatedTaskObject);
+        } finally {
+            writeLock.unlock();
+        }
+
+        // return the updated version once it has been written back
+        this.awaitForced(recordEndAddress);
+        return updatedTaskObject;
+    }
+
+    @Override
+    public void applyWriteBatch(Runnable writeBatch) {
+        // collect the end addresses awaited by the writes of the batch
+        long[] batch = new long[1];
+        batchEndAddress.set(batch);
+        try {
+            writeBatch.run();
+        } finally {
+            batchEndAddress.remove();
+        }
+
+        // write back the records of all writes of the batch at once
+        this.forceUntil(batch[0]);
+    }
+
+    @Override
+    public void close() {
+        // write all regions back to their files, the mappings themselves are released
+        // when the regions are garbage collected
+        for (MappedByteBuffer region : regions) {
+            if (region != null) {
+                region.force();
+            }
+        }
+    }
+
+    /**
+     * method to append a record of a task to the last region, followed by the
+     * compaction of regions whose records have mostly been superseded. Must be
+     * called while holding the write lock.
+     *
+     * @param taskObject - task object to append
+     * @return address after the appended record, to be awaited by the writer
+     * @throws DataPersistenceException - if a new region can not be mapped
+     */
+    private long appendTask(TaskModel taskObject) {
+        long recordEndAddress = this.appendRecord(taskObject.getTaskId(), encodeRecord(taskObject));
+        this.compactRegions();
+        return recordEndAddress;
+    }
+
+    /**
+     * method to append an encoded record to the last region, adding a new region
+     * if it does not fit, and to point the index to it. The record is written back
+     * to the region file by the group force. Must be called while holding the
+     * write lock.
+     *
+     * @param taskId     - id of the task of the record
+     * @param taskRecord - encoded record including it's header
+     * @return address after the appended record
+     * @throws DataPersistenceException - if a new region can not be mapped
+     */
+    private long appendRecord(UUID taskId, byte[] taskRecord) {
+        // add a new region if the record does not fit into the last one
+        if (regions.length == 0 || appendPosition + taskRecord.length > regions[regions.length - 1].capacity()) {
+            try {
+                this.mapRegion(regions.length, Math.max(regionSize, taskRecord.length));
+            } catch (IOException e) {
+                throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_PERSISTED, e);
+            }
+            appendPosition = 0;
+        }
+
+        // copy the record into the region
+        int regionNumber = regions.length - 1;
+        regions[regionNumber].put(appendPosition, taskRecord);
+        recordCounts[regionNumber]++;
+
+        // publish the record to the readers, counting the record it supersedes
+        Long supersededAddress = recordAddresses.put(taskId, ((long) regionNumber << 32) | appendPosition);
+        if (supersededAddress != null) {
+            supersededRecordCounts[(int) (supersededAddress >>> 32)]++;
+        }
+        appendPosition += taskRecord.length;
+
+        // publish the record to the group force
+        appendedAddress = ((long) regionNumber << 32) | appendPosition;
+        return appendedAddress;
+    }
+
+    /**
+     * method to wait until the records up to the given address have been written
+     * back to the region files, unless the current thread applies a batch, whose
+     * end waits for the records of all of it's writes at once
+     *
+     * @param recordEndAddress - address after the last record to wait for
+     */
+    private void awaitForced(long recordEndAddress) {
+        // leave the wait to the end of the batch applied by the current thread
+        long[] batch = batchEndAddress.get();
+        if (batch != null) {
+            batch[0] = Math.max(batch[0], recordEndAddress);
+            return;
+        }
+        this.forceUntil(recordEndAddress);
+    }
+
+    /**
+     * method to write back the appended records until the records up to the given
+     * address are written back. If another writer is writing back records
+     * already, the calling writer waits for it and checks again, otherwise it
+     * writes back the records of all waiting writers itself.
+     *
+     * @param recordEndAddress - address after the last record to wait for
+     */
+    private void forceUntil(long recordEndAddress) {
+        forceLock.lock();
+        try {
+            while (forcedAddress < recordEndAddress) {
+                // wait for the running force, which might cover the records already
+                if (isForceInProgress) {
+                    forcedCondition.awaitUninterruptibly();
+                    continue;
+                }
+
+                // become the writer of the next force, taking over all appended records, and
+                // write them back without holding the lock, so that other writers can append
+                // records for the next force in the meantime
+                isForceInProgress = true;
+                long startAddress = forcedAddress;
+                long endAddress = appendedAddress;
+                boolean isForced = false;
+                forceLock.unlock();
+                try {
+                    this.forceRecords(startAddress, endAddress);
+                    isForced = true;
+                } finally {
+                    // publish the result of the force and wake up all waiting writers
+                    forceLock.lock();
+                    if (isForced) {
+                        forcedAddress = endAddress;
+                        forceCount++;
+                    }
+                    isForceInProgress = false;
+                    forcedCondition.signalAll();
+                }
+            }
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * method to write back the records between two addresses to the region files
+     *
+     * @param startAddress - address of the first record to write back
+     * @param endAddress   - address after the last record to write back
+     */
+    private void forceRecords(long startAddress, long endAddress) {
+        int startRegionNumber = (int) (startAddress >>> 32);
+        int endRegionNumber = (int) (endAddress >>> 32);
+        MappedByteBuffer[] forcedRegions = regions;
+
+        for (int regionNumber = startRegionNumber; regionNumber <= endRegionNumber; regionNumber++) {
+            // skip compacted regions, whose records were written back before they were
+            // removed
+            MappedByteBuffer region = forcedRegions[regionNumber];
+            if (region == null) {
+                continue;
+            }
+            int startPosition = regionNumber == startRegionNumber ? (int) startAddress : 0;
+            int endPosition = regionNumber == endRegionNumber ? (int) endAddress : region.capacity();
+            if (endPosition > startPosition) {
+                region.force(startPosition, endPosition - startPosition);
+            }
+        }
+    }
+
+    /**
+     * method to compact every region except the last one once most of it's
+     * records have been superseded. Must be called while holding the write lock.
+     *
+     * @throws DataPersistenceException - if a new region can not be mapped
+     */
+    private void compactRegions() {
+        // the last region is checked again in every iteration, as the compaction
+        // appends records to it and might add new regions
+        for (int regionNumber = 0; regionNumber < regions.length - 1; regionNumber++) {
+            if (regions[regionNumber] != null
+                    && supersededRecordCounts[regionNumber] * 2 > recordCounts[regionNumber]) {
+                this.compactRegion(regionNumber);
+            }
+        }
+    }
+
+    /**
+     * method to append the newest records of the tasks in a region to the last
+     * region, to point the index to them and to delete the region file. Must be
+     * called while holding the write lock.
+     *
+     * @param regionNumber - number of the region to compact
+     * @throws DataPersistenceException - if a new region can not be mapped
+     */
+    private void compactRegion(int regionNumber) {
+        MappedByteBuffer region = regions[regionNumber];
+
+        // deletions can only be dropped if no older region can hold an older version
+        // of their task
+        boolean isOldestRegion = true;
+        for (int olderRegionNumber = 0; olderRegionNumber < regionNumber; olderRegionNumber++) {
+            isOldestRegion &= regions[olderRegionNumber] == null;
+        }
+
+        // move the records the index points to, skipping the superseded ones
+        int position = 0;
+        while (position + RECORD_HEADER_LENGTH <= region.capacity()) {
+            int recordLength = region.getInt(position + RECORD_LENGTH_OFFSET);
+            if (recordLength < RECORD_HEADER_LENGTH || recordLength > region.capacity() - position) {
+                break;
+            }
+            UUID taskId = new UUID(region.getLong(position + RECORD_TASK_ID_OFFSET),
+                    region.getLong(position + RECORD_TASK_ID_OFFSET + Long.BYTES));
+            Long recordAddress = ((long) regionNumber << 32) | position;
+            if (recordAddress.equals(recordAddresses.get(taskId))) {
+                if (isOldestRegion && isRecordDeleted(region, position)) {
+                    recordAddresses.remove(taskId);
+                } else {
+                    byte[] taskRecord = new byte[recordLength];
+                    region.get(position, taskRecord);
+                    this.appendRecord(taskId, taskRecord);
+                }
+            }
+            position += recordLength;
+        }
+
+        // write the moved records back before the region file is deleted, so that a
+        // crash in between replays them after the region instead of losing them
+        this.forceUntil(appendedAddress);
+
+        // remove the region after the index has been pointed away from it, so that
+        // readers which find it removed find the moved records in the index
+        MappedByteBuffer[] compactedRegions = regions.clone();
+        compactedRegions[regionNumber] = null;
+        regions = compactedRegions;
+        recordCounts[regionNumber] = 0;
+        supersededRecordCounts[regionNumber] = 0;
+        try {
+            Files.deleteIfExists(this.getRegionFile(regionNumber));
+            TaskDataFiles.syncDirectory(dataDirectory);
+        } catch (IOException e) {
+            // the region is replayed before the moved records after a restart and
+            // compacted again
+            LOGGER.log(Level.WARNING, "Compacted region file could not be deleted", e);
+        }
+    }
+
+    /**
+     * method to map a region file, creating it with the given size if it does not
+     * exist
+     *
+     * @param regionNumber - number of the region
+     * @param newSize      - size of the region file if it has to be created
+     * @throws IOException - if the region file can not be mapped
+     */
+    private void mapRegion(long regionNumber, int newSize) throws IOException {
+        try (FileChannel regionChannel = FileChannel.open(this.getRegionFile(regionNumber),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel has been closed
+            long regionLength = regionChannel.size() > 0 ? regionChannel.size() : newSize;
+            MappedByteBuffer region = regionChannel.map(FileChannel.MapMode.READ_WRITE, 0, regionLength);
+
+            // publish the region before any record in it, leaving the numbers of deleted
+            // regions before it empty
+            int regionCount = Math.max(regions.length, (int) regionNumber + 1);
+            MappedByteBuffer[] grownRegions = Arrays.copyOf(regions, regionCount);
+            grownRegions[(int) regionNumber] = region;
+            recordCounts = Arrays.copyOf(recordCounts, regionCount);
+            supersededRecordCounts = Arrays.copyOf(supersededRecordCounts, regionCount);
+            regions = grownRegions;
+        }
+        TaskDataFiles.syncDirectory(dataDirectory);
+    }
+
+    /**
+     * method to get the path of a region file
+     *
+     * @param regionNumber - number of the region
+     * @return path of the region file
+     */
+    private Path getRegionFile(long regionNumber) {
+        return dataDirectory.resolve(TaskDataFiles.getFileName(REGION_FILE_PREFIX, regionNumber,
+                REGION_FILE_SUFFIX));
+    }
+
+    /**
+     * method to index the valid records of a region
+     *
+     * @param regionNumber - number of the region
+     * @return position after the last valid record of the region
+     */
+    private int indexRegion(int regionNumber) {
+        MappedByteBuffer region = regions[regionNumber];
+        CRC32 checksum = new CRC32();
+        int position = 0;
+
+        while (position + RECORD_HEADER_LENGTH <= region.capacity()) {
+            // stop at the end of the records or at a torn or corrupt record
+            int recordLength = region.getInt(position + RECORD_LENGTH_OFFSET);
+            if (recordLength < RECORD_HEADER_LENGTH || recordLength > region.capacity() - position) {
+                break;
+            }
+            checksum.reset();
+            checksum.update(region.slice(position + RECORD_FLAGS_OFFSET, recordLength - RECORD_FLAGS_OFFSET));
+            if ((int) checksum.getValue() != region.getInt(position + RECORD_CHECKSUM_OFFSET)) {
+                break;
+            }
+
+            // point the index to the record, counting the record it supersedes
+            long recordAddress = ((long) regionNumber << 32) | position;
+            Long supersededAddress = recordAddresses.put(new UUID(region.getLong(position + RECORD_TASK_ID_OFFSET),
+                    region.getLong(position + RECORD_TASK_ID_OFFSET + Long.BYTES)), recordAddress);
+            if (supersededAddress != null) {
+                supersededRecordCounts[(int) (supersededAddress >>> 32)]++;
+            }
+            recordCounts[regionNumber]++;
+            position += recordLength;
+        }
+
+        return position;
+    }
+
+    /**
+     * method to fill the part of a region after the given position with zeros, if
+     * it contains anything else
+     *
+     * @param region        - region to clear
+     * @param startPosition - position after the last valid record of the region
+     */
+    private void clearRegionTail(MappedByteBuffer region, int startPosition) {
+        // find the end of the non-zero bytes, scanning backwards from the end
+        int endPosition = region.capacity();
+        while (endPosition > startPosition && region.get(endPosition - 1) == 0) {
+            endPosition--;
+        }
+
+        // clear them and write the region back to it's file
+        if (endPosition > startPosition) {
+            region.put(startPosition, new byte[endPosition - startPosition]);
+            region.force(startPosition, endPosition - startPosition);
+        }
+    }
+
+    /**
+     * method to decode the record of a task unless the task is deleted. If the
+     * region of the record has been compacted since the address was read from the
+     * index, the record is read where it has been moved to.
+     *
+     * @param taskId        - id of the task
+     * @param recordAddress - address of the record as read from the index
+     * @return decoded task object, null if the task is deleted
+     */
+    private TaskModel readLiveTask(UUID taskId, long recordAddress) {
+        MappedByteBuffer region = regions[(int) (recordAddress >>> 32)];
+        while (region == null) {
+            // the index has been pointed to the moved record before the region was removed
+            Long movedRecordAddress = recordAddresses.get(taskId);
+            if (movedRecordAddress == null) {
+                return null;
+            }
+            recordAddress = movedRecordAddress;
+            region = regions[(int) (recordAddress >>> 32)];
+        }
+
+        // skip deleted tasks by their flags before decoding the record
+        int position = (int) recordAddress;
+        return isRecordDeleted(region, position) ? null : readTask(region, position);
+    }
+
+    /**
+     * method to check the deleted flag of a record without decoding it
+     *
+     * @param region   - region containing the record
+     * @param position - position of the record within the region
+     * @return true if the record belongs to a deleted task, false otherwise
+     */
+    private static boolean isRecordDeleted(ByteBuffer region, int position) {
+        byte flags = region.get(position + RECORD_FLAGS_OFFSET);
+        return (flags & TaskModel.TASK_DELETED_FLAG) != 0;
+    }
+
+    /**
+     * method to decode a task object from a record
+     *
+     * @param region   - region containing the record
+     * @param position - position of the record within the region
+     * @return decoded task object
+     */
+    private static TaskModel readTask(ByteBuffer region, int position) {
+        return new TaskModel(region.getLong(position + RECORD_TASK_ID_OFFSET),
+                region.getLong(position + RECORD_TASK_ID_OFFSET + Long.BYTES),
+                readField(region, position, TASK_TITLE_FIELD),
+                readField(region, position, TASK_DESCRIPTION_FIELD),
+                region.getLong(position + RECORD_CREATED_ON_OFFSET),
+                region.getLong(position + RECORD_LAST_UPDATED_ON_OFFSET),
+                region.get(position + RECORD_FLAGS_OFFSET));
+    }
+
+    /**
+     * method to decode a single string field of a record, using the field lengths
+     * of the header to find it
+     *
+     * @param region   - region containing the record
+     * @param position - position of the record within the region
+     * @param field    - index of the field
+     * @return decoded string, null if the field is null
+     */
+    private static String readField(ByteBuffer region, int position, int field) {
+        // skip the fields before the requested one
+        int fieldPosition = position + RECORD_HEADER_LENGTH;
+        for (int previousField = 0; previousField < field; previousField++) {
+            fieldPosition += Math.max(0, region.getInt(position + RECORD_FIELD_LENGTHS_OFFSET
+                    + previousField * Integer.BYTES));
+        }
+
+        // decode the requested field
+        int fieldLength = region.getInt(position + RECORD_FIELD_LENGTHS_OFFSET + field * Integer.BYTES);
+        if (fieldLength == NULL_FIELD_LENGTH) {
+            return null;
+        }
+        byte[] encodedField = new byte[fieldLength];
+        region.get(fieldPosition, encodedField);
+        return new String(encodedField, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * method to encode a task object into a record
+     *
+     * @param taskObject - task object to encode
+     * @return record including it's header
+     */
+    private static byte[] encodeRecord(TaskModel taskObject) {
+        // encode the string fields in the order they are stored
+        byte[][] encodedFields = new byte[RECORD_FIELD_COUNT][];
+        encodedFields[TASK_TITLE_FIELD] = encodeField(taskObject.getTaskTitle());
+        encodedFields[TASK_DESCRIPTION_FIELD] = encodeField(taskObject.getTaskDescription());
+        int recordLength = RECORD_HEADER_LENGTH;
+        for (byte[] encodedField : encodedFields) {
+            recordLength += encodedField == null ? 0 : encodedField.length;
+        }
+
+        // write the header followed by the fields
+        ByteBuffer taskRecord = ByteBuffer.allocate(recordLength);
+        taskRecord.putInt(RECORD_LENGTH_OFFSET, recordLength);
+        taskRecord.position(RECORD_FLAGS_OFFSET);
+        taskRecord.put(taskObject.getTaskFlags());
+        taskRecord.putLong(taskObject.getTaskIdMostSignificantBits());
+        taskRecord.putLong(taskObject.getTaskIdLeastSignificantBits());
+        taskRecord.putLong(taskObject.getTaskCreatedOn());
+        taskRecord.putLong(taskObject.getTaskLastUpdatedOn());
+        for (byte[] encodedField : encodedFields) {
+            taskRecord.putInt(encodedField == null ? NULL_FIELD_LENGTH : encodedField.length);
+        }
+        for (byte[] encodedField : encodedFields) {
+            if (encodedField != null) {
+                taskRecord.put(encodedField);
+            }
+        }
+
+        // calculate the checksum of everything after it
+        CRC32 checksum = new CRC32();
+        checksum.update(taskRecord.array(), RECORD_FLAGS_OFFSET, recordLength - RECORD_FLAGS_OFFSET);
+        taskRecord.putInt(RECORD_CHECKSUM_OFFSET, (int) checksum.getValue());
+        return taskRecord.array();
+    }
+
+    private static byte[] encodeField(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * method to get the number of mapped regions, used by tests
+     *
+     * @return number of mapped regions
+     */
+    int getRegionCount() {
+        return (int) Arrays.stream(regions).filter(Objects::nonNull).count();
+    }
+
+    /**
+     * method to get the number of times records have been written back, used by
+     * tests
+     *
+     * @return number of times records have been written back
+     */
+    int getForceCount() {
+        forceLock.lock();
+        try {
+            return forceCount;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package repositories;
+
+import models.TaskModel;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * implementation class of the ITaskRepository interface which partitions the
+ * tasks by the hash of their id across independent shards, every shard being
+ * a repository of it's own with it's own lock and index. Writes and lookups of
+ * a task only touch the shard of it's id, so writes to different shards run in
+ * parallel.
+ * <p>
+ * Queries over all tasks run on every shard in parallel on a fork/join pool of
+ * the repository, and the per-shard results, which are ordered by task id, are
+ * merged into a single result in the same stable order (k-way merge). Streams
+ * merge the lazy streams of the shards the same way.
+ */
+public class TaskRepositoryShardedImpl implements ITaskRepository {
+
+    // shards of the repository
+    private final ITaskRepository[] shards;
+
+    // pool running the queries of the shards in parallel
+    private final ForkJoinPool scanPool;
+
+    /**
+     * constructor to create the shards, visible to the current package only
+     *
+     * @param shardCount   - number of shards
+     * @param shardFactory - factory creating an empty repository for every shard
+     */
+    TaskRepositoryShardedImpl(int shardCount, Supplier<ITaskRepository> shardFactory) {
+        this.shards = new ITaskRepository[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            this.shards[shard] = shardFactory.get();
+        }
+
+        // start a worker thread per shard at most
+        this.scanPool = new ForkJoinPool(shardCount, pool -> {
+            ForkJoinWorkerThread scanThread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            scanThread.setName("tmr-shard-scan-" + scanThread.getPoolIndex());
+            return scanThread;
+        }, null, false);
+    }
+
+    @Override
+    public Stream<TaskModel> streamTasksAfter(UUID afterTaskId) {
+        // merge the lazy streams of all shards, closing them along with the merged
+        // stream
+        List<Stream<TaskModel>> shardStreams = new ArrayList<>(shards.length);
+        List<Iterator<TaskModel>> shardTasks = new ArrayList<>(shards.length);
+        for (ITaskRepository shard : shards) {
+            Stream<TaskModel> shardStream = shard.streamTasksAfter(afterTaskId);
+            shardStreams.add(shardStream);
+            shardTasks.add(shardStream.iterator());
+        }
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(new TaskMergingIterator(shardTasks),
+                        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false)
+                .onClose(() -> shardStreams.forEach(Stream::close));
+    }
+
+    @Override
+    public List<TaskModel> findAllTasks() {
+        return this.queryShards(ITaskRepository::findAllTasks, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<TaskModel> findTasksAfter(UUID afterTaskId, int limit) {
+        // every shard contributes at most the requested number of tasks
+        return this.queryShards(shard -> shard.findTasksAfter(afterTaskId, limit), limit);
+    }
+
+    @Override
+    public List<TaskModel> findTasksByCompletionStatus(boolean taskCompleted) {
+        return this.queryShards(shard -> shard.findTasksByCompletionStatus(taskCompleted), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public TaskModel findTaskById(UUID taskId) {
+        return this.getShard(taskId).findTaskById(taskId);
+    }
+
+    @Override
+    public void addNewTask(TaskModel newTask) {
+        this.getShard(newTask.getTaskId()).addNewTask(newTask);
+    }
+
+    @Override
+    public void deleteTaskById(UUID taskId) {
+        this.getShard(taskId).deleteTaskById(taskId);
+    }
+
+    @Override
+    public void updateTaskById(UUID taskId, TaskModel updatedTaskData) {
+        this.getShard(taskId).updateTaskById(taskId, updatedTaskData);
+    }
+
+    @Override
+    public TaskModel computeTaskById(UUID taskId, UnaryOperator<TaskModel> updateFunction) {
+        return this.getShard(taskId).computeTaskById(taskId, updateFunction);
+    }
+
+    @Override
+    public void close() {
+        // stop the scan pool and close all shards
+        scanPool.shutdownNow();
+        for (ITaskRepository shard : shards) {
+            shard.close();
+        }
+    }
+
+    /**
+     * method to get the number of shards
+     *
+     * @return number of shards
+     */
+    int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * method to get the shard of a task id
+     *
+     * @param taskId - id of a task
+     * @return shard holding the task
+     */
+    ITaskRepository getShard(UUID taskId) {
+        // spread both halves of the id over all bits before reducing them to a shard
+        long hash = (taskId.getMostSignificantBits() ^ taskId.getLeastSignificantBits()) * 0x9E3779B97F4A7C15L;
+        return shards[Math.floorMod(Long.hashCode(hash), shards.length)];
+    }
+
+    /**
+     * method to run a query on all shards in parallel and merge their results,
+     * which are ordered by task id, into a single list in the same order
+     *
+     * @param shardQuery - query of a shard returning tasks ordered by task id
+     * @param limit      - maximum number of tasks to be returned
+     * @return merged tasks ordered by task id
+     */
+    private List<TaskModel> queryShards(Function<ITaskRepository, List<TaskModel>> shardQuery, int limit) {
+        // fork the queries of all shards
+        List<ForkJoinTask<List<TaskModel>>> shardResults = new ArrayList<>(shards.length);
+        for (ITaskRepository shard : shards) {
+            shardResults.add(scanPool.submit(() -> shardQuery.apply(shard)));
+        }
+
+        // wait for the results of all shards
+        List<Iterator<TaskModel>> shardTasks = new ArrayList<>(shards.length);
+        for (ForkJoinTask<List<TaskModel>> shardResult : shardResults) {
+            shardTasks.add(shardResult.join().iterator());
+        }
+
+        // merge the results up to the limit
+        List<TaskModel> mergedTasks = new ArrayList<>();
+        Iterator<TaskModel> mergingIterator = new TaskMergingIterator(shardTasks);
+        while (mergedTasks.size() < limit && mergingIterator.hasNext()) {
+            mergedTasks.add(mergingIterator.next());
+        }
+        return mergedTasks;
+    }
+}
@@ -0,0 +1,269 @@
+package repositories;
+
+import constants.ErrorMessage;
+import models.TaskModel;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * implementation class of the ITaskRepository interface which applies all
+ * mutations of an underlying store on a single writer thread. Request threads
+ * put their mutations into a bounded ring buffer and wait for the future of
+ * their mutation, while the writer drains the buffer in batches and applies
+ * the mutations one after the other in the order they were put. Writes never
+ * contend with each other, and their order is deterministic. A durable store
+ * waits only once for all mutations of a batch to become durable, after which
+ * the futures of the batch are completed.
+ * <p>
+ * Reads go to the store directly, which has to allow reads concurrent to the
+ * writes of the writer thread, like the in-memory repository whose lookups do
+ * not take a lock unless they race with a write.
+ */
+public class TaskRepositorySingleWriterImpl implements ITaskRepository {
+
+    // maximum number of mutations applied by the writer in a single batch
+    static final int MAX_BATCH_SIZE = 256;
+
+    // store to which the mutations are applied
+    private final ITaskRepository taskStore;
+
+    // buffer passing the mutations to the writer
+    private final TaskMutationRingBuffer mutationBuffer;
+
+    // thread applying the mutations
+    private final Thread writerThread;
+
+    // whether the writer keeps waiting for mutations
+    private volatile boolean running = true;
+
+    // mutations of the current batch along with their results or failures, used
+    // by the writer thread only
+    private final TaskMutationRingBuffer.Mutation[] batchMutations;
+    private final TaskModel[] batchResults = new TaskModel[MAX_BATCH_SIZE];
+    private final Throwable[] batchFailures = new Throwable[MAX_BATCH_SIZE];
+    private int batchSize;
+
+    /**
+     * constructor to start the writer thread, visible to the current package only
+     *
+     * @param taskStore      - store to which the mutations are applied
+     * @param bufferCapacity - number of mutations waiting for the writer at most
+     */
+    TaskRepositorySingleWriterImpl(ITaskRepository taskStore, int bufferCapacity) {
+        this.taskStore = taskStore;
+        this.mutationBuffer = new TaskMutationRingBuffer(bufferCapacity);
+        this.batchMutations = new TaskMutationRingBuffer.Mutation[MAX_BATCH_SIZE];
+
+        // start the writer
+        this.writerThread = new Thread(this::applyMutations, "tmr-single-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public Stream<TaskModel> streamTasksAfter(UUID afterTaskId) {
+        return taskStore.streamTasksAfter(afterTaskId);
+    }
+
+    @Override
+    public List<TaskModel> findAllTasks() {
+        return taskStore.findAllTasks();
+    }
+
+    @Override
+    public List<TaskModel> findTasksAfter(UUID afterTaskId, int limit) {
+        return taskStore.findTasksAfter(afterTaskId, limit);
+    }
+
+    @Override
+    public List<TaskModel> findTasksByCompletionStatus(boolean taskCompleted) {
+        return taskStore.findTasksByCompletionStatus(taskCompleted);
+    }
+
+    @Override
+    public TaskModel findTaskById(UUID taskId) {
+        return taskStore.findTaskById(taskId);
+    }
+
+    @Override
+    public void addNewTask(TaskModel newTask) {
+        this.applyOnWriter(store -> {
+            store.addNewTask(newTask);
+            return newTask;
+        });
+    }
+
+    @Override
+    public void deleteTaskById(UUID taskId) {
+        this.applyOnWriter(store -> {
+            store.deleteTaskById(taskId);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateTaskById(UUID taskId, TaskModel updatedTaskData) {
+        this.applyOnWriter(store -> {
+            store.updateTaskById(taskId, updatedTaskData);
+            return updatedTaskData;
+        });
+    }
+
+    @Override
+    public TaskModel computeTaskById(UUID taskId, UnaryOperator<TaskModel> updateFunction) {
+        return this.applyOnWriter(store -> store.computeTaskById(taskId, updateFunction));
+    }
+
+    @Override
+    public boolean isReturningStoredTasks() {
+        return taskStore.isReturningStoredTasks();
+    }
+
+    @Override
+    public void close() {
+        // let the writer apply the mutations put so far and stop, the permit of the
+        // unpark being kept even if the writer is just about to park
+        running = false;
+        LockSupport.unpark(writerThread);
+        this.failRemainingMutations();
+
+        // close the store once no mutation is applied anymore
+        taskStore.close();
+    }
+
+    /**
+     * method to let the writer apply an operation to the store and wait for it's
+     * result
+     *
+     * @param operation - operation applied to the store
+     * @return result of the operation
+     * @throws IllegalStateException - if the repository has been closed
+     */
+    private TaskModel applyOnWriter(Function<ITaskRepository, TaskModel> operation) {
+        // apply operations of the writer itself, e.g. made by an update function,
+        // directly instead of waiting for itself
+        if (Thread.currentThread() == writerThread) {
+            return operation.apply(taskStore);
+        }
+
+        // check if the writer has been stopped
+        if (!running) {
+            throw new IllegalStateException(ErrorMessage.REPOSITORY_CLOSED);
+        }
+
+        // put the mutation into the buffer and wait until the writer has applied it
+        TaskMutationRingBuffer.Mutation mutation = new TaskMutationRingBuffer.Mutation(operation);
+        mutationBuffer.put(mutation);
+
+        // the writer might have stopped before the mutation was put, in which case
+        // it is failed instead of waiting forever
+        if (!running) {
+            this.failRemainingMutations();
+        }
+        try {
+            return mutation.completion.join();
+        } catch (CompletionException e) {
+            // rethrow the failure of the operation in the request thread
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * method to wait until the writer has stopped and to fail the mutations put
+     * after it has drained the buffer for the last time. Once the writer has
+     * stopped, the buffer is only polled while holding the lock of the buffer.
+     */
+    private void failRemainingMutations() {
+        // wait for the writer, even if the waiting thread is interrupted
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        // fail the mutations which will never be applied
+        synchronized (mutationBuffer) {
+            TaskMutationRingBuffer.Mutation mutation;
+            while ((mutation = mutationBuffer.poll()) != null) {
+                mutation.completion.completeExceptionally(new IllegalStateException(ErrorMessage.REPOSITORY_CLOSED));
+            }
+        }
+    }
+
+    /**
+     * method run by the writer thread, applying the mutations in batches until the
+     * repository is closed and all mutations put so far have been applied
+     */
+    private void applyMutations() {
+        while (running || !mutationBuffer.isEmpty()) {
+            // wait for new mutations if the buffer has been drained
+            if (mutationBuffer.isEmpty()) {
+                mutationBuffer.awaitMutation();
+                continue;
+            }
+
+            // apply the mutations waiting in the buffer, up to a batch at a time, and
+            // wait once until all of them are durable
+            batchSize = 0;
+            Throwable batchFailure = null;
+            try {
+                taskStore.applyWriteBatch(this::applyBatch);
+            } catch (Throwable failure) {
+                // none of the mutations of the batch is known to be durable
+                batchFailure = failure;
+            }
+
+            // complete the futures of the batch, the failures are rethrown by the request
+            // threads
+            for (int index = 0; index < batchSize; index++) {
+                TaskMutationRingBuffer.Mutation mutation = batchMutations[index];
+                if (batchFailures[index] != null) {
+                    mutation.completion.completeExceptionally(batchFailures[index]);
+                } else if (batchFailure != null) {
+                    mutation.completion.completeExceptionally(batchFailure);
+                } else {
+                    mutation.completion.complete(batchResults[index]);
+                }
+                batchMutations[index] = null;
+                batchResults[index] = null;
+                batchFailures[index] = null;
+            }
+        }
+    }
+
+    /**
+     * method to apply the mutations waiting in the buffer, up to a batch at a
+     * time, keeping their results until the batch is durable
+     */
+    private void applyBatch() {
+        TaskMutationRingBuffer.Mutation mutation;
+        while (batchSize < MAX_BATCH_SIZE && (mutation = mutationBuffer.poll()) != null) {
+            batchMutations[batchSize] = mutation;
+            try {
+                batchResults[batchSize] = mutation.operation.apply(taskStore);
+            } catch (Throwable failure) {
+                // keep the writer alive and the batch going
+                batchFailures[batchSize] = failure;
+            }
+            batchSize++;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package repositories;
+
+import exceptions.DataPersistenceException;
+import models.TaskModel;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * implementation class of the ITaskRepository interface which keeps the tasks
+ * in a local in-memory repository and makes every write durable in an
+ * append-only write-ahead log. A write is appended to the log while the lock
+ * of it's map entry is held, so the log contains the writes of a task in the
+ * order in which they became visible. The writing request thread then waits
+ * until it's record has been synced to disk, which happens for the records of
+ * all concurrently waiting request threads with a single fsync.
+ * <p>
+ * A background thread periodically takes a checkpoint of the state and then
+ * deletes the log segments covered by it, so neither the log nor the replay
+ * time grow forever. Most checkpoints are deltas containing only the tasks
+ * written since the previous checkpoint, and every few checkpoints a full
+ * snapshot replaces them. On startup the newest snapshot, the newer deltas and
+ * the log records after them are loaded to rebuild the in-memory state.
+ */
+public class TaskRepositoryWriteAheadLogImpl implements ITaskRepository {
+
+    // logger of the failures of the periodic checkpoints
+    private static final Logger LOGGER = Logger.getLogger(TaskRepositoryWriteAheadLogImpl.class.getName());
+
+    // types of the records in the log
+    static final byte TASK_STORED_RECORD = 1;
+    static final byte TASK_DELETED_RECORD = 2;
+
+    // in-memory repository holding the current state of all tasks
+    private final TaskRepositoryLocalMemoryImpl memoryRepository = new TaskRepositoryLocalMemoryImpl();
+
+    // store of the checkpoints of the state
+    private final TaskCheckpointStore checkpointStore;
+
+    // write-ahead log making the writes durable
+    private final TaskWriteAheadLog writeAheadLog;
+
+    // lock held shared by writers while they mark a task as written and append it
+    // to the log, and exclusively by a checkpoint while it starts a new log
+    // segment, so that every write lands either in the checkpoint and the log
+    // segments covered by it or in the next checkpoint and the new log segment
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+    // ids of the tasks written since the last checkpoint
+    private volatile Set<UUID> writtenTaskIds = ConcurrentHashMap.newKeySet();
+
+    // number of checkpoints after which a full snapshot is written, and the number
+    // of checkpoints taken so far
+    private final int checkpointsPerSnapshot;
+    private long checkpointCount;
+
+    // executor running the periodic checkpoints, null if they are disabled
+    private final ScheduledExecutorService checkpointExecutor;
+
+    /**
+     * constructor to load the tasks from the checkpoints and the log in the given
+     * directory and to start the periodic checkpoints, visible to the current
+     * package only
+     *
+     * @param dataDirectory             - directory in which the checkpoints and
+     *                                  the log are stored
+     * @param checkpointIntervalSeconds - interval between the checkpoints in
+     *                                  seconds, 0 to disable periodic checkpoints
+     * @param checkpointsPerSnapshot    - number of checkpoints after which a full
+     *                                  snapshot is written instead of a delta
+     */
+    TaskRepositoryWriteAheadLogImpl(Path dataDirectory, long checkpointIntervalSeconds, int checkpointsPerSnapshot) {
+        this.checkpointsPerSnapshot = Math.max(1, checkpointsPerSnapshot);
+
+        // load the checkpoints and replay the log records after them
+        this.checkpointStore = new TaskCheckpointStore(dataDirectory);
+        long checkpointSequenceNumber = checkpointStore
+                .load(task -> memoryRepository.updateTaskById(task.getTaskId(), task));
+        this.writeAheadLog = TaskWriteAheadLog.open(dataDirectory, checkpointSequenceNumber, this::replayRecord);
+
+        // start the periodic checkpoints
+        if (checkpointIntervalSeconds > 0) {
+            this.checkpointExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread checkpointThread = new Thread(runnable, "tmr-checkpoint");
+                checkpointThread.setDaemon(true);
+                return checkpointThread;
+            });
+            this.checkpointExecutor.scheduleWithFixedDelay(this::runScheduledCheckpoint, checkpointIntervalSeconds,
+                    checkpointIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            this.checkpointExecutor = null;
+        }
+    }
+
+    @Override
+    public Stream<TaskModel> streamTasksAfter(UUID afterTaskId) {
+        return memoryRepository.streamTasksAfter(afterTaskId);
+    }
+
+    @Override
+    public TaskModel findTaskById(UUID taskId) {
+        return memoryRepository.findTaskById(taskId);
+    }
+
+    @Override
+    public void addNewTask(TaskModel newTask) {
+        // add the task and append it to the log, then wait for the log record
+        LogPosition logPosition = new LogPosition();
+        memoryRepository.addNewTask(newTask, logPosition::appendStoredTask);
+        logPosition.awaitDurable();
+    }
+
+    @Override
+    public void deleteTaskById(UUID taskId) {
+        // delete the task and append the deletion to the log, then wait for the log
+        // record
+        LogPosition logPosition = new LogPosition();
+        memoryRepository.deleteTaskById(taskId, logPosition::appendDeletedTask);
+        logPosition.awaitDurable();
+    }
+
+    @Override
+    public void updateTaskById(UUID taskId, TaskModel updatedTaskData) {
+        // update the task and append it to the log, then wait for the log record
+        LogPosition logPosition = new LogPosition();
+        memoryRepository.updateTaskById(taskId, updatedTaskData, logPosition::appendStoredTask);
+        logPosition.awaitDurable();
+    }
+
+    @Override
+    public TaskModel computeTaskById(UUID taskId, UnaryOperator<TaskModel> updateFunction) {
+        // update the task and append it to the log, then wait for the log record
+        LogPosition logPosition = new LogPosition();
+        TaskModel updatedTaskObject = memoryRepository.computeTaskById(taskId, updateFunction,
+                logPosition::appendStoredTask);
+        logPosition.awaitDurable();
+        return updatedTaskObject;
+    }
+
+    @Override
+    public boolean isReturningStoredTasks() {
+        return memoryRepository.isReturningStoredTasks();
+    }
+
+    @Override
+    public void applyWriteBatch(Runnable writeBatch) {
+        // apply the writes and wait for the log records of all of them at once
+        writeAheadLog.applyBatch(writeBatch);
+    }
+
+    /**
+     * method to take a checkpoint of the tasks written since the previous one and
+     * delete the log segments covered by it. Writers are only held back while a
+     * new log segment is requested, the checkpoint itself is written while they
+     * continue.
+     *
+     * @throws DataPersistenceException - if the checkpoint can not be written
+     */
+    synchronized void checkpoint() {
+        // start a new log segment and a new set of written tasks at the same point
+        Set<UUID> checkpointTaskIds;
+        long checkpointSequenceNumber;
+        checkpointLock.writeLock().lock();
+        try {
+            // skip the checkpoint if nothing has been written since the previous one
+            checkpointTaskIds = writtenTaskIds;
+            if (checkpointTaskIds.isEmpty()) {
+                return;
+            }
+            writtenTaskIds = ConcurrentHashMap.newKeySet();
+            checkpointSequenceNumber = writeAheadLog.requestSegmentRoll();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+
+        try {
+            // wait until the log records covered by the checkpoint are in finished
+            // segments
+            writeAheadLog.awaitSegmentRoll();
+
+            // write a full snapshot of all tasks which are not deleted, or a delta of the
+            // written tasks including deleted ones. A task might be read in a newer
+            // version than the one covered by the checkpoint, which is harmless as the
+            // log records after the checkpoint are replayed on top of it.
+            if (++checkpointCount % checkpointsPerSnapshot == 0) {
+                checkpointStore.writeSnapshot(checkpointSequenceNumber,
+                        Stream.concat(memoryRepository.streamStoredTaskIds(), checkpointTaskIds.stream())
+                                .distinct()
+                                .map(memoryRepository::findStoredTaskById)
+                                .filter(task -> task != null && !task.isTaskDeleted()));
+            } else {
+                checkpointStore.writeDelta(checkpointSequenceNumber,
+                        checkpointTaskIds.stream()
+                                .map(memoryRepository::findStoredTaskById)
+                                .filter(Objects::nonNull));
+            }
+        } catch (RuntimeException e) {
+            // keep the tasks for the next checkpoint, as the log segments containing
+            // them are only deleted after a successful checkpoint
+            writtenTaskIds.addAll(checkpointTaskIds);
+            throw e;
+        }
+
+        // delete the log segments covered by the checkpoint
+        writeAheadLog.deleteSegmentsBefore(checkpointSequenceNumber);
+    }
+
+    @Override
+    public void close() {
+        // stop the periodic checkpoints, waiting for a running one to finish
+        if (checkpointExecutor != null) {
+            checkpointExecutor.shutdown();
+            try {
+                checkpointExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // sync all remaining records and close the log
+        writeAheadLog.close();
+    }
+
+    /**
+     * method to take a periodic checkpoint, which must not throw as that would
+     * cancel all further checkpoints
+     */
+    private void runScheduledCheckpoint() {
+        try {
+            this.checkpoint();
+        } catch (RuntimeException e) {
+            // the next checkpoint will try again
+            LOGGER.log(Level.SEVERE, "Checkpoint could not be written", e);
+        }
+    }
+
+    /**
+     * method to apply a record of the log to the in-memory state during startup
+     *
+     * @param logRecord - record read from the log
+     */
+    private void replayRecord(TaskWriteAheadLog.LogRecord logRecord) {
+        // remember the task for the next checkpoint, as the record is only covered by
+        // the log
+        UUID taskId;
+        if (logRecord.recordType() == TASK_STORED_RECORD) {
+            TaskModel storedTask = TaskRecordCodec.decodeTask(logRecord.payload());
+            taskId = storedTask.getTaskId();
+            memoryRepository.updateTaskById(taskId, storedTask);
+        } else {
+            taskId = TaskRecordCodec.decodeTaskId(logRecord.payload());
+            memoryRepository.deleteTaskById(taskId);
+        }
+        writtenTaskIds.add(taskId);
+    }
+
+    /**
+     * position of the record appended by a single write, which the writing thread
+     * waits for after the lock of the map entry has been released
+     */
+    private final class LogPosition {
+
+        // sequence number of the appended record, 0 if nothing has been appended
+        private long sequenceNumber;
+
+        /**
+         * method to append a stored task object to the log
+         *
+         * @param taskId     - id of the stored task object
+         * @param storedTask - stored task object
+         */
+        private void appendStoredTask(UUID taskId, TaskModel storedTask) {
+            this.append(taskId, TASK_STORED_RECORD, TaskRecordCodec.encodeTask(storedTask));
+        }
+
+        /**
+         * method to append the deletion of a task object to the log
+         *
+         * @param taskId      - id of the deleted task object
+         * @param deletedTask - deleted task object
+         */
+        private void appendDeletedTask(UUID taskId, TaskModel deletedTask) {
+            this.append(taskId, TASK_DELETED_RECORD, TaskRecordCodec.encodeTaskId(taskId));
+        }
+
+        /**
+         * method to mark a task as written for the next checkpoint and append a record
+         * to the log
+         *
+         * @param taskId     - id of the written task object
+         * @param recordType - type of the record
+         * @param payload    - payload of the record
+         */
+        private void append(UUID taskId, byte recordType, byte[] payload) {
+            checkpointLock.readLock().lock();
+            try {
+                writtenTaskIds.add(taskId);
+                sequenceNumber = writeAheadLog.append(recordType, payload);
+            } finally {
+                checkpointLock.readLock().unlock();
+            }
+        }
+
+        /**
+         * method to wait until the appended record is durable, returns immediately if
+         * the write did not change anything
+         */
+        private void awaitDurable() {
+            if (sequenceNumber != 0) {
+                writeAheadLog.awaitDurable(sequenceNumber);
+            }
+        }
+    }
+}
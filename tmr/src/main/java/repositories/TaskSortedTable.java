@@ -0,0 +1,444 @@
+package repositories;
+
+import constants.ErrorMessage;
+import exceptions.DataPersistenceException;
+import models.TaskModel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * immutable sorted table file of the log-structured merge tree repository. The
+ * file contains the binary task records ordered by their task id, followed by
+ * a sparse index holding the id and the file offset of every 16th record, and
+ * a fixed-size footer. Only the sparse index is kept on the heap, so a lookup
+ * searches the index and then reads a single block of at most 16 records from
+ * the file.
+ * <p>
+ * A table is reference counted, so that a table replaced by a compaction is
+ * only closed and deleted once the last reader has released it. The files of
+ * the tables replaced by the same compaction are deleted from the oldest to the
+ * newest table, so that a crash while they are deleted never leaves an older
+ * version of a task on disk whose newer deletion has been deleted already.
+ */
+final class TaskSortedTable {
+
+    // logger of the failures to close or delete retired table files
+    private static final Logger LOGGER = Logger.getLogger(TaskSortedTable.class.getName());
+
+    // number of records per block of the sparse index
+    static final int RECORDS_PER_INDEX_ENTRY = 16;
+
+    // length and marker of the footer
+    private static final int FOOTER_LENGTH = Long.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int FOOTER_MARKER = 0x54534254;
+
+    // suffix of files which are still being written
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    // path and channel of the table file
+    private final Path tableFile;
+    private final FileChannel tableChannel;
+
+    // sequence number of the last log record covered by the table, used to order
+    // the tables from the oldest to the newest, and the number of records
+    private final long coveredSequenceNumber;
+    private final long recordCount;
+
+    // sparse index of the first task id and the file offset of every block, and
+    // the offset at which the index starts, which ends the last block
+    private final UUID[] blockTaskIds;
+    private final long[] blockOffsets;
+    private final long indexOffset;
+
+    // number of references, starting with the one held by the repository, the
+    // table is closed and deleted when it drops to 0
+    private final AtomicInteger referenceCount = new AtomicInteger(1);
+
+    // lock guarding the order in which the files of retired tables are deleted
+    private static final Object DELETION_LOCK = new Object();
+
+    // next older and next newer table retired by the same compaction, whose
+    // files are deleted before and after the file of this table
+    private TaskSortedTable olderRetiredTable;
+    private TaskSortedTable newerRetiredTable;
+
+    // flags indicating if the last reference has been released and if the file
+    // has been deleted
+    private boolean isReleased;
+    private boolean isDeleted;
+
+    /**
+     * constructor
+     *
+     * @param tableFile             - path of the table file
+     * @param tableChannel          - channel of the table file
+     * @param coveredSequenceNumber - sequence number of the last log record
+     *                              covered by the table
+     * @param recordCount           - number of records in the table
+     * @param blockTaskIds          - first task id of every block
+     * @param blockOffsets          - file offset of every block
+     * @param indexOffset           - file offset of the sparse index
+     */
+    private TaskSortedTable(Path tableFile, FileChannel tableChannel, long coveredSequenceNumber, long recordCount,
+            UUID[] blockTaskIds, long[] blockOffsets, long indexOffset) {
+        this.tableFile = tableFile;
+        this.tableChannel = tableChannel;
+        this.coveredSequenceNumber = coveredSequenceNumber;
+        this.recordCount = recordCount;
+        this.blockTaskIds = blockTaskIds;
+        this.blockOffsets = blockOffsets;
+        this.indexOffset = indexOffset;
+    }
+
+    /**
+     * method to write a new table file under a temporary name, sync it, rename it
+     * atomically and open it
+     *
+     * @param tableFile             - path of the table file
+     * @param coveredSequenceNumber - sequence number of the last log record
+     *                              covered by the table
+     * @param tasks                 - tasks to write, ordered by their task id
+     * @return opened table
+     * @throws IOException - if the table file can not be written
+     */
+    static TaskSortedTable write(Path tableFile, long coveredSequenceNumber, Iterator<TaskModel> tasks)
+            throws IOException {
+        Path temporaryFile = tableFile.resolveSibling(tableFile.getFileName() + TEMPORARY_FILE_SUFFIX);
+
+        try (FileChannel fileChannel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream tableStream = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(fileChannel)));
+
+            // write the records, remembering the first task id and offset of every block
+            List<UUID> blockTaskIds = new ArrayList<>();
+            List<Long> blockOffsets = new ArrayList<>();
+            long offset = 0;
+            long recordCount = 0;
+            while (tasks.hasNext()) {
+                TaskModel task = tasks.next();
+                if (recordCount % RECORDS_PER_INDEX_ENTRY == 0) {
+                    blockTaskIds.add(task.getTaskId());
+                    blockOffsets.add(offset);
+                }
+                byte[] taskRecord = TaskRecordCodec.encodeTask(task);
+                tableStream.writeInt(taskRecord.length);
+                tableStream.write(taskRecord);
+                offset += Integer.BYTES + taskRecord.length;
+                recordCount++;
+            }
+
+            // write the sparse index and the footer
+            tableStream.writeInt(blockTaskIds.size());
+            for (int block = 0; block < blockTaskIds.size(); block++) {
+                tableStream.writeLong(blockTaskIds.get(block).getMostSignificantBits());
+                tableStream.writeLong(blockTaskIds.get(block).getLeastSignificantBits());
+                tableStream.writeLong(blockOffsets.get(block));
+            }
+            tableStream.writeLong(offset);
+            tableStream.writeLong(coveredSequenceNumber);
+            tableStream.writeLong(recordCount);
+            tableStream.writeInt(FOOTER_MARKER);
+            tableStream.flush();
+            fileChannel.force(true);
+        }
+
+        // publish the table file under it's final name
+        Files.move(temporaryFile, tableFile, StandardCopyOption.ATOMIC_MOVE);
+        TaskDataFiles.syncDirectory(tableFile.toAbsolutePath().getParent());
+        return open(tableFile);
+    }
+
+    /**
+     * method to open an existing table file, reading it's sparse index
+     *
+     * @param tableFile - path of the table file
+     * @return opened table
+     * @throws IOException - if the table file can not be read or is corrupt
+     */
+    static TaskSortedTable open(Path tableFile) throws IOException {
+        FileChannel tableChannel = FileChannel.open(tableFile, StandardOpenOption.READ);
+        try {
+            // read and check the footer
+            long fileLength = tableChannel.size();
+            if (fileLength < FOOTER_LENGTH) {
+                throw new IOException("corrupt sorted table " + tableFile);
+            }
+            ByteBuffer footer = readFully(tableChannel, fileLength - FOOTER_LENGTH, FOOTER_LENGTH);
+            long indexOffset = footer.getLong();
+            long coveredSequenceNumber = footer.getLong();
+            long recordCount = footer.getLong();
+            if (footer.getInt() != FOOTER_MARKER || indexOffset < 0 || indexOffset > fileLength - FOOTER_LENGTH) {
+                throw new IOException("corrupt sorted table " + tableFile);
+            }
+
+            // read the sparse index
+            ByteBuffer index = readFully(tableChannel, indexOffset,
+                    (int) (fileLength - FOOTER_LENGTH - indexOffset));
+            int blockCount = index.getInt();
+            UUID[] blockTaskIds = new UUID[blockCount];
+            long[] blockOffsets = new long[blockCount];
+            for (int block = 0; block < blockCount; block++) {
+                blockTaskIds[block] = new UUID(index.getLong(), index.getLong());
+                blockOffsets[block] = index.getLong();
+            }
+
+            return new TaskSortedTable(tableFile, tableChannel, coveredSequenceNumber, recordCount, blockTaskIds,
+                    blockOffsets, indexOffset);
+        } catch (IOException | RuntimeException e) {
+            tableChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * method to find the record of a task in the table
+     *
+     * @param taskId - id of the task
+     * @return stored task object including a deleted one, null if the table does
+     *         not contain the task
+     * @throws DataPersistenceException - if the table file can not be read
+     */
+    TaskModel findTask(UUID taskId) {
+        // find the block which would contain the task id
+        int block = this.findBlock(taskId);
+        if (block < 0) {
+            return null;
+        }
+
+        // search the records of the block, which are ordered by their task id
+        for (TaskModel task : this.readBlock(block)) {
+            int comparison = ITaskRepository.TASK_ID_ORDER.compare(task.getTaskId(), taskId);
+            if (comparison == 0) {
+                return task;
+            } else if (comparison > 0) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * method to lazily iterate over the records of the table ordered by their task
+     * id, reading one block at a time
+     *
+     * @param afterTaskId - id after which the iteration starts, null to start with
+     *                    the first record
+     * @return iterator over the stored task objects including deleted ones
+     */
+    Iterator<TaskModel> iterateTasksAfter(UUID afterTaskId) {
+        return new Iterator<>() {
+            // block to be read next and the remaining records of the current block
+            private int nextBlock = afterTaskId == null ? 0 : Math.max(0, findBlock(afterTaskId));
+            private Iterator<TaskModel> blockTasks = List.<TaskModel>of().iterator();
+            private TaskModel nextTask = this.advance();
+
+            @Override
+            public boolean hasNext() {
+                return nextTask != null;
+            }
+
+            @Override
+            public TaskModel next() {
+                if (nextTask == null) {
+                    throw new NoSuchElementException();
+                }
+                TaskModel task = nextTask;
+                nextTask = this.advance();
+                return task;
+            }
+
+            private TaskModel advance() {
+                while (true) {
+                    // read the next block once the current one is exhausted
+                    if (!blockTasks.hasNext()) {
+                        if (nextBlock >= blockOffsets.length) {
+                            return null;
+                        }
+                        blockTasks = readBlock(nextBlock++).iterator();
+                        continue;
+                    }
+
+                    // skip the records up to the start of the iteration
+                    TaskModel task = blockTasks.next();
+                    if (afterTaskId == null
+                            || ITaskRepository.TASK_ID_ORDER.compare(task.getTaskId(), afterTaskId) > 0) {
+                        return task;
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * method to acquire a reference to the table before reading it
+     *
+     * @return true if the reference has been acquired, false if the table has been
+     *         retired already
+     */
+    boolean tryAcquire() {
+        int references;
+        do {
+            references = referenceCount.get();
+            if (references == 0) {
+                return false;
+            }
+        } while (!referenceCount.compareAndSet(references, references + 1));
+        return true;
+    }
+
+    /**
+     * method to retire the tables replaced by a compaction, releasing the
+     * references held by the repository. The file of a table is deleted once the
+     * last reference has been released and the files of all older tables of the
+     * compaction have been deleted.
+     *
+     * @param retiredTables - tables replaced by the compaction, ordered from the
+     *                      newest to the oldest
+     */
+    static void retire(List<TaskSortedTable> retiredTables) {
+        // chain the tables in the order in which their files have to be deleted
+        synchronized (DELETION_LOCK) {
+            for (int table = 0; table < retiredTables.size() - 1; table++) {
+                retiredTables.get(table).olderRetiredTable = retiredTables.get(table + 1);
+                retiredTables.get(table + 1).newerRetiredTable = retiredTables.get(table);
+            }
+        }
+
+        // release the tables from the oldest to the newest
+        for (int table = retiredTables.size() - 1; table >= 0; table--) {
+            retiredTables.get(table).release();
+        }
+    }
+
+    /**
+     * method to release a reference to the table, closing the table once the last
+     * reference of a retired table has been released and deleting it's file once
+     * the files of the older tables retired with it have been deleted
+     */
+    void release() {
+        if (referenceCount.decrementAndGet() == 0) {
+            try {
+                tableChannel.close();
+            } catch (IOException e) {
+                // the file is deleted nevertheless
+                LOGGER.log(Level.WARNING, "Table file '" + tableFile + "' could not be closed", e);
+            }
+
+            // delete the file of this table and of the newer tables which only waited
+            // for it
+            synchronized (DELETION_LOCK) {
+                isReleased = true;
+                TaskSortedTable table = this;
+                while (table != null && table.isReleased && !table.isDeleted
+                        && (table.olderRetiredTable == null || table.olderRetiredTable.isDeleted)) {
+                    try {
+                        Files.deleteIfExists(table.tableFile);
+                    } catch (IOException e) {
+                        // the newer tables are kept, so that a deleted task can not reappear
+                        LOGGER.log(Level.WARNING, "Table file '" + table.tableFile + "' could not be deleted", e);
+                        return;
+                    }
+                    table.isDeleted = true;
+                    table = table.newerRetiredTable;
+                }
+            }
+        }
+    }
+
+    /**
+     * method to close the table without deleting the table file
+     *
+     * @throws IOException - if the channel can not be closed
+     */
+    void close() throws IOException {
+        tableChannel.close();
+    }
+
+    Path getTableFile() {
+        return tableFile;
+    }
+
+    long getCoveredSequenceNumber() {
+        return coveredSequenceNumber;
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * method to find the block which would contain the given task id
+     *
+     * @param taskId - task id
+     * @return index of the last block starting with a task id not greater than the
+     *         given one, -1 if the task id is before the first block
+     */
+    private int findBlock(UUID taskId) {
+        int insertionPoint = Arrays.binarySearch(blockTaskIds, taskId, ITaskRepository.TASK_ID_ORDER);
+        return insertionPoint >= 0 ? insertionPoint : -insertionPoint - 2;
+    }
+
+    /**
+     * method to read and decode the records of a block
+     *
+     * @param block - index of the block
+     * @return task objects of the block ordered by their task id
+     * @throws DataPersistenceException - if the table file can not be read
+     */
+    private List<TaskModel> readBlock(int block) {
+        long blockEnd = block + 1 < blockOffsets.length ? blockOffsets[block + 1] : indexOffset;
+        try {
+            ByteBuffer blockBuffer = readFully(tableChannel, blockOffsets[block],
+                    (int) (blockEnd - blockOffsets[block]));
+            List<TaskModel> blockTasks = new ArrayList<>(RECORDS_PER_INDEX_ENTRY);
+            while (blockBuffer.hasRemaining()) {
+                int recordLength = blockBuffer.getInt();
+                blockTasks.add(TaskRecordCodec.decodeTask(blockBuffer.slice(blockBuffer.position(), recordLength)));
+                blockBuffer.position(blockBuffer.position() + recordLength);
+            }
+            return blockTasks;
+        } catch (IOException e) {
+            throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_LOADED + tableFile, e);
+        }
+    }
+
+    /**
+     * method to read a range of a file into a buffer, using positional reads
+     * which can be issued by many threads at the same time
+     *
+     * @param channel  - channel of the file
+     * @param position - start of the range
+     * @param length   - length of the range
+     * @return buffer containing the range
+     * @throws IOException - if the range can not be read
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,305 @@
+package repositories;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * append-only arena storing the title and description of tasks in chunks of
+ * memory, either on the heap or off the heap in direct buffers. The texts of a
+ * task are written together as a block of the length of the UTF-8 encoded
+ * title, the title, the length of the encoded description and the description,
+ * a length of -1 standing for a null text. A block is referenced by a handle of
+ * fixed size holding the number of it's chunk in the upper and it's offset
+ * within the chunk in the lower half, so that owners only keep a long per task
+ * on the heap.
+ * <p>
+ * Blocks are never modified. A replaced block is released and counted as
+ * garbage, and the owner compacts the arena once half of it is garbage, which
+ * copies the live blocks into new chunks and recycles the old ones, so that
+ * direct memory is reused instead of waiting for the garbage collector to free
+ * it. The arena is not thread-safe, it's owner serializes the access.
+ */
+final class TaskTextArena {
+
+    // default size of a chunk
+    static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    // handle standing for no block
+    static final long NULL_HANDLE = -1;
+
+    // length stored for a null text
+    private static final int NULL_TEXT_LENGTH = -1;
+
+    // size of a chunk and whether chunks are allocated off the heap
+    private final int chunkSize;
+    private final boolean offHeap;
+
+    // chunks of the arena in the order they were added, the last one receiving the
+    // appended blocks, and the position at which the next block is appended
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private int appendOffset;
+
+    // chunks of the default size which have been emptied by a compaction
+    private final Deque<ByteBuffer> freeChunks = new ArrayDeque<>();
+
+    // number of bytes appended to the chunks and the number of those which belong
+    // to released blocks
+    private long usedSize;
+    private long garbageSize;
+
+    /**
+     * constructor
+     *
+     * @param chunkSize - size of a chunk, blocks larger than it getting a chunk of
+     *                  their own
+     * @param offHeap   - boolean flag indicating if the chunks are allocated off
+     *                  the heap
+     */
+    TaskTextArena(int chunkSize, boolean offHeap) {
+        this.chunkSize = chunkSize;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * method to append the texts of a task
+     *
+     * @param taskTitle       - title of the task, may be null
+     * @param taskDescription - description of the task, may be null
+     * @return handle of the block
+     */
+    long append(String taskTitle, String taskDescription) {
+        byte[] encodedTitle = taskTitle == null ? null : taskTitle.getBytes(StandardCharsets.UTF_8);
+        byte[] encodedDescription = taskDescription == null ? null
+                : taskDescription.getBytes(StandardCharsets.UTF_8);
+        int blockLength = 2 * Integer.BYTES + (encodedTitle == null ? 0 : encodedTitle.length)
+                + (encodedDescription == null ? 0 : encodedDescription.length);
+
+        // write the block into the current chunk
+        long handle = this.allocateBlock(blockLength);
+        ByteBuffer chunk = chunks.get(chunkNumber(handle));
+        int offset = putText(chunk, chunkOffset(handle), encodedTitle);
+        putText(chunk, offset, encodedDescription);
+        return handle;
+    }
+
+    /**
+     * method to read the title of a block
+     *
+     * @param handle - handle of the block
+     * @return title of the task
+     */
+    String readTitle(long handle) {
+        return readText(chunks.get(chunkNumber(handle)), chunkOffset(handle));
+    }
+
+    /**
+     * method to read the description of a block
+     *
+     * @param handle - handle of the block
+     * @return description of the task
+     */
+    String readDescription(long handle) {
+        ByteBuffer chunk = chunks.get(chunkNumber(handle));
+        return readText(chunk, skipText(chunk, chunkOffset(handle)));
+    }
+
+    /**
+     * method to release a block which is not referenced anymore, counting it as
+     * garbage
+     *
+     * @param handle - handle of the block, NULL_HANDLE for none
+     */
+    void release(long handle) {
+        if (handle != NULL_HANDLE) {
+            garbageSize += this.getBlockLength(handle);
+        }
+    }
+
+    /**
+     * method to check if half of the arena is garbage, so that a compaction would
+     * at least halve it
+     *
+     * @return true if the arena should be compacted
+     */
+    boolean needsCompaction() {
+        return garbageSize * 2 > usedSize && chunks.size() > 1;
+    }
+
+    /**
+     * method to copy the live blocks into new chunks and recycle the old chunks,
+     * replacing the handles by the ones of the copies
+     *
+     * @param handles     - column of the handles of all live blocks, containing
+     *                    NULL_HANDLE for rows without a block
+     * @param handleCount - number of handles in use
+     */
+    void compact(long[] handles, int handleCount) {
+        // start new chunks, keeping the old ones to copy from
+        List<ByteBuffer> oldChunks = new ArrayList<>(chunks);
+        chunks.clear();
+        appendOffset = 0;
+        usedSize = 0;
+        garbageSize = 0;
+
+        // copy every live block, the old chunks staying unchanged until all are copied
+        for (int index = 0; index < handleCount; index++) {
+            if (handles[index] != NULL_HANDLE) {
+                ByteBuffer oldChunk = oldChunks.get(chunkNumber(handles[index]));
+                int oldOffset = chunkOffset(handles[index]);
+                int blockLength = skipText(oldChunk, skipText(oldChunk, oldOffset)) - oldOffset;
+                long handle = this.allocateBlock(blockLength);
+                chunks.get(chunkNumber(handle)).put(chunkOffset(handle), oldChunk, oldOffset, blockLength);
+                handles[index] = handle;
+            }
+        }
+
+        // recycle the old chunks of the default size
+        for (ByteBuffer oldChunk : oldChunks) {
+            if (oldChunk.capacity() == chunkSize) {
+                freeChunks.push(oldChunk);
+            }
+        }
+    }
+
+    /**
+     * method to get the number of bytes appended to the chunks, including
+     * released blocks
+     *
+     * @return number of used bytes
+     */
+    long getUsedSize() {
+        return usedSize;
+    }
+
+    /**
+     * method to get the number of bytes allocated for the chunks, including free
+     * ones
+     *
+     * @return number of allocated bytes
+     */
+    long getAllocatedSize() {
+        long allocatedSize = 0;
+        for (ByteBuffer chunk : chunks) {
+            allocatedSize += chunk.capacity();
+        }
+        return allocatedSize + (long) freeChunks.size() * chunkSize;
+    }
+
+    /**
+     * method to reserve space for a block at the end of the current chunk, adding
+     * a chunk if it is full
+     *
+     * @param blockLength - length of the block
+     * @return handle of the block
+     */
+    private long allocateBlock(int blockLength) {
+        if (chunks.isEmpty() || appendOffset + blockLength > chunks.getLast().capacity()) {
+            // reuse a free chunk, or allocate one large enough for the block
+            ByteBuffer chunk = blockLength <= chunkSize && !freeChunks.isEmpty() ? freeChunks.pop()
+                    : this.allocateChunk(Math.max(chunkSize, blockLength));
+            chunks.add(chunk);
+            appendOffset = 0;
+        }
+        long handle = ((long) (chunks.size() - 1) << Integer.SIZE) | appendOffset;
+        appendOffset += blockLength;
+        usedSize += blockLength;
+        return handle;
+    }
+
+    /**
+     * method to allocate a chunk on or off the heap
+     *
+     * @param capacity - size of the chunk
+     * @return chunk
+     */
+    private ByteBuffer allocateChunk(int capacity) {
+        return offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * method to get the length of a block
+     *
+     * @param handle - handle of the block
+     * @return length of the block
+     */
+    private int getBlockLength(long handle) {
+        ByteBuffer chunk = chunks.get(chunkNumber(handle));
+        return skipText(chunk, skipText(chunk, chunkOffset(handle))) - chunkOffset(handle);
+    }
+
+    /**
+     * method to write an encoded text along with it's length
+     *
+     * @param chunk       - chunk to write into
+     * @param offset      - offset at which the text is written
+     * @param encodedText - UTF-8 encoded text, null for a null text
+     * @return offset after the text
+     */
+    private static int putText(ByteBuffer chunk, int offset, byte[] encodedText) {
+        if (encodedText == null) {
+            chunk.putInt(offset, NULL_TEXT_LENGTH);
+            return offset + Integer.BYTES;
+        }
+        chunk.putInt(offset, encodedText.length);
+        chunk.put(offset + Integer.BYTES, encodedText);
+        return offset + Integer.BYTES + encodedText.length;
+    }
+
+    /**
+     * method to decode a text written along with it's length
+     *
+     * @param chunk  - chunk to read from
+     * @param offset - offset of the length of the text
+     * @return decoded text, null for a null text
+     */
+    private static String readText(ByteBuffer chunk, int offset) {
+        int length = chunk.getInt(offset);
+        if (length == NULL_TEXT_LENGTH) {
+            return null;
+        }
+
+        // decode heap chunks in place, and copy the bytes of direct chunks first
+        if (chunk.hasArray()) {
+            return new String(chunk.array(), chunk.arrayOffset() + offset + Integer.BYTES, length,
+                    StandardCharsets.UTF_8);
+        }
+        byte[] encodedText = new byte[length];
+        chunk.get(offset + Integer.BYTES, encodedText);
+        return new String(encodedText, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * method to skip a text written along with it's length
+     *
+     * @param chunk  - chunk to read from
+     * @param offset - offset of the length of the text
+     * @return offset after the text
+     */
+    private static int skipText(ByteBuffer chunk, int offset) {
+        return offset + Integer.BYTES + Math.max(0, chunk.getInt(offset));
+    }
+
+    /**
+     * method to get the chunk number of a handle
+     *
+     * @param handle - handle of a block
+     * @return number of the chunk containing the block
+     */
+    private static int chunkNumber(long handle) {
+        return (int) (handle >>> Integer.SIZE);
+    }
+
+    /**
+     * method to get the offset within the chunk of a handle
+     *
+     * @param handle - handle of a block
+     * @return offset of the block within it's chunk
+     */
+    private static int chunkOffset(long handle) {
+        return (int) handle;
+    }
+}
@@ -0,0 +1,564 @@
+package repositories;
+
+import constants.ErrorMessage;
+import exceptions.DataPersistenceException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * append-only write-ahead log of binary records, split into segment files.
+ * Appending a record only copies it into an in-memory buffer. Writers then
+ * wait for their record to become durable, and the first waiting writer writes
+ * and syncs the buffered records of all waiting writers with a single fsync
+ * (group commit), while the records appended in the meantime are collected for
+ * the next sync.
+ * <p>
+ * Every record is framed as [int payload length][int CRC32][long sequence
+ * number][byte record type][payload], where the checksum covers everything
+ * after itself. A segment file is named after the sequence number of the last
+ * record before it, so it holds the records following that sequence number
+ * until the next segment starts. A new segment is started when a checkpoint of
+ * the state is taken, and the segments covered by a checkpoint are deleted
+ * afterwards. A torn or corrupt record at the end of the last segment, left
+ * behind by a crash, ends the replay and is cut off.
+ */
+final class TaskWriteAheadLog implements AutoCloseable {
+
+    // prefix and suffix of the names of the segment files
+    private static final String SEGMENT_FILE_PREFIX = "tasks-";
+    private static final String SEGMENT_FILE_SUFFIX = ".wal";
+
+    // size of the frame around the payload of a record
+    private static final int RECORD_HEADER_LENGTH = Integer.BYTES + Integer.BYTES + Long.BYTES + Byte.BYTES;
+
+    // initial capacity of the buffers collecting appended records
+    private static final int INITIAL_BUFFER_CAPACITY = 64 * 1024;
+
+    // roll position indicating that no new segment has been requested
+    private static final int NO_SEGMENT_ROLL = -1;
+
+    /**
+     * record read from the log during a replay
+     *
+     * @param sequenceNumber - sequence number of the record
+     * @param recordType     - type of the record as given when it was appended
+     * @param payload        - payload of the record
+     */
+    record LogRecord(long sequenceNumber, byte recordType, ByteBuffer payload) {
+    }
+
+    // directory containing the segment files
+    private final Path logDirectory;
+
+    // lock and condition guarding the state of the group commit
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition durableCondition = lock.newCondition();
+
+    // sequence numbers after which the existing segments start, in ascending order
+    private final NavigableSet<Long> segmentStarts = new TreeSet<>();
+
+    // channel of the segment file new records are written to, only used by the
+    // writer currently syncing records
+    private FileChannel segmentChannel;
+
+    // buffer collecting appended records until the next sync, and the buffer of
+    // the previous sync which is reused for the one after the next sync
+    private ByteBuffer pendingRecords = ByteBuffer.allocate(INITIAL_BUFFER_CAPACITY);
+    private ByteBuffer spareRecords = ByteBuffer.allocate(INITIAL_BUFFER_CAPACITY);
+
+    // position in the pending records at which a requested new segment starts, and
+    // the sequence number of the last record before it
+    private int segmentRollPosition = NO_SEGMENT_ROLL;
+    private long segmentRollSequenceNumber;
+
+    // sequence number of the last appended record and of the last durable record
+    private long lastAppendedSequenceNumber;
+    private long durableSequenceNumber;
+
+    // flag indicating if a writer is currently writing and syncing records
+    private boolean isSyncInProgress;
+
+    // failure of a previous sync, after which the log can not be used any more
+    private IOException syncFailure;
+
+    // highest sequence number awaited by the writes of the batch applied by the
+    // current thread, not set outside of a batch
+    private final ThreadLocal<long[]> batchSequenceNumber = new ThreadLocal<>();
+
+    /**
+     * constructor
+     *
+     * @param logDirectory       - directory containing the segment files
+     * @param segmentChannel     - channel of the last segment file positioned at
+     *                           the end of it's last valid record
+     * @param lastSequenceNumber - sequence number of the last valid record
+     */
+    private TaskWriteAheadLog(Path logDirectory, FileChannel segmentChannel, long lastSequenceNumber) {
+        this.logDirectory = logDirectory;
+        this.segmentChannel = segmentChannel;
+        this.lastAppendedSequenceNumber = lastSequenceNumber;
+        this.durableSequenceNumber = lastSequenceNumber;
+    }
+
+    /**
+     * method to open the log in a directory, replaying all valid records after a
+     * checkpoint before new records can be appended. Segments which only contain
+     * records covered by the checkpoint are deleted.
+     *
+     * @param logDirectory             - directory containing the segment files,
+     *                                 which is created if it does not exist
+     * @param checkpointSequenceNumber - sequence number of the last record covered
+     *                                 by the checkpoint the state has been loaded
+     *                                 from, 0 if there is no checkpoint
+     * @param recordConsumer           - consumer to be called for every valid
+     *                                 record after the checkpoint in the order the
+     *                                 records were appended
+     * @return opened log, appending after the last valid record
+     * @throws DataPersistenceException - if the log can not be read or opened
+     */
+    static TaskWriteAheadLog open(Path logDirectory, long checkpointSequenceNumber,
+            Consumer<LogRecord> recordConsumer) {
+        try {
+            // find the existing segments
+            Files.createDirectories(logDirectory);
+            List<Long> segmentStarts = findSegmentStarts(logDirectory);
+
+            // replay the segments, skipping the segments covered by the checkpoint
+            long lastSequenceNumber = checkpointSequenceNumber;
+            long lastSegmentStart = checkpointSequenceNumber;
+            long lastSegmentLength = 0;
+            for (int segmentIndex = 0; segmentIndex < segmentStarts.size(); segmentIndex++) {
+                Path segmentFile = getSegmentFile(logDirectory, segmentStarts.get(segmentIndex));
+                boolean isLastSegment = segmentIndex == segmentStarts.size() - 1;
+
+                // delete a segment if the next segment starts within the checkpoint
+                if (!isLastSegment && segmentStarts.get(segmentIndex + 1) <= checkpointSequenceNumber) {
+                    Files.delete(segmentFile);
+                    continue;
+                }
+
+                // replay the records after the checkpoint
+                long[] replayResult = replay(segmentFile, logRecord -> {
+                    if (logRecord.sequenceNumber() > checkpointSequenceNumber) {
+                        recordConsumer.accept(logRecord);
+                    }
+                });
+                lastSequenceNumber = Math.max(lastSequenceNumber, replayResult[1]);
+                lastSegmentStart = segmentStarts.get(segmentIndex);
+                lastSegmentLength = replayResult[0];
+
+                // only the last segment can end with a torn record, as earlier segments have
+                // been synced completely before the next one was started
+                if (!isLastSegment && replayResult[0] != Files.size(segmentFile)) {
+                    throw new IOException("corrupt record in segment " + segmentFile);
+                }
+            }
+
+            // open the last segment for appending, cutting off a torn record at the end,
+            // or start the first segment
+            FileChannel segmentChannel;
+            if (segmentStarts.isEmpty()) {
+                segmentChannel = createSegment(logDirectory, lastSegmentStart);
+            } else {
+                segmentChannel = FileChannel.open(getSegmentFile(logDirectory, lastSegmentStart),
+                        StandardOpenOption.WRITE);
+                segmentChannel.truncate(lastSegmentLength);
+                segmentChannel.position(lastSegmentLength);
+                segmentChannel.force(true);
+            }
+
+            // return the opened log
+            TaskWriteAheadLog writeAheadLog = new TaskWriteAheadLog(logDirectory, segmentChannel,
+                    lastSequenceNumber);
+            writeAheadLog.segmentStarts.addAll(findSegmentStarts(logDirectory));
+            return writeAheadLog;
+        } catch (IOException e) {
+            throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_LOADED + logDirectory, e);
+        }
+    }
+
+    /**
+     * method to read all valid records of a segment file
+     *
+     * @param segmentFile    - path of the segment file
+     * @param recordConsumer - consumer to be called for every valid record
+     * @return array containing the length of the valid part of the file and the
+     *         sequence number of the last valid record
+     * @throws IOException - if the segment file can not be read
+     */
+    static long[] replay(Path segmentFile, Consumer<LogRecord> recordConsumer) throws IOException {
+        long validLength = 0;
+        long lastSequenceNumber = 0;
+
+        try (InputStream fileStream = Files.newInputStream(segmentFile);
+                DataInputStream recordStream = new DataInputStream(new BufferedInputStream(fileStream))) {
+            long remainingLength = Files.size(segmentFile);
+            CRC32 checksum = new CRC32();
+
+            while (remainingLength >= RECORD_HEADER_LENGTH) {
+                // read the frame of the next record and stop at a torn frame
+                int payloadLength = recordStream.readInt();
+                int expectedChecksum = recordStream.readInt();
+                if (payloadLength < 0 || payloadLength > remainingLength - RECORD_HEADER_LENGTH) {
+                    break;
+                }
+                long sequenceNumber = recordStream.readLong();
+                byte recordType = recordStream.readByte();
+                byte[] payload = new byte[payloadLength];
+                recordStream.readFully(payload);
+
+                // stop at a corrupt record
+                checksum.reset();
+                checksum.update(ByteBuffer.allocate(Long.BYTES + Byte.BYTES).putLong(sequenceNumber).put(recordType)
+                        .flip());
+                checksum.update(payload);
+                if ((int) checksum.getValue() != expectedChecksum) {
+                    break;
+                }
+
+                // pass the valid record to the consumer
+                recordConsumer.accept(new LogRecord(sequenceNumber, recordType, ByteBuffer.wrap(payload)));
+                validLength += RECORD_HEADER_LENGTH + payloadLength;
+                remainingLength -= RECORD_HEADER_LENGTH + payloadLength;
+                lastSequenceNumber = sequenceNumber;
+            }
+        } catch (EOFException e) {
+            // the file ended within a record, which is treated like a torn record
+        }
+
+        return new long[] { validLength, lastSequenceNumber };
+    }
+
+    /**
+     * method to append a record to the log. The record is buffered only, so
+     * callers have to wait for it to become durable using awaitDurable.
+     *
+     * @param recordType - type of the record
+     * @param payload    - payload of the record
+     * @return sequence number of the appended record
+     */
+    long append(byte recordType, byte[] payload) {
+        lock.lock();
+        try {
+            // assign the next sequence number to the record
+            long sequenceNumber = ++lastAppendedSequenceNumber;
+
+            // calculate the checksum of the record
+            CRC32 checksum = new CRC32();
+            checksum.update(ByteBuffer.allocate(Long.BYTES + Byte.BYTES).putLong(sequenceNumber).put(recordType)
+                    .flip());
+            checksum.update(payload);
+
+            // copy the framed record into the buffer of pending records
+            ensurePendingCapacity(RECORD_HEADER_LENGTH + payload.length);
+            pendingRecords.putInt(payload.length).putInt((int) checksum.getValue()).putLong(sequenceNumber)
+                    .put(recordType).put(payload);
+
+            // return the sequence number of the record
+            return sequenceNumber;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * method to wait until the record with the given sequence number and all
+     * records appended before it have been written and synced to the log file
+     *
+     * @param sequenceNumber - sequence number of the record
+     * @throws DataPersistenceException - if the records could not be written
+     */
+    void awaitDurable(long sequenceNumber) {
+        // leave the wait to the end of the batch applied by the current thread
+        long[] batch = batchSequenceNumber.get();
+        if (batch != null) {
+            batch[0] = Math.max(batch[0], sequenceNumber);
+            return;
+        }
+        this.syncUntil(() -> durableSequenceNumber >= sequenceNumber);
+    }
+
+    /**
+     * method to apply a batch of writes whose waits for their records are
+     * deferred, waiting once until the records of all writes of the batch are
+     * durable, so that the batch is synced with a single fsync
+     *
+     * @param writeBatch - writes to be applied by the current thread
+     * @throws DataPersistenceException - if the records could not be written
+     */
+    void applyBatch(Runnable writeBatch) {
+        // collect the sequence numbers awaited by the writes of the batch
+        long[] batch = new long[1];
+        batchSequenceNumber.set(batch);
+        try {
+            writeBatch.run();
+        } finally {
+            batchSequenceNumber.remove();
+        }
+
+        // wait for the last record of the batch
+        if (batch[0] != 0) {
+            this.awaitDurable(batch[0]);
+        }
+    }
+
+    /**
+     * method to request a new segment for all records appended after this call.
+     * The new segment is started by the next sync, which can be awaited using
+     * awaitSegmentRoll. This method does not block on I/O, so it can be called
+     * while writers are held back.
+     *
+     * @return sequence number of the last record before the new segment
+     */
+    long requestSegmentRoll() {
+        lock.lock();
+        try {
+            segmentRollPosition = pendingRecords.position();
+            segmentRollSequenceNumber = lastAppendedSequenceNumber;
+            return segmentRollSequenceNumber;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * method to wait until a requested new segment has been started, which makes
+     * all records before it durable
+     *
+     * @throws DataPersistenceException - if the records could not be written
+     */
+    void awaitSegmentRoll() {
+        this.syncUntil(() -> segmentRollPosition == NO_SEGMENT_ROLL);
+    }
+
+    /**
+     * method to delete the segments which only contain records up to the given
+     * sequence number, after a checkpoint covering these records has been taken
+     *
+     * @param sequenceNumber - sequence number of the last record covered by the
+     *                       checkpoint
+     * @throws DataPersistenceException - if a segment file could not be deleted
+     */
+    void deleteSegmentsBefore(long sequenceNumber) {
+        lock.lock();
+        try {
+            // delete every segment followed by a segment starting within the checkpoint
+            while (segmentStarts.size() > 1 && segmentStarts.higher(segmentStarts.first()) <= sequenceNumber) {
+                Files.deleteIfExists(getSegmentFile(logDirectory, segmentStarts.first()));
+                segmentStarts.pollFirst();
+            }
+        } catch (IOException e) {
+            throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_PERSISTED, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * method to get the sequence number of the last appended record
+     *
+     * @return sequence number of the last appended record
+     */
+    long getLastSequenceNumber() {
+        lock.lock();
+        try {
+            return lastAppendedSequenceNumber;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        // make all appended records durable before closing the segment file
+        this.awaitDurable(this.getLastSequenceNumber());
+        try {
+            segmentChannel.close();
+        } catch (IOException e) {
+            throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_PERSISTED, e);
+        }
+    }
+
+    /**
+     * method to write and sync the pending records until the given condition is
+     * met. If another writer is syncing already, the calling writer waits for it
+     * and checks the condition again, otherwise it syncs the records of all
+     * waiting writers itself.
+     *
+     * @param isDone - condition to be met, checked while holding the lock
+     * @throws DataPersistenceException - if the records could not be written
+     */
+    private void syncUntil(BooleanSupplier isDone) {
+        lock.lock();
+        try {
+            while (!isDone.getAsBoolean()) {
+                // fail if a previous sync has failed
+                if (syncFailure != null) {
+                    throw new DataPersistenceException(ErrorMessage.TASK_DATA_COULD_NOT_BE_PERSISTED, syncFailure);
+                }
+
+                // wait for the running sync, which might meet the condition already
+                if (isSyncInProgress) {
+                    durableCondition.awaitUninterruptibly();
+                    continue;
+                }
+
+                // become the writer of the next sync, taking over all pending records and a
+                // requested new segment
+                isSyncInProgress = true;
+                ByteBuffer recordsToSync = pendingRecords;
+                long lastSequenceNumberToSync = lastAppendedSequenceNumber;
+                int rollPosition = segmentRollPosition;
+                long rollSequenceNumber = segmentRollSequenceNumber;
+                pendingRecords = spareRecords;
+
+                // write and sync the records without holding the lock, so that other writers
+                // can append records for the next sync in the meantime
+                IOException failure = null;
+                lock.unlock();
+                try {
+                    recordsToSync.flip();
+                    if (rollPosition != NO_SEGMENT_ROLL) {
+                        this.rollSegment(recordsToSync, rollPosition, rollSequenceNumber);
+                    }
+                    this.writeRecords(recordsToSync);
+                } catch (IOException e) {
+                    failure = e;
+                } finally {
+                    lock.lock();
+                }
+
+                // publish the result of the sync and wake up all waiting writers
+                recordsToSync.clear();
+                spareRecords = recordsToSync;
+                isSyncInProgress = false;
+                if (failure == null) {
+                    durableSequenceNumber = lastSequenceNumberToSync;
+                    if (rollPosition != NO_SEGMENT_ROLL) {
+                        segmentRollPosition = NO_SEGMENT_ROLL;
+                        segmentStarts.add(rollSequenceNumber);
+                    }
+                } else {
+                    syncFailure = failure;
+                }
+                durableCondition.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * method to finish the current segment with the records before the roll
+     * position and start a new segment, must only be called by the writer of the
+     * current sync
+     *
+     * @param recordsToSync      - records of the current sync
+     * @param rollPosition       - position in the records at which the new segment
+     *                           starts
+     * @param rollSequenceNumber - sequence number of the last record before the new
+     *                           segment
+     * @throws IOException - if the segment files can not be written
+     */
+    private void rollSegment(ByteBuffer recordsToSync, int rollPosition, long rollSequenceNumber)
+            throws IOException {
+        // write and sync the records of the current segment
+        int syncLimit = recordsToSync.limit();
+        recordsToSync.limit(rollPosition);
+        this.writeRecords(recordsToSync);
+        recordsToSync.limit(syncLimit);
+
+        // switch to a new segment
+        FileChannel previousSegmentChannel = segmentChannel;
+        segmentChannel = createSegment(logDirectory, rollSequenceNumber);
+        previousSegmentChannel.close();
+    }
+
+    /**
+     * method to write and sync records to the current segment, must only be called
+     * by the writer of the current sync
+     *
+     * @param records - buffer containing the records to write
+     * @throws IOException - if the segment file can not be written
+     */
+    private void writeRecords(ByteBuffer records) throws IOException {
+        while (records.hasRemaining()) {
+            segmentChannel.write(records);
+        }
+        segmentChannel.force(false);
+    }
+
+    /**
+     * method to grow the buffer of pending records if it can not take a record of
+     * the given length, must be called while holding the lock
+     *
+     * @param recordLength - length of the record to be added
+     */
+    private void ensurePendingCapacity(int recordLength) {
+        if (pendingRecords.remaining() < recordLength) {
+            ByteBuffer grownBuffer = ByteBuffer
+                    .allocate(Math.max(pendingRecords.capacity() * 2, pendingRecords.position() + recordLength));
+            pendingRecords.flip();
+            grownBuffer.put(pendingRecords);
+            pendingRecords = grownBuffer;
+        }
+    }
+
+    /**
+     * method to create a new empty segment file
+     *
+     * @param logDirectory - directory containing the segment files
+     * @param segmentStart - sequence number of the last record before the segment
+     * @return channel of the new segment file
+     * @throws IOException - if the segment file can not be created
+     */
+    private static FileChannel createSegment(Path logDirectory, long segmentStart) throws IOException {
+        FileChannel segmentChannel = FileChannel.open(getSegmentFile(logDirectory, segmentStart),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        TaskDataFiles.syncDirectory(logDirectory);
+        return segmentChannel;
+    }
+
+    /**
+     * method to find the start sequence numbers of the existing segment files
+     *
+     * @param logDirectory - directory containing the segment files
+     * @return start sequence numbers of the segments in ascending order
+     * @throws IOException - if the directory can not be listed
+     */
+    private static List<Long> findSegmentStarts(Path logDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            return TaskDataFiles.findSequenceNumbers(files, SEGMENT_FILE_PREFIX, SEGMENT_FILE_SUFFIX);
+        }
+    }
+
+    /**
+     * method to get the path of a segment file
+     *
+     * @param logDirectory - directory containing the segment files
+     * @param segmentStart - sequence number of the last record before the segment
+     * @return path of the segment file
+     */
+    static Path getSegmentFile(Path logDirectory, long segmentStart) {
+        return logDirectory.resolve(TaskDataFiles.getFileName(SEGMENT_FILE_PREFIX, segmentStart,
+                SEGMENT_FILE_SUFFIX));
+    }
+}
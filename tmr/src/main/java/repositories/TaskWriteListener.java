@@ -0,0 +1,25 @@
+package repositories;
+
+import models.TaskModel;
+
+import java.util.UUID;
+
+/**
+ * listener for the writes of the local in-memory repository. It is called
+ * while the lock of the written map entry is held, so the calls for the same
+ * task happen in the same order as the writes themselves. This lets persistent
+ * repositories built on top of the in-memory one record the writes in the
+ * order in which they become visible.
+ */
+@FunctionalInterface
+interface TaskWriteListener {
+
+    /**
+     * method called after a task object has been stored and before it becomes
+     * visible to other writers of the same task
+     *
+     * @param taskId     - id of the stored task object
+     * @param storedTask - stored version of the task object
+     */
+    void onTaskStored(UUID taskId, TaskModel storedTask);
+}
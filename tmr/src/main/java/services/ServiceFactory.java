@@ -1,5 +1,11 @@
 package services;
 
+import constants.ApplicationProperty;
+import constants.ErrorMessage;
+import utilities.ITaskIdGenerator;
+import utilities.TaskIdGeneratorRandomImpl;
+import utilities.TaskIdGeneratorTimeOrderedImpl;
+
 /**
  * factory class to provide instance of service class at runtime on-demand
  */
@@ -35,11 +41,36 @@ public class ServiceFactory {
         // check if the static instance of the service class has not been instantiated
         if (ServiceFactory.taskService == null) {
             // instantiate the static instance of the service class
-            ServiceFactory.taskService = new TaskService();
+            ServiceFactory.taskService = new TaskService(createTaskIdGenerator());
         }
 
         // return the static instance of the service class
         return ServiceFactory.taskService;
     }
 
+    /**
+     * method to create the generator of task ids selected by the
+     * 'tmr.task.id.generator' system property, the generator of time-ordered ids
+     * by default
+     * 
+     * @return new instance of the selected generator
+     * @throws IllegalStateException - if the system property names an unknown
+     *                               generator
+     */
+    private static ITaskIdGenerator createTaskIdGenerator() {
+        // read the selected generator
+        String taskIdGenerator = System.getProperty(ApplicationProperty.TASK_ID_GENERATOR,
+                ApplicationProperty.TASK_ID_GENERATOR_TIME_ORDERED);
+
+        // create the selected generator
+        switch (taskIdGenerator) {
+            case ApplicationProperty.TASK_ID_GENERATOR_TIME_ORDERED:
+                return new TaskIdGeneratorTimeOrderedImpl();
+            case ApplicationProperty.TASK_ID_GENERATOR_RANDOM:
+                return new TaskIdGeneratorRandomImpl();
+            default:
+                throw new IllegalStateException(ErrorMessage.UNKNOWN_TASK_ID_GENERATOR + taskIdGenerator);
+        }
+    }
+
 }
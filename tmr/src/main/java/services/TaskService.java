@@ -3,6 +3,7 @@ package services;
 import dtos.request.TaskPatchRequestDTO;
 import dtos.request.TaskPostRequestDTO;
 import dtos.response.TaskDataResponseDTO;
+import dtos.response.TaskPageResponseDTO;
 import exceptions.BadRequestException;
 import exceptions.ResourceNotFoundException;
 import models.TaskModel;
@@ -11,31 +12,108 @@ import repositories.RepositoryFactory;
 import utilities.CommonServletUtility;
 import utilities.CommonUtility;
 import utilities.DataValidationUtility;
+import utilities.ITaskIdGenerator;
+import utilities.TaskIdGeneratorTimeOrderedImpl;
 
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import constants.ErrorMessage;
+import constants.Pagination;
 
 public class TaskService {
+    // generator of the ids of new tasks
+    private final ITaskIdGenerator taskIdGenerator;
+
     // create default constructor to limit instantiation capabilities into current
-    // package only
+    // package only, generating time-ordered task ids
     TaskService() {
+        this(new TaskIdGeneratorTimeOrderedImpl());
+    }
+
+    /**
+     * constructor to limit instantiation capabilities into current package only
+     *
+     * @param taskIdGenerator - generator of the ids of new tasks
+     */
+    TaskService(ITaskIdGenerator taskIdGenerator) {
+        this.taskIdGenerator = taskIdGenerator;
     }
 
     /**
      * retrieves all tasks from the database and maps them into a list of
-     * TaskDataResponseDTO objects
+     * TaskDataResponseDTO objects, collecting the stream of streamAllTasks
      *
      * @return list of TaskDataResponseDTO objects representing all tasks in the
-     *         database
+     *         database ordered by their task id
      */
     public List<TaskDataResponseDTO> getAllTasks() {
-        // call repository method to get list of all available tasks and return after
-        // mapping the list items to the required result DTO type
-        return RepositoryFactory.getTaskRepositoryInstance().findAllTasks().stream()
-                .map(CommonServletUtility::buildTaskResponseObject)
-                .collect(Collectors.toList());
+        // collect the stream of all tasks, closing it once it has been consumed
+        try (Stream<TaskDataResponseDTO> allTasks = this.streamAllTasks()) {
+            return allTasks.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * lazily streams all tasks from the database mapped into TaskDataResponseDTO
+     * objects, without collecting them into a list. The stream has to be closed
+     * after it has been consumed.
+     *
+     * @return stream of TaskDataResponseDTO objects representing all tasks in the
+     *         database ordered by their task id
+     */
+    public Stream<TaskDataResponseDTO> streamAllTasks() {
+        // call repository method to get a stream of all available tasks and map the
+        // stream items to the required result DTO type while they are consumed
+        ITaskRepository taskRepository = RepositoryFactory.getTaskRepositoryInstance();
+        boolean isCachingJsonFragments = taskRepository.isReturningStoredTasks();
+        return taskRepository.streamAllTasks()
+                .map(task -> CommonServletUtility.buildTaskResponseObject(task, isCachingJsonFragments));
+    }
+
+    /**
+     * retrieves a page of tasks from the database ordered by their task id and
+     * maps them into an instance of TaskPageResponseDTO
+     *
+     * @param afterTaskId - cursor of the page, i.e. id of the last task of the
+     *                    previous page, null to get the first page
+     * @param limit       - maximum number of tasks to be returned in the page
+     * @return page of tasks along with the cursor of the next page
+     * @throws BadRequestException - if the given cursor is not a valid task id or
+     *                             the given limit is out of range
+     */
+    public TaskPageResponseDTO getTasksPage(String afterTaskId, int limit) {
+        // check if the given limit is out of range
+        if (limit < 1 || limit > Pagination.MAX_PAGE_LIMIT) {
+            // throw corresponding exception
+            throw new BadRequestException(ErrorMessage.INVALID_PAGE_LIMIT + limit);
+        }
+
+        // parse the cursor if it is given, and check if it is a valid task id
+        UUID parsedAfterTaskId = afterTaskId == null ? null : DataValidationUtility.parseTaskId(afterTaskId);
+        if (afterTaskId != null && parsedAfterTaskId == null) {
+            // throw corresponding exception
+            throw new BadRequestException(ErrorMessage.INVALID_PAGE_CURSOR + afterTaskId);
+        }
+
+        // fetch one more task than requested to find out if a next page exists
+        ITaskRepository taskRepository = RepositoryFactory.getTaskRepositoryInstance();
+        List<TaskModel> pageTasks = taskRepository.findTasksAfter(parsedAfterTaskId, limit + 1);
+        boolean hasNextPage = pageTasks.size() > limit;
+        if (hasNextPage) {
+            pageTasks = pageTasks.subList(0, limit);
+        }
+
+        // map the page tasks to the required result DTO type and return them along
+        // with the id of the last task as cursor of the next page
+        boolean isCachingJsonFragments = taskRepository.isReturningStoredTasks();
+        return new TaskPageResponseDTO(
+                pageTasks.stream()
+                        .map(task -> CommonServletUtility.buildTaskResponseObject(task, isCachingJsonFragments))
+                        .collect(Collectors.toList()),
+                hasNextPage ? pageTasks.getLast().getTaskId().toString() : null);
     }
 
     /**
@@ -57,42 +135,42 @@ public class TaskService {
         DataValidationUtility.validateTaskDescription(newTaskToBeCreated.getTaskDescription(), true);
 
         // generate id of the new task
-        String taskId = CommonUtility.generateUUIDv4();
+        UUID taskId = taskIdGenerator.generateTaskId();
 
         // get repository instance from factory
         ITaskRepository taskRepository = RepositoryFactory.getTaskRepositoryInstance();
 
-        // find an already existing task record having the generated task id
-        TaskModel existingTaskRecord = taskRepository.findTaskById(taskId);
+        // check if the generator does not guarantee unique ids, as otherwise no task
+        // record can exist having the generated task id
+        if (!taskIdGenerator.isGeneratingUniqueIds()) {
+            // find an already existing task record having the generated task id
+            TaskModel existingTaskRecord = taskRepository.findTaskById(taskId);
 
-        // check if a task record exists having the generated task id
-        if (existingTaskRecord != null) {
             // continue until we can find a unique task id
             while (existingTaskRecord != null) {
                 // generate a new task id
-                taskId = CommonUtility.generateUUIDv4();
+                taskId = taskIdGenerator.generateTaskId();
 
                 // find an already existing task record having the generated task id
                 existingTaskRecord = taskRepository.findTaskById(taskId);
             }
         }
 
-        // create new task object
-        TaskModel newTaskRecord = new TaskModel(taskId, newTaskToBeCreated.getTaskTitle(),
-                newTaskToBeCreated.getTaskDescription(), CommonUtility.getCurrentDateAndTimeStampString(),
-                CommonUtility.getCurrentDateAndTimeStampString(), false, false);
+        // use an empty string as description of the new task record if no description
+        // was provided
+        String taskDescription = newTaskToBeCreated.getTaskDescription() == null ? ""
+                : newTaskToBeCreated.getTaskDescription();
 
-        // check if the description of the new task record is null
-        if (newTaskRecord.getTaskDescription() == null) {
-            // update the description of the new task record to an empty string
-            newTaskRecord.setTaskDescription("");
-        }
+        // create new task object, created and last updated at the current time
+        long currentTimestamp = CommonUtility.getCurrentTimeMillis();
+        TaskModel newTaskRecord = new TaskModel(taskId, newTaskToBeCreated.getTaskTitle(),
+                taskDescription, currentTimestamp, currentTimestamp, false, false);
 
         // add new task record to database
         taskRepository.addNewTask(newTaskRecord);
 
         // create and return response dto object
-        return CommonServletUtility.buildTaskResponseObject(newTaskRecord);
+        return CommonServletUtility.buildTaskResponseObject(newTaskRecord, taskRepository.isReturningStoredTasks());
     }
 
     /**
@@ -107,10 +185,12 @@ public class TaskService {
      *                                   invalid
      */
     public TaskDataResponseDTO getTaskById(String taskId) {
-        // check if the given task id is valid
-        if (DataValidationUtility.isValidTaskId(taskId)) {
+        // parse the given task id and check if it is valid
+        UUID parsedTaskId = DataValidationUtility.parseTaskId(taskId);
+        if (parsedTaskId != null) {
             // find task with the given id from the database
-            TaskModel existingTask = RepositoryFactory.getTaskRepositoryInstance().findTaskById(taskId);
+            ITaskRepository taskRepository = RepositoryFactory.getTaskRepositoryInstance();
+            TaskModel existingTask = taskRepository.findTaskById(parsedTaskId);
 
             // check if the existing task object is null
             if (existingTask == null) {
@@ -118,7 +198,8 @@ public class TaskService {
                 throw new ResourceNotFoundException(ErrorMessage.NO_TASK_FOUND_WITH_ID + taskId);
             } else {
                 // map task data to the response type DTO object and return
-                return CommonServletUtility.buildTaskResponseObject(existingTask);
+                return CommonServletUtility.buildTaskResponseObject(existingTask,
+                        taskRepository.isReturningStoredTasks());
             }
         } else {
             // throw corresponding exception
@@ -137,25 +218,24 @@ public class TaskService {
      *                                   task id
      */
     public TaskDataResponseDTO deleteTaskById(String taskId) {
-        // check if the given task id is valid
-        if (DataValidationUtility.isValidTaskId(taskId)) {
-            // get repository instance from factory
+        // parse the given task id and check if it is valid
+        UUID parsedTaskId = DataValidationUtility.parseTaskId(taskId);
+        if (parsedTaskId != null) {
+            // replace the existing task object with the given id by a copy marked as
+            // deleted in a single atomic repository operation
             ITaskRepository taskRepository = RepositoryFactory.getTaskRepositoryInstance();
-
-            // fetch the existing task object with the given id
-            TaskModel existingTaskObject = taskRepository.findTaskById(taskId);
+            TaskModel deletedTaskObject = taskRepository.computeTaskById(parsedTaskId,
+                    existingTaskObject -> existingTaskObject.withTaskDeleted(true));
 
             // check if a task object exists with the given id
-            if (existingTaskObject == null) {
+            if (deletedTaskObject == null) {
                 // throw corresponding exception
                 throw new ResourceNotFoundException(ErrorMessage.NO_TASK_FOUND_WITH_ID + taskId);
             }
 
-            // delete existing task object
-            taskRepository.deleteTaskById(taskId);
-
             // return the deleted task object mapped as an instance of TaskDataResponseDTO
-            return CommonServletUtility.buildTaskResponseObject(existingTaskObject);
+            return CommonServletUtility.buildTaskResponseObject(deletedTaskObject,
+                    taskRepository.isReturningStoredTasks());
         } else {
             // throw corresponding exception
             throw new BadRequestException(ErrorMessage.INVALID_TASK_ID + taskId);
@@ -183,58 +263,77 @@ public class TaskService {
             throw new BadRequestException(ErrorMessage.EMPTY_REQUEST_BODY_NOT_VALID);
         }
 
-        // check if the given task id is valid
-        if (DataValidationUtility.isValidTaskId(taskId)) {
-            // get repository instance from factory
-            ITaskRepository taskRepository = RepositoryFactory.getTaskRepositoryInstance();
-
-            // fetch the existing task object with the given id
-            TaskModel existingTaskObject = taskRepository.findTaskById(taskId);
-
-            // check if a task object exists with the given id
-            if (existingTaskObject == null) {
-                // throw corresponding exception
-                throw new ResourceNotFoundException(ErrorMessage.NO_TASK_FOUND_WITH_ID + taskId);
-            }
-
-            // check if an updated task title is provided
+        // parse the given task id and check if it is valid
+        UUID parsedTaskId = DataValidationUtility.parseTaskId(taskId);
+        if (parsedTaskId != null) {
+            // validate the updated task-title and task-description if they are
+            // provided, before the existing task record gets locked for the update
             if (updatedTaskData.getTaskTitle() != null) {
-                // validate the updated task-title
                 DataValidationUtility.validateTaskTitle(updatedTaskData.getTaskTitle(), false);
-
-                // update task title in existing task record
-                existingTaskObject.setTaskTitle(updatedTaskData.getTaskTitle());
             }
-
-            // check if an updated task description is provided
             if (updatedTaskData.getTaskDescription() != null) {
-                // validate the updated task-description
                 DataValidationUtility.validateTaskDescription(updatedTaskData.getTaskDescription(), true);
-
-                // update task description in existing task record
-                existingTaskObject.setTaskDescription(updatedTaskData.getTaskDescription());
             }
 
-            // check if an update task completion flag value is provided
-            if (updatedTaskData.getIsTaskCompleted() != null) {
-                // update task completion flag in existing task record
-                existingTaskObject.setTaskCompleted(updatedTaskData.getIsTaskCompleted());
-            }
+            // apply the updated task data to the existing task record with the given id
+            // in a single atomic repository operation
+            ITaskRepository taskRepository = RepositoryFactory.getTaskRepositoryInstance();
+            TaskModel updatedTaskObject = taskRepository.computeTaskById(parsedTaskId,
+                    existingTaskObject -> TaskService.applyTaskUpdate(existingTaskObject, updatedTaskData));
 
-            // check if the task completion status has been updated to 'true'
-            if (existingTaskObject.isTaskCompleted()) {
-                // update the task record as deleted
-                existingTaskObject.setTaskDeleted(true);
+            // check if a task object exists with the given id
+            if (updatedTaskObject == null) {
+                // throw corresponding exception
+                throw new ResourceNotFoundException(ErrorMessage.NO_TASK_FOUND_WITH_ID + taskId);
             }
 
-            // call repository method to update the existing task record in database
-            taskRepository.updateTaskById(taskId, existingTaskObject);
-
             // create and return task response object
-            return CommonServletUtility.buildTaskResponseObject(existingTaskObject);
+            return CommonServletUtility.buildTaskResponseObject(updatedTaskObject,
+                    taskRepository.isReturningStoredTasks());
         } else {
             // throw corresponding exception
             throw new BadRequestException(ErrorMessage.INVALID_TASK_ID + taskId);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * method to create an updated copy of an existing task record with the
+     * provided updated task data applied
+     * 
+     * @param existingTaskObject - existing task record
+     * @param updatedTaskData    - validated updated task data
+     * @return updated copy of the existing task record
+     */
+    private static TaskModel applyTaskUpdate(TaskModel existingTaskObject, TaskPatchRequestDTO updatedTaskData) {
+        // start with the existing task record, which is immutable and therefore never
+        // modified in place
+        TaskModel updatedTaskObject = existingTaskObject;
+
+        // check if an updated task title is provided
+        if (updatedTaskData.getTaskTitle() != null) {
+            // update task title in the task record
+            updatedTaskObject = updatedTaskObject.withTaskTitle(updatedTaskData.getTaskTitle());
+        }
+
+        // check if an updated task description is provided
+        if (updatedTaskData.getTaskDescription() != null) {
+            // update task description in the task record
+            updatedTaskObject = updatedTaskObject.withTaskDescription(updatedTaskData.getTaskDescription());
+        }
+
+        // check if an update task completion flag value is provided
+        if (updatedTaskData.getIsTaskCompleted() != null) {
+            // update task completion flag in the task record
+            updatedTaskObject = updatedTaskObject.withTaskCompleted(updatedTaskData.getIsTaskCompleted());
+        }
+
+        // check if the task completion status has been updated to 'true'
+        if (updatedTaskObject.isTaskCompleted()) {
+            // update the task record as deleted
+            updatedTaskObject = updatedTaskObject.withTaskDeleted(true);
+        }
+
+        // return the updated task record
+        return updatedTaskObject;
+    }
+}
@@ -0,0 +1,56 @@
+package utilities;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * implementation class of the IClockService interface reading the system clock
+ * and formatting the current time once per second only, as all requests within
+ * a second share the same formatted timestamp. The formatted timestamp of the
+ * current second is cached and replaced by compare-and-set by the first thread
+ * which reads the time in a new second, so that readers never lock.
+ */
+public class ClockServiceCachingImpl implements IClockService {
+
+    /**
+     * formatted timestamp of a second
+     */
+    private static final class CachedTimestamp {
+        // second since the epoch and it's formatted timestamp
+        final long epochSecond;
+        final String timestampString;
+
+        CachedTimestamp(long epochSecond, String timestampString) {
+            this.epochSecond = epochSecond;
+            this.timestampString = timestampString;
+        }
+    }
+
+    // formatted timestamp of the most recently read second
+    private final AtomicReference<CachedTimestamp> cachedTimestamp = new AtomicReference<>(
+            new CachedTimestamp(Long.MIN_VALUE, null));
+
+    @Override
+    public long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public String getCurrentTimestampString() {
+        // return the cached timestamp if the second has not changed since
+        long currentMillis = System.currentTimeMillis();
+        long currentSecond = Math.floorDiv(currentMillis, 1000);
+        CachedTimestamp lastTimestamp = cachedTimestamp.get();
+        if (lastTimestamp.epochSecond == currentSecond) {
+            return lastTimestamp.timestampString;
+        }
+
+        // format the timestamp of the new second and cache it, unless another thread
+        // cached a later one in the meantime
+        CachedTimestamp currentTimestamp = new CachedTimestamp(currentSecond,
+                CommonUtility.formatTimestamp(currentMillis));
+        if (lastTimestamp.epochSecond < currentSecond) {
+            cachedTimestamp.compareAndSet(lastTimestamp, currentTimestamp);
+        }
+        return currentTimestamp.timestampString;
+    }
+}
@@ -0,0 +1,40 @@
+package utilities;
+
+/**
+ * implementation class of the IClockService interface always returning the
+ * same time, which can be moved explicitly, so that tests know the times stored
+ * in task records and responses
+ */
+public class ClockServiceFixedImpl implements IClockService {
+
+    // current time in milliseconds since the epoch
+    private volatile long currentTimeMillis;
+
+    /**
+     * constructor
+     *
+     * @param currentTimeMillis - fixed time in milliseconds since the epoch
+     */
+    public ClockServiceFixedImpl(long currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * method to move the clock to another time
+     *
+     * @param currentTimeMillis - new time in milliseconds since the epoch
+     */
+    public void setCurrentTimeMillis(long currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    @Override
+    public long getCurrentTimeMillis() {
+        return currentTimeMillis;
+    }
+
+    @Override
+    public String getCurrentTimestampString() {
+        return CommonUtility.formatTimestamp(currentTimeMillis);
+    }
+}
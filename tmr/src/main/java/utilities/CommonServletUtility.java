@@ -1,15 +1,25 @@
 package utilities;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 
 import constants.ErrorMessage;
+import constants.Pagination;
+import dtos.codecs.DTOCodecFactory;
 import dtos.generic.GenericErrorResponseDTO;
 import dtos.generic.GenericResponseDTO;
 import dtos.response.TaskDataResponseDTO;
+import dtos.response.TaskPageResponseDTO;
 import exceptions.BadRequestException;
 import exceptions.ResourceNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,6 +27,12 @@ import jakarta.servlet.http.HttpServletResponse;
 import models.TaskModel;
 
 public class CommonServletUtility {
+    // logger of the failures to write streaming responses
+    private static final Logger LOGGER = Logger.getLogger(CommonServletUtility.class.getName());
+
+    // Gson instance shared by all requests, which caches it's adapters and reads and
+    // writes the dtos by their codecs instead of reflection
+    static final Gson GSON = new GsonBuilder().registerTypeAdapterFactory(new DTOCodecFactory()).create();
 
     /**
      * private constructor to forbid instantiation
@@ -43,7 +59,7 @@ public class CommonServletUtility {
             throws JsonSyntaxException, JsonIOException, IOException {
         // retrieves the body data from the instance of HttpServletRequest and map that
         // JSON data to an instance of the given target class
-        return new Gson().fromJson(request.getReader(), targetClass);
+        return GSON.fromJson(request.getReader(), targetClass);
     }
 
     /**
@@ -63,8 +79,9 @@ public class CommonServletUtility {
             // add error information data to the error response if the given error object is
             // not null
             if (e != null) {
-                response.getWriter()
-                        .write(new Gson().toJson(new GenericErrorResponseDTO(e.getLocalizedMessage())));
+                try (Writer responseWriter = new Utf8ResponseWriter(response)) {
+                    GSON.toJson(new GenericErrorResponseDTO(e.getLocalizedMessage()), responseWriter);
+                }
             }
         } catch (IOException exception) {
             // TODO: log error message to console
@@ -72,7 +89,10 @@ public class CommonServletUtility {
     }
 
     /**
-     * method to build success response
+     * method to build success response. The body is encoded straight into a
+     * pooled buffer and sent with a Content-Length if it fits into the buffer, or
+     * with chunked transfer encoding otherwise. The cached JSON of the tasks in the
+     * response data is spliced into the body.
      * 
      * @param <T>                - type of the response data object to be added with
      *                           the instance of HttpServletResponse
@@ -90,13 +110,126 @@ public class CommonServletUtility {
         try {
             // add response data to response if the given response data is not null
             if (responseData != null) {
-                response.getWriter().write(new Gson().toJson(new GenericResponseDTO<T>(responseData)));
+                try (Utf8ResponseWriter responseWriter = new Utf8ResponseWriter(response)) {
+                    // write the envelope of the generic response around the response data
+                    CommonServletUtility.writeResponseEnvelopeStart(responseWriter);
+                    CommonServletUtility.writeResponseData(responseWriter, responseData);
+                    responseWriter.write('}');
+                }
             }
         } catch (IOException e) {
             // TODO: log error message to console
         }
     }
 
+    /**
+     * method to build a success response from a stream of response data items. The
+     * items are serialized one by one straight into the response while the stream
+     * is consumed, so the response is never built as a whole in memory and is sent
+     * with chunked transfer encoding from the first item on. The given
+     * stream is closed after it has been consumed.
+     * 
+     * @param <T>                - type of the response data items
+     * @param response           - instance of HttpServletResponse
+     * @param responseStatusCode - status code to be set for the response
+     * @param responseData       - stream of the response data items to be added as
+     *                           a JSON array to the response
+     */
+    public static <T> void buildStreamingSuccessResponse(HttpServletResponse response, int responseStatusCode,
+            Stream<T> responseData) {
+        // set response metadata
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setStatus(responseStatusCode);
+
+        try (Stream<T> responseDataItems = responseData;
+                Utf8ResponseWriter responseWriter = new Utf8ResponseWriter(response)) {
+            // write the envelope of the generic response
+            CommonServletUtility.writeResponseEnvelopeStart(responseWriter);
+            responseWriter.write('[');
+
+            // write every response data item as soon as it is read from the stream
+            Iterator<T> responseDataIterator = responseDataItems.iterator();
+            boolean isFirstItem = true;
+            while (responseDataIterator.hasNext()) {
+                if (!isFirstItem) {
+                    responseWriter.write(',');
+                }
+                CommonServletUtility.writeResponseData(responseWriter, responseDataIterator.next());
+
+                // flush after the first item so that the first bytes are sent to the client
+                // without waiting for the response buffer to fill up
+                if (isFirstItem) {
+                    responseWriter.flush();
+                    isFirstItem = false;
+                }
+            }
+
+            // close the envelope of the generic response
+            responseWriter.write("]}");
+        } catch (IOException e) {
+            // the status has been sent already, so the response can only be cut off, which
+            // mostly happens when the client has gone away
+            LOGGER.log(Level.FINE, "Streaming response could not be written", e);
+        }
+    }
+
+    /**
+     * method to write the start of the envelope of a generic success response up
+     * to the value of the response data, in the same way as Gson writes an
+     * instance of GenericResponseDTO
+     * 
+     * @param responseWriter - writer of the response
+     * @throws IOException - if the response could not be written
+     */
+    private static void writeResponseEnvelopeStart(Utf8ResponseWriter responseWriter) throws IOException {
+        responseWriter.write("{\"" + GenericResponseDTO.RESPONSE_TIME_KEY + "\":");
+        GSON.toJson(CommonUtility.getCurrentDateAndTimeStampString(), responseWriter);
+        responseWriter.write(",\"" + GenericResponseDTO.RESPONSE_DATA_KEY + "\":");
+    }
+
+    /**
+     * method to write response data as JSON in the same way as Gson does, splicing
+     * in the cached JSON of the tasks instead of serializing them again
+     * 
+     * @param responseWriter - writer of the response
+     * @param responseData   - response data to be written
+     * @throws IOException - if the response could not be written
+     */
+    private static void writeResponseData(Utf8ResponseWriter responseWriter, Object responseData)
+            throws IOException {
+        if (responseData instanceof TaskDataResponseDTO taskResponse && taskResponse.getJsonFragment() != null) {
+            // splice in the cached JSON of the task
+            responseWriter.writeUtf8(taskResponse.getJsonFragment());
+        } else if (responseData instanceof List<?> responseDataItems) {
+            // write the items as array
+            responseWriter.write('[');
+            for (int itemIndex = 0; itemIndex < responseDataItems.size(); itemIndex++) {
+                if (itemIndex > 0) {
+                    responseWriter.write(',');
+                }
+                CommonServletUtility.writeResponseData(responseWriter, responseDataItems.get(itemIndex));
+            }
+            responseWriter.write(']');
+        } else if (responseData instanceof TaskPageResponseDTO pageResponse) {
+            // write the tasks and the cursor of the page, leaving out null values
+            responseWriter.write('{');
+            if (pageResponse.getTasks() != null) {
+                responseWriter.write("\"" + TaskPageResponseDTO.TASKS_KEY + "\":");
+                CommonServletUtility.writeResponseData(responseWriter, pageResponse.getTasks());
+            }
+            if (pageResponse.getNextCursor() != null) {
+                responseWriter.write(pageResponse.getTasks() != null ? ",\"" : "\"");
+                responseWriter.write(TaskPageResponseDTO.NEXT_CURSOR_KEY + "\":");
+                GSON.toJson(pageResponse.getNextCursor(), responseWriter);
+            }
+            responseWriter.write('}');
+        } else {
+            // serialize all other response data by Gson
+            GSON.toJson(responseData, responseWriter);
+        }
+    }
+
     /**
      * method to get path information from the request object
      * 
@@ -152,17 +285,59 @@ public class CommonServletUtility {
 
     /**
      * method to create and return an instance of TaskDataResponseDTO from the task
-     * record as an instance of TaskModel
+     * record as an instance of TaskModel, caching the encoded JSON of the task in
+     * it
      * 
      * @param taskData - an instance of TaskModel
      * @return an instance of TaskDataResponseDTO
      */
     public static TaskDataResponseDTO buildTaskResponseObject(TaskModel taskData) {
-        // create a new instance of TaskDataResponseDTO and return it after populating
-        // the required data
-        return new TaskDataResponseDTO(taskData.getTaskId(), taskData.getTaskTitle(), taskData.getTaskDescription(),
-                taskData.isTaskCompleted(),
-                taskData.getTaskCreatedOn());
+        return CommonServletUtility.buildTaskResponseObject(taskData, true);
+    }
+
+    /**
+     * method to create and return an instance of TaskDataResponseDTO from the task
+     * record as an instance of TaskModel. If the encoded JSON of the task is
+     * cached, the response object is created from it without converting the
+     * attributes of the task.
+     * 
+     * @param taskData              - an instance of TaskModel
+     * @param isCachingJsonFragment - boolean flag indicating if the encoded JSON of
+     *                              the task is cached in it, which only pays off
+     *                              for task objects returned again by the
+     *                              repository
+     * @return an instance of TaskDataResponseDTO
+     */
+    public static TaskDataResponseDTO buildTaskResponseObject(TaskModel taskData, boolean isCachingJsonFragment) {
+        // return a response object of the cached JSON of the task, whose attributes are
+        // only converted if they are read
+        byte[] jsonFragment = isCachingJsonFragment ? TaskJsonFragmentCache.getJsonFragment(taskData) : null;
+        if (jsonFragment != null) {
+            return new TaskDataResponseDTO(jsonFragment,
+                    () -> CommonServletUtility.convertTaskResponseObject(taskData));
+        }
+
+        // convert the task into a new response object and attach the JSON encoded from
+        // it, so that it is spliced into the response
+        TaskDataResponseDTO taskResponse = CommonServletUtility.convertTaskResponseObject(taskData);
+        if (isCachingJsonFragment) {
+            taskResponse.setJsonFragment(TaskJsonFragmentCache.cacheJsonFragment(taskData, taskResponse));
+        }
+        return taskResponse;
+    }
+
+    /**
+     * method to convert the attributes of a task record into a new instance of
+     * TaskDataResponseDTO
+     * 
+     * @param taskData - an instance of TaskModel
+     * @return an instance of TaskDataResponseDTO
+     */
+    private static TaskDataResponseDTO convertTaskResponseObject(TaskModel taskData) {
+        // the id and the timestamp are converted from their compact form into strings
+        return new TaskDataResponseDTO(taskData.getTaskId().toString(), taskData.getTaskTitle(),
+                taskData.getTaskDescription(), taskData.isTaskCompleted(),
+                CommonUtility.formatTimestamp(taskData.getTaskCreatedOn()));
     }
 
     /**
@@ -222,4 +397,48 @@ public class CommonServletUtility {
         // return the first entry of the path information data array
         return pathInformationDataArray[0];
     }
+
+    /**
+     * method to get the value of an optional integer request parameter
+     * 
+     * @param request       - instance of HttpServletRequest
+     * @param parameterName - name of the request parameter
+     * @param defaultValue  - value to be returned if the request parameter is not
+     *                      provided
+     * @return value of the request parameter as int, or the default value
+     * @throws BadRequestException - if the value of the request parameter is not
+     *                             a number
+     */
+    public static int getIntegerRequestParameter(HttpServletRequest request, String parameterName,
+            int defaultValue) {
+        // get the value of the request parameter
+        String parameterValue = request.getParameter(parameterName);
+
+        // return the default value if the request parameter is not provided
+        if (parameterValue == null || parameterValue.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            // return the value of the request parameter as int
+            return Integer.parseInt(parameterValue.trim());
+        } catch (NumberFormatException e) {
+            // throw corresponding exception naming the request parameter
+            throw new BadRequestException(
+                    ErrorMessage.INVALID_INTEGER_REQUEST_PARAMETER + parameterName + "=" + parameterValue);
+        }
+    }
+
+    /**
+     * method to check if a request asks for a page of resources, i.e. if it
+     * contains a pagination request parameter
+     * 
+     * @param request - instance of HttpServletRequest
+     * @return true if the request contains a pagination request parameter, false
+     *         otherwise
+     */
+    public static boolean isPaginatedRequest(HttpServletRequest request) {
+        return request.getParameter(Pagination.LIMIT_REQUEST_PARAMETER) != null
+                || request.getParameter(Pagination.AFTER_REQUEST_PARAMETER) != null;
+    }
 }
@@ -1,10 +1,19 @@
 package utilities;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
 public class CommonUtility {
+    // formatter of timestamps stored as milliseconds since the epoch, which is
+    // immutable and can be shared by all threads
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter
+            .ofPattern("dd-MM-yyyy'T'HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    // clock providing the current time
+    private static volatile IClockService clockService = new ClockServiceCachingImpl();
+
     /**
      * private constructor to forbid instantiation
      */
@@ -17,11 +26,50 @@ public class CommonUtility {
      * @return current date and time as String
      */
     public static String getCurrentDateAndTimeStampString() {
-        // create formatter with required pattern
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy'T'HH:mm:ss");
+        // return formatted current date and time of the clock as String
+        return clockService.getCurrentTimestampString();
+    }
 
-        // return formatted current date and time as String
-        return LocalDateTime.now().format(formatter);
+    /**
+     * method to get the current time as milliseconds since the epoch, the way
+     * it is stored in task records
+     * 
+     * @return current time in milliseconds since the epoch
+     */
+    public static long getCurrentTimeMillis() {
+        // return the current time of the clock
+        return clockService.getCurrentTimeMillis();
+    }
+
+    /**
+     * method to get the clock providing the current time
+     * 
+     * @return clock providing the current time
+     */
+    public static IClockService getClockService() {
+        return clockService;
+    }
+
+    /**
+     * method to replace the clock providing the current time, like by a fixed
+     * clock in tests
+     * 
+     * @param clockService - clock to provide the current time
+     */
+    public static void setClockService(IClockService clockService) {
+        // update the static instance of the clock with the provided instance value
+        CommonUtility.clockService = clockService;
+    }
+
+    /**
+     * method to format a timestamp stored as milliseconds since the epoch in the
+     * same way as the current date and time
+     * 
+     * @param epochMillis - timestamp in milliseconds since the epoch
+     * @return formatted date and time as String
+     */
+    public static String formatTimestamp(long epochMillis) {
+        return TIMESTAMP_FORMATTER.format(Instant.ofEpochMilli(epochMillis));
     }
 
     /**
@@ -29,8 +77,8 @@ public class CommonUtility {
      * 
      * @return randomly generated UUID v4
      */
-    public static String generateUUIDv4() {
+    public static UUID generateUUIDv4() {
         // return a randomly generated a random uuid v4
-        return UUID.randomUUID().toString();
+        return UUID.randomUUID();
     }
 }
@@ -1,5 +1,6 @@
 package utilities;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 import constants.ErrorMessage;
@@ -7,6 +8,24 @@ import exceptions.BadRequestException;
 
 public class DataValidationUtility {
 
+    // length of a task id in it's canonical form
+    private static final int TASK_ID_LENGTH = 36;
+
+    // values of the hexadecimal digits by their character, -1 for characters which
+    // are no hexadecimal digit
+    private static final byte[] HEX_DIGIT_VALUES = new byte[128];
+
+    static {
+        // mark all characters as no hexadecimal digit
+        Arrays.fill(HEX_DIGIT_VALUES, (byte) -1);
+
+        // store the values of the digits in upper and lower case
+        for (int digit = 0; digit < 16; digit++) {
+            HEX_DIGIT_VALUES[Character.forDigit(digit, 16)] = (byte) digit;
+            HEX_DIGIT_VALUES[Character.toUpperCase(Character.forDigit(digit, 16))] = (byte) digit;
+        }
+    }
+
     /**
      * private constructor to forbid instantiation
      */
@@ -65,15 +84,55 @@ public class DataValidationUtility {
      * @return true if the task id is valid, false otherwise
      */
     public static boolean isValidTaskId(String taskId) {
-        try {
-            // try to interpret the given task id as a UUID
-            UUID.fromString(taskId);
-
-            // return true as the given string is a valid task id
-            return true;
-        } catch (IllegalArgumentException e) {
-            // return false as the given string is not a valid task id
-            return false;
+        // the given string is a valid task id if it can be parsed
+        return parseTaskId(taskId) != null;
+    }
+
+    /**
+     * method to validate and parse a given task id in it's canonical form of 32
+     * hexadecimal digits in groups of 8, 4, 4, 4 and 12 separated by hyphens, in
+     * a single pass over it's characters without throwing exceptions for invalid
+     * task ids
+     * 
+     * @param taskId - task id to parse
+     * @return parsed task id as UUID, null if the task id is not valid
+     */
+    public static UUID parseTaskId(String taskId) {
+        // check if the given task id has the length of the canonical form
+        if (taskId == null || taskId.length() != TASK_ID_LENGTH) {
+            return null;
+        }
+
+        // parse the digits of both halves of the task id
+        long mostSignificantBits = 0;
+        long leastSignificantBits = 0;
+        int digitCount = 0;
+        for (int position = 0; position < TASK_ID_LENGTH; position++) {
+            char character = taskId.charAt(position);
+
+            // check that the groups of digits are separated by hyphens
+            if (position == 8 || position == 13 || position == 18 || position == 23) {
+                if (character != '-') {
+                    return null;
+                }
+                continue;
+            }
+
+            // check if the character is a hexadecimal digit
+            int digitValue = character < HEX_DIGIT_VALUES.length ? HEX_DIGIT_VALUES[character] : -1;
+            if (digitValue < 0) {
+                return null;
+            }
+
+            // shift the digit into the half it belongs to
+            if (digitCount++ < 16) {
+                mostSignificantBits = mostSignificantBits << 4 | digitValue;
+            } else {
+                leastSignificantBits = leastSignificantBits << 4 | digitValue;
+            }
         }
+
+        // return the parsed task id
+        return new UUID(mostSignificantBits, leastSignificantBits);
     }
 }
@@ -0,0 +1,23 @@
+package utilities;
+
+/**
+ * source of the current time, which is read through CommonUtility so that it
+ * can be replaced by a fixed clock in tests
+ */
+public interface IClockService {
+
+    /**
+     * method to get the current time as stored in the task records
+     *
+     * @return current time in milliseconds since the epoch
+     */
+    public long getCurrentTimeMillis();
+
+    /**
+     * method to get the current date and time formatted for responses, with a
+     * precision of seconds
+     *
+     * @return current date and time as String
+     */
+    public String getCurrentTimestampString();
+}
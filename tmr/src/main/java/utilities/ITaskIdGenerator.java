@@ -0,0 +1,29 @@
+package utilities;
+
+import java.util.UUID;
+
+/**
+ * generator of the ids of new tasks, selected by the 'tmr.task.id.generator'
+ * system property
+ */
+public interface ITaskIdGenerator {
+
+    /**
+     * method to generate the id of a new task
+     *
+     * @return generated task id
+     */
+    public UUID generateTaskId();
+
+    /**
+     * method to check if the generated ids are guaranteed to differ from all ids
+     * generated before within the node, so that new tasks need not be checked for
+     * an existing task having the same id
+     *
+     * @return true if the generated ids are unique, false if an existing task
+     *         having the same id has to be looked up
+     */
+    public default boolean isGeneratingUniqueIds() {
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+package utilities;
+
+import javax.management.MXBean;
+
+/**
+ * metrics of the cache of the encoded JSON of the tasks, exported by the
+ * MetricsUtility
+ */
+@MXBean
+public interface ITaskJsonFragmentCacheMetrics {
+
+    /**
+     * method to get the number of times the cached JSON of a task was used
+     *
+     * @return number of hits
+     */
+    public long getHitCount();
+
+    /**
+     * method to get the number of times the JSON of a task had to be encoded
+     *
+     * @return number of misses
+     */
+    public long getMissCount();
+
+    /**
+     * method to get the share of the requested JSON of tasks found in the cache
+     *
+     * @return hit ratio between 0 and 1, 0 if no JSON has been requested
+     */
+    public double getHitRatio();
+
+    /**
+     * method to get the number of bytes of cached JSON which did not have to be
+     * encoded again
+     *
+     * @return number of saved bytes
+     */
+    public long getSavedByteCount();
+}
@@ -0,0 +1,81 @@
+package utilities;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * utility class exporting the metrics of the application as MXBeans of the
+ * platform MBean server, from where they are read by JMX clients or by agents
+ * exporting them to a monitoring system. Every metrics object implements an
+ * interface annotated as MXBean, whose getters are exported as attributes.
+ */
+public class MetricsUtility {
+
+    // logger of the failures to register metrics
+    private static final Logger LOGGER = Logger.getLogger(MetricsUtility.class.getName());
+
+    // domain of the names of the exported metrics
+    public static final String METRICS_DOMAIN = "tmr";
+
+    /**
+     * private constructor to forbid instantiation
+     */
+    private MetricsUtility() {
+    }
+
+    /**
+     * method to export metrics under the given name, replacing metrics which have
+     * been exported under the same name before. A failure is logged only, as the
+     * application keeps working without it's metrics.
+     *
+     * @param metricsName - name of the metrics, i.e. the type in the object name
+     *                    of the MXBean
+     * @param metrics     - object implementing an MXBean interface
+     */
+    public static void registerMetrics(String metricsName, Object metrics) {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = MetricsUtility.getMetricsObjectName(metricsName);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(metrics, objectName);
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Metrics '" + metricsName + "' could not be registered", e);
+        }
+    }
+
+    /**
+     * method to stop exporting the metrics of the given name, if they are exported
+     *
+     * @param metricsName - name of the metrics
+     */
+    public static void unregisterMetrics(String metricsName) {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = MetricsUtility.getMetricsObjectName(metricsName);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Metrics '" + metricsName + "' could not be unregistered", e);
+        }
+    }
+
+    /**
+     * method to get the object name under which the metrics of the given name are
+     * exported
+     *
+     * @param metricsName - name of the metrics
+     * @return object name of the metrics
+     * @throws JMException - if the name is not valid in an object name
+     */
+    public static ObjectName getMetricsObjectName(String metricsName) throws JMException {
+        return new ObjectName(METRICS_DOMAIN, "type", metricsName);
+    }
+}
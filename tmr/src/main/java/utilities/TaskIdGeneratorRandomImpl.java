@@ -0,0 +1,17 @@
+package utilities;
+
+import java.util.UUID;
+
+/**
+ * implementation class of the ITaskIdGenerator interface generating random
+ * UUIDs of version 4 from a secure random number generator. As random ids are
+ * not guaranteed to be unique, new tasks have to be checked for an existing
+ * task having the same id.
+ */
+public class TaskIdGeneratorRandomImpl implements ITaskIdGenerator {
+
+    @Override
+    public UUID generateTaskId() {
+        return CommonUtility.generateUUIDv4();
+    }
+}
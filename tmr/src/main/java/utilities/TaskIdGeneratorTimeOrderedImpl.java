@@ -0,0 +1,68 @@
+package utilities;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * implementation class of the ITaskIdGenerator interface generating time-ordered
+ * UUIDs of version 7, whose upper 48 bits hold the milliseconds since the epoch,
+ * so that new tasks are appended to the end of the ordered indexes of the
+ * repositories and ids created later are listed later.
+ * <p>
+ * The bits after the timestamp hold a sequence number counted up by a single
+ * counter of the node, starting at a random number, and random bits from a
+ * thread-local random number generator, so that an id only takes a single
+ * atomic increment. Ids of a thread are strictly increasing, as a thread never
+ * goes back to an earlier millisecond, and ids are unique within the node, as
+ * the sequence number only repeats after 2^50 ids, far more than are generated
+ * within a millisecond or within any span by which the clock is set back.
+ * <p>
+ * Layout of the bits, from the most significant ones on
+ * - 48 bits milliseconds since the epoch
+ * - 4 bits version 7
+ * - 12 bits upper bits of the sequence number
+ * - 2 bits variant of RFC 9562
+ * - 38 bits lower bits of the sequence number
+ * - 24 bits random
+ */
+public class TaskIdGeneratorTimeOrderedImpl implements ITaskIdGenerator {
+
+    // numbers of bits of the parts of an id
+    private static final int SEQUENCE_BITS = 50;
+    private static final int LOWER_SEQUENCE_BITS = 38;
+    private static final int RANDOM_BITS = 24;
+
+    // version and variant bits of the halves of an id
+    private static final long VERSION_BITS = 0x7000L;
+    private static final long VARIANT_BITS = 0x8000_0000_0000_0000L;
+
+    // sequence number of the last id generated within the node, starting in the
+    // lower half so that it does not wrap around before 2^49 ids
+    private static final AtomicLong SEQUENCE = new AtomicLong(
+            ThreadLocalRandom.current().nextLong(1L << (SEQUENCE_BITS - 1)));
+
+    // millisecond of the last id of every thread
+    private static final ThreadLocal<long[]> LAST_MILLIS = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public UUID generateTaskId() {
+        // take the next sequence number of the node, and stay in the last millisecond
+        // of the thread if the clock went back
+        long sequence = SEQUENCE.incrementAndGet() & ((1L << SEQUENCE_BITS) - 1);
+        long[] lastMillis = LAST_MILLIS.get();
+        lastMillis[0] = Math.max(lastMillis[0], System.currentTimeMillis());
+
+        // assemble both halves of the id
+        long mostSignificantBits = lastMillis[0] << 16 | VERSION_BITS | sequence >>> LOWER_SEQUENCE_BITS;
+        long leastSignificantBits = VARIANT_BITS
+                | (sequence & ((1L << LOWER_SEQUENCE_BITS) - 1)) << RANDOM_BITS
+                | ThreadLocalRandom.current().nextInt(1 << RANDOM_BITS);
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    @Override
+    public boolean isGeneratingUniqueIds() {
+        return true;
+    }
+}
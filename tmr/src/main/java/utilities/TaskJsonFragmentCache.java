@@ -0,0 +1,117 @@
+package utilities;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.LongAdder;
+
+import dtos.response.TaskDataResponseDTO;
+import models.TaskModel;
+
+/**
+ * cache of the encoded JSON of the tasks, which keeps the JSON of a task in
+ * it's TaskModel instance, so that the JSON of an unchanged task is encoded only
+ * once and spliced into every response containing the task. As an update
+ * replaces the stored TaskModel instance by a new one, the cached JSON of a
+ * task is invalidated atomically with the update. The cache is only used for
+ * repositories which return their stored TaskModel instances, as the tasks of
+ * repositories creating a new instance for every read would never be found in
+ * it.
+ * <p>
+ * The numbers of hits, misses and saved bytes are exported as metrics named
+ * 'TaskJsonFragmentCache'.
+ */
+public final class TaskJsonFragmentCache implements ITaskJsonFragmentCacheMetrics {
+
+    // name of the exported metrics
+    public static final String METRICS_NAME = "TaskJsonFragmentCache";
+
+    // initial capacity of the buffer the JSON of a task is encoded into
+    private static final int INITIAL_FRAGMENT_CAPACITY = 256;
+
+    // instance holding the metrics of the cache
+    private static final TaskJsonFragmentCache INSTANCE = new TaskJsonFragmentCache();
+
+    // numbers of responses which spliced the cached JSON of a task, of tasks which
+    // had to be encoded, and of bytes which were not encoded again
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder savedByteCount = new LongAdder();
+
+    /**
+     * private constructor to forbid instantiation
+     */
+    private TaskJsonFragmentCache() {
+    }
+
+    /**
+     * method to get the instance holding the metrics of the cache
+     *
+     * @return metrics of the cache
+     */
+    public static TaskJsonFragmentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * method to get the cached JSON of a task, counting a hit if it has been
+     * encoded before and a miss otherwise
+     *
+     * @param task - task whose JSON is requested
+     * @return JSON of the task encoded as UTF-8, null if it has not been cached
+     */
+    static byte[] getJsonFragment(TaskModel task) {
+        byte[] jsonFragment = task.getJsonFragment();
+        if (jsonFragment != null) {
+            INSTANCE.hitCount.increment();
+            INSTANCE.savedByteCount.add(jsonFragment.length);
+        } else {
+            INSTANCE.missCount.increment();
+        }
+        return jsonFragment;
+    }
+
+    /**
+     * method to encode the response object of a task straight into UTF-8 bytes
+     * and to cache them in the task, threads racing to encode the same task caching
+     * equal JSON
+     *
+     * @param task         - task whose JSON is cached
+     * @param taskResponse - response object created from the task
+     * @return JSON of the task encoded as UTF-8
+     */
+    static byte[] cacheJsonFragment(TaskModel task, TaskDataResponseDTO taskResponse) {
+        ByteArrayOutputStream fragmentOutput = new ByteArrayOutputStream(INITIAL_FRAGMENT_CAPACITY);
+        try (Utf8ResponseWriter fragmentWriter = new Utf8ResponseWriter(fragmentOutput)) {
+            CommonServletUtility.GSON.toJson(taskResponse, TaskDataResponseDTO.class, fragmentWriter);
+        } catch (IOException e) {
+            // not thrown by an output stream in memory
+            throw new UncheckedIOException(e);
+        }
+        byte[] jsonFragment = fragmentOutput.toByteArray();
+        task.setJsonFragment(jsonFragment);
+        return jsonFragment;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hits = hitCount.sum();
+        long requests = hits + missCount.sum();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public long getSavedByteCount() {
+        return savedByteCount.sum();
+    }
+}
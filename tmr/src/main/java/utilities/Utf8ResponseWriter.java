@@ -0,0 +1,276 @@
+package utilities;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * writer encoding the body of a response as UTF-8 straight into a pooled byte
+ * buffer, which is written to the output stream of the response, so that the
+ * body is neither built as a String nor copied into the buffer of the writer
+ * of the container.
+ * <p>
+ * A body which fits into the buffer is written when the writer is closed,
+ * after it's length has been set as Content-Length of the response. A larger
+ * body, or a body which is flushed before it is complete, is written buffer by
+ * buffer, leaving the response without a Content-Length, so that the container
+ * sends it with chunked transfer encoding.
+ * <p>
+ * The buffers are kept in a bounded pool shared by all threads instead of
+ * thread-local buffers, as a thread-local buffer would be allocated for every
+ * virtual thread. Every writer has to be closed to return it's buffer to the
+ * pool.
+ * <p>
+ * A writer can also encode into any output stream, e.g. to encode JSON which
+ * is cached as bytes.
+ */
+class Utf8ResponseWriter extends Writer {
+
+    // size of the buffers and the maximum number of pooled buffers
+    static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    // maximum number of bytes a character is encoded to
+    private static final int MAX_BYTES_PER_CHARACTER = 4;
+
+    // buffers which are not used by a writer
+    private static final ArrayBlockingQueue<byte[]> BUFFER_POOL = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    // response whose body is written, null if the writer encodes into an output
+    // stream given to it
+    private final HttpServletResponse response;
+
+    // buffer of the encoded bytes, null once the writer has been closed
+    private byte[] buffer;
+    private int bufferPosition;
+
+    // output stream of the response, null until the first bytes are written to it
+    private OutputStream outputStream;
+
+    // high surrogate written as last character, whose low surrogate follows with
+    // the next write, 0 if there is none
+    private char pendingHighSurrogate;
+
+    /**
+     * constructor taking a buffer from the pool
+     *
+     * @param response - response whose body is written
+     */
+    Utf8ResponseWriter(HttpServletResponse response) {
+        this.response = response;
+        byte[] pooledBuffer = BUFFER_POOL.poll();
+        this.buffer = pooledBuffer != null ? pooledBuffer : new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * constructor taking a buffer from the pool, encoding into the given output
+     * stream instead of a response
+     *
+     * @param outputStream - output stream into which the characters are encoded
+     */
+    Utf8ResponseWriter(OutputStream outputStream) {
+        this((HttpServletResponse) null);
+        this.outputStream = outputStream;
+    }
+
+    @Override
+    public void write(int character) throws IOException {
+        this.ensureOpen();
+        this.writeCharacter((char) character);
+    }
+
+    @Override
+    public void write(char[] characters, int offset, int length) throws IOException {
+        this.ensureOpen();
+        for (int index = offset; index < offset + length; index++) {
+            this.writeCharacter(characters[index]);
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        this.ensureOpen();
+        for (int index = offset; index < offset + length; index++) {
+            this.writeCharacter(text.charAt(index));
+        }
+    }
+
+    /**
+     * method to write bytes which are already encoded as UTF-8, copying them into
+     * the buffer, or straight to the response if they do not fit into it
+     *
+     * @param utf8Bytes - bytes encoded as UTF-8
+     * @throws IOException - if the bytes could not be written to the response
+     */
+    void writeUtf8(byte[] utf8Bytes) throws IOException {
+        this.ensureOpen();
+
+        // replace a high surrogate which is not followed by it's low surrogate
+        if (pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            if (bufferPosition == buffer.length) {
+                this.writeBuffer();
+            }
+            buffer[bufferPosition++] = '?';
+        }
+
+        // write the buffer first if the bytes do not fit into it's remaining space
+        if (utf8Bytes.length > buffer.length - bufferPosition) {
+            this.writeBuffer();
+        }
+
+        // copy the bytes into the buffer, or write them straight to the response if
+        // they are larger than the buffer
+        if (utf8Bytes.length <= buffer.length) {
+            System.arraycopy(utf8Bytes, 0, buffer, bufferPosition, utf8Bytes.length);
+            bufferPosition += utf8Bytes.length;
+        } else {
+            outputStream.write(utf8Bytes);
+        }
+    }
+
+    /**
+     * method to check that the writer has not been closed
+     *
+     * @throws IOException - if the writer has been closed
+     */
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * method to encode a character into the buffer, writing the buffer to the
+     * response first if it might not have enough space left
+     *
+     * @param character - character to be encoded
+     * @throws IOException - if the buffer could not be written to the response
+     */
+    private void writeCharacter(char character) throws IOException {
+        // make room for the longest encoding of a character
+        if (bufferPosition > buffer.length - MAX_BYTES_PER_CHARACTER) {
+            this.writeBuffer();
+        }
+
+        // encode a code point consisting of a surrogate pair once both halves are known
+        if (pendingHighSurrogate != 0) {
+            char highSurrogate = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(character)) {
+                this.encodeCodePoint(Character.toCodePoint(highSurrogate, character));
+                return;
+            }
+
+            // replace the unpaired high surrogate like String.getBytes does
+            buffer[bufferPosition++] = '?';
+            this.writeCharacter(character);
+            return;
+        }
+
+        if (character < 0x80) {
+            buffer[bufferPosition++] = (byte) character;
+        } else if (Character.isHighSurrogate(character)) {
+            pendingHighSurrogate = character;
+        } else if (Character.isLowSurrogate(character)) {
+            buffer[bufferPosition++] = '?';
+        } else {
+            this.encodeCodePoint(character);
+        }
+    }
+
+    /**
+     * method to encode a code point which is not an ASCII character into the
+     * buffer
+     *
+     * @param codePoint - code point to be encoded
+     */
+    private void encodeCodePoint(int codePoint) {
+        if (codePoint < 0x800) {
+            buffer[bufferPosition++] = (byte) (0xC0 | codePoint >> 6);
+        } else if (codePoint < 0x10000) {
+            buffer[bufferPosition++] = (byte) (0xE0 | codePoint >> 12);
+            buffer[bufferPosition++] = (byte) (0x80 | (codePoint >> 6 & 0x3F));
+        } else {
+            buffer[bufferPosition++] = (byte) (0xF0 | codePoint >> 18);
+            buffer[bufferPosition++] = (byte) (0x80 | (codePoint >> 12 & 0x3F));
+            buffer[bufferPosition++] = (byte) (0x80 | (codePoint >> 6 & 0x3F));
+        }
+        buffer[bufferPosition++] = (byte) (0x80 | (codePoint & 0x3F));
+    }
+
+    /**
+     * method to write the encoded bytes of the buffer to the response without a
+     * Content-Length, so that the response is sent in chunks
+     *
+     * @throws IOException - if the bytes could not be written
+     */
+    private void writeBuffer() throws IOException {
+        if (outputStream == null) {
+            outputStream = response.getOutputStream();
+        }
+        outputStream.write(buffer, 0, bufferPosition);
+        bufferPosition = 0;
+    }
+
+    /**
+     * method to send the bytes written so far to the client, which commits the
+     * response without a Content-Length
+     */
+    @Override
+    public void flush() throws IOException {
+        // a pending high surrogate stays in the writer until it's low surrogate is
+        // written
+        if (buffer != null) {
+            this.writeBuffer();
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * method to write the remaining bytes to the response, setting the
+     * Content-Length if no bytes have been written yet, and to return the buffer
+     * to the pool
+     */
+    @Override
+    public void close() throws IOException {
+        // ignore repeated calls
+        if (buffer == null) {
+            return;
+        }
+
+        try {
+            // replace a high surrogate which has not been followed by it's low surrogate
+            if (pendingHighSurrogate != 0) {
+                pendingHighSurrogate = 0;
+                if (bufferPosition == buffer.length) {
+                    this.writeBuffer();
+                }
+                buffer[bufferPosition++] = '?';
+            }
+
+            // the whole body is in the buffer if nothing has been written yet
+            if (outputStream == null) {
+                response.setContentLength(bufferPosition);
+            }
+            this.writeBuffer();
+            outputStream.flush();
+        } finally {
+            // return the buffer to the pool unless it is full
+            BUFFER_POOL.offer(buffer);
+            buffer = null;
+        }
+    }
+
+    /**
+     * method to get the number of buffers in the pool
+     *
+     * @return number of pooled buffers
+     */
+    static int getPooledBufferCount() {
+        return BUFFER_POOL.size();
+    }
+}
@@ -5,6 +5,7 @@ import com.google.gson.reflect.TypeToken;
 import dtos.generic.GenericResponseDTO;
 import dtos.request.TaskPatchRequestDTO;
 import dtos.response.TaskDataResponseDTO;
+import dtos.response.TaskPageResponseDTO;
 import exceptions.ResourceNotFoundException;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletResponse;
@@ -31,10 +32,10 @@ class TaskServletIntegrationTest extends TaskServletTestBase {
         servlet.doGet(requestMock, responseMock);
 
         // verify
-        verify(taskServiceMock).getAllTasks();
+        verify(taskServiceMock).streamAllTasks();
 
         // assert
-        assertFalse(responseWriter.toString().isEmpty());
+        assertFalse(responseOutput.toString().isEmpty());
     }
 
     /**
@@ -43,7 +44,7 @@ class TaskServletIntegrationTest extends TaskServletTestBase {
     @Test
     void getWithSuccess() throws Exception {
         List<TaskDataResponseDTO> tasks = List.of(new TaskDataResponseDTO("1", "T1", "Description 1", false, "D1"));
-        when(taskServiceMock.getAllTasks()).thenReturn(tasks);
+        when(taskServiceMock.streamAllTasks()).thenReturn(tasks.stream());
 
         servlet.doGet(requestMock, responseMock);
 
@@ -52,7 +53,7 @@ class TaskServletIntegrationTest extends TaskServletTestBase {
 
         Type responseType = new TypeToken<GenericResponseDTO<List<TaskDataResponseDTO>>>() {
         }.getType();
-        GenericResponseDTO<List<TaskDataResponseDTO>> successResponse = new Gson().fromJson(responseWriter.toString(),
+        GenericResponseDTO<List<TaskDataResponseDTO>> successResponse = new Gson().fromJson(responseOutput.toString(),
                 responseType);
 
         // assert
@@ -61,6 +62,52 @@ class TaskServletIntegrationTest extends TaskServletTestBase {
         assertEquals("T1", successResponse.getResponseData().getFirst().getTaskTitle());
     }
 
+    /**
+     * tests the doGet method to check it returns a page of tasks if pagination
+     * request parameters are provided
+     */
+    @Test
+    void getPageWithSuccess() throws Exception {
+        String cursor = "00000000-0000-0000-0000-000000000001";
+        TaskPageResponseDTO page = new TaskPageResponseDTO(
+                List.of(new TaskDataResponseDTO("00000000-0000-0000-0000-000000000002", "T2", "Description 2",
+                        false, "D2")),
+                "00000000-0000-0000-0000-000000000002");
+        when(requestMock.getParameter("after")).thenReturn(cursor);
+        when(requestMock.getParameter("limit")).thenReturn("1");
+        when(taskServiceMock.getTasksPage(cursor, 1)).thenReturn(page);
+
+        servlet.doGet(requestMock, responseMock);
+
+        // checking for correct response
+        verify(responseMock).setStatus(HttpServletResponse.SC_OK);
+        verify(taskServiceMock, never()).streamAllTasks();
+
+        GenericResponseDTO<TaskPageResponseDTO> successResponse = new Gson().fromJson(responseOutput.toString(),
+                new TypeToken<GenericResponseDTO<TaskPageResponseDTO>>() {
+                }.getType());
+
+        // assert
+        assertEquals(1, successResponse.getResponseData().getTasks().size());
+        assertEquals("T2", successResponse.getResponseData().getTasks().getFirst().getTaskTitle());
+        assertEquals("00000000-0000-0000-0000-000000000002", successResponse.getResponseData().getNextCursor());
+    }
+
+    /**
+     * tests the doGet method to check it returns a BAD REQUEST response if the page
+     * limit is not a number
+     */
+    @Test
+    void getPageWithInvalidLimit() throws Exception {
+        when(requestMock.getParameter("limit")).thenReturn("ten");
+
+        servlet.doGet(requestMock, responseMock);
+
+        // checking for correct response
+        verify(responseMock).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        verify(taskServiceMock, never()).getTasksPage(any(), anyInt());
+    }
+
     /**
      * tests handling GET request with a specific task ID, expecting a successful response
      */
@@ -93,7 +140,7 @@ class TaskServletIntegrationTest extends TaskServletTestBase {
 
         // verifying creation of a new task and that the response is not empty.
         verify(taskServiceMock).createNewTask(any());
-        assertTrue(responseWriter.toString().isEmpty());
+        assertTrue(responseOutput.toString().isEmpty());
     }
 
     /**
@@ -151,23 +198,18 @@ class TaskServletIntegrationTest extends TaskServletTestBase {
         when(requestMock.getReader()).thenReturn(reader);
 
         // set up the HttpServletResponse mock
-        StringWriter stringWriter = new StringWriter();
-        PrintWriter writer = new PrintWriter(stringWriter);
-        when(responseMock.getWriter()).thenReturn(writer);
-
         // set up the TaskService mock
         when(taskServiceMock.updateTaskById(eq(taskId), any(TaskPatchRequestDTO.class))).thenReturn(updatedTask);
 
         // execute the doPatch method
         servlet.doPatch(requestMock, responseMock);
-        writer.flush();
 
         // verify that the correct HTTP status code is set in the response
         verify(responseMock).setStatus(HttpServletResponse.SC_OK);
 
-        // convert the StringWriter content into an object for assertion
+        // convert the response body into an object for assertion
         Type type = new TypeToken<GenericResponseDTO<TaskDataResponseDTO>>(){}.getType();
-        GenericResponseDTO<TaskDataResponseDTO> responseDTO = new Gson().fromJson(stringWriter.toString(), type);
+        GenericResponseDTO<TaskDataResponseDTO> responseDTO = new Gson().fromJson(responseOutput.toString(), type);
 
         // assertions
         assertNotNull(responseDTO);
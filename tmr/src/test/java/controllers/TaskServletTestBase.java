@@ -7,9 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.mockito.Mock;
 import services.ServiceFactory;
 import services.TaskService;
-
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import utilities.ByteArrayServletOutputStream;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -26,7 +24,7 @@ abstract class TaskServletTestBase {
     protected HttpServletRequest requestMock;
     @Mock
     protected HttpServletResponse responseMock;
-    protected StringWriter responseWriter;
+    protected ByteArrayServletOutputStream responseOutput;
 
     /**
      * inner class that extends TaskServlet to expose and track protected methods
@@ -61,11 +59,11 @@ abstract class TaskServletTestBase {
         taskServiceMock = mock(TaskService.class);
         requestMock = mock(HttpServletRequest.class);
         responseMock = mock(HttpServletResponse.class);
-        responseWriter = new StringWriter();
+        responseOutput = new ByteArrayServletOutputStream();
 
         // set service factory to use the mock service
         ServiceFactory.setTaskServiceInstance(taskServiceMock);
 
-        when(responseMock.getWriter()).thenReturn(new PrintWriter(responseWriter));
+        when(responseMock.getOutputStream()).thenReturn(responseOutput);
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.google.gson.JsonSyntaxException;
 import constants.ErrorMessage;
 import dtos.generic.GenericErrorResponseDTO;
 import exceptions.BadRequestException;
+import exceptions.DataPersistenceException;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
@@ -13,7 +14,6 @@ import utilities.CommonServletUtility;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.io.StringReader;
 
 import static jakarta.servlet.http.HttpServletResponse.*;
@@ -58,6 +58,27 @@ class TaskServletUnitTest extends TaskServletTestBase {
         verify(responseMock).setStatus(HttpServletResponse.SC_BAD_REQUEST);
     }
 
+    /**
+     * tests handling of a task which could not be read from the persistent storage
+     * during a GET request
+     */
+    @Test
+    void doGetDataPersistenceException() throws ServletException {
+        // assume the request path info is a task ID
+        String taskId = "task-id";
+        when(CommonServletUtility.getRequestUrlPathInfo(requestMock)).thenReturn("/" + taskId);
+
+        // simulate that taskService.getTaskById fails to read the task
+        when(taskServiceMock.getTaskById(taskId))
+                .thenThrow(new DataPersistenceException("Task data could not be read", new IOException()));
+
+        // execute doGet
+        servlet.doGet(requestMock, responseMock);
+
+        // verify that the correct response status code has been set
+        verify(responseMock).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+    }
+
     /**
      * tests doPost method handling invalid request data and responding with error
      */
@@ -75,9 +96,7 @@ class TaskServletUnitTest extends TaskServletTestBase {
 
         verify(responseMock).setStatus(SC_BAD_REQUEST);
 
-        PrintWriter writer = new PrintWriter(responseWriter);
-        writer.flush();
-        String responseContent = responseWriter.toString();
+        String responseContent = responseOutput.toString();
         assertTrue(responseContent.contains("Invalid task title"));
 
         GenericErrorResponseDTO errorResponse = new Gson().fromJson(responseContent,
@@ -144,7 +163,7 @@ class TaskServletUnitTest extends TaskServletTestBase {
 
         // verify that the correct response status code has been set to SC_BAD_REQUEST
         verify(responseMock).setStatus(SC_BAD_REQUEST);
-        assertTrue(responseWriter.toString().contains("A TASK ID WAS NOT PROVIDED"));
+        assertTrue(responseOutput.toString().contains("A TASK ID WAS NOT PROVIDED"));
     }
 
     /**
@@ -159,7 +178,7 @@ class TaskServletUnitTest extends TaskServletTestBase {
         // verify that the correct response status code has been set to SC_NOT_FOUND
         verify(responseMock).setStatus(SC_BAD_REQUEST);
 
-        assertTrue(responseWriter.toString().contains("INVALID REQUEST URL"));
+        assertTrue(responseOutput.toString().contains("INVALID REQUEST URL"));
     }
 
     /**
@@ -175,8 +194,8 @@ class TaskServletUnitTest extends TaskServletTestBase {
         verify(responseMock).setStatus(HttpServletResponse.SC_BAD_REQUEST);
 
         // verify that buildErrorResponse is called with the correct status and exception
-        verify(responseMock).getWriter(); //
-        String responseContent = responseWriter.toString();
+        verify(responseMock).getOutputStream();
+        String responseContent = responseOutput.toString();
         assertTrue(responseContent.contains("INVALID REQUEST URL"));
     }
 
@@ -191,7 +210,7 @@ class TaskServletUnitTest extends TaskServletTestBase {
         servlet.doPatch(requestMock, responseMock);
 
         verify(responseMock).setStatus(SC_BAD_REQUEST);
-        String responseContent = responseWriter.toString();
+        String responseContent = responseOutput.toString();
         assertTrue(responseContent.contains(ErrorMessage.TASK_ID_NOT_PROVIDED));
     }
 
@@ -0,0 +1,83 @@
+package dtos.codecs;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import dtos.generic.GenericResponseDTO;
+import dtos.request.TaskPostRequestDTO;
+import dtos.response.TaskDataResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compares the time to read a request body and to write a response of the
+ * previous way, creating a new Gson instance with reflective adapters per
+ * request, with a shared Gson instance using the reflective adapters and with a
+ * shared Gson instance using the codecs of the dtos
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DTOCodecFactoryBenchmark {
+
+    // body of a request creating a task
+    private static final String POST_REQUEST_BODY = "{\"task-title\":\"Task\",\"task-description\":\"Description\"}";
+
+    @Param({ "reflective-per-request", "reflective-shared", "codecs" })
+    String codecs;
+
+    @Param({ "1", "100" })
+    int taskCount;
+
+    private Gson sharedGson;
+    private List<TaskDataResponseDTO> tasks;
+
+    @Setup
+    public void setUp() {
+        sharedGson = codecs.equals("codecs")
+                ? new GsonBuilder().registerTypeAdapterFactory(new DTOCodecFactory()).create()
+                : new Gson();
+
+        // create the tasks of the response
+        tasks = new ArrayList<>();
+        for (int taskIndex = 0; taskIndex < taskCount; taskIndex++) {
+            tasks.add(new TaskDataResponseDTO(UUID.randomUUID().toString(), "Task " + taskIndex,
+                    "Description of task " + taskIndex, taskIndex % 2 == 0, "01-01-2021T00:00:00"));
+        }
+    }
+
+    /**
+     * method to get the Gson instance handling a request
+     *
+     * @return Gson instance
+     */
+    private Gson getGson() {
+        return codecs.equals("reflective-per-request") ? new Gson() : sharedGson;
+    }
+
+    @Benchmark
+    public TaskPostRequestDTO readPostRequest() {
+        return getGson().fromJson(POST_REQUEST_BODY, TaskPostRequestDTO.class);
+    }
+
+    @Benchmark
+    public String writeTasksResponse() {
+        return getGson().toJson(new GenericResponseDTO<>(tasks));
+    }
+}
@@ -0,0 +1,100 @@
+package dtos.codecs;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import dtos.generic.GenericErrorResponseDTO;
+import dtos.generic.GenericResponseDTO;
+import dtos.request.TaskPatchRequestDTO;
+import dtos.request.TaskPostRequestDTO;
+import dtos.response.TaskDataResponseDTO;
+import dtos.response.TaskPageResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DTOCodecFactoryTest {
+
+    private final Gson reflectiveGson = new Gson();
+    private final Gson codecGson = new GsonBuilder().registerTypeAdapterFactory(new DTOCodecFactory()).create();
+
+    /**
+     * asserts that the codecs write the same JSON as the reflective adapters
+     */
+    private void assertSameJson(Object dto) {
+        assertEquals(reflectiveGson.toJson(dto), codecGson.toJson(dto));
+    }
+
+    /**
+     * tests that the written JSON equals the JSON of the reflective adapters, also
+     * for null attributes and characters which are escaped
+     */
+    @Test
+    void codecsWriteTheSameJsonAsReflection() {
+        TaskDataResponseDTO task = new TaskDataResponseDTO("id-1", "Title <\"quoted\">", "Line\nbreak", true,
+                "01-01-2021T00:00:00");
+        TaskDataResponseDTO taskWithNulls = new TaskDataResponseDTO("id-2", "Title", null, null, null);
+
+        assertSameJson(new TaskPostRequestDTO("Title", "Description"));
+        assertSameJson(new TaskPostRequestDTO(null, "Description"));
+        assertSameJson(new TaskPatchRequestDTO("Title", null, false));
+        assertSameJson(task);
+        assertSameJson(taskWithNulls);
+        assertSameJson(new TaskPageResponseDTO(List.of(task, taskWithNulls), null));
+        assertSameJson(new TaskPageResponseDTO(null, "id-2"));
+        assertSameJson(new GenericErrorResponseDTO("TASK NOT FOUND"));
+        assertSameJson(new GenericResponseDTO<>(task));
+        assertSameJson(new GenericResponseDTO<>(List.of(task, taskWithNulls)));
+        assertSameJson(new GenericResponseDTO<>(new TaskPageResponseDTO(List.of(task), "id-1")));
+        assertSameJson(new GenericResponseDTO<>(null));
+    }
+
+    /**
+     * tests that request bodies are read like by the reflective adapters, skipping
+     * unknown attributes and accepting the values Gson accepts
+     */
+    @Test
+    void codecsReadRequestBodies() {
+        TaskPostRequestDTO postRequestDTO = codecGson.fromJson(
+                "{\"unknown\":{\"a\":[1,2]},\"task-title\":\"Title\",\"task-description\":null}",
+                TaskPostRequestDTO.class);
+        assertEquals("Title", postRequestDTO.getTaskTitle());
+        assertNull(postRequestDTO.getTaskDescription());
+
+        TaskPatchRequestDTO patchRequestDTO = codecGson.fromJson(
+                "{\"task-title\":42,\"task-description\":true,\"task-completed\":\"true\"}",
+                TaskPatchRequestDTO.class);
+        assertEquals("42", patchRequestDTO.getTaskTitle());
+        assertEquals("true", patchRequestDTO.getTaskDescription());
+        assertTrue(patchRequestDTO.getIsTaskCompleted());
+
+        assertNull(codecGson.fromJson("null", TaskPostRequestDTO.class));
+        assertThrows(JsonSyntaxException.class, () -> codecGson.fromJson("[1]", TaskPostRequestDTO.class));
+        assertThrows(JsonSyntaxException.class,
+                () -> codecGson.fromJson("{\"task-title\":{}}", TaskPostRequestDTO.class));
+    }
+
+    /**
+     * tests that the written response dtos are read back
+     */
+    @Test
+    void codecsReadWrittenResponses() {
+        TaskDataResponseDTO task = new TaskDataResponseDTO("id-1", "Title", "Description", false,
+                "01-01-2021T00:00:00");
+        TaskPageResponseDTO page = codecGson.fromJson(
+                codecGson.toJson(new TaskPageResponseDTO(List.of(task), "id-1")), TaskPageResponseDTO.class);
+
+        assertEquals("id-1", page.getNextCursor());
+        assertEquals(1, page.getTasks().size());
+        assertEquals(reflectiveGson.toJson(task), reflectiveGson.toJson(page.getTasks().get(0)));
+
+        GenericErrorResponseDTO errorResponseDTO = new GenericErrorResponseDTO("TASK NOT FOUND");
+        errorResponseDTO.setResponseTime("01-01-2021T00:00:00");
+        GenericErrorResponseDTO readErrorResponseDTO = codecGson.fromJson(codecGson.toJson(errorResponseDTO),
+                GenericErrorResponseDTO.class);
+        assertEquals("01-01-2021T00:00:00", readErrorResponseDTO.getResponseTime());
+        assertEquals("TASK NOT FOUND", readErrorResponseDTO.getErrorMessage());
+    }
+}
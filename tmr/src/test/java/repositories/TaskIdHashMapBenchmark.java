@@ -0,0 +1,131 @@
+package repositories;
+
+import models.TaskModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compares the lookup latency of the TaskIdHashMap with the ConcurrentHashMap
+ * it replaced in the in-memory repository, both for the maps alone and for
+ * lookups through the repository. The main method prints the bytes per entry
+ * of both maps.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskIdHashMapBenchmark {
+
+    @Param({ "10000", "1000000" })
+    int taskCount;
+
+    private UUID[] taskIds;
+    private Map<UUID, TaskModel> concurrentHashMap;
+    private TaskIdHashMap<TaskModel> taskIdHashMap;
+    private TaskRepositoryLocalMemoryImpl repository;
+
+    // position of the next looked up task id
+    private int lookupIndex;
+
+    @Setup
+    public void setUp() {
+        taskIds = randomTaskIds(taskCount);
+        concurrentHashMap = new ConcurrentHashMap<>();
+        taskIdHashMap = new TaskIdHashMap<>();
+        repository = new TaskRepositoryLocalMemoryImpl();
+        for (UUID taskId : taskIds) {
+            TaskModel task = new TaskModel(taskId, "Task", "Description", 0, 0, false, false);
+            concurrentHashMap.put(taskId, task);
+            taskIdHashMap.compute(taskId, existingTask -> task);
+            repository.addNewTask(task);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        repository.close();
+    }
+
+    /**
+     * method to get the next task id to look up, cycling through all ids
+     *
+     * @return task id
+     */
+    private UUID nextTaskId() {
+        lookupIndex = lookupIndex + 1 == taskIds.length ? 0 : lookupIndex + 1;
+        return taskIds[lookupIndex];
+    }
+
+    @Benchmark
+    public TaskModel concurrentHashMapLookup() {
+        return concurrentHashMap.get(nextTaskId());
+    }
+
+    @Benchmark
+    public TaskModel taskIdHashMapLookup() {
+        return taskIdHashMap.get(nextTaskId());
+    }
+
+    @Benchmark
+    public TaskModel repositoryLookup() {
+        return repository.findTaskById(nextTaskId());
+    }
+
+    /**
+     * method to generate random task ids
+     *
+     * @param taskCount - number of task ids
+     * @return task ids
+     */
+    private static UUID[] randomTaskIds(int taskCount) {
+        Random random = new Random(42);
+        UUID[] taskIds = new UUID[taskCount];
+        for (int taskIndex = 0; taskIndex < taskCount; taskIndex++) {
+            taskIds[taskIndex] = new UUID(random.nextLong(), random.nextLong());
+        }
+        return taskIds;
+    }
+
+    /**
+     * prints the bytes per entry of both maps, not counting the task objects which
+     * are shared by both
+     *
+     * @param args - number of entries, 1000000 by default
+     */
+    public static void main(String[] args) {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        TaskModel task = new TaskModel(new UUID(0, 0), "Task", "Description", 0, 0, false, false);
+
+        // store the same task object for every id, so that it is counted only once
+        Map<UUID, TaskModel> concurrentHashMap = new ConcurrentHashMap<>();
+        TaskIdHashMap<TaskModel> taskIdHashMap = new TaskIdHashMap<>();
+        for (UUID taskId : randomTaskIds(taskCount)) {
+            concurrentHashMap.put(taskId, task);
+            taskIdHashMap.compute(taskId, existingTask -> task);
+        }
+
+        System.out.printf("ConcurrentHashMap: %.1f bytes per entry%n",
+                (double) GraphLayout.parseInstance(concurrentHashMap).totalSize() / taskCount);
+        System.out.printf("TaskIdHashMap: %.1f bytes per entry%n",
+                (double) GraphLayout.parseInstance(taskIdHashMap).totalSize() / taskCount);
+    }
+}
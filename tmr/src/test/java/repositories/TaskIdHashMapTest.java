@@ -0,0 +1,121 @@
+package repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskIdHashMapTest {
+
+    private static final int THREAD_COUNT = 8;
+    private static final int KEYS_PER_THREAD = 5_000;
+
+    private TaskIdHashMap<String> map;
+
+    @BeforeEach
+    void setUp() {
+        map = new TaskIdHashMap<>();
+    }
+
+    /**
+     * tests storing, replacing and removing keys, including computations which
+     * leave missing keys missing
+     */
+    @Test
+    void computeStoresReplacesAndRemovesKeys() {
+        UUID key = UUID.randomUUID();
+
+        assertNull(map.get(key));
+        assertNull(map.computeIfPresent(key, value -> "present"), "Missing key should stay missing.");
+        assertNull(map.compute(key, value -> null));
+        assertEquals(0, map.size());
+
+        assertEquals("first", map.compute(key, value -> value == null ? "first" : "unexpected"));
+        assertEquals("first second", map.computeIfPresent(key, value -> value + " second"));
+        assertEquals("first second", map.get(key.getMostSignificantBits(), key.getLeastSignificantBits()));
+        assertEquals(1, map.size());
+
+        assertNull(map.computeIfPresent(key, value -> null));
+        assertNull(map.get(key));
+        assertEquals(0, map.size());
+    }
+
+    /**
+     * tests that the map agrees with a HashMap over many random insertions and
+     * removals, which grow the tables and shift entries back on removals
+     */
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        Map<UUID, String> expected = new HashMap<>();
+
+        // draw the keys from a small range of ids, so that keys are often replaced
+        // and removed again
+        for (int operation = 0; operation < 200_000; operation++) {
+            UUID key = new UUID(random.nextInt(4), random.nextInt(20_000));
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map.compute(key, value -> null);
+            } else {
+                String newValue = "Value " + operation;
+                expected.put(key, newValue);
+                map.compute(key, value -> newValue);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.size(), map.streamKeys().count());
+        map.streamKeys().forEach(key -> assertEquals(expected.get(key), map.get(key)));
+        for (int keyIndex = 0; keyIndex < 20_000; keyIndex++) {
+            UUID key = new UUID(0, keyIndex);
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    /**
+     * tests that concurrent computations of the same keys are atomic while other
+     * threads keep reading and inserting keys of their own
+     */
+    @Test
+    void concurrentComputationsAreAtomic() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < THREAD_COUNT; thread++) {
+                int threadIndex = thread;
+
+                // every thread counts up the shared keys and inserts keys of it's own
+                futures.add(executor.submit(() -> {
+                    for (int keyIndex = 0; keyIndex < KEYS_PER_THREAD; keyIndex++) {
+                        map.compute(new UUID(-1, keyIndex % 100),
+                                value -> String.valueOf(value == null ? 1 : Integer.parseInt(value) + 1));
+                        UUID key = new UUID(threadIndex, keyIndex);
+                        map.compute(key, value -> key.toString());
+                        assertEquals(key.toString(), map.get(key));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREAD_COUNT * KEYS_PER_THREAD + 100, map.size());
+        for (int keyIndex = 0; keyIndex < 100; keyIndex++) {
+            assertEquals(String.valueOf(THREAD_COUNT * KEYS_PER_THREAD / 100), map.get(new UUID(-1, keyIndex)));
+        }
+    }
+}
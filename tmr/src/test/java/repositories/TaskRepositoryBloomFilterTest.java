@@ -0,0 +1,124 @@
+package repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utilities.MetricsUtility;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TaskRepositoryBloomFilterTest extends TaskRepositoryTestBase {
+
+    // number of tasks the tested filter is sized for
+    private static final int EXPECTED_TASK_COUNT = 10_000;
+
+    private TaskRepositoryLocalMemoryImpl backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = spy(new TaskRepositoryLocalMemoryImpl());
+    }
+
+    /**
+     * tests that the tasks stored before the repository was created and the added
+     * tasks are found, while lookups of missing ids do not reach the backend
+     */
+    @Test
+    void storedTasksAreFoundAndMissingTasksAreFiltered() {
+        backend.addNewTask(task(new UUID(0, 1)));
+        TaskRepositoryBloomFilterImpl repository = new TaskRepositoryBloomFilterImpl(backend, EXPECTED_TASK_COUNT);
+        repository.addNewTask(task(new UUID(0, 2)));
+        repository.updateTaskById(new UUID(0, 3), task(new UUID(0, 3)));
+
+        assertNotNull(repository.findTaskById(new UUID(0, 1)));
+        assertNotNull(repository.findTaskById(new UUID(0, 2)));
+        assertNotNull(repository.findTaskById(new UUID(0, 3)));
+        assertNull(repository.findTaskById(new UUID(0, 404)));
+
+        verify(backend, never()).findTaskById(new UUID(0, 404));
+        assertEquals(1, repository.getFilteredLookupCount());
+    }
+
+    /**
+     * tests that a task deleted by an update is removed from the filter, while the
+     * ids of other tasks are kept
+     */
+    @Test
+    void deletedTasksAreRemoved() {
+        TaskRepositoryBloomFilterImpl repository = new TaskRepositoryBloomFilterImpl(backend, EXPECTED_TASK_COUNT);
+        for (int taskNumber = 0; taskNumber < 100; taskNumber++) {
+            repository.addNewTask(task(new UUID(0, taskNumber)));
+        }
+
+        // delete every other task, deleting the first one twice
+        for (int taskNumber = 0; taskNumber < 100; taskNumber += 2) {
+            repository.computeTaskById(new UUID(0, taskNumber), task -> task.withTaskDeleted(true));
+        }
+        assertNull(repository.computeTaskById(new UUID(0, 0), task -> task.withTaskDeleted(true)));
+
+        for (int taskNumber = 0; taskNumber < 100; taskNumber++) {
+            assertEquals(taskNumber % 2 == 1, repository.findTaskById(new UUID(0, taskNumber)) != null);
+        }
+        assertTrue(repository.getFilteredLookupCount() >= 45, "Deleted ids should mostly be filtered.");
+    }
+
+    /**
+     * tests that updates of an existing task do not add it's id again, so that a
+     * single deletion removes it from the filter
+     */
+    @Test
+    void updatesOfExistingTasksAreCountedOnce() {
+        TaskRepositoryBloomFilterImpl repository = new TaskRepositoryBloomFilterImpl(backend, EXPECTED_TASK_COUNT);
+        repository.updateTaskById(taskId(1), task(taskId(1), "Task 1"));
+        for (int update = 0; update < 3; update++) {
+            repository.updateTaskById(taskId(1), task(taskId(1), "Update " + update));
+        }
+        assertEquals("Update 2", repository.findTaskById(taskId(1)).getTaskTitle());
+
+        repository.updateTaskById(taskId(1), task(taskId(1), "Deleted").withTaskDeleted(true));
+
+        assertNull(repository.findTaskById(taskId(1)));
+        assertEquals(1, repository.getFilteredLookupCount(), "Deleted id should have been removed.");
+        assertEquals(0, repository.getFalsePositiveCount());
+    }
+
+    /**
+     * tests that the false positive rate of a filter holding the expected number
+     * of tasks stays around the rate it is sized for
+     */
+    @Test
+    void falsePositiveRateMatchesTheSizing() {
+        TaskRepositoryBloomFilterImpl repository = new TaskRepositoryBloomFilterImpl(backend, EXPECTED_TASK_COUNT);
+        for (int taskNumber = 0; taskNumber < EXPECTED_TASK_COUNT; taskNumber++) {
+            repository.addNewTask(task(UUID.randomUUID()));
+        }
+        for (int lookup = 0; lookup < 100_000; lookup++) {
+            assertNull(repository.findTaskById(UUID.randomUUID()));
+        }
+
+        assertEquals(100_000, repository.getFilteredLookupCount() + repository.getFalsePositiveCount());
+        assertTrue(repository.getFalsePositiveRate() < 0.02,
+                "False positive rate too high: " + repository.getFalsePositiveRate());
+    }
+
+    /**
+     * tests that the metrics of the filter are exported to the platform MBean
+     * server
+     */
+    @Test
+    void metricsAreExported() throws Exception {
+        TaskRepositoryBloomFilterImpl repository = new TaskRepositoryBloomFilterImpl(backend, EXPECTED_TASK_COUNT);
+        MetricsUtility.registerMetrics(TaskRepositoryBloomFilterImpl.METRICS_NAME, repository);
+        try {
+            assertNull(repository.findTaskById(taskId(404)));
+            assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(
+                    MetricsUtility.getMetricsObjectName(TaskRepositoryBloomFilterImpl.METRICS_NAME),
+                    "FilteredLookupCount"));
+        } finally {
+            MetricsUtility.unregisterMetrics(TaskRepositoryBloomFilterImpl.METRICS_NAME);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package repositories;
+
+import models.TaskModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utilities.MetricsUtility;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TaskRepositoryCachingTest extends TaskRepositoryTestBase {
+
+    private TaskRepositoryLocalMemoryImpl backend;
+    private TaskRepositoryCachingImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        backend = spy(new TaskRepositoryLocalMemoryImpl());
+        repository = new TaskRepositoryCachingImpl(backend, 2);
+    }
+
+    /**
+     * tests that repeated lookups are answered from the cache, while tasks which
+     * are not found are looked up in the backend every time
+     */
+    @Test
+    void lookupsAreCached() {
+        UUID taskId = new UUID(0, 1);
+        repository.addNewTask(task(taskId, "Task 1"));
+
+        assertEquals("Task 1", repository.findTaskById(taskId).getTaskTitle());
+        assertEquals("Task 1", repository.findTaskById(taskId).getTaskTitle());
+        assertNull(repository.findTaskById(new UUID(0, 404)));
+        assertNull(repository.findTaskById(new UUID(0, 404)));
+
+        verify(backend, times(1)).findTaskById(taskId);
+        verify(backend, times(2)).findTaskById(new UUID(0, 404));
+        assertEquals(1, repository.getHitCount());
+        assertEquals(3, repository.getMissCount());
+    }
+
+    /**
+     * tests that writes invalidate the cached task, so that the next lookup reads
+     * the written version
+     */
+    @Test
+    void writesInvalidateCachedTasks() {
+        UUID taskId = new UUID(0, 1);
+        repository.addNewTask(task(taskId, "Task 1"));
+        repository.findTaskById(taskId);
+
+        repository.updateTaskById(taskId, task(taskId, "Updated"));
+        assertEquals("Updated", repository.findTaskById(taskId).getTaskTitle());
+        repository.computeTaskById(taskId, task -> task.withTaskTitle("Computed"));
+        assertEquals("Computed", repository.findTaskById(taskId).getTaskTitle());
+        repository.deleteTaskById(taskId);
+        assertNull(repository.findTaskById(taskId));
+    }
+
+    /**
+     * tests that a write during the load of a task keeps the loaded version out of
+     * the cache
+     */
+    @Test
+    void loadRacingWithWriteIsNotCached() {
+        UUID taskId = new UUID(0, 1);
+        repository.addNewTask(task(taskId, "Task 1"));
+
+        // update the task after the backend has read it for the first lookup
+        doAnswer(invocation -> {
+            TaskModel loadedTask = (TaskModel) invocation.callRealMethod();
+            repository.updateTaskById(taskId, task(taskId, "Updated"));
+            return loadedTask;
+        }).doCallRealMethod().when(backend).findTaskById(taskId);
+
+        assertEquals("Task 1", repository.findTaskById(taskId).getTaskTitle());
+        assertEquals("Updated", repository.findTaskById(taskId).getTaskTitle());
+    }
+
+    /**
+     * tests that the least recently used task is evicted from the full cache
+     */
+    @Test
+    void leastRecentlyUsedTaskIsEvicted() {
+        for (int taskNumber = 1; taskNumber <= 3; taskNumber++) {
+            repository.addNewTask(task(new UUID(0, taskNumber), "Task " + taskNumber));
+        }
+        repository.findTaskById(new UUID(0, 1));
+        repository.findTaskById(new UUID(0, 2));
+        repository.findTaskById(new UUID(0, 1));
+
+        // caching the third task evicts the second one, which was used least recently
+        repository.findTaskById(new UUID(0, 3));
+        assertEquals(1, repository.getEvictionCount());
+        repository.findTaskById(new UUID(0, 1));
+        repository.findTaskById(new UUID(0, 2));
+
+        verify(backend, times(1)).findTaskById(new UUID(0, 1));
+        verify(backend, times(2)).findTaskById(new UUID(0, 2));
+        assertEquals(2, repository.getHitCount());
+    }
+
+    /**
+     * tests that the metrics of the cache are exported to the platform MBean
+     * server
+     */
+    @Test
+    void metricsAreExported() throws Exception {
+        MetricsUtility.registerMetrics(TaskRepositoryCachingImpl.METRICS_NAME, repository);
+        try {
+            repository.addNewTask(task(taskId(1), "Task 1"));
+            repository.findTaskById(taskId(1));
+            repository.findTaskById(taskId(1));
+            ObjectName metricsName = MetricsUtility.getMetricsObjectName(TaskRepositoryCachingImpl.METRICS_NAME);
+            assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(metricsName, "HitCount"));
+            assertEquals(0.5, ManagementFactory.getPlatformMBeanServer().getAttribute(metricsName, "HitRatio"));
+        } finally {
+            MetricsUtility.unregisterMetrics(TaskRepositoryCachingImpl.METRICS_NAME);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package repositories;
+
+import models.TaskModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compares filtering the tasks by their completion status in the columnar
+ * repository, which scans the bitsets, with the in-memory repository, which
+ * filters the listing of all tasks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskRepositoryColumnarBenchmark {
+
+    @Param({ "100000" })
+    int taskCount;
+
+    // share of the tasks which are completed, in percent
+    @Param({ "1", "50" })
+    int completedPercentage;
+
+    private TaskRepositoryColumnarImpl columnarRepository;
+    private TaskRepositoryLocalMemoryImpl memoryRepository;
+
+    @Setup
+    public void setUp() {
+        columnarRepository = new TaskRepositoryColumnarImpl();
+        memoryRepository = new TaskRepositoryLocalMemoryImpl();
+
+        // store the same random tasks in both repositories, deleting every tenth
+        Random random = new Random(42);
+        for (int taskIndex = 0; taskIndex < taskCount; taskIndex++) {
+            UUID taskId = new UUID(random.nextLong(), random.nextLong());
+            TaskModel task = new TaskModel(taskId, "Task " + taskIndex, "Description " + taskIndex, 0, 0,
+                    random.nextInt(100) < completedPercentage, false);
+            columnarRepository.addNewTask(task);
+            memoryRepository.addNewTask(task);
+            if (taskIndex % 10 == 0) {
+                columnarRepository.deleteTaskById(taskId);
+                memoryRepository.deleteTaskById(taskId);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        memoryRepository.close();
+    }
+
+    @Benchmark
+    public List<TaskModel> columnarCompletedTasks() {
+        return columnarRepository.findTasksByCompletionStatus(true);
+    }
+
+    @Benchmark
+    public List<TaskModel> memoryCompletedTasks() {
+        return memoryRepository.findTasksByCompletionStatus(true);
+    }
+}
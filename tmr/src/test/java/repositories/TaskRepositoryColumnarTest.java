@@ -0,0 +1,125 @@
+package repositories;
+
+import models.TaskModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskRepositoryColumnarTest extends TaskRepositoryTestBase {
+
+    private TaskRepositoryColumnarImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TaskRepositoryColumnarImpl();
+    }
+
+    /**
+     * tests that all attributes of a task survive being stored in the columns,
+     * including multi-byte characters and null texts
+     */
+    @Test
+    void storedTasksAreDecodedCompletely() {
+        UUID taskId = new UUID(-1, Long.MIN_VALUE);
+        repository.addNewTask(new TaskModel(taskId, "Tâche ✓", null, CREATED_ON, UPDATED_ON, true, false));
+
+        TaskModel storedTask = repository.findTaskById(taskId);
+
+        assertEquals(taskId, storedTask.getTaskId());
+        assertEquals("Tâche ✓", storedTask.getTaskTitle());
+        assertNull(storedTask.getTaskDescription());
+        assertEquals(CREATED_ON, storedTask.getTaskCreatedOn());
+        assertEquals(UPDATED_ON, storedTask.getTaskLastUpdatedOn());
+        assertTrue(storedTask.isTaskCompleted());
+        assertFalse(storedTask.isTaskDeleted());
+    }
+
+    /**
+     * tests updates, deletions and listings in the order of the task ids
+     */
+    @Test
+    void writesAreListedInIdOrder() {
+        for (UUID taskId : List.of(taskId(3), taskId(1), taskId(2))) {
+            repository.addNewTask(task(taskId, "Task " + taskId));
+        }
+        repository.updateTaskById(taskId(1), task(taskId(1), "Updated 1"));
+        assertTrue(repository.computeTaskById(taskId(2), task -> task.withTaskCompleted(true)).isTaskCompleted());
+        repository.deleteTaskById(taskId(3));
+
+        assertNull(repository.findTaskById(taskId(3)));
+        assertNull(repository.computeTaskById(taskId(3), task -> task), "Updating a deleted task should return null.");
+        assertNull(repository.computeTaskById(taskId(404), task -> task));
+        assertEquals("Updated 1", repository.findTaskById(taskId(1)).getTaskTitle());
+        assertEquals("Description " + taskId(2), repository.findTaskById(taskId(2)).getTaskDescription());
+        assertEquals(List.of(taskId(1), taskId(2)), taskIds(repository.findAllTasks()));
+        assertEquals(List.of(taskId(2)), taskIds(repository.findTasksAfter(taskId(1), 10)));
+
+        // a deleted task written again is listed again
+        repository.updateTaskById(taskId(3), task(taskId(3), "Task 3 again"));
+        assertEquals("Task 3 again", repository.findTaskById(taskId(3)).getTaskTitle());
+        assertEquals(List.of(taskId(1), taskId(2), taskId(3)), taskIds(repository.findAllTasks()));
+    }
+
+    /**
+     * tests that filtering by completion status skips deleted tasks, covers rows in
+     * several words of grown bitsets and agrees with filtering all tasks
+     */
+    @Test
+    void findTasksByCompletionStatus() {
+        // add tasks in reverse order, completing every third and deleting every fifth
+        for (int taskNumber = 1999; taskNumber >= 0; taskNumber--) {
+            repository.addNewTask(
+                    task(taskId(taskNumber), "Task " + taskNumber).withTaskCompleted(taskNumber % 3 == 0));
+        }
+        for (int taskNumber = 0; taskNumber < 2000; taskNumber += 5) {
+            repository.deleteTaskById(taskId(taskNumber));
+        }
+
+        List<TaskModel> completedTasks = repository.findTasksByCompletionStatus(true);
+        List<TaskModel> openTasks = repository.findTasksByCompletionStatus(false);
+
+        assertEquals(533, completedTasks.size());
+        assertEquals(1067, openTasks.size());
+        assertTrue(completedTasks.stream().allMatch(task -> task.isTaskCompleted() && !task.isTaskDeleted()));
+        assertEquals(taskId(3), completedTasks.getFirst().getTaskId());
+        assertEquals(taskId(1), openTasks.getFirst().getTaskId());
+
+        // the columnar scan returns the same tasks as filtering the listing of all
+        // tasks
+        assertEquals(taskIds(repository.findAllTasks().stream().filter(TaskModel::isTaskCompleted).toList()),
+                taskIds(completedTasks));
+        assertEquals(taskIds(repository.findAllTasks().stream().filter(task -> !task.isTaskCompleted()).toList()),
+                taskIds(openTasks));
+    }
+
+    /**
+     * tests that replaced texts are dropped from the arena once they make up half
+     * of it, while texts kept by an update are not appended again
+     */
+    @Test
+    void replacedTextsAreCompacted() {
+        repository = new TaskRepositoryColumnarImpl(16 * 1024, true);
+        repository.addNewTask(task(taskId(1), "Task 1"));
+        repository.addNewTask(task(taskId(2), "Task 2"));
+        long textArenaSize = repository.getTextArenaSize();
+
+        // updating the flags only keeps the texts in place
+        repository.computeTaskById(taskId(1), task -> task.withTaskCompleted(true));
+        assertEquals(textArenaSize, repository.getTextArenaSize());
+
+        // titles replaced far more often than the chunks of the arena can hold
+        String longTitle = "x".repeat(1000);
+        for (int update = 0; update < 1000; update++) {
+            repository.updateTaskById(taskId(1), task(taskId(1), longTitle + update));
+        }
+
+        assertTrue(repository.getTextArenaSize() < 2 * 16 * 1024, "Replaced titles should have been dropped.");
+        assertEquals(longTitle + 999, repository.findTaskById(taskId(1)).getTaskTitle());
+        assertEquals("Task 2", repository.findTaskById(taskId(2)).getTaskTitle());
+        assertEquals("Description " + taskId(2), repository.findTaskById(taskId(2)).getTaskDescription());
+    }
+}
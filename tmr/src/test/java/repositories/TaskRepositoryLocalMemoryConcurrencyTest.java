@@ -0,0 +1,227 @@
+package repositories;
+
+import models.TaskModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskRepositoryLocalMemoryConcurrencyTest {
+
+    // timestamps of the test tasks
+    private static final long CREATED_ON = 1_696_896_000_000L;
+    private static final long UPDATED_ON = 1_696_982_400_000L;
+
+    private static final int THREAD_COUNT = 64;
+    private static final int TASKS_PER_THREAD = 500;
+
+    private ITaskRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TaskRepositoryLocalMemoryImpl();
+    }
+
+    /**
+     * runs the given action on all worker threads at the same time and waits
+     * until every worker has finished
+     *
+     * @param action - action to run, receives the index of the worker thread
+     */
+    private void runConcurrently(WorkerAction action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            // submit the workers, which all block on the start gate
+            for (int thread = 0; thread < THREAD_COUNT; thread++) {
+                int threadIndex = thread;
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    action.run(threadIndex);
+                    return null;
+                }));
+            }
+
+            // release all workers at once and propagate any failure
+            startGate.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * builds the id of a task owned by a worker thread
+     */
+    private static UUID taskId(int threadIndex, int taskIndex) {
+        return new UUID(threadIndex, taskIndex);
+    }
+
+    /**
+     * adds all tasks of all worker threads concurrently
+     */
+    private void addAllTasksConcurrently() throws Exception {
+        runConcurrently(threadIndex -> {
+            for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                repository.addNewTask(new TaskModel(taskId(threadIndex, taskIndex), "Task " + taskIndex,
+                        "Description " + taskIndex, CREATED_ON, CREATED_ON, false, false));
+            }
+        });
+    }
+
+    /**
+     * tests that no task is lost when many threads add tasks at the same time
+     */
+    @Test
+    void addNewTaskFromManyThreads() throws Exception {
+        addAllTasksConcurrently();
+
+        // every added task must be present
+        assertEquals(THREAD_COUNT * TASKS_PER_THREAD, repository.findAllTasks().size(),
+                "All concurrently added tasks should be stored.");
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                assertNotNull(repository.findTaskById(taskId(thread, taskIndex)));
+            }
+        }
+    }
+
+    /**
+     * tests that no update is lost when many threads update tasks at the same time
+     */
+    @Test
+    void updateTaskByIdFromManyThreads() throws Exception {
+        addAllTasksConcurrently();
+
+        // every thread updates its own tasks while the other threads do the same
+        runConcurrently(threadIndex -> {
+            for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                UUID taskId = taskId(threadIndex, taskIndex);
+                repository.updateTaskById(taskId, new TaskModel(taskId, "Updated " + taskIndex,
+                        "Description " + taskIndex, CREATED_ON, UPDATED_ON, false, false));
+            }
+        });
+
+        // every update must be visible
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                assertEquals("Updated " + taskIndex, repository.findTaskById(taskId(thread, taskIndex)).getTaskTitle());
+            }
+        }
+    }
+
+    /**
+     * tests that no deletion is lost when many threads delete tasks at the same
+     * time as other threads read them
+     */
+    @Test
+    void deleteTaskByIdFromManyThreads() throws Exception {
+        addAllTasksConcurrently();
+
+        // even threads delete every second task of their own and of the next odd
+        // thread, while the odd threads keep reading their own tasks
+        runConcurrently(threadIndex -> {
+            for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                if (threadIndex % 2 == 0 && taskIndex % 2 == 0) {
+                    repository.deleteTaskById(taskId(threadIndex, taskIndex));
+                    repository.deleteTaskById(taskId(threadIndex + 1, taskIndex));
+                } else if (threadIndex % 2 == 1) {
+                    repository.findTaskById(taskId(threadIndex, taskIndex));
+                }
+            }
+        });
+
+        // exactly half of the tasks must remain
+        assertEquals(THREAD_COUNT * TASKS_PER_THREAD / 2, repository.findAllTasks().size(),
+                "Every concurrently deleted task should be excluded.");
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                if (taskIndex % 2 == 0) {
+                    assertNull(repository.findTaskById(taskId(thread, taskIndex)));
+                } else {
+                    assertNotNull(repository.findTaskById(taskId(thread, taskIndex)));
+                }
+            }
+        }
+    }
+
+    /**
+     * tests that concurrent atomic updates of the same task are applied one after
+     * the other, so that no update is lost
+     */
+    @Test
+    void computeTaskByIdFromManyThreads() throws Exception {
+        // add a single task which stores a counter in it's description
+        UUID taskId = UUID.randomUUID();
+        repository.addNewTask(new TaskModel(taskId, "Counter", "0", CREATED_ON, CREATED_ON, false, false));
+
+        // every thread increments the counter of the same task
+        runConcurrently(threadIndex -> {
+            for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                repository.computeTaskById(taskId, task -> new TaskModel(task.getTaskId(), task.getTaskTitle(),
+                        String.valueOf(Integer.parseInt(task.getTaskDescription()) + 1), task.getTaskCreatedOn(),
+                        task.getTaskLastUpdatedOn(), task.isTaskCompleted(), task.isTaskDeleted()));
+            }
+        });
+
+        // every increment must be visible
+        assertEquals(String.valueOf(THREAD_COUNT * TASKS_PER_THREAD),
+                repository.findTaskById(taskId).getTaskDescription(), "No concurrent update should be lost.");
+    }
+
+    /**
+     * lists all tasks from many threads while a writer updates a pair of tasks one
+     * after the other, every listing having to show both tasks in the same round
+     * of updates or the first one a round ahead, as it reads a single snapshot
+     */
+    @Test
+    void listingsReadConsistentSnapshots() throws Exception {
+        UUID firstTaskId = taskId(0, 0);
+        UUID secondTaskId = taskId(0, 1);
+        for (UUID taskId : List.of(firstTaskId, secondTaskId)) {
+            repository.addNewTask(new TaskModel(taskId, "0", "Description", CREATED_ON, CREATED_ON, false, false));
+        }
+
+        runConcurrently(threadIndex -> {
+            if (threadIndex == 0) {
+                // update the first and then the second task in every round
+                for (int round = 1; round <= TASKS_PER_THREAD * 10; round++) {
+                    String roundTitle = String.valueOf(round);
+                    repository.computeTaskById(firstTaskId, task -> task.withTaskTitle(roundTitle));
+                    repository.computeTaskById(secondTaskId, task -> task.withTaskTitle(roundTitle));
+                }
+            } else {
+                for (int listing = 0; listing < TASKS_PER_THREAD; listing++) {
+                    List<TaskModel> tasks = repository.findAllTasks();
+                    int firstRound = Integer.parseInt(tasks.get(0).getTaskTitle());
+                    int secondRound = Integer.parseInt(tasks.get(1).getTaskTitle());
+                    assertTrue(firstRound == secondRound || firstRound == secondRound + 1,
+                            "Inconsistent listing: " + firstRound + " and " + secondRound);
+                }
+            }
+        });
+
+        assertFalse(((TaskRepositoryLocalMemoryImpl) repository).hasKeptVersions());
+    }
+
+    /**
+     * action to be run by every worker thread
+     */
+    @FunctionalInterface
+    private interface WorkerAction {
+        void run(int threadIndex) throws Exception;
+    }
+}
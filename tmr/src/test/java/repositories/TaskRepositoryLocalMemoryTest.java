@@ -4,11 +4,14 @@ import models.TaskModel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-class TaskRepositoryLocalMemoryTest {
+class TaskRepositoryLocalMemoryTest extends TaskRepositoryTestBase {
 
     private ITaskRepository repository;
 
@@ -22,9 +25,9 @@ class TaskRepositoryLocalMemoryTest {
      */
     @Test
     void addAndGetById() {
-        String taskId = "1";
-        TaskModel task = new TaskModel(taskId, "Task 1", "Description 1", "10-10-2023",
-                "10-10-2023", false, false);
+        UUID taskId = taskId(1);
+        TaskModel task = new TaskModel(taskId, "Task 1", "Description 1", CREATED_ON,
+                CREATED_ON, false, false);
 
         // adding the task to the repository
         repository.addNewTask(task);
@@ -43,10 +46,10 @@ class TaskRepositoryLocalMemoryTest {
     @Test
     void addTasksAndRetrieveAll() {
         // creating and adding multiple tasks to the repository
-        TaskModel task1 = new TaskModel("1", "Task One", "Description One",
-                "10-10-2023", "10-10-2023", false, false);
-        TaskModel task2 = new TaskModel("2", "Task Two", "Description Two",
-                "11-10-2023", "11-10-2023", false, false);
+        TaskModel task1 = new TaskModel(taskId(1), "Task One", "Description One",
+                CREATED_ON, CREATED_ON, false, false);
+        TaskModel task2 = new TaskModel(taskId(2), "Task Two", "Description Two",
+                UPDATED_ON, UPDATED_ON, false, false);
         repository.addNewTask(task1);
         repository.addNewTask(task2);
 
@@ -62,8 +65,8 @@ class TaskRepositoryLocalMemoryTest {
     @Test
     void deleteAndCheckAll() {
         // adding a task to the repository
-        String taskId = "1";
-        TaskModel task = new TaskModel(taskId, "Task 1", "Description 1", "10-10-2023", "10-10-2023", false, false);
+        UUID taskId = taskId(1);
+        TaskModel task = new TaskModel(taskId, "Task 1", "Description 1", CREATED_ON, CREATED_ON, false, false);
         repository.addNewTask(task);
 
         // retrieving all tasks after deletion
@@ -81,12 +84,12 @@ class TaskRepositoryLocalMemoryTest {
     @Test
     void findTaskByIdNullIfNotPresent() {
         // attempt to retrieve a non-existent task should return null
-        String nonExistentTaskId = "non-existent";
+        UUID nonExistentTaskId = taskId(404);
         assertNull(repository.findTaskById(nonExistentTaskId), "Retrieving a non-existent task should return null.");
 
         // add a task and then mark it as deleted
-        String taskId = "1";
-        TaskModel task = new TaskModel(taskId, "Task 1", "Description 1", "10-10-2023", "10-10-2023", false, false);
+        UUID taskId = taskId(1);
+        TaskModel task = new TaskModel(taskId, "Task 1", "Description 1", CREATED_ON, CREATED_ON, false, false);
         repository.addNewTask(task);
         repository.deleteTaskById(taskId);
 
@@ -94,4 +97,162 @@ class TaskRepositoryLocalMemoryTest {
         TaskModel deletedTask = repository.findTaskById(taskId);
         assertNull(deletedTask, "Retrieving a deleted task should return null.");
     }
-}
\ No newline at end of file
+
+    /**
+     * tests that computeTaskById stores and returns the updated task and skips
+     * non-existent and deleted tasks
+     */
+    @Test
+    void computeTaskById() {
+        // updating a non-existent task should return null without calling the function
+        assertNull(repository.computeTaskById(taskId(404), task -> {
+            fail("The update function should not be called for a non-existent task.");
+            return task;
+        }));
+
+        // add a task and update it's title
+        UUID taskId = taskId(1);
+        repository.addNewTask(new TaskModel(taskId, "Task 1", "Description 1", CREATED_ON, CREATED_ON, false, false));
+        TaskModel updatedTask = repository.computeTaskById(taskId, task -> new TaskModel(task.getTaskId(),
+                "Updated Task 1", task.getTaskDescription(), task.getTaskCreatedOn(), task.getTaskLastUpdatedOn(),
+                task.isTaskCompleted(), task.isTaskDeleted()));
+
+        // the updated task should be returned and stored
+        assertEquals("Updated Task 1", updatedTask.getTaskTitle());
+        assertEquals("Updated Task 1", repository.findTaskById(taskId).getTaskTitle());
+
+        // updating a deleted task should return null
+        repository.deleteTaskById(taskId);
+        assertNull(repository.computeTaskById(taskId, task -> task), "Updating a deleted task should return null.");
+    }
+
+    /**
+     * tests that findTasksAfter returns pages of tasks ordered by their id and
+     * skips deleted tasks
+     */
+    @Test
+    void findTasksAfterInIdOrder() {
+        // add tasks in an order different to the order of their ids
+        for (UUID taskId : List.of(taskId(3), taskId(1), taskId(5), taskId(2), taskId(4))) {
+            repository.addNewTask(new TaskModel(taskId, "Task " + taskId, "Description " + taskId, CREATED_ON,
+                    CREATED_ON, false, false));
+        }
+        repository.deleteTaskById(taskId(2));
+
+        // the first page should start with the smallest id
+        List<TaskModel> firstPage = repository.findTasksAfter(null, 2);
+        assertEquals(List.of(taskId(1), taskId(3)), firstPage.stream().map(TaskModel::getTaskId).toList());
+
+        // the next page should start after the last id of the previous page
+        List<TaskModel> secondPage = repository.findTasksAfter(taskId(3), 2);
+        assertEquals(List.of(taskId(4), taskId(5)), secondPage.stream().map(TaskModel::getTaskId).toList());
+
+        // a page after the last id should be empty
+        assertTrue(repository.findTasksAfter(taskId(5), 2).isEmpty());
+
+        // all tasks should be listed in the same order
+        assertEquals(List.of(taskId(1), taskId(3), taskId(4), taskId(5)),
+                repository.findAllTasks().stream().map(TaskModel::getTaskId).toList());
+    }
+
+    /**
+     * tests that the reaper removes tombstones older than the retention period,
+     * respects it's budget and keeps tasks which have been written again
+     */
+    @Test
+    void reapTombstones() {
+        // repository reaping all tombstones, examining at most 2 of them per run
+        TaskRepositoryLocalMemoryImpl reapingRepository = new TaskRepositoryLocalMemoryImpl(0, 2, 0);
+        for (UUID taskId : List.of(taskId(1), taskId(2), taskId(3), taskId(4))) {
+            reapingRepository.addNewTask(new TaskModel(taskId, "Task " + taskId, "Description " + taskId,
+                    CREATED_ON, CREATED_ON, false, false));
+        }
+        reapingRepository.deleteTaskById(taskId(1));
+        reapingRepository.deleteTaskById(taskId(2));
+        reapingRepository.deleteTaskById(taskId(3));
+        assertEquals(1, reapingRepository.countLiveTasks());
+        assertEquals(3, reapingRepository.countDeletedTasks());
+
+        // the first run reaches the budget after 2 tombstones
+        assertEquals(2, reapingRepository.reapTombstones());
+        assertNull(reapingRepository.findStoredTaskById(taskId(1)));
+        assertNull(reapingRepository.findStoredTaskById(taskId(2)));
+        assertNotNull(reapingRepository.findStoredTaskById(taskId(3)));
+
+        // a task written again after it's deletion is not reaped
+        reapingRepository.updateTaskById(taskId(3), new TaskModel(taskId(3), "Task 3", "Description 3", CREATED_ON,
+                CREATED_ON, false, false));
+        assertEquals(0, reapingRepository.reapTombstones());
+        assertEquals(List.of(taskId(3), taskId(4)), reapingRepository.findAllTasks().stream().map(TaskModel::getTaskId).toList());
+        assertEquals(2, reapingRepository.countLiveTasks());
+        assertEquals(0, reapingRepository.countDeletedTasks());
+
+        // tombstones within the retention period are kept
+        TaskRepositoryLocalMemoryImpl retainingRepository = new TaskRepositoryLocalMemoryImpl(3600, 2, 0);
+        retainingRepository.addNewTask(new TaskModel(taskId(1), "Task 1", "Description 1", CREATED_ON, CREATED_ON,
+                false, false));
+        retainingRepository.deleteTaskById(taskId(1));
+        assertEquals(0, retainingRepository.reapTombstones());
+        assertEquals(1, retainingRepository.countDeletedTasks());
+    }
+
+    /**
+     * tests that a stream reads the tasks as they were when it was created while
+     * they are written, and that the kept versions are dropped once it is closed
+     */
+    @Test
+    void streamsReadASnapshot() {
+        TaskRepositoryLocalMemoryImpl snapshotRepository = new TaskRepositoryLocalMemoryImpl();
+        for (UUID taskId : List.of(taskId(1), taskId(2), taskId(3))) {
+            snapshotRepository.addNewTask(new TaskModel(taskId, "Task " + taskId, "Description " + taskId,
+                    CREATED_ON, CREATED_ON, false, false));
+        }
+
+        try (Stream<TaskModel> snapshotTasks = snapshotRepository.streamAllTasks()) {
+            Iterator<TaskModel> snapshotIterator = snapshotTasks.iterator();
+            assertEquals(taskId(1), snapshotIterator.next().getTaskId());
+
+            // write the tasks while the stream is read
+            snapshotRepository.computeTaskById(taskId(2), task -> task.withTaskTitle("Updated"));
+            snapshotRepository.computeTaskById(taskId(2), task -> task.withTaskTitle("Updated again"));
+            snapshotRepository.deleteTaskById(taskId(3));
+            snapshotRepository.addNewTask(new TaskModel(taskId(4), "Task 4", "Description 4", CREATED_ON,
+                    CREATED_ON, false, false));
+            assertEquals(List.of(taskId(1), taskId(2), taskId(4)),
+                    snapshotRepository.findAllTasks().stream().map(TaskModel::getTaskId).toList());
+            assertEquals("Updated again", snapshotRepository.findTaskById(taskId(2)).getTaskTitle());
+
+            // the stream still reads the tasks as they were
+            assertEquals("Task " + taskId(2), snapshotIterator.next().getTaskTitle());
+            assertEquals(taskId(3), snapshotIterator.next().getTaskId());
+            assertFalse(snapshotIterator.hasNext());
+            assertTrue(snapshotRepository.hasKeptVersions());
+        }
+
+        // the versions are dropped and the deleted task leaves the index
+        assertFalse(snapshotRepository.hasKeptVersions());
+        assertFalse(snapshotRepository.liveTaskIds.contains(taskId(3)));
+        assertEquals("Updated again", snapshotRepository.findStoredTaskById(taskId(2)).getTaskTitle());
+        assertEquals(3, snapshotRepository.countLiveTasks());
+        assertEquals(1, snapshotRepository.countDeletedTasks());
+    }
+
+    /**
+     * tests that tasks are listed in the order of the string form of their ids,
+     * also for ids which are negative as signed numbers
+     */
+    @Test
+    void tasksAreListedInOrderOfTheirIdStrings() {
+        List<UUID> taskIds = List.of(UUID.fromString("ffffffff-0000-4000-8000-000000000000"),
+                UUID.fromString("00000000-0000-4000-8000-000000000000"),
+                UUID.fromString("80000000-0000-4000-8000-000000000000"),
+                UUID.fromString("7fffffff-0000-4000-ffff-000000000000"),
+                UUID.fromString("7fffffff-0000-4000-0fff-000000000000"));
+        for (UUID taskId : taskIds) {
+            repository.addNewTask(new TaskModel(taskId, "Task", "Description", CREATED_ON, CREATED_ON, false, false));
+        }
+
+        assertEquals(taskIds.stream().map(UUID::toString).sorted().toList(),
+                repository.findAllTasks().stream().map(task -> task.getTaskId().toString()).toList());
+    }
+}
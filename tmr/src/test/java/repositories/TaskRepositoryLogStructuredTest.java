@@ -0,0 +1,226 @@
+package repositories;
+
+import models.TaskModel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskRepositoryLogStructuredTest extends TaskRepositoryPersistentTestBase<TaskRepositoryLogStructuredImpl> {
+
+    // high enough that the tests decide when memtables are flushed
+    private static final int MEMTABLE_LIMIT = 1_000_000;
+
+    @Override
+    protected TaskRepositoryLogStructuredImpl openRepository() {
+        return new TaskRepositoryLogStructuredImpl(dataDirectory, MEMTABLE_LIMIT);
+    }
+
+    /**
+     * lists the ids of all tasks of the repository
+     */
+    private List<UUID> allTaskIds() {
+        return taskIds(repository.findAllTasks());
+    }
+
+    /**
+     * lists the names of the table files in the data directory
+     */
+    private List<String> tableFileNames() throws Exception {
+        return tableFileNames("sstable-");
+    }
+
+    /**
+     * lists the names of the files in the data directory starting with the prefix
+     */
+    private List<String> tableFileNames(String prefix) throws Exception {
+        try (Stream<Path> files = Files.list(dataDirectory)) {
+            return files.map(file -> file.getFileName().toString()).filter(name -> name.startsWith(prefix))
+                    .sorted().toList();
+        }
+    }
+
+    /**
+     * tests that writes kept only in the memtable and the log survive a restart
+     */
+    @Test
+    void writesSurviveReopen() {
+        repository.addNewTask(task(taskId(3), "Task 3"));
+        repository.addNewTask(task(taskId(1), "Task 1"));
+        repository.addNewTask(task(taskId(2), "Task 2"));
+        repository.updateTaskById(taskId(1), task(taskId(1), "Updated 1"));
+        repository.computeTaskById(taskId(2), task -> task.withTaskCompleted(true));
+        repository.deleteTaskById(taskId(3));
+        assertNull(repository.computeTaskById(taskId(3), task -> task.withTaskTitle("Deleted")));
+
+        reopenRepository();
+
+        assertEquals("Updated 1", repository.findTaskById(taskId(1)).getTaskTitle());
+        assertTrue(repository.findTaskById(taskId(2)).isTaskCompleted());
+        assertNull(repository.findTaskById(taskId(3)), "Deleted task should stay deleted after a restart.");
+        assertEquals(List.of(taskId(1), taskId(2)), allTaskIds());
+    }
+
+    /**
+     * tests that a flush moves the memtable into a table file, that newer
+     * versions and deletions in later memtables shadow the versions in older
+     * tables, and that the log segments covered by the tables are deleted
+     */
+    @Test
+    void flushedTablesAreShadowedByNewerWrites() throws Exception {
+        repository.addNewTask(task(taskId(1), "Task 1"));
+        repository.addNewTask(task(taskId(2), "Task 2"));
+        repository.addNewTask(task(taskId(3), "Task 3"));
+        repository.flushMemtables();
+        assertEquals(1, repository.getSortedTableCount());
+        assertFalse(Files.exists(TaskWriteAheadLog.getSegmentFile(dataDirectory, 0)),
+                "Log segment covered by the table should be deleted.");
+
+        repository.updateTaskById(taskId(1), task(taskId(1), "Updated 1"));
+        repository.deleteTaskById(taskId(2));
+        repository.flushMemtables();
+        repository.addNewTask(task(taskId(0), "Task 0"));
+        repository.computeTaskById(taskId(3), task -> task.withTaskCompleted(true));
+
+        assertEquals(2, repository.getSortedTableCount());
+        assertEquals("Updated 1", repository.findTaskById(taskId(1)).getTaskTitle());
+        assertNull(repository.findTaskById(taskId(2)));
+        assertTrue(repository.findTaskById(taskId(3)).isTaskCompleted());
+        assertEquals(List.of(taskId(0), taskId(1), taskId(3)), allTaskIds());
+
+        reopenRepository();
+
+        assertEquals(2, repository.getSortedTableCount());
+        assertEquals("Updated 1", repository.findTaskById(taskId(1)).getTaskTitle());
+        assertNull(repository.findTaskById(taskId(2)));
+        assertEquals(List.of(taskId(0), taskId(1), taskId(3)), allTaskIds());
+    }
+
+    /**
+     * tests that pages continue after their cursor across memtables and tables
+     */
+    @Test
+    void pagesMergeMemtablesAndTables() {
+        for (int taskIndex = 0; taskIndex < 100; taskIndex++) {
+            repository.addNewTask(task(taskId(taskIndex), "Task " + taskIndex));
+            if (taskIndex % 30 == 29) {
+                repository.flushMemtables();
+            }
+        }
+        repository.deleteTaskById(taskId(41));
+
+        List<UUID> pageTaskIds = repository.findTasksAfter(taskId(39), 3).stream().map(TaskModel::getTaskId)
+                .toList();
+
+        assertEquals(List.of(taskId(40), taskId(42), taskId(43)), pageTaskIds);
+        assertEquals(99, allTaskIds().size());
+    }
+
+    /**
+     * tests that similarly sized tables are merged into one, dropping deleted
+     * tasks once no older table is left, and that the merged tables are deleted
+     */
+    @Test
+    void compactionMergesTablesAndDropsDeletedTasks() throws Exception {
+        for (int table = 0; table < TaskRepositoryLogStructuredImpl.COMPACTION_THRESHOLD; table++) {
+            repository.addNewTask(task(taskId(table + 1), "Task " + table));
+            repository.updateTaskById(taskId(0), task(taskId(0), "Version " + table));
+            if (table == 1) {
+                repository.deleteTaskById(taskId(1));
+            }
+            repository.flushMemtables();
+        }
+
+        assertEquals(1, repository.getSortedTableCount());
+        assertEquals(1, tableFileNames().size(), "Merged tables should be deleted.");
+        assertEquals("Version 3", repository.findTaskById(taskId(0)).getTaskTitle());
+        assertNull(repository.findTaskById(taskId(1)));
+        assertEquals(List.of(taskId(0), taskId(2), taskId(3), taskId(4)), allTaskIds());
+
+        reopenRepository();
+
+        assertEquals(List.of(taskId(0), taskId(2), taskId(3), taskId(4)), allTaskIds());
+        assertEquals("Version 3", repository.findTaskById(taskId(0)).getTaskTitle());
+    }
+
+    /**
+     * tests that the files of retired tables are deleted from the oldest to the
+     * newest, so that a newer table read by a stream outlives the older ones while
+     * an older table read by a stream keeps the newer ones
+     */
+    @Test
+    void retiredTablesAreDeletedFromTheOldest() throws Exception {
+        List<TaskSortedTable> tables = new ArrayList<>();
+        for (int table = 0; table < 3; table++) {
+            tables.add(0, TaskSortedTable.write(dataDirectory.resolve("retired-" + table + ".dat"), table,
+                    List.of(task(taskId(table), "Task " + table)).iterator()));
+        }
+
+        // a reader of the oldest table keeps all files
+        assertTrue(tables.get(2).tryAcquire());
+        assertTrue(tables.get(0).tryAcquire());
+        TaskSortedTable.retire(tables);
+        assertEquals(3, tableFileNames("retired-").size());
+
+        // a reader of the newest table only keeps it's own file
+        tables.get(2).release();
+        assertEquals(List.of("retired-2.dat"), tableFileNames("retired-"));
+
+        tables.get(0).release();
+        assertEquals(List.of(), tableFileNames("retired-"));
+    }
+
+    /**
+     * tests that a full memtable is flushed in the background while many threads
+     * keep writing, and that no write is lost
+     */
+    @Test
+    void concurrentWritesWithBackgroundFlushes() throws Exception {
+        repository.close();
+        repository = new TaskRepositoryLogStructuredImpl(dataDirectory, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < THREAD_COUNT; thread++) {
+                int threadIndex = thread;
+
+                // every writer adds and updates tasks of it's own
+                futures.add(executor.submit(() -> {
+                    for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                        UUID taskId = new UUID(threadIndex, taskIndex);
+                        repository.addNewTask(task(taskId, "Task " + taskIndex));
+                        repository.computeTaskById(taskId, task -> task.withTaskTitle("Updated " + taskId));
+                        assertEquals("Updated " + taskId, repository.findTaskById(taskId).getTaskTitle());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        repository.close();
+        repository = new TaskRepositoryLogStructuredImpl(dataDirectory, 100);
+
+        assertTrue(repository.getSortedTableCount() > 0, "Full memtables should have been flushed.");
+        assertEquals(THREAD_COUNT * TASKS_PER_THREAD, allTaskIds().size());
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                UUID taskId = new UUID(thread, taskIndex);
+                assertEquals("Updated " + taskId, repository.findTaskById(taskId).getTaskTitle());
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package repositories;
+
+import models.TaskModel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskRepositoryMemoryMappedTest extends TaskRepositoryPersistentTestBase<TaskRepositoryMemoryMappedImpl> {
+
+    private static final int REGION_SIZE = 4096;
+
+    @Override
+    protected TaskRepositoryMemoryMappedImpl openRepository() {
+        return new TaskRepositoryMemoryMappedImpl(dataDirectory, REGION_SIZE);
+    }
+
+    /**
+     * tests that all fields of a task are read back as they were written,
+     * including null and non-ASCII strings
+     */
+    @Test
+    void addAndGetById() {
+        TaskModel task = new TaskModel(taskId(1), "Tâche ✓", null, CREATED_ON, UPDATED_ON, true, false);
+        repository.addNewTask(task);
+
+        TaskModel retrievedTask = repository.findTaskById(taskId(1));
+
+        assertEquals(taskId(1), retrievedTask.getTaskId());
+        assertEquals("Tâche ✓", retrievedTask.getTaskTitle());
+        assertNull(retrievedTask.getTaskDescription());
+        assertEquals(CREATED_ON, retrievedTask.getTaskCreatedOn());
+        assertEquals(UPDATED_ON, retrievedTask.getTaskLastUpdatedOn());
+        assertTrue(retrievedTask.isTaskCompleted());
+        assertFalse(retrievedTask.isTaskDeleted());
+        assertNull(repository.findTaskById(taskId(2)));
+    }
+
+    /**
+     * tests that updates, atomic updates and deletions are visible and survive a
+     * restart, and that listings skip deleted tasks in id order
+     */
+    @Test
+    void writesSurviveReopen() {
+        repository.addNewTask(task(taskId(3), "Task 3"));
+        repository.addNewTask(task(taskId(1), "Task 1"));
+        repository.addNewTask(task(taskId(2), "Task 2"));
+        repository.updateTaskById(taskId(1), task(taskId(1), "Updated 1"));
+        repository.computeTaskById(taskId(2), task -> task.withTaskCompleted(true));
+        repository.deleteTaskById(taskId(3));
+        assertNull(repository.computeTaskById(taskId(3), task -> task.withTaskTitle("Deleted")));
+
+        reopenRepository();
+
+        assertEquals("Updated 1", repository.findTaskById(taskId(1)).getTaskTitle());
+        assertTrue(repository.findTaskById(taskId(2)).isTaskCompleted());
+        assertNull(repository.findTaskById(taskId(3)), "Deleted task should stay deleted after a restart.");
+        assertEquals(List.of(taskId(1), taskId(2)), taskIds(repository.findAllTasks()));
+        assertEquals(List.of(taskId(2)), taskIds(repository.findTasksAfter(taskId(1), 10)));
+    }
+
+    /**
+     * tests that records are spread over new regions once a region is full, and
+     * that a record larger than a region gets a region of it's own
+     */
+    @Test
+    void recordsSpanMultipleRegions() {
+        for (int taskIndex = 0; taskIndex < 100; taskIndex++) {
+            repository.addNewTask(task(taskId(taskIndex), "Task " + taskIndex));
+        }
+        String largeDescription = "x".repeat(REGION_SIZE * 2);
+        repository.addNewTask(new TaskModel(taskId(100), "Large", largeDescription, CREATED_ON, CREATED_ON, false,
+                false));
+        assertTrue(repository.getRegionCount() > 2);
+
+        reopenRepository();
+
+        assertEquals(101, repository.findAllTasks().size());
+        assertEquals(largeDescription, repository.findTaskById(taskId(100)).getTaskDescription());
+        assertEquals("Task 42", repository.findTaskById(taskId(42)).getTaskTitle());
+    }
+
+    /**
+     * tests that regions whose records have mostly been superseded are compacted,
+     * keeping the newest versions and deletions of their tasks across a restart
+     */
+    @Test
+    void supersededRecordsAreCompacted() throws Exception {
+        for (int taskIndex = 0; taskIndex < 5; taskIndex++) {
+            repository.addNewTask(task(taskId(taskIndex), "Task " + taskIndex));
+        }
+        repository.deleteTaskById(taskId(4));
+        for (int update = 0; update < 1000; update++) {
+            repository.updateTaskById(taskId(update % 4), task(taskId(update % 4), "Update " + update));
+        }
+        assertTrue(repository.getRegionCount() <= 3, "Superseded regions should have been compacted.");
+        try (Stream<Path> files = Files.list(dataDirectory)) {
+            assertEquals(repository.getRegionCount(), files.count(), "Compacted region files should be deleted.");
+        }
+
+        reopenRepository();
+
+        for (int taskIndex = 0; taskIndex < 4; taskIndex++) {
+            assertEquals("Update " + (996 + taskIndex), repository.findTaskById(taskId(taskIndex)).getTaskTitle());
+        }
+        assertNull(repository.findTaskById(taskId(4)), "Deleted task should stay deleted after a compaction.");
+        assertEquals(4, repository.findAllTasks().size());
+    }
+
+    /**
+     * tests that the records of a batch are written back together once the whole
+     * batch has been applied
+     */
+    @Test
+    void writesOfABatchAreForcedTogether() {
+        int forceCount = repository.getForceCount();
+        repository.applyWriteBatch(() -> {
+            repository.addNewTask(task(taskId(1), "Task 1"));
+            repository.addNewTask(task(taskId(2), "Task 2"));
+            repository.computeTaskById(taskId(1), task -> task.withTaskTitle("Updated 1"));
+            assertEquals("Updated 1", repository.findTaskById(taskId(1)).getTaskTitle());
+            assertEquals(forceCount, repository.getForceCount(), "Records should not be written back yet.");
+        });
+        assertEquals(forceCount + 1, repository.getForceCount());
+
+        reopenRepository();
+
+        assertEquals("Updated 1", repository.findTaskById(taskId(1)).getTaskTitle());
+        assertNotNull(repository.findTaskById(taskId(2)));
+    }
+
+    /**
+     * tests that a torn record at the end of the last region is ignored and
+     * cleared, so that it can not reappear behind new records
+     */
+    @Test
+    void tornRecordIsIgnoredAndCleared() throws Exception {
+        repository.addNewTask(task(taskId(1), "Task 1"));
+        repository.addNewTask(task(taskId(2), "Task 2"));
+        repository.close();
+
+        // corrupt the last byte of the second record, as a crash while it was written
+        // back would do
+        Path regionFile = dataDirectory.resolve(TaskDataFiles.getFileName("mapped-", 0, ".dat"));
+        try (FileChannel regionChannel = FileChannel.open(regionFile, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer region = regionChannel.map(FileChannel.MapMode.READ_WRITE, 0, regionChannel.size());
+            int lastByte = 0;
+            for (int position = 0; position < region.capacity(); position++) {
+                if (region.get(position) != 0) {
+                    lastByte = position;
+                }
+            }
+            region.put(lastByte, (byte) (region.get(lastByte) ^ 0x7F));
+            region.force();
+        }
+
+        repository = openRepository();
+        assertNotNull(repository.findTaskById(taskId(1)));
+        assertNull(repository.findTaskById(taskId(2)), "Torn record should not be indexed.");
+
+        // a short record written in place of the torn one must not revive it
+        repository.addNewTask(new TaskModel(taskId(3), "3", "", 0, 0, false, false));
+        reopenRepository();
+        assertNotNull(repository.findTaskById(taskId(3)));
+        assertNull(repository.findTaskById(taskId(2)));
+    }
+
+    /**
+     * tests that readers always see complete tasks while many threads write
+     */
+    @Test
+    void concurrentWritesAndReads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < THREAD_COUNT; thread++) {
+                int threadIndex = thread;
+
+                // every writer adds and updates tasks of it's own
+                futures.add(executor.submit(() -> {
+                    for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                        UUID taskId = new UUID(threadIndex, taskIndex);
+                        repository.addNewTask(task(taskId, "Task " + taskIndex));
+                        repository.computeTaskById(taskId, task -> task.withTaskTitle("Updated " + taskId));
+                    }
+                }));
+
+                // every reader keeps reading the tasks of one writer
+                futures.add(executor.submit(() -> {
+                    for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                        TaskModel task = repository.findTaskById(new UUID(threadIndex, taskIndex));
+                        if (task != null) {
+                            assertEquals("Description " + task.getTaskId(), task.getTaskDescription());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        reopenRepository();
+
+        assertEquals(THREAD_COUNT * TASKS_PER_THREAD, repository.findAllTasks().size());
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                UUID taskId = new UUID(thread, taskIndex);
+                assertEquals("Updated " + taskId, repository.findTaskById(taskId).getTaskTitle());
+            }
+        }
+    }
+}
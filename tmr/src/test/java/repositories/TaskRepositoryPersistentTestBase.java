@@ -0,0 +1,49 @@
+package repositories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+/**
+ * this class setups a repository storing it's tasks in a temporary data
+ * directory for the tests of the persistent repositories, which can reopen the
+ * repository to check what survives a restart.
+ *
+ * @param <T> - type of the tested repository
+ */
+abstract class TaskRepositoryPersistentTestBase<T extends ITaskRepository> extends TaskRepositoryTestBase {
+
+    // number of threads writing concurrently and of the tasks written by each
+    protected static final int THREAD_COUNT = 8;
+    protected static final int TASKS_PER_THREAD = 200;
+
+    @TempDir
+    protected Path dataDirectory;
+
+    protected T repository;
+
+    /**
+     * opens the tested repository on the data directory
+     */
+    protected abstract T openRepository();
+
+    @BeforeEach
+    void setUpRepository() {
+        repository = openRepository();
+    }
+
+    @AfterEach
+    void tearDownRepository() {
+        repository.close();
+    }
+
+    /**
+     * closes the repository and opens the same data directory again
+     */
+    protected void reopenRepository() {
+        repository.close();
+        repository = openRepository();
+    }
+}
@@ -0,0 +1,114 @@
+package repositories;
+
+import models.TaskModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskRepositoryShardedTest extends TaskRepositoryTestBase {
+
+    // number of shards of the tested repository
+    private static final int SHARD_COUNT = 4;
+
+    private TaskRepositoryShardedImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TaskRepositoryShardedImpl(SHARD_COUNT, TaskRepositoryLocalMemoryImpl::new);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    /**
+     * tests that the tasks are spread over all shards and that writes and lookups
+     * reach the shard of the task
+     */
+    @Test
+    void tasksAreSpreadOverAllShards() {
+        Set<ITaskRepository> usedShards = new HashSet<>();
+        for (int taskNumber = 0; taskNumber < 100; taskNumber++) {
+            repository.addNewTask(task(taskId(taskNumber)));
+            usedShards.add(repository.getShard(taskId(taskNumber)));
+        }
+        assertEquals(SHARD_COUNT, usedShards.size());
+        assertNotNull(repository.getShard(taskId(7)).findTaskById(taskId(7)));
+
+        repository.updateTaskById(taskId(1), task(taskId(1)).withTaskCompleted(true));
+        assertTrue(repository.findTaskById(taskId(1)).isTaskCompleted());
+        assertEquals("Updated", repository
+                .computeTaskById(taskId(2), task -> task.withTaskTitle("Updated")).getTaskTitle());
+        repository.deleteTaskById(taskId(3));
+        assertNull(repository.findTaskById(taskId(3)));
+        assertNull(repository.findTaskById(taskId(404)));
+    }
+
+    /**
+     * tests that listings, pages, filters and streams merge the shards in the
+     * order of the task ids
+     */
+    @Test
+    void shardsAreMergedInIdOrder() {
+        // add tasks in reverse order, completing every third
+        for (int taskNumber = 999; taskNumber >= 0; taskNumber--) {
+            repository.addNewTask(task(taskId(taskNumber)).withTaskCompleted(taskNumber % 3 == 0));
+        }
+
+        List<UUID> allTaskIds = IntStream.range(0, 1000).mapToObj(TaskRepositoryShardedTest::taskId).toList();
+        assertEquals(allTaskIds, taskIds(repository.findAllTasks()));
+        assertEquals(allTaskIds.subList(11, 21), taskIds(repository.findTasksAfter(taskId(10), 10)));
+        assertEquals(allTaskIds.subList(0, 5), taskIds(repository.findTasksAfter(null, 5)));
+        assertEquals(List.of(), repository.findTasksAfter(taskId(999), 10));
+        try (Stream<TaskModel> tasks = repository.streamTasksAfter(taskId(989))) {
+            assertEquals(allTaskIds.subList(990, 1000), taskIds(tasks.toList()));
+        }
+
+        List<TaskModel> completedTasks = repository.findTasksByCompletionStatus(true);
+        assertEquals(334, completedTasks.size());
+        assertEquals(allTaskIds.stream().filter(taskId -> taskId.getLeastSignificantBits() % 3 == 0).toList(),
+                taskIds(completedTasks));
+        assertEquals(666, repository.findTasksByCompletionStatus(false).size());
+    }
+
+    /**
+     * tests that tasks added concurrently by several threads are all listed
+     */
+    @Test
+    void concurrentWritesAreAllListed() throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(SHARD_COUNT);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int writer = 0; writer < SHARD_COUNT; writer++) {
+                int firstTaskNumber = writer * 1000;
+                writes.add(writers.submit(() -> {
+                    for (int taskNumber = firstTaskNumber; taskNumber < firstTaskNumber + 1000; taskNumber++) {
+                        repository.addNewTask(task(taskId(taskNumber)));
+                    }
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            writers.shutdown();
+        }
+
+        assertEquals(IntStream.range(0, SHARD_COUNT * 1000).mapToObj(TaskRepositoryShardedTest::taskId).toList(),
+                taskIds(repository.findAllTasks()));
+    }
+}
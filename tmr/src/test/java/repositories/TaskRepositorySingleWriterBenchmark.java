@@ -0,0 +1,78 @@
+package repositories;
+
+import models.TaskModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compares the throughput and latency of concurrent writes applied by the
+ * request threads to the in-memory repository, whose map locks a segment per
+ * write, with writes passed through the ring buffer to a single writer thread
+ * applying them to the same repository
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class TaskRepositorySingleWriterBenchmark {
+
+    // number of tasks updated by the benchmark
+    private static final int TASK_COUNT = 10_000;
+
+    @Param({ "striped", "single-writer" })
+    String storage;
+
+    private ITaskRepository repository;
+    private UUID[] taskIds;
+
+    @Setup
+    public void setUp() {
+        repository = storage.equals("striped") ? new TaskRepositoryLocalMemoryImpl()
+                : new TaskRepositorySingleWriterImpl(new TaskRepositoryLocalMemoryImpl(), 1024);
+
+        // add the tasks to be updated
+        taskIds = new UUID[TASK_COUNT];
+        for (int taskIndex = 0; taskIndex < TASK_COUNT; taskIndex++) {
+            taskIds[taskIndex] = UUID.randomUUID();
+            repository.addNewTask(new TaskModel(taskIds[taskIndex], "Task " + taskIndex, "Description", 0, 0,
+                    false, false));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        repository.close();
+    }
+
+    @Benchmark
+    public void addNewTask() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        repository.addNewTask(
+                new TaskModel(new UUID(random.nextLong(), random.nextLong()), "Task", "Description", 0, 0, false,
+                        false));
+    }
+
+    @Benchmark
+    public TaskModel computeTaskById() {
+        return repository.computeTaskById(taskIds[ThreadLocalRandom.current().nextInt(TASK_COUNT)],
+                task -> task.withTaskCompleted(!task.isTaskCompleted()));
+    }
+}
@@ -0,0 +1,178 @@
+package repositories;
+
+import exceptions.DataPersistenceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskRepositorySingleWriterTest extends TaskRepositoryTestBase {
+
+    // number of threads writing concurrently
+    private static final int WRITER_COUNT = 4;
+
+    private TaskRepositoryLocalMemoryImpl taskStore;
+    private TaskRepositorySingleWriterImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        // a small buffer, so that the writing threads have to wait for free slots
+        taskStore = new TaskRepositoryLocalMemoryImpl();
+        repository = new TaskRepositorySingleWriterImpl(taskStore, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    /**
+     * tests that the mutations are applied to the store before they return, and
+     * that the results of updates are returned
+     */
+    @Test
+    void mutationsAreAppliedToTheStore() {
+        UUID taskId = new UUID(0, 1);
+        repository.addNewTask(task(taskId));
+        assertNotNull(taskStore.findTaskById(taskId));
+
+        assertEquals("Updated", repository.computeTaskById(taskId, task -> task.withTaskTitle("Updated"))
+                .getTaskTitle());
+        assertEquals("Updated", repository.findTaskById(taskId).getTaskTitle());
+        assertNull(repository.computeTaskById(new UUID(0, 404), task -> task));
+
+        repository.updateTaskById(taskId, task(taskId).withTaskCompleted(true));
+        assertTrue(taskStore.findTaskById(taskId).isTaskCompleted());
+        repository.deleteTaskById(taskId);
+        assertNull(repository.findTaskById(taskId));
+    }
+
+    /**
+     * tests that concurrent updates of the same task from many threads are all
+     * applied one after the other through the full buffer
+     */
+    @Test
+    void concurrentMutationsAreAllApplied() throws Exception {
+        UUID counterTaskId = new UUID(0, 0);
+        repository.addNewTask(task(counterTaskId).withTaskTitle("0"));
+
+        ExecutorService writers = Executors.newFixedThreadPool(WRITER_COUNT);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int writer = 0; writer < WRITER_COUNT; writer++) {
+                int firstTaskNumber = 1 + writer * 1000;
+                writes.add(writers.submit(() -> {
+                    for (int taskNumber = firstTaskNumber; taskNumber < firstTaskNumber + 1000; taskNumber++) {
+                        repository.addNewTask(task(new UUID(0, taskNumber)));
+                        repository.computeTaskById(counterTaskId, task -> task
+                                .withTaskTitle(String.valueOf(Integer.parseInt(task.getTaskTitle()) + 1)));
+                    }
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            writers.shutdown();
+        }
+
+        assertEquals(String.valueOf(WRITER_COUNT * 1000), repository.findTaskById(counterTaskId).getTaskTitle());
+        assertEquals(WRITER_COUNT * 1000 + 1, repository.findAllTasks().size());
+    }
+
+    /**
+     * tests that a failing mutation is rethrown to it's caller while the writer
+     * keeps applying later mutations, and that closing stops the writer
+     */
+    @Test
+    void failuresAreRethrownToTheCaller() {
+        UUID taskId = new UUID(0, 1);
+        repository.addNewTask(task(taskId));
+
+        DataPersistenceException failure = new DataPersistenceException("failed", null);
+        assertSame(failure, assertThrows(DataPersistenceException.class, () -> repository.computeTaskById(taskId,
+                task -> {
+                    throw failure;
+                })));
+        repository.deleteTaskById(taskId);
+        assertNull(repository.findTaskById(taskId));
+
+        repository.close();
+        assertThrows(IllegalStateException.class, () -> repository.addNewTask(task(new UUID(0, 2))));
+    }
+
+    /**
+     * tests that the mutations of a batch are only completed once the store has
+     * made the whole batch durable, and fail if that fails although they have
+     * been applied
+     */
+    @Test
+    void mutationsCompleteOnceTheirBatchIsDurable() {
+        DataPersistenceException failure = new DataPersistenceException("failed", null);
+        AtomicInteger batchCount = new AtomicInteger();
+        AtomicBoolean failingSync = new AtomicBoolean();
+        TaskRepositoryLocalMemoryImpl durableStore = new TaskRepositoryLocalMemoryImpl() {
+            @Override
+            public void applyWriteBatch(Runnable writeBatch) {
+                writeBatch.run();
+                batchCount.incrementAndGet();
+                if (failingSync.get()) {
+                    throw failure;
+                }
+            }
+        };
+        repository.close();
+        repository = new TaskRepositorySingleWriterImpl(durableStore, 4);
+
+        UUID taskId = new UUID(0, 1);
+        repository.addNewTask(task(taskId));
+        assertEquals(1, batchCount.get());
+
+        failingSync.set(true);
+        assertSame(failure, assertThrows(DataPersistenceException.class,
+                () -> repository.updateTaskById(taskId, task(taskId).withTaskCompleted(true))));
+        assertTrue(durableStore.findTaskById(taskId).isTaskCompleted());
+        assertEquals(2, batchCount.get());
+    }
+
+    /**
+     * tests that writes racing with closing the repository are either applied or
+     * fail, but never wait forever
+     */
+    @Test
+    void writesRacingWithCloseNeverHang() throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(WRITER_COUNT);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int writer = 0; writer < WRITER_COUNT; writer++) {
+                int firstTaskNumber = 1 + writer * 1000;
+                writes.add(writers.submit(() -> {
+                    for (int taskNumber = firstTaskNumber; taskNumber < firstTaskNumber + 1000; taskNumber++) {
+                        try {
+                            repository.addNewTask(task(new UUID(0, taskNumber)));
+                        } catch (IllegalStateException e) {
+                            return;
+                        }
+                    }
+                }));
+            }
+            repository.close();
+            for (Future<?> write : writes) {
+                write.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package repositories;
+
+import models.TaskModel;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * this class provides the test tasks shared by the tests of the repositories.
+ */
+abstract class TaskRepositoryTestBase {
+
+    // timestamps of the test tasks
+    protected static final long CREATED_ON = 1_696_896_000_000L;
+    protected static final long UPDATED_ON = 1_696_982_400_000L;
+
+    /**
+     * builds a task with the given id and title
+     */
+    protected static TaskModel task(UUID taskId, String taskTitle) {
+        return new TaskModel(taskId, taskTitle, "Description " + taskId, CREATED_ON, CREATED_ON, false, false);
+    }
+
+    /**
+     * builds a task with the given id, titled after it's id
+     */
+    protected static TaskModel task(UUID taskId) {
+        return task(taskId, "Task " + taskId);
+    }
+
+    /**
+     * builds the id of a test task, the ids being ordered by their number
+     */
+    protected static UUID taskId(int taskNumber) {
+        return new UUID(0, taskNumber);
+    }
+
+    /**
+     * lists the ids of the given tasks
+     */
+    protected static List<UUID> taskIds(List<TaskModel> tasks) {
+        return tasks.stream().map(TaskModel::getTaskId).toList();
+    }
+}
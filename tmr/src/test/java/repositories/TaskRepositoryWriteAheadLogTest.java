@@ -0,0 +1,278 @@
+package repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskRepositoryWriteAheadLogTest extends TaskRepositoryPersistentTestBase<TaskRepositoryWriteAheadLogImpl> {
+
+    private static final int CHECKPOINTS_PER_SNAPSHOT = 3;
+
+    @Override
+    protected TaskRepositoryWriteAheadLogImpl openRepository() {
+        return new TaskRepositoryWriteAheadLogImpl(dataDirectory, 0, CHECKPOINTS_PER_SNAPSHOT);
+    }
+
+    /**
+     * tests that added, updated and deleted tasks are restored after a restart
+     */
+    @Test
+    void writesAreReplayedAfterReopen() {
+        repository.addNewTask(task(taskId(1), "Task 1"));
+        repository.addNewTask(task(taskId(2), "Task 2"));
+        repository.addNewTask(task(taskId(3), "Task 3"));
+        repository.updateTaskById(taskId(1), task(taskId(1), "Updated 1"));
+        repository.computeTaskById(taskId(2), task -> task.withTaskCompleted(true));
+        repository.deleteTaskById(taskId(3));
+
+        reopenRepository();
+
+        assertEquals("Updated 1", repository.findTaskById(taskId(1)).getTaskTitle());
+        assertTrue(repository.findTaskById(taskId(2)).isTaskCompleted());
+        assertNull(repository.findTaskById(taskId(3)), "Deleted task should stay deleted after a restart.");
+        assertEquals(List.of(taskId(1), taskId(2)), taskIds(repository.findAllTasks()));
+    }
+
+    /**
+     * tests that the writes of a batch do not wait for their log records, which
+     * are synced once the whole batch has been applied
+     */
+    @Test
+    void writesOfABatchAreSyncedTogether() throws Exception {
+        Path logFile = TaskWriteAheadLog.getSegmentFile(dataDirectory, 0);
+        repository.applyWriteBatch(() -> {
+            repository.addNewTask(task(taskId(1), "Task 1"));
+            repository.addNewTask(task(taskId(2), "Task 2"));
+            repository.updateTaskById(taskId(1), task(taskId(1), "Updated 1"));
+            assertEquals("Updated 1", repository.findTaskById(taskId(1)).getTaskTitle());
+            assertDoesNotThrow(() -> assertEquals(0, Files.size(logFile), "Records should not be synced yet."));
+        });
+        assertTrue(Files.size(logFile) > 0, "Records of the batch should be synced.");
+
+        reopenRepository();
+
+        assertEquals("Updated 1", repository.findTaskById(taskId(1)).getTaskTitle());
+        assertNotNull(repository.findTaskById(taskId(2)));
+    }
+
+    /**
+     * tests that a torn record at the end of the log is cut off and the log stays
+     * usable for new writes
+     */
+    @Test
+    void tornRecordAtEndOfLogIsDiscarded() throws Exception {
+        repository.addNewTask(task(taskId(1), "Task 1"));
+        repository.addNewTask(task(taskId(2), "Task 2"));
+        repository.close();
+
+        // cut off the last bytes of the log, as a crash during a write would do
+        Path logFile = TaskWriteAheadLog.getSegmentFile(dataDirectory, 0);
+        try (FileChannel logChannel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            logChannel.truncate(logChannel.size() - 3);
+        }
+
+        repository = openRepository();
+        assertNotNull(repository.findTaskById(taskId(1)));
+        assertNull(repository.findTaskById(taskId(2)), "Torn record should not be replayed.");
+
+        // a write after the recovery must be readable after the next restart
+        repository.addNewTask(task(taskId(3), "Task 3"));
+        reopenRepository();
+        assertNotNull(repository.findTaskById(taskId(1)));
+        assertNotNull(repository.findTaskById(taskId(3)));
+    }
+
+    /**
+     * tests that a corrupt record ends the replay
+     */
+    @Test
+    void corruptRecordEndsReplay() throws Exception {
+        repository.addNewTask(task(taskId(1), "Task 1"));
+        long firstRecordEnd = Files.size(TaskWriteAheadLog.getSegmentFile(dataDirectory, 0));
+        repository.addNewTask(task(taskId(2), "Task 2"));
+        repository.close();
+
+        // flip the last byte of the second record
+        Path logFile = TaskWriteAheadLog.getSegmentFile(dataDirectory, 0);
+        byte[] logContent = Files.readAllBytes(logFile);
+        logContent[logContent.length - 1] ^= 0x7F;
+        Files.write(logFile, logContent);
+
+        repository = openRepository();
+        assertNotNull(repository.findTaskById(taskId(1)));
+        assertNull(repository.findTaskById(taskId(2)), "Corrupt record should not be replayed.");
+        assertEquals(firstRecordEnd, Files.size(logFile), "Corrupt record should be cut off.");
+    }
+
+    /**
+     * tests that concurrent writes sharing syncs are all durable once they return
+     */
+    @Test
+    void concurrentWritesAreDurable() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            // every thread adds and updates tasks of it's own
+            for (int thread = 0; thread < THREAD_COUNT; thread++) {
+                int threadIndex = thread;
+                futures.add(executor.submit(() -> {
+                    for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                        UUID taskId = new UUID(threadIndex, taskIndex);
+                        repository.addNewTask(task(taskId, "Task " + taskIndex));
+                        repository.computeTaskById(taskId, task -> task.withTaskTitle("Updated " + taskId));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        reopenRepository();
+
+        // every write must have been restored
+        assertEquals(THREAD_COUNT * TASKS_PER_THREAD, repository.findAllTasks().size());
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                UUID taskId = new UUID(thread, taskIndex);
+                assertEquals("Updated " + taskId, repository.findTaskById(taskId).getTaskTitle());
+            }
+        }
+    }
+
+    /**
+     * tests that writes which do not change anything do not wait for the log
+     */
+    @Test
+    void writesOfMissingTasksAreNotLogged() throws Exception {
+        assertNull(repository.computeTaskById(taskId(404), task -> task.withTaskCompleted(true)));
+        repository.deleteTaskById(taskId(404));
+
+        assertEquals(0, Files.size(TaskWriteAheadLog.getSegmentFile(dataDirectory, 0)));
+    }
+
+    /**
+     * lists the names of the files in the data directory
+     */
+    private List<String> dataFileNames() throws Exception {
+        try (var files = Files.list(dataDirectory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    /**
+     * tests that deltas and the log after them restore the state, and that the log
+     * segments covered by a checkpoint are deleted
+     */
+    @Test
+    void checkpointsAndLogTailAreLoadedAfterReopen() throws Exception {
+        repository.addNewTask(task(taskId(1), "Task 1"));
+        repository.addNewTask(task(taskId(2), "Task 2"));
+        repository.checkpoint();
+        repository.updateTaskById(taskId(1), task(taskId(1), "Updated 1"));
+        repository.deleteTaskById(taskId(2));
+        repository.checkpoint();
+        repository.addNewTask(task(taskId(3), "Task 3"));
+
+        // two deltas and only the segment after the last one must remain
+        assertEquals(List.of("delta-00000000000000000002.dat", "delta-00000000000000000004.dat",
+                "tasks-00000000000000000004.wal"), dataFileNames());
+
+        reopenRepository();
+
+        assertEquals("Updated 1", repository.findTaskById(taskId(1)).getTaskTitle());
+        assertNull(repository.findTaskById(taskId(2)), "Deleted task in a delta should stay deleted.");
+        assertEquals("Task 3", repository.findTaskById(taskId(3)).getTaskTitle());
+    }
+
+    /**
+     * tests that a full snapshot replaces the older checkpoints
+     */
+    @Test
+    void snapshotReplacesOlderCheckpoints() throws Exception {
+        for (int checkpoint = 1; checkpoint <= CHECKPOINTS_PER_SNAPSHOT; checkpoint++) {
+            repository.addNewTask(task(taskId(checkpoint), "Task " + checkpoint));
+            repository.checkpoint();
+        }
+        repository.deleteTaskById(taskId(1));
+
+        assertEquals(List.of("snapshot-00000000000000000003.dat", "tasks-00000000000000000003.wal"),
+                dataFileNames());
+
+        reopenRepository();
+
+        assertEquals(List.of(taskId(2), taskId(3)), taskIds(repository.findAllTasks()));
+    }
+
+    /**
+     * tests that a checkpoint without any write since the previous one does
+     * nothing
+     */
+    @Test
+    void checkpointWithoutWritesIsSkipped() throws Exception {
+        repository.addNewTask(task(taskId(1), "Task 1"));
+        repository.checkpoint();
+        List<String> fileNames = dataFileNames();
+
+        repository.checkpoint();
+
+        assertEquals(fileNames, dataFileNames());
+    }
+
+    /**
+     * tests that no write is lost when checkpoints are taken while many threads
+     * write
+     */
+    @Test
+    void writesDuringCheckpointsAreDurable() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            // every thread adds and updates tasks of it's own
+            for (int thread = 0; thread < THREAD_COUNT; thread++) {
+                int threadIndex = thread;
+                futures.add(executor.submit(() -> {
+                    for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                        UUID taskId = new UUID(threadIndex, taskIndex);
+                        repository.addNewTask(task(taskId, "Task " + taskIndex));
+                        repository.computeTaskById(taskId, task -> task.withTaskTitle("Updated " + taskId));
+                    }
+                }));
+            }
+
+            // take checkpoints until all writers have finished
+            while (!futures.stream().allMatch(Future::isDone)) {
+                repository.checkpoint();
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        reopenRepository();
+
+        // every write must have been restored
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            for (int taskIndex = 0; taskIndex < TASKS_PER_THREAD; taskIndex++) {
+                UUID taskId = new UUID(thread, taskIndex);
+                assertEquals("Updated " + taskId, repository.findTaskById(taskId).getTaskTitle());
+            }
+        }
+    }
+}
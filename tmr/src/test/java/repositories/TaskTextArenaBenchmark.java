@@ -0,0 +1,152 @@
+package repositories;
+
+import models.TaskModel;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * measures the heap size and the pauses of the garbage collector while the
+ * in-memory repository and the columnar repository with texts on and off the
+ * heap hold a growing number of tasks. Every storage is filled with the same
+ * tasks having descriptions of a few hundred characters, after which the live
+ * heap and direct memory are measured by a full collection, whose duration is
+ * reported as the full pause.
+ * <p>
+ * Run it with the benchmark profile, giving the JVM enough memory for the
+ * largest number of tasks, e.g. mvn test -Pbenchmark
+ * -Dbenchmark.main=repositories.TaskTextArenaBenchmark -Dbenchmark.jvm.args=
+ * "-Xmx16g -XX:MaxDirectMemorySize=8g" -Djmh.args="1000000 5000000 10000000"
+ */
+public class TaskTextArenaBenchmark {
+
+    // storages compared by the benchmark
+    private static final List<String> STORAGES = List.of("memory", "columnar-heap", "columnar-off-heap");
+
+    // length of the descriptions of the tasks
+    private static final int DESCRIPTION_LENGTH = 300;
+
+    private static final long MEGABYTE = 1024 * 1024;
+
+    /**
+     * prints the measurements for every storage and number of tasks
+     *
+     * @param args - numbers of tasks, 1000000, 5000000 and 10000000 by default
+     */
+    public static void main(String[] args) {
+        long[] taskCounts = args.length > 0 ? Arrays.stream(args).mapToLong(Long::parseLong).toArray()
+                : new long[] { 1_000_000, 5_000_000, 10_000_000 };
+
+        System.out.printf("%-18s %10s %10s %12s %10s %10s %12s%n", "storage", "tasks", "heap MB", "direct MB",
+                "gc count", "gc ms", "full gc ms");
+        for (long taskCount : taskCounts) {
+            for (String storage : STORAGES) {
+                measure(storage, taskCount);
+            }
+        }
+    }
+
+    /**
+     * fills a new repository of a storage with tasks and prints the measurements
+     *
+     * @param storage   - name of the storage
+     * @param taskCount - number of tasks
+     */
+    private static void measure(String storage, long taskCount) {
+        // start from an empty heap
+        System.gc();
+        long startGcCount = getGcCount();
+        long startGcMillis = getGcMillis();
+
+        try (ITaskRepository repository = createRepository(storage)) {
+            // add the tasks, their descriptions being cut from a random text
+            Random random = new Random(42);
+            String text = randomText(random, DESCRIPTION_LENGTH * 2);
+            for (long taskIndex = 0; taskIndex < taskCount; taskIndex++) {
+                int textOffset = random.nextInt(DESCRIPTION_LENGTH);
+                repository.addNewTask(new TaskModel(new UUID(random.nextLong(), random.nextLong()),
+                        "Task " + taskIndex, text.substring(textOffset, textOffset + DESCRIPTION_LENGTH) + taskIndex,
+                        taskIndex, taskIndex, false, false));
+            }
+            long gcCount = getGcCount() - startGcCount;
+            long gcMillis = getGcMillis() - startGcMillis;
+
+            // measure the live heap by a full collection, which marks all tasks
+            long fullGcStartNanos = System.nanoTime();
+            System.gc();
+            long fullGcMillis = (System.nanoTime() - fullGcStartNanos) / 1_000_000;
+            long heapBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+            System.out.printf("%-18s %10d %10d %12d %10d %10d %12d%n", storage, taskCount, heapBytes / MEGABYTE,
+                    getDirectBytes() / MEGABYTE, gcCount, gcMillis, fullGcMillis);
+
+            // keep the repository reachable until it has been measured
+            repository.findTaskById(new UUID(0, 0));
+        }
+    }
+
+    /**
+     * method to create an empty repository of a storage
+     *
+     * @param storage - name of the storage
+     * @return repository
+     */
+    private static ITaskRepository createRepository(String storage) {
+        return switch (storage) {
+            case "memory" -> new TaskRepositoryLocalMemoryImpl();
+            case "columnar-heap" -> new TaskRepositoryColumnarImpl(TaskTextArena.DEFAULT_CHUNK_SIZE, false);
+            default -> new TaskRepositoryColumnarImpl(TaskTextArena.DEFAULT_CHUNK_SIZE, true);
+        };
+    }
+
+    /**
+     * method to generate a random text of lowercase letters and spaces
+     *
+     * @param random - source of randomness
+     * @param length - length of the text
+     * @return random text
+     */
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int index = 0; index < length; index++) {
+            text.append(random.nextInt(6) == 0 ? ' ' : (char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+
+    /**
+     * method to get the number of collections of all garbage collectors
+     *
+     * @return number of collections
+     */
+    private static long getGcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    /**
+     * method to get the accumulated collection time of all garbage collectors
+     *
+     * @return collection time in milliseconds
+     */
+    private static long getGcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    /**
+     * method to get the memory used by direct buffers
+     *
+     * @return number of bytes
+     */
+    private static long getDirectBytes() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(bufferPool -> bufferPool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed).sum();
+    }
+}
@@ -0,0 +1,85 @@
+package repositories;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTextArenaTest {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * tests that texts are read back from chunks on and off the heap, including
+     * null texts and multi-byte characters
+     */
+    @Test
+    void textsAreReadBack() {
+        for (boolean offHeap : new boolean[] { false, true }) {
+            TaskTextArena textArena = new TaskTextArena(CHUNK_SIZE, offHeap);
+
+            long firstHandle = textArena.append("Tâche ✓", "Description");
+            long secondHandle = textArena.append(null, "");
+            long thirdHandle = textArena.append("Title", null);
+
+            assertEquals("Tâche ✓", textArena.readTitle(firstHandle));
+            assertEquals("Description", textArena.readDescription(firstHandle));
+            assertNull(textArena.readTitle(secondHandle));
+            assertEquals("", textArena.readDescription(secondHandle));
+            assertEquals("Title", textArena.readTitle(thirdHandle));
+            assertNull(textArena.readDescription(thirdHandle));
+        }
+    }
+
+    /**
+     * tests that blocks larger than a chunk get a chunk of their own and that the
+     * following blocks continue in a new chunk
+     */
+    @Test
+    void largeBlocksGetTheirOwnChunk() {
+        TaskTextArena textArena = new TaskTextArena(CHUNK_SIZE, true);
+        String largeDescription = "x".repeat(3 * CHUNK_SIZE);
+
+        long smallHandle = textArena.append("Small", "Small");
+        long largeHandle = textArena.append("Large", largeDescription);
+        long nextHandle = textArena.append("Next", "Next");
+
+        assertEquals("Small", textArena.readTitle(smallHandle));
+        assertEquals(largeDescription, textArena.readDescription(largeHandle));
+        assertEquals("Next", textArena.readDescription(nextHandle));
+        assertEquals(2 * CHUNK_SIZE + 2 * Integer.BYTES + "Large".length() + largeDescription.length(),
+                textArena.getAllocatedSize());
+    }
+
+    /**
+     * tests that a compaction keeps the live blocks, updates their handles and
+     * recycles the emptied chunks instead of allocating new ones
+     */
+    @Test
+    void compactionRecyclesChunks() {
+        TaskTextArena textArena = new TaskTextArena(CHUNK_SIZE, true);
+        long[] handles = new long[2];
+        handles[0] = textArena.append("Kept", "Kept description");
+        handles[1] = TaskTextArena.NULL_HANDLE;
+
+        // replace the texts of the second row until most of the arena is garbage
+        int replacementCount = 0;
+        while (!textArena.needsCompaction()) {
+            textArena.release(handles[1]);
+            handles[1] = textArena.append("Replaced", "Replacement " + replacementCount++);
+        }
+        textArena.compact(handles, handles.length);
+        long allocatedSize = textArena.getAllocatedSize();
+
+        assertEquals("Kept", textArena.readTitle(handles[0]));
+        assertEquals("Kept description", textArena.readDescription(handles[0]));
+        assertEquals("Replacement " + (replacementCount - 1), textArena.readDescription(handles[1]));
+        assertFalse(textArena.needsCompaction());
+        assertTrue(textArena.getUsedSize() < CHUNK_SIZE);
+
+        // further appends reuse the recycled chunks
+        for (int append = 0; append < 50; append++) {
+            textArena.append("Appended", "Appended " + append);
+        }
+        assertEquals(allocatedSize, textArena.getAllocatedSize());
+    }
+}
@@ -4,21 +4,30 @@ import constants.ErrorMessage;
 import dtos.request.TaskPatchRequestDTO;
 import dtos.request.TaskPostRequestDTO;
 import dtos.response.TaskDataResponseDTO;
+import dtos.response.TaskPageResponseDTO;
 import exceptions.BadRequestException;
 import exceptions.ResourceNotFoundException;
 import models.TaskModel;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
 import repositories.ITaskRepository;
 import repositories.RepositoryFactory;
+import utilities.ClockServiceCachingImpl;
+import utilities.ClockServiceFixedImpl;
 import utilities.CommonUtility;
+import utilities.DataValidationUtility;
+import utilities.TaskIdGeneratorRandomImpl;
 
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,6 +35,10 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class TaskServiceTest {
 
+	// timestamps of the test tasks
+	private static final long CREATED_ON = 1_609_459_200_000L;
+	private static final long UPDATED_ON = 1_609_545_600_000L;
+
 	private ITaskRepository taskRepositoryMock;
 	private TaskService taskService;
 
@@ -41,6 +54,26 @@ class TaskServiceTest {
 		this.taskService = new TaskService();
 	}
 
+	@AfterEach
+	void tearDown() {
+		// restore the system clock replaced by tests
+		CommonUtility.setClockService(new ClockServiceCachingImpl());
+	}
+
+	/**
+	 * stubs the atomic update operation of the mocked repository so that it applies
+	 * the given update function to the given existing task
+	 *
+	 * @param taskId       - id of the task to stub the update operation for
+	 * @param existingTask - existing task which is passed to the update function
+	 */
+	private void stubComputeTaskById(UUID taskId, TaskModel existingTask) {
+		when(taskRepositoryMock.computeTaskById(eq(taskId), any())).thenAnswer(invocation -> {
+			UnaryOperator<TaskModel> updateFunction = invocation.getArgument(1);
+			return updateFunction.apply(existingTask);
+		});
+	}
+
 	/**
 	 * verifies successful task creation with provided details
 	 */
@@ -48,40 +81,39 @@ class TaskServiceTest {
 	void createNewTask() {
 		// create a DTO for the new task request
 		TaskPostRequestDTO requestDTO = new TaskPostRequestDTO("Test Task", "This is a test task");
-		String expectedId = UUID.randomUUID().toString(); // Simulated ID for the new task
-		String expectedCreationDate = CommonUtility.getCurrentDateAndTimeStampString(); // Simulated creation
-		// date
-
-		// mock the taskRepository
-		when(taskRepositoryMock.findTaskById(anyString())).thenReturn(null);
-		// mock the taskRepository
-		doAnswer(invocation -> {
-			TaskModel model = invocation.getArgument(0);
-			model.setTaskId(expectedId);
-			model.setTaskCreatedOn(expectedCreationDate);
-			return null;
-		}).when(taskRepositoryMock).addNewTask(any(TaskModel.class));
+
+		// fix the clock at the creation time of the new task
+		CommonUtility.setClockService(new ClockServiceFixedImpl(CREATED_ON));
 
 		TaskDataResponseDTO responseDTO = taskService.createNewTask(requestDTO);
 
+		// capture the task which was stored in the repository
+		ArgumentCaptor<TaskModel> storedTaskCaptor = ArgumentCaptor.forClass(TaskModel.class);
+		verify(taskRepositoryMock, times(1)).addNewTask(storedTaskCaptor.capture());
+		TaskModel storedTask = storedTaskCaptor.getValue();
+
 		// assert
 		assertNotNull(responseDTO, "The response DTO must not be null.");
-		assertEquals(expectedId, responseDTO.getTaskId(),
-				"The task ID in the response DTO must match the expected one.");
+		assertTrue(DataValidationUtility.isValidTaskId(responseDTO.getTaskId()),
+				"The response must contain a valid generated task ID.");
+		assertEquals(storedTask.getTaskId().toString(), responseDTO.getTaskId(),
+				"The task ID in the response DTO must match the stored one.");
 		assertEquals(requestDTO.getTaskTitle(), responseDTO.getTaskTitle(),
 				"The task title must match the one provided in the request DTO.");
 		assertEquals(requestDTO.getTaskDescription(), responseDTO.getTaskDescription(),
 				"The task description must match the one provided in the request DTO.");
-		assertEquals(expectedCreationDate, responseDTO.getTaskCreatedOn(),
-				"The creation date in the response DTO must match the expected one.");
-
-		// verify
-		verify(taskRepositoryMock, times(1)).findTaskById(anyString());
-		verify(taskRepositoryMock, times(1))
-				.addNewTask(argThat(task -> task.getTaskTitle().equals(requestDTO.getTaskTitle()) &&
-						task.getTaskDescription().equals(requestDTO.getTaskDescription()) &&
-						task.getTaskId().equals(expectedId) &&
-						task.getTaskCreatedOn().equals(expectedCreationDate)));
+		assertEquals(CommonUtility.formatTimestamp(storedTask.getTaskCreatedOn()), responseDTO.getTaskCreatedOn(),
+				"The creation date in the response DTO must match the stored one.");
+		assertEquals(CREATED_ON, storedTask.getTaskCreatedOn(), "The task must be created at the time of the clock.");
+		assertEquals(CREATED_ON, storedTask.getTaskLastUpdatedOn(), "The task must be updated at the time of the clock.");
+
+		// verify that the time-ordered task id was not looked up, as it is unique
+		verify(taskRepositoryMock, never()).findTaskById(any(UUID.class));
+		assertEquals(7, storedTask.getTaskId().version());
+		assertEquals(requestDTO.getTaskTitle(), storedTask.getTaskTitle());
+		assertEquals(requestDTO.getTaskDescription(), storedTask.getTaskDescription());
+		assertFalse(storedTask.isTaskCompleted());
+		assertFalse(storedTask.isTaskDeleted());
 	}
 
 	/**
@@ -91,15 +123,15 @@ class TaskServiceTest {
 	void getAllTasks() {
 		// create a list of TaskModel objects
 		List<TaskModel> taskModels = List.of(
-				new TaskModel("task-1", "Task 1", "Description 1",
-						CommonUtility.getCurrentDateAndTimeStampString(),
-						CommonUtility.getCurrentDateAndTimeStampString(),
+				new TaskModel(UUID.randomUUID(), "Task 1", "Description 1",
+						System.currentTimeMillis(),
+						System.currentTimeMillis(),
 						false, false),
-				new TaskModel("task-2", "Task 2", "Description 2",
-						CommonUtility.getCurrentDateAndTimeStampString(),
-						CommonUtility.getCurrentDateAndTimeStampString(),
+				new TaskModel(UUID.randomUUID(), "Task 2", "Description 2",
+						System.currentTimeMillis(),
+						System.currentTimeMillis(),
 						false, false));
-		when(taskRepositoryMock.findAllTasks()).thenReturn(taskModels);
+		when(taskRepositoryMock.streamAllTasks()).thenReturn(taskModels.stream());
 
 		// call the method under test to get all tasks
 		List<TaskDataResponseDTO> responseDTOS = taskService.getAllTasks();
@@ -112,7 +144,71 @@ class TaskServiceTest {
 				"The task titles should match.");
 
 		// verify
-		verify(taskRepositoryMock, times(1)).findAllTasks();
+		verify(taskRepositoryMock, times(1)).streamAllTasks();
+	}
+
+	/**
+	 * tests that streaming all tasks maps the tasks lazily while the stream is
+	 * consumed
+	 */
+	@Test
+	void streamAllTasks() {
+		when(taskRepositoryMock.streamAllTasks()).thenReturn(Stream.of(
+				new TaskModel(UUID.randomUUID(), "Task 1", "Description 1", CREATED_ON, CREATED_ON, false, false),
+				new TaskModel(UUID.randomUUID(), "Task 2", "Description 2", CREATED_ON, CREATED_ON, false, false)));
+
+		// call the method under test and consume the stream
+		try (Stream<TaskDataResponseDTO> responseDTOS = taskService.streamAllTasks()) {
+			assertEquals(List.of("Task 1", "Task 2"),
+					responseDTOS.map(TaskDataResponseDTO::getTaskTitle).toList());
+		}
+
+		// verify that no list of all tasks was requested from the repository
+		verify(taskRepositoryMock, never()).findAllTasks();
+	}
+
+	/**
+	 * tests retrieval of a page of tasks along with the cursor of the next page
+	 */
+	@Test
+	void getTasksPage() {
+		// create three tasks, one more than the requested page size
+		List<TaskModel> taskModels = List.of(
+				new TaskModel(UUID.fromString("00000000-0000-0000-0000-000000000001"), "Task 1", "Description 1", CREATED_ON,
+						CREATED_ON, false, false),
+				new TaskModel(UUID.fromString("00000000-0000-0000-0000-000000000002"), "Task 2", "Description 2", CREATED_ON,
+						CREATED_ON, false, false),
+				new TaskModel(UUID.fromString("00000000-0000-0000-0000-000000000003"), "Task 3", "Description 3", CREATED_ON,
+						CREATED_ON, false, false));
+		when(taskRepositoryMock.findTasksAfter(null, 3)).thenReturn(taskModels);
+
+		// call the method under test to get the first page of two tasks
+		TaskPageResponseDTO page = taskService.getTasksPage(null, 2);
+
+		// assert that the page contains two tasks and points to the next page
+		assertEquals(2, page.getTasks().size());
+		assertEquals("Task 1", page.getTasks().getFirst().getTaskTitle());
+		assertEquals("00000000-0000-0000-0000-000000000002", page.getNextCursor());
+
+		// the last page should not point to a next page
+		when(taskRepositoryMock.findTasksAfter(UUID.fromString("00000000-0000-0000-0000-000000000002"), 3))
+				.thenReturn(taskModels.subList(2, 3));
+		TaskPageResponseDTO lastPage = taskService.getTasksPage("00000000-0000-0000-0000-000000000002", 2);
+		assertEquals(1, lastPage.getTasks().size());
+		assertNull(lastPage.getNextCursor());
+	}
+
+	/**
+	 * ensures exception thrown for an invalid page limit or cursor
+	 */
+	@Test
+	void getTasksPageInvalidParameters() {
+		assertThrows(BadRequestException.class, () -> taskService.getTasksPage(null, 0));
+		assertThrows(BadRequestException.class, () -> taskService.getTasksPage(null, 1001));
+		assertThrows(BadRequestException.class, () -> taskService.getTasksPage("invalid-cursor", 10));
+
+		// verify that the repository was not called
+		verifyNoInteractions(taskRepositoryMock);
 	}
 
 	/**
@@ -134,18 +230,21 @@ class TaskServiceTest {
 	}
 
 	/**
-	 * verifies task ID uniqueness during creation
+	 * verifies task ID uniqueness during creation with random task ids
 	 */
 	@Test
 	void createTaskUniqueID() {
+		// create a service generating random task ids, which are looked up
+		TaskService taskService = new TaskService(new TaskIdGeneratorRandomImpl());
+
 		// create a request DTO with task details
 		TaskPostRequestDTO requestDTO = new TaskPostRequestDTO("Test Task", "This is a test task");
 		AtomicInteger callCount = new AtomicInteger();
 
-		when(taskRepositoryMock.findTaskById(anyString())).thenAnswer(invocation -> {
+		when(taskRepositoryMock.findTaskById(any(UUID.class))).thenAnswer(invocation -> {
 			if (callCount.getAndIncrement() == 0) {
 				return new TaskModel(invocation.getArgument(0), "Existing Task",
-						"Existing Description", "2020-10-10", "2020-10-10", false, false);
+						"Existing Description", CREATED_ON, CREATED_ON, false, false);
 			} else {
 				return null;
 			}
@@ -158,8 +257,8 @@ class TaskServiceTest {
 		assertNotNull(responseDTO);
 		assertNotNull(responseDTO.getTaskId());
 		// verify
-		verify(taskRepositoryMock, atLeast(2)).findTaskById(anyString());
-		verify(taskRepositoryMock).addNewTask(argThat(task -> task.getTaskId().equals(responseDTO.getTaskId())));
+		verify(taskRepositoryMock, atLeast(2)).findTaskById(any(UUID.class));
+		verify(taskRepositoryMock).addNewTask(argThat(task -> task.getTaskId().toString().equals(responseDTO.getTaskId())));
 	}
 
 	/**
@@ -168,9 +267,9 @@ class TaskServiceTest {
 	@Test
 	void getById() {
 		// set up a task ID and a TaskModel object for the test
-		String taskId = UUID.randomUUID().toString();
-		TaskModel expectedTask = new TaskModel(taskId, "Test Title", "Test Description", "2021-01-01",
-				"2021-01-02",
+		UUID taskId = UUID.randomUUID();
+		TaskModel expectedTask = new TaskModel(taskId, "Test Title", "Test Description", CREATED_ON,
+				UPDATED_ON,
 				false, false);
 
 		// mock taskRepository to return the expected object when called with the
@@ -178,11 +277,11 @@ class TaskServiceTest {
 		when(taskRepositoryMock.findTaskById(taskId)).thenReturn(expectedTask);
 
 		// execute the method under test
-		TaskDataResponseDTO result = taskService.getTaskById(taskId);
+		TaskDataResponseDTO result = taskService.getTaskById(taskId.toString());
 
 		// verify
 		assertNotNull(result, "The result should not be null");
-		assertEquals(taskId, result.getTaskId(), "The returned task ID should match the expected one");
+		assertEquals(taskId.toString(), result.getTaskId(), "The returned task ID should match the expected one");
 		assertEquals("Test Title", result.getTaskTitle(),
 				"The returned task title should match the expected one");
 
@@ -195,14 +294,14 @@ class TaskServiceTest {
 	 */
 	@Test
 	void getNonExisting() {
-		String nonExistingTaskId = UUID.randomUUID().toString();
+		UUID nonExistingTaskId = UUID.randomUUID();
 
 		// mock taskRepository to return null for a non-existing ID
 		when(taskRepositoryMock.findTaskById(nonExistingTaskId)).thenReturn(null);
 
 		// execute the method under test and capture the exception
 		Exception exception = assertThrows(ResourceNotFoundException.class,
-				() -> taskService.getTaskById(nonExistingTaskId));
+				() -> taskService.getTaskById(nonExistingTaskId.toString()));
 
 		// verify
 		assertTrue(exception.getMessage().contains("NO TASK FOUND WITH GIVEN ID"));
@@ -232,22 +331,25 @@ class TaskServiceTest {
 	@Test
 	void deleteById() {
 		// set up an existing task ID for the test
-		String taskId = UUID.randomUUID().toString();
+		UUID taskId = UUID.randomUUID();
 		TaskModel taskModel = new TaskModel(taskId, "Task for Deletion", "This task should be deleted",
-				"2021-01-01",
-				"2021-01-02", false, false);
+				CREATED_ON,
+				UPDATED_ON, false, false);
 
-		// mock taskRepository.findTaskById to return a TaskModel object indicating the
-		// task exists
-		when(taskRepositoryMock.findTaskById(taskId)).thenReturn(taskModel);
+		// mock taskRepository.computeTaskById to apply the update to the existing task
+		stubComputeTaskById(taskId, taskModel);
 
-		// no need to mock the action of taskRepository.deleteTaskById(), just verify it
-		// is called
 		// execute the method under test
-		taskService.deleteTaskById(taskId);
+		TaskDataResponseDTO deletedTask = taskService.deleteTaskById(taskId.toString());
 
-		// confirm that the deleteTaskById method was called with the correct ID
-		verify(taskRepositoryMock, times(1)).deleteTaskById(taskId);
+		// assert that the deleted task data is returned
+		assertEquals(taskId.toString(), deletedTask.getTaskId());
+
+		// confirm that the task was marked as deleted in a single atomic update, without
+		// modifying the existing task object in place
+		verify(taskRepositoryMock, times(1)).computeTaskById(eq(taskId), any());
+		verify(taskRepositoryMock, never()).findTaskById(any(UUID.class));
+		assertFalse(taskModel.isTaskDeleted());
 	}
 
 	/**
@@ -255,19 +357,18 @@ class TaskServiceTest {
 	 */
 	@Test
 	void deleteNonExisting() {
-		String nonExistingTaskId = UUID.randomUUID().toString();
-		when(taskRepositoryMock.findTaskById(nonExistingTaskId)).thenReturn(null);
+		UUID nonExistingTaskId = UUID.randomUUID();
+		when(taskRepositoryMock.computeTaskById(eq(nonExistingTaskId), any())).thenReturn(null);
 
 		// verify that the expected exception is thrown
 		Exception exception = assertThrows(ResourceNotFoundException.class,
-				() -> taskService.deleteTaskById(nonExistingTaskId));
+				() -> taskService.deleteTaskById(nonExistingTaskId.toString()));
 
 		// verify that the message of the exception is as expected
 		assertTrue(exception.getMessage().contains("NO TASK FOUND WITH GIVEN ID"));
 
-		// verify that findTaskById was called but NOT deleteTaskById since the task
-		// does not exist
-		verify(taskRepositoryMock, times(1)).findTaskById(nonExistingTaskId);
+		// verify that the atomic update was attempted once and nothing else was called
+		verify(taskRepositoryMock, times(1)).computeTaskById(eq(nonExistingTaskId), any());
 		verify(taskRepositoryMock, never()).deleteTaskById(nonExistingTaskId);
 	}
 
@@ -284,8 +385,9 @@ class TaskServiceTest {
 				() -> taskService.deleteTaskById(invalidTaskId));
 		assertEquals("INVALID TASK ID: " + invalidTaskId, exception.getMessage());
 
-		// verify that deleteTaskById was not called because the exception
-		verify(taskRepositoryMock, never()).deleteTaskById(anyString());
+		// verify that the repository was not called because the exception
+		verify(taskRepositoryMock, never()).deleteTaskById(any(UUID.class));
+		verify(taskRepositoryMock, never()).computeTaskById(any(UUID.class), any());
 	}
 
 	/**
@@ -293,18 +395,18 @@ class TaskServiceTest {
 	 */
 	@Test
 	void updateTaskByIdSuccess() {
-		String taskId = UUID.randomUUID().toString();
+		UUID taskId = UUID.randomUUID();
 
 		// existing task data
-		TaskModel existingTask = new TaskModel(taskId, "Test Title", "Test Description", "2021-01-01", "2021-01-02", false, false);
+		TaskModel existingTask = new TaskModel(taskId, "Test Title", "Test Description", CREATED_ON, UPDATED_ON, false, false);
 
 		// new data for the task
 		TaskPatchRequestDTO patchRequestDTO = new TaskPatchRequestDTO("New Title", "New Description", true);
 
-		when(taskRepositoryMock.findTaskById(taskId)).thenReturn(existingTask);
+		stubComputeTaskById(taskId, existingTask);
 
 		// performs the action to test
-		TaskDataResponseDTO updatedTask = taskService.updateTaskById(taskId, patchRequestDTO);
+		TaskDataResponseDTO updatedTask = taskService.updateTaskById(taskId.toString(), patchRequestDTO);
 
 		// verifications and assertions
 		assertNotNull(updatedTask);
@@ -312,8 +414,11 @@ class TaskServiceTest {
 		assertEquals("New Description", updatedTask.getTaskDescription());
 		assertTrue(updatedTask.isTaskCompleted());
 
-		// verifies that the repository was called correctly
-		verify(taskRepositoryMock).updateTaskById(eq(taskId), any(TaskModel.class));
+		// verifies that the repository was called correctly, with a single atomic
+		// update and without modifying the existing task object in place
+		verify(taskRepositoryMock).computeTaskById(eq(taskId), any());
+		verify(taskRepositoryMock, never()).findTaskById(any(UUID.class));
+		assertEquals("Test Title", existingTask.getTaskTitle());
 	}
 
 	/**
@@ -321,22 +426,22 @@ class TaskServiceTest {
 	 */
 	@Test
 	void updateNonExistingTask() {
-		String nonExistingTaskId = UUID.randomUUID().toString();
+		UUID nonExistingTaskId = UUID.randomUUID();
 
 		// new data for the non-existing task
 		TaskPatchRequestDTO patchRequestDTO = new TaskPatchRequestDTO("New Title", "New Description", true);
 
 		// sets the expected behavior of the repository to simulate that the task does not exist
-		when(taskRepositoryMock.findTaskById(nonExistingTaskId)).thenReturn(null);
+		when(taskRepositoryMock.computeTaskById(eq(nonExistingTaskId), any())).thenReturn(null);
 
 		// executes the action to test and captures the exception
-		Exception exception = assertThrows(ResourceNotFoundException.class, () -> taskService.updateTaskById(nonExistingTaskId, patchRequestDTO));
+		Exception exception = assertThrows(ResourceNotFoundException.class, () -> taskService.updateTaskById(nonExistingTaskId.toString(), patchRequestDTO));
 
 		// verifies that the exception message is as expected
 		assertTrue(exception.getMessage().contains("NO TASK FOUND WITH GIVEN ID"));
 
-		// verifies that an attempt was made to find the task, but not to update it, since it does not exist
-		verify(taskRepositoryMock).findTaskById(nonExistingTaskId);
+		// verifies that an attempt was made to update the task atomically, but nothing else, since it does not exist
+		verify(taskRepositoryMock).computeTaskById(eq(nonExistingTaskId), any());
 		verify(taskRepositoryMock, never()).updateTaskById(eq(nonExistingTaskId), any(TaskModel.class));
 	}
 
@@ -345,10 +450,10 @@ class TaskServiceTest {
 	 */
 	@Test
 	void updateTaskWithEmptyRequestBody() {
-		String taskId = UUID.randomUUID().toString();
+		UUID taskId = UUID.randomUUID();
 
 		// executes the action to test and captures the exception (null request body for the task update)
-		Exception exception = assertThrows(BadRequestException.class, () -> taskService.updateTaskById(taskId, null));
+		Exception exception = assertThrows(BadRequestException.class, () -> taskService.updateTaskById(taskId.toString(), null));
 
 		// verifies that the exception message is as expected
 		assertEquals(ErrorMessage.EMPTY_REQUEST_BODY_NOT_VALID, exception.getMessage());
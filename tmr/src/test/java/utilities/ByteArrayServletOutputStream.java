@@ -0,0 +1,58 @@
+package utilities;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * output stream of a mocked response collecting the written body in memory
+ */
+public class ByteArrayServletOutputStream extends ServletOutputStream {
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    // number of times the stream was flushed
+    private int flushCount;
+
+    @Override
+    public void write(int b) {
+        body.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        body.write(b, off, len);
+    }
+
+    @Override
+    public void flush() {
+        flushCount++;
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+    }
+
+    public byte[] toByteArray() {
+        return body.toByteArray();
+    }
+
+    public int getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * returns the written body decoded as UTF-8
+     */
+    @Override
+    public String toString() {
+        return body.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,47 @@
+package utilities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockServiceCachingTest {
+
+    private final ClockServiceCachingImpl clockService = new ClockServiceCachingImpl();
+
+    /**
+     * tests that the formatted timestamp is the one of the current time of the
+     * system clock
+     */
+    @Test
+    void timestampIsTheCurrentTime() {
+        long millisBefore = System.currentTimeMillis();
+        String timestamp = clockService.getCurrentTimestampString();
+        long millisAfter = System.currentTimeMillis();
+
+        assertTrue(timestamp.equals(CommonUtility.formatTimestamp(millisBefore))
+                || timestamp.equals(CommonUtility.formatTimestamp(millisAfter)),
+                "The timestamp should be formatted from the current time: " + timestamp);
+        assertTrue(clockService.getCurrentTimeMillis() >= millisBefore);
+    }
+
+    /**
+     * tests that the timestamp is formatted once per second, reads within the same
+     * second returning the cached instance
+     */
+    @Test
+    void timestampIsCachedWithinASecond() {
+        // retry if the second changed between the reads
+        String firstTimestamp;
+        String secondTimestamp;
+        long secondBefore;
+        long secondAfter;
+        do {
+            secondBefore = System.currentTimeMillis() / 1000;
+            firstTimestamp = clockService.getCurrentTimestampString();
+            secondTimestamp = clockService.getCurrentTimestampString();
+            secondAfter = System.currentTimeMillis() / 1000;
+        } while (secondBefore != secondAfter);
+
+        assertSame(firstTimestamp, secondTimestamp);
+    }
+}
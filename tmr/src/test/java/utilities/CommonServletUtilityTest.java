@@ -1,8 +1,13 @@
 package utilities;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import constants.ErrorMessage;
+import dtos.generic.GenericResponseDTO;
 import dtos.request.TaskPostRequestDTO;
 import dtos.response.TaskDataResponseDTO;
+import exceptions.BadRequestException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +17,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.*;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,12 +33,12 @@ class CommonServletUtilityTest {
     @Mock
     private HttpServletResponse mockResponse;
 
-    private StringWriter responseWriter;
+    private ByteArrayServletOutputStream responseOutput;
 
     @BeforeEach
     void setUp() throws IOException {
-        responseWriter = new StringWriter();
-        lenient().when(mockResponse.getWriter()).thenReturn(new PrintWriter(responseWriter));
+        responseOutput = new ByteArrayServletOutputStream();
+        lenient().when(mockResponse.getOutputStream()).thenReturn(responseOutput);
     }
 
     /**
@@ -81,7 +89,7 @@ class CommonServletUtilityTest {
         Throwable throwable = new RuntimeException("Error message");
         CommonServletUtility.buildErrorResponse(mockResponse, HttpServletResponse.SC_BAD_REQUEST, throwable);
         verify(mockResponse).setStatus(HttpServletResponse.SC_BAD_REQUEST);
-        assertTrue(responseWriter.toString().contains("Error message"));
+        assertTrue(responseOutput.toString().contains("Error message"));
     }
 
     /**
@@ -100,7 +108,36 @@ class CommonServletUtilityTest {
         // building the success response
         CommonServletUtility.buildSuccessResponse(mockResponse, HttpServletResponse.SC_OK, dto);
         verify(mockResponse).setStatus(HttpServletResponse.SC_OK);
-        assertTrue(responseWriter.toString().contains("New Task"));
+        assertTrue(responseOutput.toString().contains("New Task"));
+    }
+
+    /**
+     * tests streaming success response building
+     */
+    @Test
+    void buildStreamingSuccessResponse() {
+        // DTOs to stream into the response
+        AtomicBoolean isStreamClosed = new AtomicBoolean(false);
+        Stream<TaskDataResponseDTO> dtos = Stream.of(
+                new TaskDataResponseDTO("1", "First Task", "Description 1", false, "01-01-2023"),
+                new TaskDataResponseDTO("2", "Second Task", "Description 2", true, "02-01-2023"))
+                .onClose(() -> isStreamClosed.set(true));
+
+        // building the streaming success response
+        CommonServletUtility.buildStreamingSuccessResponse(mockResponse, HttpServletResponse.SC_OK, dtos);
+        verify(mockResponse).setStatus(HttpServletResponse.SC_OK);
+
+        // the response should have the same format as a non-streaming response
+        GenericResponseDTO<List<TaskDataResponseDTO>> response = new Gson().fromJson(responseOutput.toString(),
+                new TypeToken<GenericResponseDTO<List<TaskDataResponseDTO>>>() {
+                }.getType());
+        assertNotNull(response.getResponseTime());
+        assertEquals(2, response.getResponseData().size());
+        assertEquals("First Task", response.getResponseData().get(0).getTaskTitle());
+        assertTrue(response.getResponseData().get(1).isTaskCompleted());
+
+        // the stream should be closed after it has been consumed
+        assertTrue(isStreamClosed.get());
     }
 
     /**
@@ -109,7 +146,7 @@ class CommonServletUtilityTest {
     @Test
     void buildErrorResponseIOException() throws IOException {
         Throwable error = new RuntimeException("Error occurred");
-        when(mockResponse.getWriter()).thenThrow(IOException.class);
+        when(mockResponse.getOutputStream()).thenThrow(IOException.class);
 
         CommonServletUtility.buildErrorResponse(mockResponse, HttpServletResponse.SC_BAD_REQUEST, error);
 
@@ -196,4 +233,17 @@ class CommonServletUtilityTest {
         assertEquals("test/path", CommonServletUtility.getRequestUrlPathInfo(mockRequest),
                 "Should not alter correct path info");
     }
-}
\ No newline at end of file
+
+    /**
+     * tests that an integer request parameter which is not a number is rejected
+     * with a message naming the parameter
+     */
+    @Test
+    void invalidIntegerRequestParameter() {
+        when(mockRequest.getParameter("offset")).thenReturn("ten");
+
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> CommonServletUtility.getIntegerRequestParameter(mockRequest, "offset", 0));
+        assertEquals(ErrorMessage.INVALID_INTEGER_REQUEST_PARAMETER + "offset=ten", exception.getMessage());
+    }
+}
@@ -2,6 +2,8 @@ package utilities;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.UUID;
+
 import exceptions.BadRequestException;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -144,4 +146,32 @@ class DataValidationUtilityTest {
         String invalidUUID = "invalid-uuid";
         assertFalse(DataValidationUtility.isValidTaskId(invalidUUID), "Should return false for an invalid UUID");
     }
-}
\ No newline at end of file
+
+    /**
+     * tests parsing of valid task IDs in upper and lower case
+     */
+    @Test
+    void parseTaskIdValid() {
+        for (UUID taskId : new UUID[] { UUID.randomUUID(), new UUID(0, 0), new UUID(-1, -1),
+                new UUID(0x0123456789abcdefL, 0xfedcba9876543210L) }) {
+            assertEquals(taskId, DataValidationUtility.parseTaskId(taskId.toString()));
+            assertEquals(taskId, DataValidationUtility.parseTaskId(taskId.toString().toUpperCase()));
+        }
+    }
+
+    /**
+     * tests that task IDs which are not in the canonical form are rejected
+     */
+    @Test
+    void parseTaskIdInvalid() {
+        assertNull(DataValidationUtility.parseTaskId(null));
+        assertNull(DataValidationUtility.parseTaskId(""));
+        assertNull(DataValidationUtility.parseTaskId("invalid-uuid"));
+        assertNull(DataValidationUtility.parseTaskId("1-2-3-4-5"));
+        assertNull(DataValidationUtility.parseTaskId("123e4567-e89b-12d3-a456-42661417400g"));
+        assertNull(DataValidationUtility.parseTaskId("123e4567-e89b-12d3-a456-4266141740000"));
+        assertNull(DataValidationUtility.parseTaskId("123e4567-e89b-12d3-a4560426614174000"));
+        assertNull(DataValidationUtility.parseTaskId("123e4567+e89b-12d3-a456-426614174000"));
+        assertNull(DataValidationUtility.parseTaskId("123e4567-e89b-12d3-a456-42661417400\u0660"));
+    }
+}
@@ -0,0 +1,91 @@
+package utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskIdGeneratorTimeOrderedTest {
+
+    private final TaskIdGeneratorTimeOrderedImpl generator = new TaskIdGeneratorTimeOrderedImpl();
+
+    /**
+     * tests that the ids are UUIDs of version 7 and of the variant of RFC 9562,
+     * starting with the time of their creation
+     */
+    @Test
+    void idsAreVersion7UUIDsStartingWithTheTime() {
+        long millisBefore = System.currentTimeMillis();
+        UUID taskId = generator.generateTaskId();
+        long millisAfter = System.currentTimeMillis();
+
+        assertEquals(7, taskId.version());
+        assertEquals(2, taskId.variant());
+        long idMillis = taskId.getMostSignificantBits() >>> 16;
+        assertTrue(idMillis >= millisBefore && idMillis <= millisAfter + 1,
+                "The id should start with the time of it's creation.");
+        assertTrue(generator.isGeneratingUniqueIds());
+    }
+
+    /**
+     * tests that the ids generated by a thread are strictly increasing, also when
+     * many ids are generated within the same millisecond
+     */
+    @Test
+    void idsOfAThreadAreIncreasing() {
+        UUID previousTaskId = generator.generateTaskId();
+        for (int idNumber = 0; idNumber < 100_000; idNumber++) {
+            UUID taskId = generator.generateTaskId();
+            assertTrue(Long.compareUnsigned(previousTaskId.getMostSignificantBits(), taskId.getMostSignificantBits()) < 0
+                    || previousTaskId.getMostSignificantBits() == taskId.getMostSignificantBits()
+                            && Long.compareUnsigned(previousTaskId.getLeastSignificantBits(),
+                                    taskId.getLeastSignificantBits()) < 0,
+                    "Ids of a thread should be increasing.");
+            previousTaskId = taskId;
+        }
+    }
+
+    /**
+     * tests that ids generated concurrently by several threads are unique
+     */
+    @Test
+    void idsOfThreadsAreUnique() throws InterruptedException {
+        Set<UUID> taskIds = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int threadNumber = 0; threadNumber < 4; threadNumber++) {
+            threads.add(new Thread(() -> {
+                for (int idNumber = 0; idNumber < 25_000; idNumber++) {
+                    taskIds.add(generator.generateTaskId());
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100_000, taskIds.size());
+    }
+
+    /**
+     * tests that ids generated by many short-lived threads are unique, as the ids
+     * do not depend on the number of threads started so far
+     */
+    @Test
+    void idsOfShortLivedThreadsAreUnique() throws InterruptedException {
+        Set<UUID> taskIds = ConcurrentHashMap.newKeySet();
+        for (int threadNumber = 0; threadNumber < 10_000; threadNumber++) {
+            Thread.ofVirtual().start(() -> {
+                taskIds.add(generator.generateTaskId());
+                taskIds.add(generator.generateTaskId());
+            }).join();
+        }
+
+        assertEquals(20_000, taskIds.size());
+    }
+}
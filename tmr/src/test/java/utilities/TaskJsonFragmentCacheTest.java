@@ -0,0 +1,149 @@
+package utilities;
+
+import com.google.gson.Gson;
+import dtos.generic.GenericResponseDTO;
+import dtos.response.TaskDataResponseDTO;
+import dtos.response.TaskPageResponseDTO;
+import jakarta.servlet.http.HttpServletResponse;
+import models.TaskModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TaskJsonFragmentCacheTest {
+
+    // time of the fixed clock
+    private static final long CURRENT_TIME = 1_609_459_200_000L;
+
+    @BeforeEach
+    void setUp() {
+        CommonUtility.setClockService(new ClockServiceFixedImpl(CURRENT_TIME));
+    }
+
+    @AfterEach
+    void tearDown() {
+        CommonUtility.setClockService(new ClockServiceCachingImpl());
+    }
+
+    /**
+     * builds a task with the given id and title
+     */
+    private static TaskModel task(long taskNumber, String taskTitle) {
+        return new TaskModel(new UUID(0, taskNumber), taskTitle, "Description <&>", CURRENT_TIME, CURRENT_TIME,
+                taskNumber % 2 == 0, false);
+    }
+
+    /**
+     * writes a success response of the given data and returns it's body
+     */
+    private static String buildResponse(Object responseData) throws IOException {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ByteArrayServletOutputStream responseOutput = new ByteArrayServletOutputStream();
+        when(response.getOutputStream()).thenReturn(responseOutput);
+        CommonServletUtility.buildSuccessResponse(response, 200, responseData);
+        return responseOutput.toString();
+    }
+
+    /**
+     * tests that the JSON of a task is encoded once and reused until the task is
+     * replaced by an updated instance
+     */
+    @Test
+    void fragmentsAreReusedUntilTheTaskIsUpdated() {
+        TaskJsonFragmentCache metrics = TaskJsonFragmentCache.getInstance();
+        TaskModel task = task(1, "Task 1");
+        long hitCount = metrics.getHitCount();
+        long missCount = metrics.getMissCount();
+        long savedByteCount = metrics.getSavedByteCount();
+
+        TaskDataResponseDTO encodedResponse = CommonServletUtility.buildTaskResponseObject(task);
+        byte[] jsonFragment = encodedResponse.getJsonFragment();
+        assertEquals(new Gson().toJson(encodedResponse), new String(jsonFragment, StandardCharsets.UTF_8));
+        TaskDataResponseDTO cachedResponse = CommonServletUtility.buildTaskResponseObject(task);
+        assertSame(jsonFragment, cachedResponse.getJsonFragment());
+        assertEquals(missCount + 1, metrics.getMissCount());
+        assertEquals(hitCount + 1, metrics.getHitCount());
+        assertEquals(savedByteCount + jsonFragment.length, metrics.getSavedByteCount());
+
+        // the attributes of a response object of the cached JSON are converted when
+        // they are read
+        assertEquals(task.getTaskId().toString(), cachedResponse.getTaskId());
+        assertEquals("Task 1", cachedResponse.getTaskTitle());
+        assertEquals(encodedResponse.getTaskCreatedOn(), cachedResponse.getTaskCreatedOn());
+        assertSame(jsonFragment, cachedResponse.getJsonFragment());
+
+        // the updated task is encoded again
+        TaskModel updatedTask = task.withTaskTitle("Updated");
+        TaskDataResponseDTO updatedResponse = CommonServletUtility.buildTaskResponseObject(updatedTask);
+        assertEquals(missCount + 2, metrics.getMissCount());
+        assertEquals(new Gson().toJson(updatedResponse), new String(updatedResponse.getJsonFragment()));
+
+        // changing a response object drops it's fragment
+        updatedResponse.setTaskTitle("Changed");
+        assertNull(updatedResponse.getJsonFragment());
+        cachedResponse.setTaskCompleted(true);
+        assertNull(cachedResponse.getJsonFragment());
+        assertEquals("Task 1", cachedResponse.getTaskTitle());
+        assertTrue(metrics.getHitRatio() > 0);
+    }
+
+    /**
+     * tests that the JSON of tasks of repositories which do not return their
+     * stored task objects is neither looked up nor cached
+     */
+    @Test
+    void fragmentsAreNotCachedInTasksWhichAreNotStored() {
+        TaskJsonFragmentCache metrics = TaskJsonFragmentCache.getInstance();
+        TaskModel task = task(1, "Task 1");
+        long missCount = metrics.getMissCount();
+
+        TaskDataResponseDTO taskResponse = CommonServletUtility.buildTaskResponseObject(task, false);
+        assertNull(taskResponse.getJsonFragment());
+        assertNull(task.getJsonFragment());
+        assertEquals("Task 1", taskResponse.getTaskTitle());
+        assertEquals(missCount, metrics.getMissCount());
+    }
+
+    /**
+     * tests that the metrics of the cache are exported to the platform MBean
+     * server
+     */
+    @Test
+    void metricsAreExported() throws Exception {
+        MetricsUtility.registerMetrics(TaskJsonFragmentCache.METRICS_NAME, TaskJsonFragmentCache.getInstance());
+        try {
+            CommonServletUtility.buildTaskResponseObject(task(1, "Task 1"));
+            assertEquals(TaskJsonFragmentCache.getInstance().getMissCount(),
+                    ManagementFactory.getPlatformMBeanServer().getAttribute(
+                            MetricsUtility.getMetricsObjectName(TaskJsonFragmentCache.METRICS_NAME), "MissCount"));
+        } finally {
+            MetricsUtility.unregisterMetrics(TaskJsonFragmentCache.METRICS_NAME);
+        }
+    }
+
+    /**
+     * tests that responses with spliced fragments equal the responses serialized
+     * by Gson
+     */
+    @Test
+    void splicedResponsesEqualSerializedResponses() throws IOException {
+        Gson gson = new Gson();
+        TaskDataResponseDTO firstTask = CommonServletUtility.buildTaskResponseObject(task(1, "Task \"1\""));
+        TaskDataResponseDTO secondTask = CommonServletUtility.buildTaskResponseObject(task(2, "Task é 2"));
+
+        for (Object responseData : List.of(firstTask, List.of(firstTask, secondTask), List.of(),
+                new TaskPageResponseDTO(List.of(firstTask, secondTask), secondTask.getTaskId()),
+                new TaskPageResponseDTO(List.of(firstTask), null), new TaskPageResponseDTO(null, "cursor"))) {
+            assertEquals(gson.toJson(new GenericResponseDTO<>(responseData)), buildResponse(responseData));
+        }
+    }
+}
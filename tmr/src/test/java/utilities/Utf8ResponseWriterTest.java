@@ -0,0 +1,116 @@
+package utilities;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class Utf8ResponseWriterTest {
+
+    private HttpServletResponse response;
+    private ByteArrayServletOutputStream responseOutput;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        response = mock(HttpServletResponse.class);
+        responseOutput = new ByteArrayServletOutputStream();
+        when(response.getOutputStream()).thenReturn(responseOutput);
+    }
+
+    /**
+     * tests that a body fitting into the buffer is encoded like String.getBytes
+     * and sent with it's Content-Length
+     */
+    @Test
+    void smallBodyIsSentWithContentLength() throws IOException {
+        // ASCII, two and three byte characters, a surrogate pair split over two writes
+        // and unpaired surrogates
+        String body = "{\"task-title\":\"café € 😀 \uDE00 \uD83D\"}";
+        try (Utf8ResponseWriter writer = new Utf8ResponseWriter(response)) {
+            int splitIndex = body.indexOf('\uD83D') + 1;
+            writer.write(body, 0, splitIndex);
+            writer.write(body.substring(splitIndex).toCharArray());
+        }
+
+        byte[] expectedBytes = body.getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expectedBytes, responseOutput.toByteArray());
+        verify(response).setContentLength(expectedBytes.length);
+    }
+
+    /**
+     * tests that a body larger than the buffer is sent buffer by buffer without a
+     * Content-Length
+     */
+    @Test
+    void largeBodyIsSentInChunks() throws IOException {
+        StringBuilder body = new StringBuilder();
+        while (body.length() < Utf8ResponseWriter.BUFFER_SIZE * 3) {
+            body.append("task é€😀 ");
+        }
+        try (Utf8ResponseWriter writer = new Utf8ResponseWriter(response)) {
+            writer.write(body.toString());
+        }
+
+        assertArrayEquals(body.toString().getBytes(StandardCharsets.UTF_8), responseOutput.toByteArray());
+        verify(response, never()).setContentLength(anyInt());
+    }
+
+    /**
+     * tests that bytes encoded before are spliced between written characters,
+     * also if they are larger than the buffer
+     */
+    @Test
+    void encodedBytesAreSpliced() throws IOException {
+        String largeText = "é".repeat(Utf8ResponseWriter.BUFFER_SIZE);
+        try (Utf8ResponseWriter writer = new Utf8ResponseWriter(response)) {
+            writer.write('[');
+            writer.writeUtf8("\"a\"".getBytes(StandardCharsets.UTF_8));
+            writer.write(',');
+            writer.writeUtf8(largeText.getBytes(StandardCharsets.UTF_8));
+            writer.write(']');
+        }
+
+        assertEquals("[\"a\"," + largeText + "]", responseOutput.toString());
+    }
+
+    /**
+     * tests that a high surrogate followed by encoded bytes instead of it's low
+     * surrogate is replaced by a single '?' like String.getBytes does
+     */
+    @Test
+    void unpairedHighSurrogateBeforeEncodedBytesIsReplaced() throws IOException {
+        try (Utf8ResponseWriter writer = new Utf8ResponseWriter(response)) {
+            writer.write("[\uD83D");
+            writer.writeUtf8("\"a\"]".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals("[?\"a\"]", responseOutput.toString());
+        assertArrayEquals("[\uD83D\"a\"]".getBytes(StandardCharsets.UTF_8), responseOutput.toByteArray());
+    }
+
+    /**
+     * tests that a flushed body is sent without a Content-Length and that the
+     * buffer of a closed writer is returned to the pool
+     */
+    @Test
+    void flushedBodyIsSentInChunksAndBufferIsPooled() throws IOException {
+        Utf8ResponseWriter writer = new Utf8ResponseWriter(response);
+        int pooledBufferCount = Utf8ResponseWriter.getPooledBufferCount();
+        writer.write("[1,");
+        writer.flush();
+        writer.write("2]");
+        writer.close();
+        writer.close();
+
+        assertEquals("[1,2]", responseOutput.toString());
+        assertTrue(responseOutput.getFlushCount() >= 1);
+        verify(response, never()).setContentLength(anyInt());
+        assertEquals(pooledBufferCount + 1, Utf8ResponseWriter.getPooledBufferCount());
+        assertThrows(IOException.class, () -> writer.write("3"));
+    }
+}